@@ -0,0 +1,41 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+/**
+ * Bodies shared by the benchmarks.
+ */
+final class BenchmarkBodies {
+
+    /**
+     * Returns text of the given number of characters, mostly ASCII with a sprinkling of 2 and 3 byte UTF-8 characters,
+     * which are replaced when encoded as ISO-8859-1.
+     */
+    static String text(final int size) {
+        final StringBuilder b = new StringBuilder(size);
+        for (int i = 0; i < size; i++) {
+            b.append(TEXT.charAt(i % TEXT.length()));
+        }
+        return b.toString();
+    }
+
+    private final static String TEXT = "The quick brown fox jumps over the lazy dog \u00e9\u00e8 0123456789 \u20ac\n";
+
+    private BenchmarkBodies() {
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.map.Maps;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures creating {@link HttpHeaders} from a map and looking up headers, with the name in a different case to the
+ * header so the case insensitive comparison is included.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HttpHeadersBenchmark {
+
+    /**
+     * The number of headers besides Content-Length.
+     */
+    @Param({"1", "10", "50"})
+    public int count;
+
+    @Setup
+    public void setup() {
+        final Map<String, List<String>> source = Maps.ordered();
+        for (int i = 0; i < this.count; i++) {
+            source.put("X-Header-" + i, Lists.of("value-" + i));
+        }
+        source.put("Content-Length", Lists.of("1234"));
+
+        this.source = source;
+        this.headers = HttpHeaders.of(source, (n, v) -> true);
+        this.name = "x-header-" + (this.count - 1);
+    }
+
+    private Map<String, List<String>> source;
+
+    private HttpHeaders headers;
+
+    private String name;
+
+    @Benchmark
+    public HttpHeaders of() {
+        return HttpHeaders.of(this.source, (n, v) -> true);
+    }
+
+    @Benchmark
+    public Optional<String> firstValue() {
+        return this.headers.firstValue(this.name);
+    }
+
+    @Benchmark
+    public List<String> allValues() {
+        return this.headers.allValues(this.name);
+    }
+
+    @Benchmark
+    public OptionalLong firstValueAsLong() {
+        return this.headers.firstValueAsLong("content-length");
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures building a {@link HttpRequest}, and copying a populated {@link HttpRequest.Builder} then building.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HttpRequestBuilderBenchmark {
+
+    /**
+     * The number of headers added to each request.
+     */
+    @Param({"0", "5", "20"})
+    public int count;
+
+    @Setup
+    public void setup() {
+        this.builder = this.populate(HttpRequest.newBuilder());
+    }
+
+    private HttpRequest.Builder builder;
+
+    @Benchmark
+    public HttpRequest build() {
+        return this.populate(HttpRequest.newBuilder())
+                .build();
+    }
+
+    @Benchmark
+    public HttpRequest copyBuild() {
+        return this.builder.copy()
+                .build();
+    }
+
+    private HttpRequest.Builder populate(final HttpRequest.Builder builder) {
+        builder.uri(URI)
+                .POST(BODY)
+                .timeout(TIMEOUT);
+
+        final int count = this.count;
+        for (int i = 0; i < count; i++) {
+            builder.header(NAMES[i % NAMES.length], "value-" + i);
+        }
+
+        return builder;
+    }
+
+    private final static URI URI = java.net.URI.create("https://example.com/api/items?page=1");
+
+    private final static HttpRequest.BodyPublisher BODY = HttpRequest.BodyPublishers.ofString("{\"item\": 1}");
+
+    private final static Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private final static String[] NAMES = {"Accept", "Accept-Language", "Authorization", "Content-Type", "X-Request-Id"};
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import walkingkooka.collect.list.Lists;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.concurrent.Flow.Subscription;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link HttpResponse.BodySubscribers#ofString(Charset)} decoding a body, which must arrive as a single part.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HttpResponseBodySubscriberStringBenchmark {
+
+    @Param({"16", "1024", "65536"})
+    public int size;
+
+    @Param({"UTF-8", "ISO-8859-1", "UTF-16"})
+    public String charset;
+
+    @Setup
+    public void setup() {
+        this.charsetInstance = Charset.forName(this.charset);
+        this.bytes = BenchmarkBodies.text(this.size)
+                .getBytes(this.charsetInstance);
+    }
+
+    private Charset charsetInstance;
+
+    private byte[] bytes;
+
+    @Benchmark
+    public String decode() {
+        final HttpResponse.BodySubscriber<String> subscriber = HttpResponse.BodySubscribers.ofString(this.charsetInstance);
+        subscriber.onSubscribe(SUBSCRIPTION);
+        subscriber.onNext(Lists.of(ByteBuffer.wrap(this.bytes)));
+        subscriber.onComplete();
+
+        return subscriber.getBody()
+                .toCompletableFuture()
+                .join();
+    }
+
+    private final static Subscription SUBSCRIPTION = new Subscription() {
+        @Override
+        public void request(final long count) {
+        }
+
+        @Override
+        public void cancel() {
+        }
+    };
+}
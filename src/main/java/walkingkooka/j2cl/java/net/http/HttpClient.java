@@ -17,8 +17,14 @@
 
 package walkingkooka.j2cl.java.net.http;
 
+import java.net.URI;
 import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
 
 /**
@@ -31,17 +37,74 @@ public abstract class HttpClient {
     }
 
     public interface Builder {
+
+        /**
+         * Limits the requests in flight to each origin, adapting the limit to the observed response latency.
+         */
+        Builder adaptiveConcurrency(final HttpClientAdaptiveConcurrency concurrency);
+
+        /**
+         * Response body parts are taken from and returned to the given pool, rather than each being allocated.
+         */
+        Builder bufferPool(final HttpClientBufferPool pool);
+
         HttpClient build();
 
+        /**
+         * Adds a per origin circuit breaker, which fails requests immediately while their origin is failing.
+         */
+        Builder circuitBreaker(final HttpClientCircuitBreaker circuitBreaker);
+
         Builder connectTimeout(final Duration duration);
 
         Builder executor(final Executor executor);
 
         Builder followRedirects(final Redirect policy);
 
+        /**
+         * Receives the timestamps of the milestones of every request, from queued to complete or failed.
+         */
+        Builder lifecycleListener(final HttpClientLifecycleListener listener);
+
+        /**
+         * Limits the bytes of every response body, the exchange is aborted as soon as the Content-Length or the bytes
+         * received exceed the limit. {@link HttpRequest.Builder#maxBodySize(long)} replaces the limit for a single request.
+         */
+        Builder maxBodySize(final long maxBodySize);
+
         // ignored.
         Builder priority(final int priority);
 
+        /**
+         * The minimum time between two reports to a {@link HttpClientProgressListener}, for the client and any
+         * {@link HttpRequest.Builder#progressListener(HttpClientProgressListener)}. The first change is reported
+         * immediately, later changes within the interval are held until the next report, and anything still held is
+         * flushed as a final report when the exchange completes or fails. Defaults to 100 milliseconds,
+         * {@link Duration#ZERO} reports every change and negative intervals are rejected.
+         */
+        Builder progressInterval(final Duration interval);
+
+        /**
+         * Reports the bytes transferred by every request, see {@link HttpRequest.Builder#progressListener(HttpClientProgressListener)}.
+         */
+        Builder progressListener(final HttpClientProgressListener listener);
+
+        /**
+         * Paces requests to each origin, delaying requests until a token is available.
+         */
+        Builder rateLimit(final HttpClientRateLimit limit);
+
+        /**
+         * Paces requests whose URI starts with the given prefix, these share a single token bucket.
+         */
+        Builder rateLimit(final URI prefix,
+                          final HttpClientRateLimit limit);
+
+        /**
+         * Adds a W3C traceparent header to sampled requests and exports a {@link HttpClientSpan} for each.
+         */
+        Builder tracing(final HttpClientTracing tracing);
+
         Builder version(final Version version);
     }
 
@@ -64,21 +127,91 @@ public abstract class HttpClient {
         return newBuilder().build();
     }
 
+    /**
+     * Returns the {@link HttpClientBufferPool} given to {@link Builder#bufferPool(HttpClientBufferPool)}, whose hits
+     * and misses may be monitored.
+     */
+    abstract public Optional<HttpClientBufferPool> bufferPool();
+
+    /**
+     * Returns the current adaptive concurrency limit for each origin, this will be empty unless
+     * {@link Builder#adaptiveConcurrency(HttpClientAdaptiveConcurrency)} was set.
+     */
+    abstract public Map<String, Integer> concurrencyLimits();
+
     abstract public Optional<Duration> connectTimeout();
 
     abstract public Optional<Executor> executor();
 
     abstract public Redirect followRedirects();
 
+    /**
+     * The listener given to {@link Builder#lifecycleListener(HttpClientLifecycleListener)}, if any.
+     */
+    abstract public Optional<HttpClientLifecycleListener> lifecycleListener();
+
+    /**
+     * The limit given to {@link Builder#maxBodySize(long)}, if any.
+     */
+    abstract public OptionalLong maxBodySize();
+
+    /**
+     * Returns a snapshot of the requests, bytes and latency histogram of every origin and status class, sorted by
+     * origin then status class.
+     */
+    abstract public List<HttpClientMetrics> metrics();
+
+    /**
+     * Creates a {@link HttpClientRequestGroup} without a deadline, closing the group aborts all its outstanding requests.
+     */
+    public final HttpClientRequestGroup newRequestGroup() {
+        return HttpClientRequestGroup.with(this, Optional.empty(), TIMER, System::currentTimeMillis);
+    }
+
+    /**
+     * Creates a {@link HttpClientRequestGroup} whose requests must complete within the given deadline, outstanding
+     * requests fail with a {@link HttpTimeoutException} when it passes.
+     */
+    public final HttpClientRequestGroup newRequestGroup(final Duration deadline) {
+        Objects.requireNonNull(deadline, "deadline");
+
+        return HttpClientRequestGroup.with(this, Optional.of(deadline), TIMER, System::currentTimeMillis);
+    }
+
+    private final static HttpClientTimer TIMER = HttpClientTimer.setTimeout();
+
+    /**
+     * The minimum time between two progress reports for an exchange, given to
+     * {@link Builder#progressInterval(Duration)} or 100 milliseconds by default. Progress held back by the interval is
+     * flushed as a final report when the exchange ends.
+     */
+    abstract public Duration progressInterval();
+
+    /**
+     * The {@link HttpClientProgressListener} given to {@link Builder#progressListener(HttpClientProgressListener)},
+     * which receives reports for every request without its own listener, at most once per
+     * {@link #progressInterval()} plus a final report when each exchange ends.
+     */
+    abstract public Optional<HttpClientProgressListener> progressListener();
+
     abstract public <T> HttpResponse<T> send(final HttpRequest request,
                                              final HttpResponse.BodyHandler<T> responseBodyHandler);
 
-//    abstract public <T> CompletableFuture<HttpResponse<T>> sendAsync(final HttpRequest request,
-//                                                                     final HttpResponse.BodyHandler<T> responseBodyHandler);
-//
+    /**
+     * Sends the request returning a {@link CompletableFuture} which completes when the body is available. Cancelling
+     * the {@link CompletableFuture} aborts the exchange.
+     */
+    abstract public <T> CompletableFuture<HttpResponse<T>> sendAsync(final HttpRequest request,
+                                                                     final HttpResponse.BodyHandler<T> responseBodyHandler);
+
 //    abstract public <T> CompletableFuture<HttpResponse<T>> sendAsync(final HttpRequest request,
 //                                                                     final HttpResponse.BodyHandler<T> responseBodyHandler,
 //                                                                     final HttpResponse.PushPromiseHandler<T> pushPromiseHandler); // TODO eliminate ???
 
+    /**
+     * The {@link HttpClientTracing} given to {@link Builder#tracing(HttpClientTracing)}, if any.
+     */
+    abstract public Optional<HttpClientTracing> tracing();
+
     abstract public Version version();
 }
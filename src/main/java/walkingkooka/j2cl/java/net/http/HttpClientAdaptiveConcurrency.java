@@ -0,0 +1,110 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * The settings for an adaptive per origin concurrency limit, which may be given to
+ * {@link HttpClient.Builder#adaptiveConcurrency(HttpClientAdaptiveConcurrency)}. Each origin starts with
+ * {@link #initialLimit} requests in flight, further requests are queued. The limit uses AIMD, growing by roughly one after a
+ * limit's worth of responses arrive within {@link #latencyThreshold}, and shrinking by {@link #backoffRatio} when a
+ * response is slower or a sent exchange fails, at most once per {@link #latencyThreshold}, always staying between
+ * {@link #minLimit} and {@link #maxLimit}. Exchanges failed without being sent, eg by an open circuit breaker, are ignored.
+ */
+public final class HttpClientAdaptiveConcurrency {
+
+    public static HttpClientAdaptiveConcurrency with(final int initialLimit,
+                                                     final int minLimit,
+                                                     final int maxLimit,
+                                                     final Duration latencyThreshold,
+                                                     final double backoffRatio) {
+        if (minLimit <= 0) {
+            throw new IllegalArgumentException("Invalid minLimit " + minLimit + " must be greater than 0");
+        }
+        if (maxLimit < minLimit) {
+            throw new IllegalArgumentException("Invalid maxLimit " + maxLimit + " must be greater than or equal to minLimit " + minLimit);
+        }
+        if (initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Invalid initialLimit " + initialLimit + " must be between " + minLimit + " and " + maxLimit);
+        }
+        Objects.requireNonNull(latencyThreshold, "latencyThreshold");
+        if (latencyThreshold.isNegative() || latencyThreshold.isZero()) {
+            throw new IllegalArgumentException("Invalid latencyThreshold " + latencyThreshold + " must be greater than 0");
+        }
+        if (false == (backoffRatio > 0 && backoffRatio < 1)) {
+            throw new IllegalArgumentException("Invalid backoffRatio " + backoffRatio + " must be between 0 and 1");
+        }
+
+        return new HttpClientAdaptiveConcurrency(initialLimit,
+                minLimit,
+                maxLimit,
+                latencyThreshold,
+                backoffRatio);
+    }
+
+    private HttpClientAdaptiveConcurrency(final int initialLimit,
+                                          final int minLimit,
+                                          final int maxLimit,
+                                          final Duration latencyThreshold,
+                                          final double backoffRatio) {
+        super();
+        this.initialLimit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyThreshold = latencyThreshold;
+        this.backoffRatio = backoffRatio;
+    }
+
+    /**
+     * The limit for an origin before any responses have been observed.
+     */
+    final int initialLimit;
+
+    /**
+     * The limit never shrinks below this.
+     */
+    final int minLimit;
+
+    /**
+     * The limit never grows above this.
+     */
+    final int maxLimit;
+
+    /**
+     * Responses whose headers take longer than this shrink the limit.
+     */
+    final Duration latencyThreshold;
+
+    /**
+     * The limit is multiplied by this when shrinking.
+     */
+    final double backoffRatio;
+
+    // Object...........................................................................................................
+
+    @Override
+    public String toString() {
+        return "initialLimit: " + this.initialLimit +
+                ", minLimit: " + this.minLimit +
+                ", maxLimit: " + this.maxLimit +
+                ", latencyThreshold: " + this.latencyThreshold +
+                ", backoffRatio: " + this.backoffRatio;
+    }
+}
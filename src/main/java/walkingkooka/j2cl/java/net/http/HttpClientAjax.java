@@ -17,32 +17,87 @@
 
 package walkingkooka.j2cl.java.net.http;
 
+import walkingkooka.collect.map.Maps;
 import walkingkooka.j2cl.java.net.http.HttpResponse.BodyHandler;
 
 import java.time.Duration;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
+import java.util.function.LongSupplier;
 
 final class HttpClientAjax extends HttpClient {
 
     static HttpClientAjax with(final Duration connectTimeout,
                                final Executor executor,
                                final HttpClient.Redirect followRedirects,
-                               final HttpClient.Version version) {
-        return new HttpClientAjax(connectTimeout, executor, followRedirects, version);
+                               final HttpClient.Version version,
+                               final HttpClientTransport transport,
+                               final Optional<HttpClientTransportAdaptiveConcurrency> adaptiveConcurrency,
+                               final Optional<HttpClientBufferPool> bufferPool,
+                               final Optional<HttpClientLifecycleListener> lifecycleListener,
+                               final OptionalLong maxBodySize,
+                               final Optional<HttpClientProgressListener> progressListener,
+                               final Duration progressInterval,
+                               final Optional<HttpClientTracing> tracing,
+                               final LongSupplier now) {
+        Objects.requireNonNull(transport, "transport");
+        Objects.requireNonNull(adaptiveConcurrency, "adaptiveConcurrency");
+        Objects.requireNonNull(bufferPool, "bufferPool");
+        Objects.requireNonNull(lifecycleListener, "lifecycleListener");
+        Objects.requireNonNull(maxBodySize, "maxBodySize");
+        Objects.requireNonNull(progressListener, "progressListener");
+        Objects.requireNonNull(progressInterval, "progressInterval");
+        Objects.requireNonNull(tracing, "tracing");
+        Objects.requireNonNull(now, "now");
+
+        return new HttpClientAjax(connectTimeout,
+                executor,
+                followRedirects,
+                version,
+                transport,
+                adaptiveConcurrency,
+                bufferPool,
+                lifecycleListener,
+                maxBodySize,
+                progressListener,
+                progressInterval,
+                tracing,
+                now);
     }
 
     private HttpClientAjax(final Duration connectTimeout,
                            final Executor executor,
                            final HttpClient.Redirect followRedirects,
-                           final HttpClient.Version version) {
+                           final HttpClient.Version version,
+                           final HttpClientTransport transport,
+                           final Optional<HttpClientTransportAdaptiveConcurrency> adaptiveConcurrency,
+                           final Optional<HttpClientBufferPool> bufferPool,
+                           final Optional<HttpClientLifecycleListener> lifecycleListener,
+                           final OptionalLong maxBodySize,
+                           final Optional<HttpClientProgressListener> progressListener,
+                           final Duration progressInterval,
+                           final Optional<HttpClientTracing> tracing,
+                           final LongSupplier now) {
         super();
 
         this.connectTimeout = Optional.ofNullable(connectTimeout);
         this.executor = Optional.ofNullable(executor);
         this.followRedirects = followRedirects;
         this.version = version;
+        this.transport = transport;
+        this.adaptiveConcurrency = adaptiveConcurrency;
+        this.bufferPool = bufferPool;
+        this.lifecycleListener = lifecycleListener;
+        this.maxBodySize = maxBodySize;
+        this.progressListener = progressListener;
+        this.progressInterval = progressInterval;
+        this.tracing = tracing;
+        this.now = now;
     }
 
     @Override
@@ -54,11 +109,74 @@ final class HttpClientAjax extends HttpClient {
         throw new UnsupportedOperationException(); // TODO Elemental
     }
 
-//    @Override
-//    public <T> CompletableFuture<HttpResponse<T>> sendAsync(final HttpRequest request,
-//                                                            final BodyHandler<T> responseBodyHandler) {
-//        throw new UnsupportedOperationException(); // TODO Elemental
-//    }
+    @Override
+    public <T> CompletableFuture<HttpResponse<T>> sendAsync(final HttpRequest request,
+                                                            final BodyHandler<T> handler) {
+        Objects.requireNonNull(request, "request");
+        Objects.requireNonNull(handler, "handler");
+
+        final Optional<HttpClientTracingSpan> span = this.tracing.isPresent() ?
+                this.tracing.get().start(request, this.now) :
+                Optional.empty();
+        final HttpRequest sent = span.isPresent() ?
+                span.get().request :
+                request;
+
+        final HttpClientAjaxExchangeLifecycle lifecycle = HttpClientAjaxExchangeLifecycle.with(sent,
+                this.lifecycleListener,
+                this.metrics,
+                span,
+                this.now);
+        lifecycle.queued();
+
+        final HttpClientAjaxExchange<T> exchange = HttpClientAjaxExchange.with(sent,
+                handler,
+                this.bufferPool,
+                request.maxBodySize().isPresent() ? request.maxBodySize() : this.maxBodySize,
+                this.progress(sent),
+                Optional.of(lifecycle));
+        try {
+            this.transport.send(sent, exchange);
+        } catch (final RuntimeException cause) {
+            exchange.onError(cause);
+        }
+        return exchange.future;
+    }
+
+    /**
+     * The listener of the request replaces that of the client.
+     */
+    private Optional<HttpClientAjaxExchangeProgress> progress(final HttpRequest request) {
+        Optional<HttpClientProgressListener> listener = request.progressListener();
+        if (false == listener.isPresent()) {
+            listener = this.progressListener;
+        }
+
+        return listener.map((l) -> HttpClientAjaxExchangeProgress.with(request, l, this.progressInterval.toMillis(), this.now));
+    }
+
+    /**
+     * The transport that performs all exchanges.
+     */
+    final HttpClientTransport transport;
+
+    @Override
+    public Optional<HttpClientBufferPool> bufferPool() {
+        return this.bufferPool;
+    }
+
+    private final Optional<HttpClientBufferPool> bufferPool;
+
+    @Override
+    public Map<String, Integer> concurrencyLimits() {
+        return this.adaptiveConcurrency.map(HttpClientTransportAdaptiveConcurrency::limits)
+                .orElse(Maps.empty());
+    }
+
+    /**
+     * The adaptive concurrency limiter somewhere within {@link #transport}, kept for monitoring.
+     */
+    final Optional<HttpClientTransportAdaptiveConcurrency> adaptiveConcurrency;
 
     @Override
     public Optional<Duration> connectTimeout() {
@@ -81,6 +199,50 @@ final class HttpClientAjax extends HttpClient {
 
     final HttpClient.Redirect followRedirects;
 
+    @Override
+    public Optional<HttpClientLifecycleListener> lifecycleListener() {
+        return this.lifecycleListener;
+    }
+
+    private final Optional<HttpClientLifecycleListener> lifecycleListener;
+
+    @Override
+    public List<HttpClientMetrics> metrics() {
+        return this.metrics.snapshot();
+    }
+
+    private final HttpClientMetricsCollector metrics = HttpClientMetricsCollector.empty();
+
+    @Override
+    public OptionalLong maxBodySize() {
+        return this.maxBodySize;
+    }
+
+    private final OptionalLong maxBodySize;
+
+    @Override
+    public Duration progressInterval() {
+        return this.progressInterval;
+    }
+
+    private final Duration progressInterval;
+
+    @Override
+    public Optional<HttpClientProgressListener> progressListener() {
+        return this.progressListener;
+    }
+
+    private final Optional<HttpClientProgressListener> progressListener;
+
+    private final LongSupplier now;
+
+    @Override
+    public Optional<HttpClientTracing> tracing() {
+        return this.tracing;
+    }
+
+    private final Optional<HttpClientTracing> tracing;
+
     @Override
     public Version version() {
         return this.version;
@@ -0,0 +1,347 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import walkingkooka.j2cl.java.net.http.HttpResponse.BodyHandler;
+import walkingkooka.j2cl.java.net.http.HttpResponse.BodySubscriber;
+import walkingkooka.j2cl.java.net.http.HttpResponse.ResponseInfo;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow.Subscription;
+import java.util.function.Supplier;
+
+/**
+ * A single exchange started by {@link HttpClientAjax#sendAsync(HttpRequest, BodyHandler)}, receiving the events from
+ * the {@link HttpClientTransport} and forwarding the body to the {@link BodySubscriber} returned by the {@link BodyHandler}.
+ * Cancelling the {@link #future} or the {@link Subscription} given to the {@link BodySubscriber} aborts the exchange.
+ * A response body larger than the maximum body size also aborts the exchange, failing with an {@link IOException}, this
+ * is checked against the Content-Length before the {@link BodyHandler} is called and against the bytes received as each
+ * body part arrives, so nothing beyond the limit is given to the {@link BodySubscriber}.
+ */
+final class HttpClientAjaxExchange<T> implements HttpClientTransportListener, Subscription {
+
+    static <T> HttpClientAjaxExchange<T> with(final HttpRequest request,
+                                              final BodyHandler<T> handler,
+                                              final Optional<HttpClientBufferPool> bufferPool,
+                                              final OptionalLong maxBodySize,
+                                              final Optional<HttpClientAjaxExchangeProgress> progress,
+                                              final Optional<HttpClientAjaxExchangeLifecycle> lifecycle) {
+        Objects.requireNonNull(request, "request");
+        Objects.requireNonNull(handler, "handler");
+        Objects.requireNonNull(bufferPool, "bufferPool");
+        Objects.requireNonNull(maxBodySize, "maxBodySize");
+        Objects.requireNonNull(progress, "progress");
+        Objects.requireNonNull(lifecycle, "lifecycle");
+
+        return new HttpClientAjaxExchange<>(request, handler, bufferPool, maxBodySize, progress, lifecycle);
+    }
+
+    private HttpClientAjaxExchange(final HttpRequest request,
+                                   final BodyHandler<T> handler,
+                                   final Optional<HttpClientBufferPool> bufferPool,
+                                   final OptionalLong maxBodySize,
+                                   final Optional<HttpClientAjaxExchangeProgress> progress,
+                                   final Optional<HttpClientAjaxExchangeLifecycle> lifecycle) {
+        super();
+        this.request = request;
+        this.handler = handler;
+        this.bufferPool = bufferPool;
+        this.maxBodySize = maxBodySize.isPresent() ?
+                maxBodySize.getAsLong() :
+                Long.MAX_VALUE;
+        this.progress = progress;
+        this.lifecycle = lifecycle;
+
+        this.future.whenComplete(this::onFutureComplete);
+    }
+
+    /**
+     * The {@link CompletableFuture} returned to the caller of {@link HttpClient#sendAsync(HttpRequest, BodyHandler)}.
+     */
+    final CompletableFuture<HttpResponse<T>> future = new CompletableFuture<>();
+
+    /**
+     * Cancelling or failing the {@link #future} aborts the transport if it is still active. A successful
+     * {@link #future} may complete before the body, for streaming {@link BodySubscriber}, so the exchange continues.
+     */
+    private void onFutureComplete(final HttpResponse<T> response,
+                                  final Throwable cause) {
+        if (null != cause) {
+            this.lifecycle.ifPresent((l) -> l.onFailed(cause));
+            this.abort();
+        }
+    }
+
+    // HttpClientTransportListener......................................................................................
+
+    @Override
+    public void onSubscribe(final Subscription subscription) {
+        Objects.requireNonNull(subscription, "subscription");
+
+        this.subscription = subscription;
+        if (false == HttpClientTransport.isFailed(subscription)) {
+            this.lifecycle.ifPresent(HttpClientAjaxExchangeLifecycle::onSubscribe);
+        }
+        if (this.future.isDone()) {
+            subscription.cancel();
+        }
+    }
+
+    /**
+     * The transport {@link Subscription}, cancelling aborts the exchange.
+     */
+    private Subscription subscription;
+
+    @Override
+    public void onQueued() {
+        this.lifecycle.ifPresent(HttpClientAjaxExchangeLifecycle::onQueued);
+    }
+
+    @Override
+    public void onDispatched() {
+        this.lifecycle.ifPresent(HttpClientAjaxExchangeLifecycle::onDispatched);
+    }
+
+    /**
+     * Reports the milestones of the exchange to a {@link HttpClientLifecycleListener}, if one was registered.
+     */
+    private final Optional<HttpClientAjaxExchangeLifecycle> lifecycle;
+
+    @Override
+    public void onResponse(final ResponseInfo info) {
+        Objects.requireNonNull(info, "info");
+
+        if (false == this.future.isDone()) {
+            this.lifecycle.ifPresent((l) -> l.onResponse(info));
+
+            final OptionalLong contentLength = HttpResponseBodyHandler.contentLength(info);
+            this.progress.ifPresent((p) -> p.receiveTotal(contentLength.orElse(-1)));
+
+            if (contentLength.isPresent() && contentLength.getAsLong() > this.maxBodySize) {
+                this.tooLarge("Content-Length " + contentLength.getAsLong());
+            } else {
+                this.onResponse0(info);
+            }
+        }
+    }
+
+    private void onResponse0(final ResponseInfo info) {
+        try {
+            final BodySubscriber<T> bodySubscriber = this.handler.apply(info);
+            this.bodySubscriber = bodySubscriber;
+
+            HttpResponseBodySubscriberMapping.lazyBody(bodySubscriber)
+                    .whenComplete((body, cause) -> this.onBody(info, body, cause));
+            bodySubscriber.onSubscribe(this);
+        } catch (final RuntimeException cause) {
+            this.future.completeExceptionally(cause);
+        }
+    }
+
+    private void onBody(final ResponseInfo info,
+                        final Supplier<T> body,
+                        final Throwable cause) {
+        if (null != cause) {
+            this.future.completeExceptionally(cause);
+        } else {
+            this.future.complete(HttpResponseAjax.lazy(this.request, info, body));
+        }
+    }
+
+    @Override
+    public void onSendProgress(final long sent) {
+        this.progress.ifPresent((p) -> p.sent(sent));
+        this.lifecycle.ifPresent((l) -> l.onSendProgress(sent));
+    }
+
+    @Override
+    public void onReceiveProgress(final long received) {
+        this.progress.ifPresent((p) -> p.received(received));
+        this.lifecycle.ifPresent((l) -> l.onReceived(received));
+    }
+
+    /**
+     * Reports the bytes transferred to a {@link HttpClientProgressListener}, if one was registered.
+     */
+    private final Optional<HttpClientAjaxExchangeProgress> progress;
+
+    @Override
+    public Optional<HttpClientBufferPool> bufferPool() {
+        return this.bufferPool;
+    }
+
+    private final Optional<HttpClientBufferPool> bufferPool;
+
+    /**
+     * Once a {@link BodySubscriber} that copies or decodes each part returns, the buffers are returned to the
+     * {@link HttpClientBufferPool}. Buffers given to other {@link BodySubscriber} are left to the garbage collector, as
+     * they may still be referenced.
+     */
+    @Override
+    public void onNext(final List<ByteBuffer> body) {
+        long received = this.received;
+        for (final ByteBuffer buffer : body) {
+            received += buffer.remaining();
+        }
+        this.received = received;
+        this.onReceiveProgress(received);
+
+        BodySubscriber<T> bodySubscriber = this.bodySubscriber;
+        if (null != bodySubscriber && received > this.maxBodySize) {
+            this.tooLarge("Body " + received);
+            bodySubscriber = null;
+        }
+        if (null != bodySubscriber) {
+            bodySubscriber.onNext(body);
+        }
+
+        if (null == bodySubscriber || HttpResponseBodySubscriberConsuming.isConsuming(bodySubscriber)) {
+            this.bufferPool.ifPresent((p) -> body.forEach(p::release));
+        }
+    }
+
+    @Override
+    public void onError(final Throwable cause) {
+        this.progress.ifPresent(HttpClientAjaxExchangeProgress::flush);
+        this.lifecycle.ifPresent((l) -> l.onFailed(cause));
+
+        final BodySubscriber<T> bodySubscriber = this.bodySubscriber;
+        this.release();
+
+        if (null != bodySubscriber) {
+            bodySubscriber.onError(cause);
+        } else {
+            this.future.completeExceptionally(cause);
+        }
+    }
+
+    @Override
+    public void onComplete() {
+        this.progress.ifPresent(HttpClientAjaxExchangeProgress::flush);
+        this.lifecycle.ifPresent(HttpClientAjaxExchangeLifecycle::onComplete);
+
+        final BodySubscriber<T> bodySubscriber = this.bodySubscriber;
+        this.release();
+
+        if (null != bodySubscriber) {
+            bodySubscriber.onComplete();
+        } else {
+            this.future.completeExceptionally(new IllegalStateException("Exchange completed without response"));
+        }
+    }
+
+    /**
+     * The bytes of body received so far.
+     */
+    private long received;
+
+    /**
+     * The largest body accepted, {@link Long#MAX_VALUE} when unlimited.
+     */
+    private final long maxBodySize;
+
+    private final HttpRequest request;
+
+    private final BodyHandler<T> handler;
+
+    /**
+     * The {@link BodySubscriber} created by the {@link BodyHandler} when the response headers arrive.
+     */
+    private BodySubscriber<T> bodySubscriber;
+
+    // Subscription.....................................................................................................
+
+    /**
+     * Body demand from the {@link BodySubscriber} is passed directly to the transport.
+     */
+    @Override
+    public void request(final long count) {
+        final Subscription subscription = this.subscription;
+        if (null != subscription) {
+            subscription.request(count);
+        }
+    }
+
+    /**
+     * The {@link BodySubscriber} cancelling aborts the entire exchange, even when a streaming body has already
+     * completed the {@link #future}.
+     */
+    @Override
+    public void cancel() {
+        this.bodySubscriber = null;
+        if (false == this.future.cancel(false)) {
+            this.abort();
+        }
+    }
+
+    // abort............................................................................................................
+
+    /**
+     * Aborts the transport and fails any {@link BodySubscriber} still waiting for the body.
+     */
+    private void abort() {
+        final Subscription subscription = this.subscription;
+        if (null != subscription) {
+            subscription.cancel();
+        }
+
+        final CancellationException cause = new CancellationException("Exchange aborted");
+        this.lifecycle.ifPresent((l) -> l.onFailed(cause));
+
+        final BodySubscriber<T> bodySubscriber = this.bodySubscriber;
+        this.release();
+
+        if (null != bodySubscriber) {
+            bodySubscriber.onError(cause);
+        }
+    }
+
+    /**
+     * Aborts the transport and fails the {@link BodySubscriber}, or the {@link #future} if the body has not started.
+     */
+    private void tooLarge(final String size) {
+        final Subscription subscription = this.subscription;
+        if (null != subscription) {
+            subscription.cancel();
+        }
+
+        this.onError(new IOException(size + " exceeds maxBodySize " + this.maxBodySize));
+    }
+
+    /**
+     * Drops references to the transport and {@link BodySubscriber} so any buffered body may be garbage collected.
+     */
+    private void release() {
+        this.subscription = null;
+        this.bodySubscriber = null;
+    }
+
+    // Object...........................................................................................................
+
+    @Override
+    public String toString() {
+        return this.request + " " + this.future;
+    }
+}
@@ -0,0 +1,256 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import walkingkooka.j2cl.java.net.http.HttpResponse.ResponseInfo;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.LongSupplier;
+
+/**
+ * Tracks the milestones of a single {@link HttpClientAjaxExchange}, reporting each once to any
+ * {@link HttpClientLifecycleListener}, and the bytes and latency of the ended exchange to the
+ * {@link HttpClientMetricsCollector} and any sampled {@link HttpClientTracingSpan}. Queues within the transport report {@link HttpClientTransportListener#onQueued()}
+ * and {@link HttpClientTransportListener#onDispatched()} in pairs, the request is dispatched once every queue it
+ * entered has released it, or immediately when the transport subscribes without queuing.
+ */
+final class HttpClientAjaxExchangeLifecycle {
+
+    static HttpClientAjaxExchangeLifecycle with(final HttpRequest request,
+                                               final Optional<HttpClientLifecycleListener> listener,
+                                               final HttpClientMetricsCollector metrics,
+                                               final Optional<HttpClientTracingSpan> span,
+                                               final LongSupplier now) {
+        Objects.requireNonNull(request, "request");
+        Objects.requireNonNull(listener, "listener");
+        Objects.requireNonNull(metrics, "metrics");
+        Objects.requireNonNull(span, "span");
+        Objects.requireNonNull(now, "now");
+
+        return new HttpClientAjaxExchangeLifecycle(request, listener, metrics, span, now);
+    }
+
+    private HttpClientAjaxExchangeLifecycle(final HttpRequest request,
+                                            final Optional<HttpClientLifecycleListener> listener,
+                                            final HttpClientMetricsCollector metrics,
+                                            final Optional<HttpClientTracingSpan> span,
+                                            final LongSupplier now) {
+        super();
+        this.request = request;
+        this.listener = listener;
+        this.metrics = metrics;
+        this.span = span;
+        this.now = now;
+
+        this.sendTotal = request.bodyPublisher()
+                .map(HttpRequest.BodyPublisher::contentLength)
+                .orElse(0L);
+    }
+
+    void queued() {
+        final long now = this.now();
+        this.queuedAt = now;
+        this.listener.ifPresent((l) -> l.onQueued(this.request, now));
+    }
+
+    /**
+     * The time {@link #queued()} was called, latency is measured from this.
+     */
+    private long queuedAt;
+
+    /**
+     * A queue within the transport is holding the request.
+     */
+    void onQueued() {
+        this.queues++;
+    }
+
+    /**
+     * The transport subscribed, which is the dispatch unless a queue is still holding the request.
+     */
+    void onSubscribe() {
+        if (0 == this.queues) {
+            this.dispatched();
+        }
+    }
+
+    /**
+     * A queue within the transport released the request.
+     */
+    void onDispatched() {
+        if (this.queues > 0) {
+            this.queues--;
+            if (0 == this.queues) {
+                this.dispatched();
+            }
+        }
+    }
+
+    /**
+     * The number of queues still holding the request.
+     */
+    private int queues;
+
+    private void dispatched() {
+        if (false == this.dispatched) {
+            this.dispatched = true;
+            final long now = this.now();
+            this.listener.ifPresent((l) -> l.onDispatched(this.request, now));
+
+            if (0 == this.sendTotal) {
+                this.requestBodySent();
+            }
+        }
+    }
+
+    private boolean dispatched;
+
+    void onSendProgress(final long sent) {
+        this.sent = Math.max(this.sent, sent);
+
+        if (this.sendTotal > 0 && sent >= this.sendTotal) {
+            this.requestBodySent();
+        }
+    }
+
+    /**
+     * The content length of the request body, 0 when there is no body and -1 when unknown.
+     */
+    private final long sendTotal;
+
+    /**
+     * The bytes of request body sent so far.
+     */
+    private long sent;
+
+    private void requestBodySent() {
+        if (false == this.requestBodySent) {
+            this.requestBodySent = true;
+            this.sent = Math.max(this.sent, this.sendTotal);
+
+            final long now = this.now();
+            this.listener.ifPresent((l) -> l.onRequestBodySent(this.request, now));
+        }
+    }
+
+    private boolean requestBodySent;
+
+    /**
+     * A response implies the request was dispatched and its body sent, even if the transport did not report either.
+     */
+    void onResponse(final ResponseInfo info) {
+        if (null == this.info) {
+            this.dispatched();
+            this.requestBodySent();
+
+            this.info = info;
+
+            final long now = this.now();
+            this.listener.ifPresent((l) -> l.onHeadersReceived(this.request, info, now));
+        }
+    }
+
+    private ResponseInfo info;
+
+    void onReceived(final long received) {
+        final ResponseInfo info = this.info;
+        if (received > 0 && null != info) {
+            this.received = Math.max(this.received, received);
+
+            if (false == this.firstBodyByte) {
+                this.firstBodyByte = true;
+
+                final long now = this.now();
+                this.listener.ifPresent((l) -> l.onFirstBodyByte(this.request, info, now));
+            }
+        }
+    }
+
+    private boolean firstBodyByte;
+
+    /**
+     * The bytes of response body received so far.
+     */
+    private long received;
+
+    void onComplete() {
+        final ResponseInfo info = this.info;
+        if (null == info) {
+            this.onFailed(new IllegalStateException("Exchange completed without response"));
+        } else {
+            if (false == this.done) {
+                this.done = true;
+
+                final long now = this.now();
+                this.record(Optional.empty(), now);
+                this.listener.ifPresent((l) -> l.onComplete(this.request, info, now));
+            }
+        }
+    }
+
+    void onFailed(final Throwable cause) {
+        if (false == this.done) {
+            this.done = true;
+
+            final long now = this.now();
+            this.record(Optional.of(cause), now);
+            this.listener.ifPresent((l) -> l.onFailed(this.request, Optional.ofNullable(this.info), cause, now));
+        }
+    }
+
+    private void record(final Optional<Throwable> failure,
+                        final long now) {
+        final Optional<ResponseInfo> info = Optional.ofNullable(this.info);
+
+        this.metrics.record(this.request,
+                info,
+                failure.isPresent(),
+                this.sent,
+                this.received,
+                now - this.queuedAt);
+        this.span.ifPresent((s) -> s.end(info, failure, now));
+    }
+
+    /**
+     * True once {@link HttpClientLifecycleListener#onComplete(HttpRequest, ResponseInfo, long)} or
+     * {@link HttpClientLifecycleListener#onFailed(HttpRequest, Optional, Throwable, long)} was reported.
+     */
+    private boolean done;
+
+    private long now() {
+        return this.now.getAsLong();
+    }
+
+    private final HttpRequest request;
+
+    private final Optional<HttpClientLifecycleListener> listener;
+
+    private final HttpClientMetricsCollector metrics;
+
+    private final Optional<HttpClientTracingSpan> span;
+
+    private final LongSupplier now;
+
+    // Object...........................................................................................................
+
+    @Override
+    public String toString() {
+        return this.request + " " + this.listener;
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Tracks the bytes transferred by a single {@link HttpClientAjaxExchange}, reporting to a {@link HttpClientProgressListener}
+ * at most once per interval. Progress that arrives within the interval is held until the next report, {@link #flush()}
+ * reports anything pending when the exchange ends.
+ */
+final class HttpClientAjaxExchangeProgress {
+
+    static HttpClientAjaxExchangeProgress with(final HttpRequest request,
+                                              final HttpClientProgressListener listener,
+                                              final long interval,
+                                              final LongSupplier now) {
+        return new HttpClientAjaxExchangeProgress(request, listener, interval, now);
+    }
+
+    private HttpClientAjaxExchangeProgress(final HttpRequest request,
+                                           final HttpClientProgressListener listener,
+                                           final long interval,
+                                           final LongSupplier now) {
+        super();
+        this.request = request;
+        this.listener = listener;
+        this.interval = interval;
+        this.now = now;
+
+        this.sendTotal = request.bodyPublisher()
+                .map(HttpRequest.BodyPublisher::contentLength)
+                .orElse(0L);
+    }
+
+    /**
+     * Transports may report progress more than once for the same bytes, so only increases are recorded.
+     */
+    void sent(final long sent) {
+        if (sent > this.sent) {
+            this.sent = sent;
+            this.changed();
+        }
+    }
+
+    private long sent;
+
+    private final long sendTotal;
+
+    void receiveTotal(final long receiveTotal) {
+        this.receiveTotal = receiveTotal;
+        this.changed();
+    }
+
+    private long receiveTotal = -1;
+
+    void received(final long received) {
+        if (received > this.received) {
+            this.received = received;
+            this.changed();
+        }
+    }
+
+    private long received;
+
+    private void changed() {
+        this.pending = true;
+
+        final long now = this.now.getAsLong();
+        if (false == this.reported || now - this.lastReport >= this.interval) {
+            this.report(now);
+        }
+    }
+
+    /**
+     * Reports any progress held back by the interval.
+     */
+    void flush() {
+        if (this.pending) {
+            this.report(this.now.getAsLong());
+        }
+    }
+
+    private void report(final long now) {
+        this.pending = false;
+        this.reported = true;
+        this.lastReport = now;
+
+        this.listener.onProgress(
+                HttpClientProgress.with(this.request, this.sent, this.sendTotal, this.received, this.receiveTotal)
+        );
+    }
+
+    /**
+     * True when progress has changed since the last report.
+     */
+    private boolean pending;
+
+    /**
+     * False until the first report, which is never held back.
+     */
+    private boolean reported;
+
+    private long lastReport;
+
+    private final HttpRequest request;
+
+    private final HttpClientProgressListener listener;
+
+    /**
+     * The minimum milliseconds between reports.
+     */
+    private final long interval;
+
+    private final LongSupplier now;
+
+    // Object...........................................................................................................
+
+    @Override
+    public String toString() {
+        return this.listener + " sent " + this.sent + "/" + this.sendTotal + " received " + this.received + "/" + this.receiveTotal;
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import walkingkooka.collect.list.Lists;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * A pool of {@link ByteBuffer} which may be given to {@link HttpClient.Builder#bufferPool(HttpClientBufferPool)}.
+ * Transports take the buffers for response body parts from the pool, and they are returned once a {@link HttpResponse.BodySubscriber}
+ * that copies or decodes each part has consumed them. Buffers are grouped into size classes, doubling from
+ * {@link #minCapacity} up to {@link #maxCapacity}, each holding at most {@link #maxPerSize} idle buffers. Larger
+ * buffers are always allocated and never pooled. {@link #hits()} and {@link #misses()} may be read for monitoring.
+ */
+public final class HttpClientBufferPool {
+
+    public static HttpClientBufferPool with(final int minCapacity,
+                                            final int maxCapacity,
+                                            final int maxPerSize) {
+        if (minCapacity <= 0) {
+            throw new IllegalArgumentException("Invalid minCapacity " + minCapacity + " must be greater than 0");
+        }
+        if (maxCapacity < minCapacity) {
+            throw new IllegalArgumentException("Invalid maxCapacity " + maxCapacity + " must be greater than or equal to minCapacity " + minCapacity);
+        }
+        if (maxPerSize <= 0) {
+            throw new IllegalArgumentException("Invalid maxPerSize " + maxPerSize + " must be greater than 0");
+        }
+
+        return new HttpClientBufferPool(minCapacity, maxCapacity, maxPerSize);
+    }
+
+    private HttpClientBufferPool(final int minCapacity,
+                                 final int maxCapacity,
+                                 final int maxPerSize) {
+        super();
+        this.minCapacity = minCapacity;
+        this.maxCapacity = maxCapacity;
+        this.maxPerSize = maxPerSize;
+
+        int sizeClasses = 1;
+        for (long capacity = minCapacity; capacity < maxCapacity; capacity = capacity * 2) {
+            sizeClasses++;
+        }
+        this.idle = Lists.array();
+        for (int i = 0; i < sizeClasses; i++) {
+            this.idle.add(Lists.array());
+        }
+    }
+
+    /**
+     * Returns a buffer with at least the given capacity, its position is zero and its limit the requested capacity.
+     */
+    ByteBuffer acquire(final int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Invalid capacity " + capacity + " must not be negative");
+        }
+
+        final ByteBuffer buffer;
+
+        final int sizeClass = this.sizeClass(capacity);
+        if (-1 == sizeClass) {
+            this.misses++;
+            buffer = ByteBuffer.allocate(capacity);
+        } else {
+            final List<ByteBuffer> idle = this.idle.get(sizeClass);
+            if (idle.isEmpty()) {
+                this.misses++;
+                buffer = ByteBuffer.allocate(this.capacity(sizeClass));
+            } else {
+                this.hits++;
+                buffer = idle.remove(idle.size() - 1);
+                buffer.clear();
+            }
+            buffer.limit(capacity);
+        }
+
+        return buffer;
+    }
+
+    /**
+     * Returns a buffer to the pool, once released it must not be read or written by the caller. Buffers that were not
+     * taken from a pool with the same size classes, or whose size class is full, are left for the garbage collector.
+     */
+    void release(final ByteBuffer buffer) {
+        final int capacity = buffer.capacity();
+        final int sizeClass = this.sizeClass(capacity);
+        if (-1 != sizeClass && capacity == this.capacity(sizeClass)) {
+            final List<ByteBuffer> idle = this.idle.get(sizeClass);
+            if (idle.size() < this.maxPerSize) {
+                idle.add(buffer);
+            }
+        }
+    }
+
+    /**
+     * Returns the index of the smallest size class holding the given capacity, or -1 if it is larger than
+     * {@link #maxCapacity}.
+     */
+    private int sizeClass(final int capacity) {
+        if (capacity > this.maxCapacity) {
+            return -1;
+        }
+
+        int sizeClass = 0;
+        long sizeClassCapacity = this.minCapacity;
+
+        while (sizeClassCapacity < capacity) {
+            sizeClass++;
+            sizeClassCapacity = sizeClassCapacity * 2;
+        }
+
+        return sizeClass;
+    }
+
+    /**
+     * The capacity of the buffers in the given size class, the largest is capped at {@link #maxCapacity}.
+     */
+    private int capacity(final int sizeClass) {
+        return (int) Math.min((long) this.minCapacity << sizeClass, this.maxCapacity);
+    }
+
+    /**
+     * The idle buffers for each size class, the most recently released is taken first.
+     */
+    private final List<List<ByteBuffer>> idle;
+
+    /**
+     * The capacity of the smallest size class.
+     */
+    final int minCapacity;
+
+    /**
+     * The capacity of the largest size class.
+     */
+    final int maxCapacity;
+
+    /**
+     * The most idle buffers kept for each size class.
+     */
+    final int maxPerSize;
+
+    /**
+     * The number of buffers taken from the pool rather than allocated.
+     */
+    public long hits() {
+        return this.hits;
+    }
+
+    private long hits;
+
+    /**
+     * The number of buffers that were allocated because the pool had none of the required size.
+     */
+    public long misses() {
+        return this.misses;
+    }
+
+    private long misses;
+
+    /**
+     * The number of buffers currently idle within the pool.
+     */
+    public int idle() {
+        int idle = 0;
+        for (final List<ByteBuffer> sizeClass : this.idle) {
+            idle += sizeClass.size();
+        }
+        return idle;
+    }
+
+    // Object...........................................................................................................
+
+    @Override
+    public String toString() {
+        return "minCapacity: " + this.minCapacity +
+                ", maxCapacity: " + this.maxCapacity +
+                ", maxPerSize: " + this.maxPerSize +
+                ", hits: " + this.hits +
+                ", misses: " + this.misses;
+    }
+}
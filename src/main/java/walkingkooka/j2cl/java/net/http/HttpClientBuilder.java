@@ -17,33 +17,94 @@
 
 package walkingkooka.j2cl.java.net.http;
 
+import walkingkooka.collect.map.Maps;
 import walkingkooka.j2cl.java.net.http.HttpClient.Redirect;
 import walkingkooka.j2cl.java.net.http.HttpClient.Version;
 
+import java.net.URI;
 import java.time.Duration;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.concurrent.Executor;
+import java.util.function.LongSupplier;
 
 final class HttpClientBuilder implements HttpClient.Builder {
 
     static HttpClientBuilder empty() {
-        return new HttpClientBuilder(null, null, Redirect.NEVER, 1, Version.HTTP_2);
+        return new HttpClientBuilder(null, null, null, null, null, Redirect.NEVER, null, null, 1, DEFAULT_PROGRESS_INTERVAL, null, null, Maps.sorted(), null, Version.HTTP_2);
     }
 
-    private HttpClientBuilder(final Duration connectTimeout,
+    /**
+     * Frequent enough for a progress bar, without redrawing for every body part.
+     */
+    private final static Duration DEFAULT_PROGRESS_INTERVAL = Duration.ofMillis(100);
+
+    private HttpClientBuilder(final HttpClientAdaptiveConcurrency adaptiveConcurrency,
+                              final HttpClientBufferPool bufferPool,
+                              final HttpClientCircuitBreaker circuitBreaker,
+                              final Duration connectTimeout,
                               final Executor executor,
                               final Redirect followRedirects,
+                              final HttpClientLifecycleListener lifecycleListener,
+                              final Long maxBodySize,
                               final int priority,
+                              final Duration progressInterval,
+                              final HttpClientProgressListener progressListener,
+                              final HttpClientRateLimit rateLimit,
+                              final Map<String, HttpClientRateLimit> rateLimitPrefixes,
+                              final HttpClientTracing tracing,
                               final Version version) {
         super();
 
+        this.adaptiveConcurrency = adaptiveConcurrency;
+        this.bufferPool = bufferPool;
+        this.circuitBreaker = circuitBreaker;
         this.connectTimeout = connectTimeout;
         this.executor = executor;
         this.followRedirects = followRedirects;
+        this.lifecycleListener = lifecycleListener;
+        this.maxBodySize = maxBodySize;
         this.priority = priority;
+        this.progressInterval = progressInterval;
+        this.progressListener = progressListener;
+        this.rateLimit = rateLimit;
+        this.rateLimitPrefixes = rateLimitPrefixes;
+        this.tracing = tracing;
         this.version = version;
     }
 
+    @Override
+    public HttpClientBuilder adaptiveConcurrency(final HttpClientAdaptiveConcurrency concurrency) {
+        Objects.requireNonNull(concurrency, "concurrency");
+
+        this.adaptiveConcurrency = concurrency;
+        return this;
+    }
+
+    HttpClientAdaptiveConcurrency adaptiveConcurrency;
+
+    @Override
+    public HttpClientBuilder bufferPool(final HttpClientBufferPool pool) {
+        Objects.requireNonNull(pool, "pool");
+
+        this.bufferPool = pool;
+        return this;
+    }
+
+    HttpClientBufferPool bufferPool;
+
+    @Override
+    public HttpClientBuilder circuitBreaker(final HttpClientCircuitBreaker circuitBreaker) {
+        Objects.requireNonNull(circuitBreaker, "circuitBreaker");
+
+        this.circuitBreaker = circuitBreaker;
+        return this;
+    }
+
+    HttpClientCircuitBreaker circuitBreaker;
+
     @Override
     public HttpClientBuilder connectTimeout(final Duration connectTimeout) {
         Objects.requireNonNull(connectTimeout, "connectTimeout");
@@ -74,6 +135,28 @@ final class HttpClientBuilder implements HttpClient.Builder {
 
     Redirect followRedirects;
 
+    @Override
+    public HttpClientBuilder lifecycleListener(final HttpClientLifecycleListener listener) {
+        Objects.requireNonNull(listener, "listener");
+
+        this.lifecycleListener = listener;
+        return this;
+    }
+
+    HttpClientLifecycleListener lifecycleListener;
+
+    @Override
+    public HttpClientBuilder maxBodySize(final long maxBodySize) {
+        if (maxBodySize < 0) {
+            throw new IllegalArgumentException("Invalid maxBodySize " + maxBodySize + " must not be negative");
+        }
+
+        this.maxBodySize = maxBodySize;
+        return this;
+    }
+
+    Long maxBodySize;
+
     @Override
     public HttpClientBuilder priority(final int priority) {
         if (priority < 1 || priority > 256) {
@@ -86,6 +169,61 @@ final class HttpClientBuilder implements HttpClient.Builder {
 
     int priority;
 
+    @Override
+    public HttpClientBuilder progressInterval(final Duration interval) {
+        Objects.requireNonNull(interval, "interval");
+        if (interval.isNegative()) {
+            throw new IllegalArgumentException("Invalid interval " + interval + " must not be negative");
+        }
+
+        this.progressInterval = interval;
+        return this;
+    }
+
+    Duration progressInterval;
+
+    @Override
+    public HttpClientBuilder progressListener(final HttpClientProgressListener listener) {
+        Objects.requireNonNull(listener, "listener");
+
+        this.progressListener = listener;
+        return this;
+    }
+
+    HttpClientProgressListener progressListener;
+
+    @Override
+    public HttpClientBuilder rateLimit(final HttpClientRateLimit limit) {
+        Objects.requireNonNull(limit, "limit");
+
+        this.rateLimit = limit;
+        return this;
+    }
+
+    HttpClientRateLimit rateLimit;
+
+    @Override
+    public HttpClientBuilder rateLimit(final URI prefix,
+                                       final HttpClientRateLimit limit) {
+        Objects.requireNonNull(prefix, "prefix");
+        Objects.requireNonNull(limit, "limit");
+
+        this.rateLimitPrefixes.put(prefix.toString(), limit);
+        return this;
+    }
+
+    final Map<String, HttpClientRateLimit> rateLimitPrefixes;
+
+    @Override
+    public HttpClientBuilder tracing(final HttpClientTracing tracing) {
+        Objects.requireNonNull(tracing, "tracing");
+
+        this.tracing = tracing;
+        return this;
+    }
+
+    HttpClientTracing tracing;
+
     @Override
     public HttpClientBuilder version(final Version version) {
         Objects.requireNonNull(version, "version");
@@ -97,10 +235,54 @@ final class HttpClientBuilder implements HttpClient.Builder {
     Version version;
 
     @Override
-    public HttpClient build() {
+    public HttpClientAjax build() {
+        HttpClientTransport transport = HttpClientTransport.xmlHttpRequest();
+
+        final HttpClientCircuitBreaker circuitBreaker = this.circuitBreaker;
+        if (null != circuitBreaker) {
+            transport = HttpClientTransport.circuitBreaker(transport, circuitBreaker, NOW);
+        }
+
+        // queue time waiting for a slot is excluded from the circuit breaker's slow call durations
+        final HttpClientAdaptiveConcurrency adaptiveConcurrency = this.adaptiveConcurrency;
+        HttpClientTransportAdaptiveConcurrency adaptiveConcurrencyTransport = null;
+        if (null != adaptiveConcurrency) {
+            adaptiveConcurrencyTransport = HttpClientTransport.adaptiveConcurrency(transport, adaptiveConcurrency, NOW);
+            transport = adaptiveConcurrencyTransport;
+        }
+
         return HttpClientAjax.with(this.connectTimeout,
                 this.executor,
                 this.followRedirects,
-                this.version);
+                this.version,
+                this.rateLimited(transport),
+                Optional.ofNullable(adaptiveConcurrencyTransport),
+                Optional.ofNullable(this.bufferPool),
+                Optional.ofNullable(this.lifecycleListener),
+                null != this.maxBodySize ? OptionalLong.of(this.maxBodySize) : OptionalLong.empty(),
+                Optional.ofNullable(this.progressListener),
+                this.progressInterval,
+                Optional.ofNullable(this.tracing),
+                NOW);
     }
+
+    /**
+     * Wraps the {@link HttpClientTransport} with a rate limiter if any limits are present.
+     */
+    private HttpClientTransport rateLimited(final HttpClientTransport transport) {
+        final HttpClientRateLimit rateLimit = this.rateLimit;
+        final Map<String, HttpClientRateLimit> rateLimitPrefixes = this.rateLimitPrefixes;
+
+        return null != rateLimit || false == rateLimitPrefixes.isEmpty() ?
+                HttpClientTransport.rateLimited(transport,
+                        Optional.ofNullable(rateLimit),
+                        rateLimitPrefixes,
+                        TIMER,
+                        NOW) :
+                transport;
+    }
+
+    private final static LongSupplier NOW = System::currentTimeMillis;
+
+    private final static HttpClientTimer TIMER = HttpClientTimer.setTimeout();
 }
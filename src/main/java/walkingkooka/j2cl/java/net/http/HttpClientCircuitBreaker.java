@@ -0,0 +1,132 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * The settings for a per origin circuit breaker, which may be given to {@link HttpClient.Builder#circuitBreaker(HttpClientCircuitBreaker)}.
+ * Each origin records the outcome of its last {@link #windowSize} calls, a call fails if the transport fails or the
+ * response status is a server error, and is slow if it takes longer than {@link #slowCallDuration}. The circuit opens
+ * when either rate reaches its threshold, failing all requests to that origin immediately. After {@link #openDuration}
+ * up to {@link #halfOpenCalls} probes are let through, closing the circuit if they all succeed or reopening it otherwise.
+ */
+public final class HttpClientCircuitBreaker {
+
+    public static HttpClientCircuitBreaker with(final float failureRateThreshold,
+                                                final float slowCallRateThreshold,
+                                                final Duration slowCallDuration,
+                                                final int windowSize,
+                                                final Duration openDuration,
+                                                final int halfOpenCalls) {
+        checkRate(failureRateThreshold, "failureRateThreshold");
+        checkRate(slowCallRateThreshold, "slowCallRateThreshold");
+        checkDuration(slowCallDuration, "slowCallDuration");
+        checkCount(windowSize, "windowSize");
+        checkDuration(openDuration, "openDuration");
+        checkCount(halfOpenCalls, "halfOpenCalls");
+
+        return new HttpClientCircuitBreaker(failureRateThreshold,
+                slowCallRateThreshold,
+                slowCallDuration,
+                windowSize,
+                openDuration,
+                halfOpenCalls);
+    }
+
+    private static void checkRate(final float rate,
+                                  final String label) {
+        if (false == (rate > 0 && rate <= 1)) {
+            throw new IllegalArgumentException("Invalid " + label + " " + rate + " must be greater than 0 and less than or equal to 1");
+        }
+    }
+
+    private static void checkDuration(final Duration duration,
+                                      final String label) {
+        Objects.requireNonNull(duration, label);
+
+        if (duration.isNegative()) {
+            throw new IllegalArgumentException("Invalid " + label + " " + duration + " must not be negative");
+        }
+    }
+
+    private static void checkCount(final int count,
+                                   final String label) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("Invalid " + label + " " + count + " must be greater than 0");
+        }
+    }
+
+    private HttpClientCircuitBreaker(final float failureRateThreshold,
+                                     final float slowCallRateThreshold,
+                                     final Duration slowCallDuration,
+                                     final int windowSize,
+                                     final Duration openDuration,
+                                     final int halfOpenCalls) {
+        super();
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.slowCallDuration = slowCallDuration;
+        this.windowSize = windowSize;
+        this.openDuration = openDuration;
+        this.halfOpenCalls = halfOpenCalls;
+    }
+
+    /**
+     * The fraction of failed calls within the window that opens the circuit.
+     */
+    final float failureRateThreshold;
+
+    /**
+     * The fraction of slow calls within the window that opens the circuit.
+     */
+    final float slowCallRateThreshold;
+
+    /**
+     * Calls taking longer than this are slow.
+     */
+    final Duration slowCallDuration;
+
+    /**
+     * The number of most recent calls considered, no rate is computed until the window is full.
+     */
+    final int windowSize;
+
+    /**
+     * How long the circuit stays open before probing.
+     */
+    final Duration openDuration;
+
+    /**
+     * The number of probes let through while half open.
+     */
+    final int halfOpenCalls;
+
+    // Object...........................................................................................................
+
+    @Override
+    public String toString() {
+        return "failureRateThreshold: " + this.failureRateThreshold +
+                ", slowCallRateThreshold: " + this.slowCallRateThreshold +
+                ", slowCallDuration: " + this.slowCallDuration +
+                ", windowSize: " + this.windowSize +
+                ", openDuration: " + this.openDuration +
+                ", halfOpenCalls: " + this.halfOpenCalls;
+    }
+}
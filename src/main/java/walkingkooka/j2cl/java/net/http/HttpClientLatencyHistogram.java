@@ -0,0 +1,184 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import java.util.Arrays;
+
+/**
+ * A latency histogram in milliseconds using HDR style log linear buckets. Values below 16 are counted exactly, larger
+ * values share a bucket with those having the same power of two and the same following 4 bits, which bounds the error
+ * of any percentile to 1/16 of the value while a histogram covering every possible value needs less than 1000 counters.
+ * Histograms returned by {@link HttpClient#metrics()} are snapshots and never change.
+ */
+public final class HttpClientLatencyHistogram {
+
+    /**
+     * Creates an empty histogram.
+     */
+    static HttpClientLatencyHistogram empty() {
+        return new HttpClientLatencyHistogram(new long[0], 0, 0, 0);
+    }
+
+    private HttpClientLatencyHistogram(final long[] counts,
+                                       final long count,
+                                       final long min,
+                                       final long max) {
+        super();
+        this.counts = counts;
+        this.count = count;
+        this.min = min;
+        this.max = max;
+    }
+
+    /**
+     * Adds a single value, negative values from a clock going backwards are counted as 0.
+     */
+    void record(final long value) {
+        final long millis = Math.max(0, value);
+        final int index = index(millis);
+
+        long[] counts = this.counts;
+        if (index >= counts.length) {
+            counts = Arrays.copyOf(counts, index + 1);
+            this.counts = counts;
+        }
+        counts[index]++;
+
+        this.min = 0 == this.count ? millis : Math.min(this.min, millis);
+        this.max = Math.max(this.max, millis);
+        this.count++;
+    }
+
+    /**
+     * Returns a copy that is not affected by later values.
+     */
+    HttpClientLatencyHistogram copy() {
+        return new HttpClientLatencyHistogram(this.counts.clone(), this.count, this.min, this.max);
+    }
+
+    /**
+     * The number of values recorded.
+     */
+    public long count() {
+        return this.count;
+    }
+
+    private long count;
+
+    /**
+     * The smallest value recorded or 0 when empty.
+     */
+    public long min() {
+        return this.min;
+    }
+
+    private long min;
+
+    /**
+     * The largest value recorded or 0 when empty.
+     */
+    public long max() {
+        return this.max;
+    }
+
+    private long max;
+
+    /**
+     * Returns the value below which the given percentage of values fall, eg 99 for p99. The value returned is the upper
+     * bound of the bucket holding that value, but never more than {@link #max()}.
+     */
+    public long valueAtPercentile(final double percentile) {
+        if (!(percentile >= 0 && percentile <= 100)) {
+            throw new IllegalArgumentException("Invalid percentile " + percentile + " must be between 0 and 100");
+        }
+
+        long value = 0;
+
+        final long count = this.count;
+        if (count > 0) {
+            final long rank = Math.max(1, (long) Math.ceil(percentile * count / 100));
+
+            final long[] counts = this.counts;
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    value = Math.min(upperBound(i), this.max);
+                    break;
+                }
+            }
+        }
+
+        return value;
+    }
+
+    /**
+     * The count of values in each bucket, only as long as the largest bucket used.
+     */
+    private long[] counts;
+
+    // buckets..........................................................................................................
+
+    /**
+     * The number of buckets for each power of two, which is also the first value that is not counted exactly.
+     */
+    private final static int SUB_BUCKETS = 16;
+
+    private final static int SUB_BUCKET_BITS = 4;
+
+    static int index(final long value) {
+        final int index;
+
+        if (value < SUB_BUCKETS) {
+            index = (int) value;
+        } else {
+            final int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+            index = SUB_BUCKETS + shift * SUB_BUCKETS + (int) ((value >> shift) & (SUB_BUCKETS - 1));
+        }
+
+        return index;
+    }
+
+    /**
+     * The largest value counted by the bucket with the given index.
+     */
+    static long upperBound(final int index) {
+        final long upperBound;
+
+        if (index < SUB_BUCKETS) {
+            upperBound = index;
+        } else {
+            final int shift = index / SUB_BUCKETS - 1;
+            final long sub = index % SUB_BUCKETS;
+            upperBound = ((SUB_BUCKETS + sub + 1) << shift) - 1;
+        }
+
+        return upperBound;
+    }
+
+    // Object...........................................................................................................
+
+    @Override
+    public String toString() {
+        return "count: " + this.count +
+                " p50: " + this.valueAtPercentile(50) +
+                " p95: " + this.valueAtPercentile(95) +
+                " p99: " + this.valueAtPercentile(99) +
+                " max: " + this.max;
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import walkingkooka.j2cl.java.net.http.HttpResponse.ResponseInfo;
+
+import java.util.Optional;
+
+/**
+ * Receives the milestones of every exchange sent by a {@link HttpClient}, registered with
+ * {@link HttpClient.Builder#lifecycleListener(HttpClientLifecycleListener)}. Each time is in milliseconds from the same
+ * clock, so differences between the events of a single request give a latency breakdown. Events for a request arrive
+ * in the order declared, some may be skipped, eg a request failing before its response, but exactly one of
+ * {@link #onComplete(HttpRequest, ResponseInfo, long)} or {@link #onFailed(HttpRequest, Optional, Throwable, long)}
+ * ends each exchange.
+ */
+public interface HttpClientLifecycleListener {
+
+    /**
+     * The request was given to {@link HttpClient#sendAsync(HttpRequest, HttpResponse.BodyHandler)}.
+     */
+    void onQueued(final HttpRequest request,
+                  final long time);
+
+    /**
+     * The request left any rate limiting or concurrency queues and was given to the network.
+     */
+    void onDispatched(final HttpRequest request,
+                      final long time);
+
+    /**
+     * The request body was sent, this is reported when the bytes sent reach the content length or at the latest when
+     * the response arrives.
+     */
+    void onRequestBodySent(final HttpRequest request,
+                           final long time);
+
+    /**
+     * The response status and headers arrived.
+     */
+    void onHeadersReceived(final HttpRequest request,
+                           final ResponseInfo info,
+                           final long time);
+
+    /**
+     * The first byte of the response body arrived, this is not reported for an empty body.
+     */
+    void onFirstBodyByte(final HttpRequest request,
+                         final ResponseInfo info,
+                         final long time);
+
+    /**
+     * The response body was completely received.
+     */
+    void onComplete(final HttpRequest request,
+                    final ResponseInfo info,
+                    final long time);
+
+    /**
+     * The exchange failed or was cancelled, the {@link ResponseInfo} is present if the response arrived.
+     */
+    void onFailed(final HttpRequest request,
+                  final Optional<ResponseInfo> info,
+                  final Throwable cause,
+                  final long time);
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+/**
+ * The requests, bytes and latency of all exchanges with an origin whose responses share a status class, eg 2xx, or
+ * that failed without a response. Instances returned by {@link HttpClient#metrics()} are snapshots and never change.
+ */
+public final class HttpClientMetrics {
+
+    /**
+     * The status class of exchanges that failed before a response arrived.
+     */
+    public final static String NO_RESPONSE = "none";
+
+    /**
+     * Returns the status class for the given status code, eg 2xx for 200.
+     */
+    static String statusClass(final int statusCode) {
+        return statusCode / 100 + "xx";
+    }
+
+    static HttpClientMetrics with(final String origin,
+                                  final String statusClass) {
+        return new HttpClientMetrics(origin, statusClass, 0, 0, 0, 0, HttpClientLatencyHistogram.empty());
+    }
+
+    private HttpClientMetrics(final String origin,
+                              final String statusClass,
+                              final long requests,
+                              final long failures,
+                              final long bytesSent,
+                              final long bytesReceived,
+                              final HttpClientLatencyHistogram latency) {
+        super();
+        this.origin = origin;
+        this.statusClass = statusClass;
+        this.requests = requests;
+        this.failures = failures;
+        this.bytesSent = bytesSent;
+        this.bytesReceived = bytesReceived;
+        this.latency = latency;
+    }
+
+    /**
+     * Records a single exchange that has ended.
+     */
+    void record(final boolean failed,
+                final long bytesSent,
+                final long bytesReceived,
+                final long latency) {
+        this.requests++;
+        if (failed) {
+            this.failures++;
+        }
+        this.bytesSent += bytesSent;
+        this.bytesReceived += bytesReceived;
+        this.latency.record(latency);
+    }
+
+    /**
+     * Returns a copy that is not affected by later exchanges.
+     */
+    HttpClientMetrics copy() {
+        return new HttpClientMetrics(this.origin,
+                this.statusClass,
+                this.requests,
+                this.failures,
+                this.bytesSent,
+                this.bytesReceived,
+                this.latency.copy());
+    }
+
+    /**
+     * The scheme, host and port shared by the requests.
+     */
+    public String origin() {
+        return this.origin;
+    }
+
+    private final String origin;
+
+    /**
+     * The status class of the responses, eg 2xx, or {@link #NO_RESPONSE}.
+     */
+    public String statusClass() {
+        return this.statusClass;
+    }
+
+    private final String statusClass;
+
+    /**
+     * The number of exchanges that completed or failed.
+     */
+    public long requests() {
+        return this.requests;
+    }
+
+    private long requests;
+
+    /**
+     * The number of exchanges that failed or were cancelled.
+     */
+    public long failures() {
+        return this.failures;
+    }
+
+    private long failures;
+
+    /**
+     * The bytes of request body sent.
+     */
+    public long bytesSent() {
+        return this.bytesSent;
+    }
+
+    private long bytesSent;
+
+    /**
+     * The bytes of response body received.
+     */
+    public long bytesReceived() {
+        return this.bytesReceived;
+    }
+
+    private long bytesReceived;
+
+    /**
+     * The milliseconds from each request being queued to its exchange completing or failing.
+     */
+    public HttpClientLatencyHistogram latency() {
+        return this.latency;
+    }
+
+    private final HttpClientLatencyHistogram latency;
+
+    // Object...........................................................................................................
+
+    @Override
+    public String toString() {
+        return this.origin + " " + this.statusClass +
+                " requests: " + this.requests +
+                " failures: " + this.failures +
+                " sent: " + this.bytesSent +
+                " received: " + this.bytesReceived +
+                " latency " + this.latency;
+    }
+}
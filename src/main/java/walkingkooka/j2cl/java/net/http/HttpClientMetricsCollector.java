@@ -0,0 +1,90 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.map.Maps;
+import walkingkooka.j2cl.java.net.http.HttpResponse.ResponseInfo;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Aggregates the {@link HttpClientMetrics} of every exchange of a {@link HttpClient} by origin and status class. The
+ * emulation is single threaded so counters are updated in place without locks or atomics, and
+ * {@link #snapshot()} copies them.
+ */
+final class HttpClientMetricsCollector {
+
+    static HttpClientMetricsCollector empty() {
+        return new HttpClientMetricsCollector();
+    }
+
+    private HttpClientMetricsCollector() {
+        super();
+    }
+
+    /**
+     * Records an exchange that ended, the {@link ResponseInfo} is absent when it failed before the response.
+     */
+    void record(final HttpRequest request,
+                final Optional<ResponseInfo> info,
+                final boolean failed,
+                final long bytesSent,
+                final long bytesReceived,
+                final long latency) {
+        final String origin = HttpClientTransport.origin(request.uri());
+        final String statusClass = info.map(ResponseInfo::statusCode)
+                .map(HttpClientMetrics::statusClass)
+                .orElse(HttpClientMetrics.NO_RESPONSE);
+        final String key = origin + " " + statusClass;
+
+        HttpClientMetrics metrics = this.metrics.get(key);
+        if (null == metrics) {
+            metrics = HttpClientMetrics.with(origin, statusClass);
+            this.metrics.put(key, metrics);
+        }
+        metrics.record(failed, bytesSent, bytesReceived, latency);
+    }
+
+    /**
+     * Returns a copy of the current metrics sorted by origin then status class.
+     */
+    List<HttpClientMetrics> snapshot() {
+        final List<HttpClientMetrics> snapshot = Lists.array();
+
+        for (final HttpClientMetrics metrics : this.metrics.values()) {
+            snapshot.add(metrics.copy());
+        }
+
+        return Lists.readOnly(snapshot);
+    }
+
+    /**
+     * Metrics keyed by origin and status class.
+     */
+    private final Map<String, HttpClientMetrics> metrics = Maps.sorted();
+
+    // Object...........................................................................................................
+
+    @Override
+    public String toString() {
+        return this.metrics.values().toString();
+    }
+}
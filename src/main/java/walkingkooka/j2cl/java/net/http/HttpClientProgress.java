@@ -0,0 +1,121 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import java.util.Objects;
+
+/**
+ * A snapshot of the bytes transferred by a single exchange, given to a {@link HttpClientProgressListener}. Totals are
+ * -1 when unknown, the request total comes from {@link HttpRequest.BodyPublisher#contentLength()} and the response
+ * total from the Content-Length header, which is unknown until the response arrives.
+ */
+public final class HttpClientProgress {
+
+    public static HttpClientProgress with(final HttpRequest request,
+                                          final long sent,
+                                          final long sendTotal,
+                                          final long received,
+                                          final long receiveTotal) {
+        Objects.requireNonNull(request, "request");
+
+        return new HttpClientProgress(request, sent, sendTotal, received, receiveTotal);
+    }
+
+    private HttpClientProgress(final HttpRequest request,
+                               final long sent,
+                               final long sendTotal,
+                               final long received,
+                               final long receiveTotal) {
+        super();
+        this.request = request;
+        this.sent = sent;
+        this.sendTotal = sendTotal;
+        this.received = received;
+        this.receiveTotal = receiveTotal;
+    }
+
+    public HttpRequest request() {
+        return this.request;
+    }
+
+    private final HttpRequest request;
+
+    /**
+     * The bytes of request body sent so far.
+     */
+    public long sent() {
+        return this.sent;
+    }
+
+    private final long sent;
+
+    /**
+     * The length of the request body, or -1 if unknown.
+     */
+    public long sendTotal() {
+        return this.sendTotal;
+    }
+
+    private final long sendTotal;
+
+    /**
+     * The bytes of response body received so far.
+     */
+    public long received() {
+        return this.received;
+    }
+
+    private final long received;
+
+    /**
+     * The length of the response body, or -1 if unknown.
+     */
+    public long receiveTotal() {
+        return this.receiveTotal;
+    }
+
+    private final long receiveTotal;
+
+    // Object...........................................................................................................
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.request, this.sent, this.sendTotal, this.received, this.receiveTotal);
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        return this == other ||
+                other instanceof HttpClientProgress && this.equals0((HttpClientProgress) other);
+    }
+
+    private boolean equals0(final HttpClientProgress other) {
+        return this.request.equals(other.request) &&
+                this.sent == other.sent &&
+                this.sendTotal == other.sendTotal &&
+                this.received == other.received &&
+                this.receiveTotal == other.receiveTotal;
+    }
+
+    @Override
+    public String toString() {
+        return this.request.method() + " " + this.request.uri() +
+                " sent " + this.sent + "/" + this.sendTotal +
+                " received " + this.received + "/" + this.receiveTotal;
+    }
+}
@@ -0,0 +1,30 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import java.time.Duration;
+
+/**
+ * Receives the bytes transferred by an exchange, registered with {@link HttpClient.Builder#progressListener(HttpClientProgressListener)}
+ * or {@link HttpRequest.Builder#progressListener(HttpClientProgressListener)}. Reports are throttled to at most one per
+ * {@link HttpClient.Builder#progressInterval(Duration)}, the final progress is always reported once the exchange ends.
+ */
+public interface HttpClientProgressListener {
+
+    void onProgress(final HttpClientProgress progress);
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+/**
+ * The settings for a token bucket rate limiter, which may be given to {@link HttpClient.Builder#rateLimit(HttpClientRateLimit)}
+ * or {@link HttpClient.Builder#rateLimit(java.net.URI, HttpClientRateLimit)}. The bucket holds up to {@link #burst}
+ * tokens and refills at {@link #permitsPerSecond}, each request takes a token and waits until one is available.
+ */
+public final class HttpClientRateLimit {
+
+    public static HttpClientRateLimit with(final double permitsPerSecond,
+                                           final int burst) {
+        if (false == permitsPerSecond > 0) {
+            throw new IllegalArgumentException("Invalid permitsPerSecond " + permitsPerSecond + " must be greater than 0");
+        }
+        if (burst <= 0) {
+            throw new IllegalArgumentException("Invalid burst " + burst + " must be greater than 0");
+        }
+
+        return new HttpClientRateLimit(permitsPerSecond, burst);
+    }
+
+    private HttpClientRateLimit(final double permitsPerSecond,
+                                final int burst) {
+        super();
+        this.permitsPerSecond = permitsPerSecond;
+        this.burst = burst;
+    }
+
+    /**
+     * The rate tokens are added to the bucket.
+     */
+    final double permitsPerSecond;
+
+    /**
+     * The maximum number of tokens in the bucket, which is also the number of requests that may be sent together.
+     */
+    final int burst;
+
+    // Object...........................................................................................................
+
+    @Override
+    public String toString() {
+        return this.permitsPerSecond + "/s burst " + this.burst;
+    }
+}
@@ -0,0 +1,204 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import walkingkooka.collect.list.Lists;
+import walkingkooka.j2cl.java.net.http.HttpResponse.BodyHandler;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.LongSupplier;
+
+/**
+ * A group of requests sent by a {@link HttpClient}, which may share an overall deadline. Closing the group aborts all
+ * outstanding exchanges, eg when a user navigates away from the view that issued them. A single {@link HttpClientTimer}
+ * task runs at the deadline failing all outstanding exchanges with a {@link HttpTimeoutException}, so time spent in
+ * rate limiting or concurrency queues counts against the deadline.
+ */
+public final class HttpClientRequestGroup implements AutoCloseable {
+
+    static HttpClientRequestGroup with(final HttpClient client,
+                                       final Optional<Duration> deadline,
+                                       final HttpClientTimer timer,
+                                       final LongSupplier now) {
+        Objects.requireNonNull(client, "client");
+        Objects.requireNonNull(deadline, "deadline");
+        Objects.requireNonNull(timer, "timer");
+        Objects.requireNonNull(now, "now");
+
+        deadline.ifPresent(d -> {
+            if (d.isNegative()) {
+                throw new IllegalArgumentException("Deadline " + d + " must not be negative");
+            }
+        });
+
+        final HttpClientRequestGroup group = new HttpClientRequestGroup(client,
+                deadline.map(d -> now.getAsLong() + d.toMillis()),
+                now);
+        deadline.ifPresent(d -> group.cancelDeadline = timer.schedule(group::onDeadline, d.toMillis()));
+        return group;
+    }
+
+    private HttpClientRequestGroup(final HttpClient client,
+                                   final Optional<Long> deadline,
+                                   final LongSupplier now) {
+        super();
+        this.client = client;
+        this.deadline = deadline;
+        this.now = now;
+    }
+
+    /**
+     * Sends the request using the {@link HttpClient}, with the request timeout reduced to the time remaining before the
+     * group deadline. Requests sent after the deadline fail immediately with a {@link HttpTimeoutException}.
+     */
+    public <T> CompletableFuture<HttpResponse<T>> sendAsync(final HttpRequest request,
+                                                            final BodyHandler<T> handler) {
+        Objects.requireNonNull(request, "request");
+        Objects.requireNonNull(handler, "handler");
+
+        if (this.closed) {
+            throw new IllegalStateException("Request group closed");
+        }
+
+        final CompletableFuture<HttpResponse<T>> future;
+
+        final Optional<Duration> remaining = this.remaining();
+        if (remaining.map(r -> r.isZero() || r.isNegative()).orElse(false)) {
+            future = new CompletableFuture<>();
+            future.completeExceptionally(deadlinePassed());
+        } else {
+            future = this.client.sendAsync(applyDeadline(request, remaining), handler);
+
+            final List<CompletableFuture<?>> outstanding = this.outstanding;
+            outstanding.add(future);
+            future.whenComplete((r, c) -> outstanding.remove(future));
+        }
+
+        return future;
+    }
+
+    /**
+     * If the group has a deadline and the request timeout is absent or longer, returns a {@link HttpRequest} with the
+     * remaining time as its timeout.
+     */
+    private static HttpRequest applyDeadline(final HttpRequest request,
+                                             final Optional<Duration> remaining) {
+        final Optional<Duration> timeout = request.timeout();
+
+        return remaining.isPresent() && (false == timeout.isPresent() || timeout.get().compareTo(remaining.get()) > 0) ?
+                HttpRequestAjax.with(request.bodyPublisher(),
+                        request.expectContinue(),
+                        request.headers(),
+                        request.maxBodySize(),
+                        request.method(),
+                        request.progressListener(),
+                        remaining,
+                        request.uri(),
+                        request.version()) :
+                request;
+    }
+
+    /**
+     * The time remaining before the deadline, which will be empty if the group has no deadline.
+     */
+    public Optional<Duration> remaining() {
+        final LongSupplier now = this.now;
+        return this.deadline.map(d -> Duration.ofMillis(d - now.getAsLong()));
+    }
+
+    /**
+     * The number of exchanges that have not yet completed.
+     */
+    public int outstanding() {
+        return this.outstanding.size();
+    }
+
+    /**
+     * Futures for exchanges that have not yet completed, each removes itself when completed.
+     */
+    private final List<CompletableFuture<?>> outstanding = Lists.array();
+
+    /**
+     * Cancels all outstanding exchanges, which aborts their transport. Further requests will fail.
+     */
+    @Override
+    public void close() {
+        this.closed = true;
+
+        final Runnable cancelDeadline = this.cancelDeadline;
+        if (null != cancelDeadline) {
+            this.cancelDeadline = null;
+            cancelDeadline.run();
+        }
+
+        final List<CompletableFuture<?>> outstanding = Lists.array();
+        outstanding.addAll(this.outstanding);
+        this.outstanding.clear();
+
+        for (final CompletableFuture<?> future : outstanding) {
+            future.cancel(false);
+        }
+    }
+
+    /**
+     * Invoked by the {@link HttpClientTimer} when the deadline passes, failing all outstanding exchanges, which aborts
+     * their transport.
+     */
+    private void onDeadline() {
+        this.cancelDeadline = null;
+
+        final List<CompletableFuture<?>> outstanding = Lists.array();
+        outstanding.addAll(this.outstanding);
+        this.outstanding.clear();
+
+        for (final CompletableFuture<?> future : outstanding) {
+            future.completeExceptionally(deadlinePassed());
+        }
+    }
+
+    private static HttpTimeoutException deadlinePassed() {
+        return new HttpTimeoutException("Request group deadline passed");
+    }
+
+    /**
+     * Cancels the {@link HttpClientTimer} task of the deadline, which is null when there is no deadline or it has run.
+     */
+    private Runnable cancelDeadline;
+
+    private boolean closed;
+
+    private final HttpClient client;
+
+    /**
+     * The deadline in millis since the epoch.
+     */
+    private final Optional<Long> deadline;
+
+    private final LongSupplier now;
+
+    // Object...........................................................................................................
+
+    @Override
+    public String toString() {
+        return this.client + " outstanding: " + this.outstanding() + this.remaining().map(r -> " remaining: " + r).orElse("") + (this.closed ? " closed" : "");
+    }
+}
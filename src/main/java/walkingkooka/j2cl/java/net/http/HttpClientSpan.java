@@ -0,0 +1,163 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalInt;
+
+/**
+ * A single sampled exchange, identified by the W3C trace context ids sent in its traceparent header.
+ */
+public final class HttpClientSpan {
+
+    static HttpClientSpan with(final String traceId,
+                               final String spanId,
+                               final Optional<String> parentSpanId,
+                               final HttpRequest request,
+                               final long start,
+                               final long end,
+                               final OptionalInt statusCode,
+                               final Optional<Throwable> failure) {
+        return new HttpClientSpan(traceId, spanId, parentSpanId, request, start, end, statusCode, failure);
+    }
+
+    private HttpClientSpan(final String traceId,
+                           final String spanId,
+                           final Optional<String> parentSpanId,
+                           final HttpRequest request,
+                           final long start,
+                           final long end,
+                           final OptionalInt statusCode,
+                           final Optional<Throwable> failure) {
+        super();
+        this.traceId = traceId;
+        this.spanId = spanId;
+        this.parentSpanId = parentSpanId;
+        this.request = request;
+        this.start = start;
+        this.end = end;
+        this.statusCode = statusCode;
+        this.failure = failure;
+    }
+
+    /**
+     * The 32 lower case hex digits shared by every span of the trace.
+     */
+    public String traceId() {
+        return this.traceId;
+    }
+
+    private final String traceId;
+
+    /**
+     * The 16 lower case hex digits of this span.
+     */
+    public String spanId() {
+        return this.spanId;
+    }
+
+    private final String spanId;
+
+    /**
+     * The span of the traceparent header already present on the request, if any.
+     */
+    public Optional<String> parentSpanId() {
+        return this.parentSpanId;
+    }
+
+    private final Optional<String> parentSpanId;
+
+    /**
+     * The request that was sent, including its traceparent header.
+     */
+    public HttpRequest request() {
+        return this.request;
+    }
+
+    private final HttpRequest request;
+
+    /**
+     * The time in milliseconds the request was given to {@link HttpClient#sendAsync(HttpRequest, HttpResponse.BodyHandler)}.
+     */
+    public long start() {
+        return this.start;
+    }
+
+    private final long start;
+
+    /**
+     * The time in milliseconds the exchange completed or failed.
+     */
+    public long end() {
+        return this.end;
+    }
+
+    private final long end;
+
+    /**
+     * The status code of the response, absent if the exchange failed before the response.
+     */
+    public OptionalInt statusCode() {
+        return this.statusCode;
+    }
+
+    private final OptionalInt statusCode;
+
+    /**
+     * The cause if the exchange failed or was cancelled.
+     */
+    public Optional<Throwable> failure() {
+        return this.failure;
+    }
+
+    private final Optional<Throwable> failure;
+
+    // Object...........................................................................................................
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.traceId, this.spanId);
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        return this == other || other instanceof HttpClientSpan && this.equals0((HttpClientSpan) other);
+    }
+
+    private boolean equals0(final HttpClientSpan other) {
+        return this.traceId.equals(other.traceId) &&
+                this.spanId.equals(other.spanId) &&
+                this.parentSpanId.equals(other.parentSpanId) &&
+                this.request.equals(other.request) &&
+                this.start == other.start &&
+                this.end == other.end &&
+                this.statusCode.equals(other.statusCode) &&
+                this.failure.equals(other.failure);
+    }
+
+    @Override
+    public String toString() {
+        return this.traceId + " " + this.spanId +
+                this.parentSpanId.map(p -> " parent " + p).orElse("") +
+                " " + this.request.method() + " " + this.request.uri() +
+                (this.statusCode.isPresent() ? " " + this.statusCode.getAsInt() : "") +
+                this.failure.map(f -> " failed " + f.getMessage()).orElse("") +
+                " " + (this.end - this.start) + "ms";
+    }
+}
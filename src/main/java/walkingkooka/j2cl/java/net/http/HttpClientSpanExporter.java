@@ -0,0 +1,27 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+/**
+ * Receives every sampled {@link HttpClientSpan} once its exchange has ended, registered with
+ * {@link HttpClientTracing#with(double, HttpClientSpanExporter)}.
+ */
+public interface HttpClientSpanExporter {
+
+    void export(final HttpClientSpan span);
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+/**
+ * Runs a task after a delay, in the browser this is {@link HttpClientTimerSetTimeout}.
+ */
+abstract class HttpClientTimer {
+
+    /**
+     * {@see HttpClientTimerSetTimeout}
+     */
+    static HttpClientTimer setTimeout() {
+        return HttpClientTimerSetTimeout.INSTANCE;
+    }
+
+    /**
+     * Package private to keep sub classing limited.
+     */
+    HttpClientTimer() {
+        super();
+    }
+
+    /**
+     * Runs the task once after the given delay in milliseconds. Running the returned {@link Runnable} before then
+     * cancels the task.
+     */
+    abstract Runnable schedule(final Runnable task,
+                               final long delay);
+}
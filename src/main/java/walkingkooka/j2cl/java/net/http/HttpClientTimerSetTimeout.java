@@ -0,0 +1,47 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import elemental2.dom.DomGlobal;
+
+/**
+ * A {@link HttpClientTimer} that uses the browser setTimeout, cancelling with clearTimeout.
+ */
+final class HttpClientTimerSetTimeout extends HttpClientTimer {
+
+    /**
+     * Singleton
+     */
+    final static HttpClientTimerSetTimeout INSTANCE = new HttpClientTimerSetTimeout();
+
+    private HttpClientTimerSetTimeout() {
+        super();
+    }
+
+    @Override
+    Runnable schedule(final Runnable task,
+                      final long delay) {
+        final double id = DomGlobal.setTimeout(p -> task.run(), delay);
+        return () -> DomGlobal.clearTimeout(id);
+    }
+
+    @Override
+    public String toString() {
+        return "setTimeout";
+    }
+}
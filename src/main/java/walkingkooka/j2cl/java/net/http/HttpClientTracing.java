@@ -0,0 +1,206 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.map.Maps;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Random;
+import java.util.function.LongSupplier;
+
+/**
+ * Head based sampling of requests, each sampled request is sent with a W3C traceparent header and its
+ * {@link HttpClientSpan} given to the {@link HttpClientSpanExporter} once the exchange ends. A request that already has
+ * a valid traceparent header follows the sampled flag of its parent and continues its trace, others are sampled with
+ * the given ratio. Requests that are not sampled are sent unchanged and nothing is allocated for them.
+ */
+public final class HttpClientTracing {
+
+    /**
+     * The name of the W3C trace context header.
+     */
+    public final static String TRACEPARENT = "traceparent";
+
+    public static HttpClientTracing with(final double sampleRatio,
+                                         final HttpClientSpanExporter exporter) {
+        return with(sampleRatio, exporter, RANDOM::nextLong);
+    }
+
+    private final static Random RANDOM = new Random();
+
+    static HttpClientTracing with(final double sampleRatio,
+                                  final HttpClientSpanExporter exporter,
+                                  final LongSupplier random) {
+        if (!(sampleRatio >= 0 && sampleRatio <= 1)) {
+            throw new IllegalArgumentException("Invalid sampleRatio " + sampleRatio + " must be between 0 and 1");
+        }
+        Objects.requireNonNull(exporter, "exporter");
+
+        return new HttpClientTracing(sampleRatio, exporter, random);
+    }
+
+    private HttpClientTracing(final double sampleRatio,
+                              final HttpClientSpanExporter exporter,
+                              final LongSupplier random) {
+        super();
+        this.sampleRatio = sampleRatio;
+        this.exporter = exporter;
+        this.random = random;
+    }
+
+    /**
+     * Decides whether the request is sampled, returning a span holding the request with its traceparent header if it is.
+     */
+    Optional<HttpClientTracingSpan> start(final HttpRequest request,
+                                          final LongSupplier now) {
+        final Optional<String> traceparent = request.headers()
+                .firstValue(TRACEPARENT);
+
+        final boolean parent = traceparent.isPresent() && isTraceparent(traceparent.get());
+        final boolean sampled = parent ?
+                isSampled(traceparent.get()) :
+                this.sample();
+
+        return sampled ?
+                Optional.of(this.span(request, parent ? traceparent : Optional.empty(), now)) :
+                Optional.empty();
+    }
+
+    private boolean sample() {
+        final double sampleRatio = this.sampleRatio;
+        return sampleRatio >= 1 ||
+                sampleRatio > 0 && (this.random.getAsLong() >>> 11) * 0x1.0p-53 < sampleRatio;
+    }
+
+    private HttpClientTracingSpan span(final HttpRequest request,
+                                       final Optional<String> parent,
+                                       final LongSupplier now) {
+        final String traceId = parent.isPresent() ?
+                parent.get().substring(3, 35) :
+                this.id() + this.id();
+        final String spanId = this.id();
+
+        return HttpClientTracingSpan.with(traceId,
+                spanId,
+                parent.map(p -> p.substring(36, 52)),
+                traced(request, "00-" + traceId + "-" + spanId + "-01"),
+                now.getAsLong(),
+                this.exporter);
+    }
+
+    /**
+     * Returns 16 random hex digits that are not all zero.
+     */
+    private String id() {
+        long id;
+        do {
+            id = this.random.getAsLong();
+        } while (0 == id);
+
+        final String hex = Long.toHexString(id);
+        return "0000000000000000".substring(hex.length()) + hex;
+    }
+
+    /**
+     * Returns a copy of the request with the traceparent header replaced.
+     */
+    private static HttpRequest traced(final HttpRequest request,
+                                      final String traceparent) {
+        final Map<String, List<String>> headers = Maps.sorted(String.CASE_INSENSITIVE_ORDER);
+        headers.putAll(request.headers().map());
+        headers.put(TRACEPARENT, Lists.of(traceparent));
+
+        return HttpRequestAjax.with(request.bodyPublisher(),
+                request.expectContinue(),
+                HttpHeaders.of(headers, (n, v) -> true),
+                request.maxBodySize(),
+                request.method(),
+                request.progressListener(),
+                request.timeout(),
+                request.uri(),
+                request.version());
+    }
+
+    // traceparent......................................................................................................
+
+    /**
+     * Tests if the header is a version 00 traceparent, eg 00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01.
+     */
+    static boolean isTraceparent(final String header) {
+        return header.length() == 55 &&
+                header.startsWith("00-") &&
+                header.charAt(35) == '-' &&
+                header.charAt(52) == '-' &&
+                isHex(header, 3, 35) &&
+                isHex(header, 36, 52) &&
+                isHex(header, 53, 55);
+    }
+
+    /**
+     * Tests if the characters between start and end are lower case hex digits that are not all zero.
+     */
+    private static boolean isHex(final String header,
+                                 final int start,
+                                 final int end) {
+        boolean nonZero = false;
+
+        for (int i = start; i < end; i++) {
+            final char c = header.charAt(i);
+            if (false == (c >= '0' && c <= '9' || c >= 'a' && c <= 'f')) {
+                return false;
+            }
+            nonZero |= '0' != c;
+        }
+
+        return nonZero || end - start == 2; // flags may be zero
+    }
+
+    private static boolean isSampled(final String traceparent) {
+        return 0 != (Character.digit(traceparent.charAt(54), 16) & 1);
+    }
+
+    // properties.......................................................................................................
+
+    /**
+     * The fraction of requests without a parent traceparent that are sampled.
+     */
+    public double sampleRatio() {
+        return this.sampleRatio;
+    }
+
+    private final double sampleRatio;
+
+    public HttpClientSpanExporter exporter() {
+        return this.exporter;
+    }
+
+    private final HttpClientSpanExporter exporter;
+
+    private final LongSupplier random;
+
+    // Object...........................................................................................................
+
+    @Override
+    public String toString() {
+        return "sampleRatio: " + this.sampleRatio + " exporter: " + this.exporter;
+    }
+}
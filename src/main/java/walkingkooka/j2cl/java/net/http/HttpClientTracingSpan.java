@@ -0,0 +1,90 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import walkingkooka.j2cl.java.net.http.HttpResponse.ResponseInfo;
+
+import java.util.Optional;
+import java.util.OptionalInt;
+
+/**
+ * A sampled exchange that has not yet ended, {@link #end(Optional, Optional, long)} exports its {@link HttpClientSpan}.
+ */
+final class HttpClientTracingSpan {
+
+    static HttpClientTracingSpan with(final String traceId,
+                                      final String spanId,
+                                      final Optional<String> parentSpanId,
+                                      final HttpRequest request,
+                                      final long start,
+                                      final HttpClientSpanExporter exporter) {
+        return new HttpClientTracingSpan(traceId, spanId, parentSpanId, request, start, exporter);
+    }
+
+    private HttpClientTracingSpan(final String traceId,
+                                  final String spanId,
+                                  final Optional<String> parentSpanId,
+                                  final HttpRequest request,
+                                  final long start,
+                                  final HttpClientSpanExporter exporter) {
+        super();
+        this.traceId = traceId;
+        this.spanId = spanId;
+        this.parentSpanId = parentSpanId;
+        this.request = request;
+        this.start = start;
+        this.exporter = exporter;
+    }
+
+    void end(final Optional<ResponseInfo> info,
+             final Optional<Throwable> failure,
+             final long end) {
+        this.exporter.export(
+                HttpClientSpan.with(this.traceId,
+                        this.spanId,
+                        this.parentSpanId,
+                        this.request,
+                        this.start,
+                        end,
+                        info.isPresent() ? OptionalInt.of(info.get().statusCode()) : OptionalInt.empty(),
+                        failure)
+        );
+    }
+
+    private final String traceId;
+
+    private final String spanId;
+
+    private final Optional<String> parentSpanId;
+
+    /**
+     * The request with its traceparent header, which is sent in place of the original.
+     */
+    final HttpRequest request;
+
+    private final long start;
+
+    private final HttpClientSpanExporter exporter;
+
+    // Object...........................................................................................................
+
+    @Override
+    public String toString() {
+        return this.traceId + " " + this.spanId + " " + this.request;
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Flow.Subscription;
+import java.util.function.LongSupplier;
+
+/**
+ * The transport performs the actual exchange, sending the {@link HttpRequest} and delivering the response to a
+ * {@link HttpClientTransportListener}. In the browser this is {@link HttpClientTransportXmlHttpRequest}.
+ */
+abstract class HttpClientTransport {
+
+    /**
+     * {@see HttpClientTransportAdaptiveConcurrency}
+     */
+    static HttpClientTransportAdaptiveConcurrency adaptiveConcurrency(final HttpClientTransport transport,
+                                                                      final HttpClientAdaptiveConcurrency concurrency,
+                                                                      final LongSupplier now) {
+        return HttpClientTransportAdaptiveConcurrency.with(transport, concurrency, now);
+    }
+
+    /**
+     * {@see HttpClientTransportCircuitBreaker}
+     */
+    static HttpClientTransport circuitBreaker(final HttpClientTransport transport,
+                                              final HttpClientCircuitBreaker circuitBreaker,
+                                              final LongSupplier now) {
+        return HttpClientTransportCircuitBreaker.with(transport, circuitBreaker, now);
+    }
+
+    /**
+     * {@see HttpClientTransportRateLimited}
+     */
+    static HttpClientTransport rateLimited(final HttpClientTransport transport,
+                                           final Optional<HttpClientRateLimit> originLimit,
+                                           final Map<String, HttpClientRateLimit> prefixLimits,
+                                           final HttpClientTimer timer,
+                                           final LongSupplier now) {
+        return HttpClientTransportRateLimited.with(transport, originLimit, prefixLimits, timer, now);
+    }
+
+    /**
+     * {@see HttpClientTransportXmlHttpRequest}
+     */
+    static HttpClientTransport xmlHttpRequest() {
+        return HttpClientTransportXmlHttpRequest.INSTANCE;
+    }
+
+    /**
+     * Package private to keep sub classing limited.
+     */
+    HttpClientTransport() {
+        super();
+    }
+
+    /**
+     * Starts sending the request. The listener must receive {@link HttpClientTransportListener#onSubscribe(Subscription)}
+     * before any other event. Cancelling that {@link Subscription} must abort the exchange (XHR.abort), cancel any
+     * request body {@link Subscription} and release any buffers, after which no further events are delivered.
+     * A transport that cancels its request body {@link Subscription} must also abort the exchange.
+     */
+    abstract void send(final HttpRequest request,
+                       final HttpClientTransportListener listener);
+
+    /**
+     * Allocates a buffer for a body part of the given size, taking it from the {@link HttpClientBufferPool} of the
+     * listener if it has one. The buffer may be returned to the pool once the listener has consumed it, so transports
+     * must not touch a buffer after giving it to {@link HttpClientTransportListener#onNext(Object)}.
+     */
+    static ByteBuffer allocate(final HttpClientTransportListener listener,
+                               final int capacity) {
+        final Optional<HttpClientBufferPool> bufferPool = listener.bufferPool();
+
+        return bufferPool.isPresent() ?
+                bufferPool.get().acquire(capacity) :
+                ByteBuffer.allocate(capacity);
+    }
+
+    /**
+     * Fails an exchange without sending anything.
+     */
+    static void fail(final HttpClientTransportListener listener,
+                     final Throwable cause) {
+        listener.onSubscribe(FAILED);
+        listener.onError(cause);
+    }
+
+    /**
+     * Tests if the {@link Subscription}, or the one wrapped by any {@link HttpClientTransportListenerWrapper}, was
+     * given by {@link #fail(HttpClientTransportListener, Throwable)}, meaning nothing was dispatched.
+     */
+    static boolean isFailed(final Subscription subscription) {
+        return FAILED == subscription ||
+                (subscription instanceof HttpClientTransportListenerWrapper &&
+                        isFailed(((HttpClientTransportListenerWrapper) subscription).subscription));
+    }
+
+    /**
+     * The {@link Subscription} given to a failed exchange, there is nothing to request or abort.
+     */
+    private final static Subscription FAILED = new Subscription() {
+        @Override
+        public void request(final long count) {
+        }
+
+        @Override
+        public void cancel() {
+        }
+
+        @Override
+        public String toString() {
+            return "Failed";
+        }
+    };
+
+    /**
+     * Returns the origin, the scheme, host and port of the given {@link URI}, which is used to group requests that
+     * share a backend.
+     */
+    static String origin(final URI uri) {
+        final int port = uri.getPort();
+        return uri.getScheme() + "://" + uri.getHost() + (-1 != port ? ":" + port : "");
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import walkingkooka.collect.map.Maps;
+
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.function.LongSupplier;
+
+/**
+ * A {@link HttpClientTransport} that limits the number of requests in flight to each origin, adapting each limit to
+ * the observed response latency.
+ */
+final class HttpClientTransportAdaptiveConcurrency extends HttpClientTransport {
+
+    static HttpClientTransportAdaptiveConcurrency with(final HttpClientTransport transport,
+                                                       final HttpClientAdaptiveConcurrency concurrency,
+                                                       final LongSupplier now) {
+        Objects.requireNonNull(transport, "transport");
+        Objects.requireNonNull(concurrency, "concurrency");
+        Objects.requireNonNull(now, "now");
+
+        return new HttpClientTransportAdaptiveConcurrency(transport, concurrency, now);
+    }
+
+    private HttpClientTransportAdaptiveConcurrency(final HttpClientTransport transport,
+                                                   final HttpClientAdaptiveConcurrency concurrency,
+                                                   final LongSupplier now) {
+        super();
+        this.transport = transport;
+        this.concurrency = concurrency;
+        this.now = now;
+    }
+
+    @Override
+    void send(final HttpRequest request,
+              final HttpClientTransportListener listener) {
+        this.origin(origin(request.uri()))
+                .send(request, listener);
+    }
+
+    /**
+     * Returns the state for the given origin, creating it if necessary.
+     */
+    HttpClientTransportAdaptiveConcurrencyOrigin origin(final String origin) {
+        HttpClientTransportAdaptiveConcurrencyOrigin state = this.origins.get(origin);
+        if (null == state) {
+            state = HttpClientTransportAdaptiveConcurrencyOrigin.with(this.concurrency, this.transport, this.now);
+            this.origins.put(origin, state);
+        }
+        return state;
+    }
+
+    /**
+     * Returns a snapshot of the current limit for each origin.
+     */
+    Map<String, Integer> limits() {
+        final Map<String, Integer> limits = Maps.sorted();
+
+        for (final Entry<String, HttpClientTransportAdaptiveConcurrencyOrigin> originAndState : this.origins.entrySet()) {
+            limits.put(originAndState.getKey(), originAndState.getValue().limit());
+        }
+
+        return Maps.readOnly(limits);
+    }
+
+    private final Map<String, HttpClientTransportAdaptiveConcurrencyOrigin> origins = Maps.sorted();
+
+    private final HttpClientTransport transport;
+
+    private final HttpClientAdaptiveConcurrency concurrency;
+
+    private final LongSupplier now;
+
+    // Object...........................................................................................................
+
+    @Override
+    public String toString() {
+        return this.transport + " " + this.origins;
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import walkingkooka.j2cl.java.net.http.HttpResponse.ResponseInfo;
+
+import java.util.concurrent.Flow.Subscription;
+
+/**
+ * Measures the latency of a single exchange for its {@link HttpClientTransportAdaptiveConcurrencyOrigin}, and releases
+ * its slot when it completes, fails or is aborted.
+ */
+final class HttpClientTransportAdaptiveConcurrencyListener extends HttpClientTransportListenerWrapper {
+
+    static HttpClientTransportAdaptiveConcurrencyListener with(final HttpClientTransportListener listener,
+                                                               final HttpClientTransportAdaptiveConcurrencyOrigin origin) {
+        return new HttpClientTransportAdaptiveConcurrencyListener(listener, origin);
+    }
+
+    private HttpClientTransportAdaptiveConcurrencyListener(final HttpClientTransportListener listener,
+                                                           final HttpClientTransportAdaptiveConcurrencyOrigin origin) {
+        super(listener);
+        this.origin = origin;
+        this.start = origin.now.getAsLong();
+    }
+
+    @Override
+    public void onSubscribe(final Subscription subscription) {
+        this.dispatched = false == HttpClientTransport.isFailed(subscription);
+        super.onSubscribe(subscription);
+    }
+
+    /**
+     * False when a transport such as an open circuit breaker failed the exchange without sending it.
+     */
+    private boolean dispatched;
+
+    @Override
+    public void onResponse(final ResponseInfo info) {
+        final HttpClientTransportAdaptiveConcurrencyOrigin origin = this.origin;
+        origin.sample(origin.now.getAsLong() - this.start);
+        this.responded = true;
+
+        super.onResponse(info);
+    }
+
+    private boolean responded;
+
+    @Override
+    public void onError(final Throwable cause) {
+        if (this.dispatched && false == this.responded) {
+            this.origin.failed();
+        }
+        this.release();
+        super.onError(cause);
+    }
+
+    @Override
+    public void onComplete() {
+        this.release();
+        super.onComplete();
+    }
+
+    @Override
+    public void cancel() {
+        super.cancel();
+        this.release();
+    }
+
+    private void release() {
+        if (false == this.released) {
+            this.released = true;
+            this.origin.release();
+        }
+    }
+
+    private boolean released;
+
+    private final long start;
+
+    private final HttpClientTransportAdaptiveConcurrencyOrigin origin;
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import walkingkooka.collect.list.Lists;
+
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * The adaptive concurrency limit for a single origin, tracking the requests in flight and queueing others until a
+ * slot is released.
+ */
+final class HttpClientTransportAdaptiveConcurrencyOrigin {
+
+    static HttpClientTransportAdaptiveConcurrencyOrigin with(final HttpClientAdaptiveConcurrency concurrency,
+                                                             final HttpClientTransport transport,
+                                                             final LongSupplier now) {
+        return new HttpClientTransportAdaptiveConcurrencyOrigin(concurrency, transport, now);
+    }
+
+    private HttpClientTransportAdaptiveConcurrencyOrigin(final HttpClientAdaptiveConcurrency concurrency,
+                                                         final HttpClientTransport transport,
+                                                         final LongSupplier now) {
+        super();
+        this.concurrency = concurrency;
+        this.transport = transport;
+        this.now = now;
+
+        this.limit = concurrency.initialLimit;
+    }
+
+    void send(final HttpRequest request,
+              final HttpClientTransportListener listener) {
+        final HttpClientTransportQueuedListener queued = HttpClientTransportQueuedListener.with(request,
+                listener,
+                this.queue::remove);
+        this.queue.add(queued);
+        queued.queued();
+
+        this.drain();
+    }
+
+    /**
+     * Sends queued requests while there are free slots. A transport that throws fails only its own exchange, releasing
+     * its slot, rather than the exception escaping into the caller, which may be completing another exchange.
+     */
+    private void drain() {
+        final List<HttpClientTransportQueuedListener> queue = this.queue;
+
+        while (false == queue.isEmpty() && this.inFlight < this.limit()) {
+            this.inFlight++;
+
+            final HttpClientTransportQueuedListener queued = queue.remove(0);
+            final HttpClientTransportAdaptiveConcurrencyListener listener = HttpClientTransportAdaptiveConcurrencyListener.with(queued, this);
+            try {
+                queued.send(this.transport, listener);
+            } catch (final RuntimeException cause) {
+                listener.onError(cause);
+            }
+        }
+    }
+
+    /**
+     * Records the time taken for the response headers to arrive, growing or shrinking the limit.
+     */
+    void sample(final long latency) {
+        if (latency > this.concurrency.latencyThreshold.toMillis()) {
+            this.shrink();
+        } else {
+            // only grow when the limit is actually being used
+            if (this.inFlight * 2 >= this.limit()) {
+                this.limit = Math.min(this.concurrency.maxLimit, this.limit + 1 / this.limit);
+            }
+        }
+    }
+
+    /**
+     * The exchange was sent and failed before a response.
+     */
+    void failed() {
+        this.shrink();
+    }
+
+    /**
+     * Shrinks the limit at most once per {@link HttpClientAdaptiveConcurrency#latencyThreshold}, so a burst of slow or
+     * failed exchanges sent under the same limit only backs off once.
+     */
+    private void shrink() {
+        final HttpClientAdaptiveConcurrency concurrency = this.concurrency;
+        final long now = this.now.getAsLong();
+
+        if (now >= this.nextShrink) {
+            this.limit = Math.max(concurrency.minLimit, Math.floor(this.limit * concurrency.backoffRatio));
+            this.nextShrink = now + concurrency.latencyThreshold.toMillis();
+        }
+    }
+
+    /**
+     * The earliest time the limit may shrink again.
+     */
+    private long nextShrink = Long.MIN_VALUE;
+
+    /**
+     * An exchange completed, failed or was aborted, freeing its slot for a queued request.
+     */
+    void release() {
+        this.inFlight--;
+        this.drain();
+    }
+
+    /**
+     * The current limit.
+     */
+    int limit() {
+        return (int) this.limit;
+    }
+
+    /**
+     * The limit is kept as a double so additive increases of less than one accumulate.
+     */
+    private double limit;
+
+    /**
+     * The number of requests sent and not yet completed.
+     */
+    int inFlight;
+
+    /**
+     * Requests waiting for a free slot.
+     */
+    final List<HttpClientTransportQueuedListener> queue = Lists.array();
+
+    private final HttpClientAdaptiveConcurrency concurrency;
+
+    private final HttpClientTransport transport;
+
+    final LongSupplier now;
+
+    // Object...........................................................................................................
+
+    @Override
+    public String toString() {
+        return "limit: " + this.limit() + " inFlight: " + this.inFlight + " queued: " + this.queue.size();
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import walkingkooka.collect.map.Maps;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.LongSupplier;
+
+/**
+ * A {@link HttpClientTransport} that keeps a circuit breaker for each origin, failing requests immediately while the
+ * circuit for their origin is open.
+ */
+final class HttpClientTransportCircuitBreaker extends HttpClientTransport {
+
+    static HttpClientTransportCircuitBreaker with(final HttpClientTransport transport,
+                                                  final HttpClientCircuitBreaker circuitBreaker,
+                                                  final LongSupplier now) {
+        Objects.requireNonNull(transport, "transport");
+        Objects.requireNonNull(circuitBreaker, "circuitBreaker");
+        Objects.requireNonNull(now, "now");
+
+        return new HttpClientTransportCircuitBreaker(transport, circuitBreaker, now);
+    }
+
+    private HttpClientTransportCircuitBreaker(final HttpClientTransport transport,
+                                              final HttpClientCircuitBreaker circuitBreaker,
+                                              final LongSupplier now) {
+        super();
+        this.transport = transport;
+        this.circuitBreaker = circuitBreaker;
+        this.now = now;
+    }
+
+    @Override
+    void send(final HttpRequest request,
+              final HttpClientTransportListener listener) {
+        final String origin = origin(request.uri());
+        final HttpClientTransportCircuitBreakerOrigin state = this.origin(origin);
+
+        if (state.tryAcquire()) {
+            final HttpClientTransportCircuitBreakerListener breakerListener = HttpClientTransportCircuitBreakerListener.with(listener, state);
+            try {
+                this.transport.send(request, breakerListener);
+            } catch (final RuntimeException cause) {
+                // recording the failure returns any half open probe
+                if (null == breakerListener.subscription) {
+                    fail(breakerListener, cause);
+                } else {
+                    breakerListener.onError(cause);
+                }
+            }
+        } else {
+            fail(listener, new IOException("Circuit breaker open for " + origin));
+        }
+    }
+
+    /**
+     * Returns the circuit breaker state for the given origin, creating it if necessary.
+     */
+    HttpClientTransportCircuitBreakerOrigin origin(final String origin) {
+        HttpClientTransportCircuitBreakerOrigin state = this.origins.get(origin);
+        if (null == state) {
+            state = HttpClientTransportCircuitBreakerOrigin.with(this.circuitBreaker, this.now);
+            this.origins.put(origin, state);
+        }
+        return state;
+    }
+
+    private final Map<String, HttpClientTransportCircuitBreakerOrigin> origins = Maps.sorted();
+
+    private final HttpClientTransport transport;
+
+    private final HttpClientCircuitBreaker circuitBreaker;
+
+    private final LongSupplier now;
+
+    // Object...........................................................................................................
+
+    @Override
+    public String toString() {
+        return this.transport + " " + this.origins;
+    }
+}
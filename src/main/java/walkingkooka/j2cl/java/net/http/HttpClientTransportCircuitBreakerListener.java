@@ -0,0 +1,97 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import walkingkooka.j2cl.java.net.http.HttpResponse.ResponseInfo;
+
+/**
+ * Records the outcome of a single exchange with its {@link HttpClientTransportCircuitBreakerOrigin}. Transport failures
+ * and server error responses are failures, and an abort returns any half open probe. The duration of a call is the
+ * time until its response headers, so a slowly streamed body does not make a call slow.
+ */
+final class HttpClientTransportCircuitBreakerListener extends HttpClientTransportListenerWrapper {
+
+    static HttpClientTransportCircuitBreakerListener with(final HttpClientTransportListener listener,
+                                                          final HttpClientTransportCircuitBreakerOrigin origin) {
+        return new HttpClientTransportCircuitBreakerListener(listener, origin);
+    }
+
+    private HttpClientTransportCircuitBreakerListener(final HttpClientTransportListener listener,
+                                                      final HttpClientTransportCircuitBreakerOrigin origin) {
+        super(listener);
+        this.origin = origin;
+        this.start = origin.now.getAsLong();
+    }
+
+    @Override
+    public void onResponse(final ResponseInfo info) {
+        this.duration = this.origin.now.getAsLong() - this.start;
+        this.serverError = info.statusCode() >= 500;
+        super.onResponse(info);
+    }
+
+    private boolean serverError;
+
+    /**
+     * The time taken for the response headers to arrive, or -1 before then.
+     */
+    private long duration = -1;
+
+    @Override
+    public void onError(final Throwable cause) {
+        this.record(true);
+        super.onError(cause);
+    }
+
+    @Override
+    public void onComplete() {
+        this.record(this.serverError);
+        super.onComplete();
+    }
+
+    private void record(final boolean failed) {
+        if (false == this.done) {
+            this.done = true;
+
+            final HttpClientTransportCircuitBreakerOrigin origin = this.origin;
+            final long duration = this.duration;
+            origin.record(failed,
+                    -1 != duration ?
+                            duration :
+                            origin.now.getAsLong() - this.start);
+        }
+    }
+
+    @Override
+    public void cancel() {
+        if (false == this.done) {
+            this.done = true;
+            this.origin.cancelled();
+        }
+        super.cancel();
+    }
+
+    /**
+     * Becomes true once the outcome has been recorded or the exchange aborted.
+     */
+    private boolean done;
+
+    private final long start;
+
+    private final HttpClientTransportCircuitBreakerOrigin origin;
+}
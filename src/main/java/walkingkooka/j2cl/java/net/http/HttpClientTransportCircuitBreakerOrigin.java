@@ -0,0 +1,204 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import java.util.function.LongSupplier;
+
+/**
+ * The circuit breaker state for a single origin, recording the outcomes of the most recent calls in a ring buffer.
+ */
+final class HttpClientTransportCircuitBreakerOrigin {
+
+    static HttpClientTransportCircuitBreakerOrigin with(final HttpClientCircuitBreaker circuitBreaker,
+                                                        final LongSupplier now) {
+        return new HttpClientTransportCircuitBreakerOrigin(circuitBreaker, now);
+    }
+
+    private HttpClientTransportCircuitBreakerOrigin(final HttpClientCircuitBreaker circuitBreaker,
+                                                    final LongSupplier now) {
+        super();
+        this.circuitBreaker = circuitBreaker;
+        this.now = now;
+        this.outcomes = new byte[circuitBreaker.windowSize];
+    }
+
+    enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    /**
+     * Returns true if a call may proceed, moving from {@link State#OPEN} to {@link State#HALF_OPEN} once the open
+     * duration has passed.
+     */
+    boolean tryAcquire() {
+        final boolean acquired;
+
+        switch (this.state) {
+            case CLOSED:
+                acquired = true;
+                break;
+            case OPEN:
+                if (this.now.getAsLong() - this.openedAt < this.circuitBreaker.openDuration.toMillis()) {
+                    acquired = false;
+                    break;
+                }
+                this.state = State.HALF_OPEN;
+                this.probes = 0;
+                this.probeSuccesses = 0;
+                acquired = this.tryProbe();
+                break;
+            case HALF_OPEN:
+                acquired = this.tryProbe();
+                break;
+            default:
+                throw new IllegalStateException("Unknown state " + this.state);
+        }
+
+        return acquired;
+    }
+
+    /**
+     * Lets a call through as a probe while {@link State#HALF_OPEN} and fewer than the permitted probes are in flight.
+     */
+    private boolean tryProbe() {
+        final boolean acquired = this.probes < this.circuitBreaker.halfOpenCalls;
+        if (acquired) {
+            this.probes++;
+        }
+        return acquired;
+    }
+
+    /**
+     * Records the outcome of a call that was let through by {@link #tryAcquire()}.
+     */
+    void record(final boolean failed,
+                final long duration) {
+        final boolean slow = duration > this.circuitBreaker.slowCallDuration.toMillis();
+
+        switch (this.state) {
+            case CLOSED:
+                this.recordClosed(failed, slow);
+                break;
+            case HALF_OPEN:
+                if (failed || slow) {
+                    this.open();
+                } else {
+                    this.probeSuccesses++;
+                    if (this.probeSuccesses >= this.circuitBreaker.halfOpenCalls) {
+                        this.close();
+                    }
+                }
+                break;
+            default:
+                // a call that started before the circuit opened, ignore
+                break;
+        }
+    }
+
+    private void recordClosed(final boolean failed,
+                              final boolean slow) {
+        final byte[] outcomes = this.outcomes;
+        final int next = this.next;
+
+        if (this.count == outcomes.length) {
+            final byte previous = outcomes[next];
+            this.failures -= previous & FAILED;
+            this.slow -= (previous & SLOW) >> 1;
+        } else {
+            this.count++;
+        }
+
+        outcomes[next] = (byte) ((failed ? FAILED : 0) | (slow ? SLOW : 0));
+        this.next = (next + 1) % outcomes.length;
+        this.failures += failed ? 1 : 0;
+        this.slow += slow ? 1 : 0;
+
+        final int count = this.count;
+        if (count == outcomes.length) {
+            final HttpClientCircuitBreaker circuitBreaker = this.circuitBreaker;
+            if (this.failures >= circuitBreaker.failureRateThreshold * count || this.slow >= circuitBreaker.slowCallRateThreshold * count) {
+                this.open();
+            }
+        }
+    }
+
+    private final static byte FAILED = 1;
+    private final static byte SLOW = 2;
+
+    /**
+     * A call that was let through was cancelled, its half open probe is returned.
+     */
+    void cancelled() {
+        if (State.HALF_OPEN == this.state && this.probes > 0) {
+            this.probes--;
+        }
+    }
+
+    private void open() {
+        this.state = State.OPEN;
+        this.openedAt = this.now.getAsLong();
+        this.reset();
+    }
+
+    private void close() {
+        this.state = State.CLOSED;
+        this.reset();
+    }
+
+    private void reset() {
+        this.count = 0;
+        this.next = 0;
+        this.failures = 0;
+        this.slow = 0;
+    }
+
+    State state = State.CLOSED;
+
+    /**
+     * The time when the circuit last opened.
+     */
+    private long openedAt;
+
+    /**
+     * The number of probes let through while half open, and how many of those succeeded.
+     */
+    private int probes;
+    private int probeSuccesses;
+
+    /**
+     * Ring buffer holding the outcome of the most recent calls, failures and slow are running totals of the outcomes.
+     */
+    private final byte[] outcomes;
+    private int count;
+    private int next;
+    private int failures;
+    private int slow;
+
+    private final HttpClientCircuitBreaker circuitBreaker;
+
+    final LongSupplier now;
+
+    // Object...........................................................................................................
+
+    @Override
+    public String toString() {
+        return this.state + " " + this.failures + "/" + this.slow + "/" + this.count;
+    }
+}
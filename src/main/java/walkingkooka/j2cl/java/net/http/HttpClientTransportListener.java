@@ -0,0 +1,66 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import walkingkooka.j2cl.java.net.http.HttpResponse.ResponseInfo;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Flow.Subscriber;
+import java.util.concurrent.Flow.Subscription;
+
+/**
+ * Receives the events of a single exchange from a {@link HttpClientTransport}. The {@link Subscription} given to
+ * {@link #onSubscribe(Subscription)} is used to request body parts and to abort the exchange.
+ */
+interface HttpClientTransportListener extends Subscriber<List<ByteBuffer>> {
+
+    /**
+     * Invoked by a {@link HttpClientTransport} that holds the request in a queue, before giving the listener its
+     * {@link Subscription}. Each is followed by {@link #onDispatched()} when the queue releases the request.
+     */
+    void onQueued();
+
+    /**
+     * Invoked when a queue that reported {@link #onQueued()} releases the request to the next transport.
+     */
+    void onDispatched();
+
+    /**
+     * Invoked once the status and headers are available, before any body parts.
+     */
+    void onResponse(final ResponseInfo info);
+
+    /**
+     * Reports the total bytes of request body sent so far, eg from XHR upload progress events.
+     */
+    void onSendProgress(final long sent);
+
+    /**
+     * Reports the total bytes of response body received so far, eg from XHR progress events, which may be before the
+     * body parts are given to {@link #onNext(Object)}.
+     */
+    void onReceiveProgress(final long received);
+
+    /**
+     * The {@link HttpClientBufferPool} of the {@link HttpClient}, which a transport should take body part buffers from.
+     * Transports should use {@link HttpClientTransport#allocate(HttpClientTransportListener, int)}.
+     */
+    Optional<HttpClientBufferPool> bufferPool();
+}
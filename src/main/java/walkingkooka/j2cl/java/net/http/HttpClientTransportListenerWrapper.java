@@ -0,0 +1,118 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import walkingkooka.j2cl.java.net.http.HttpResponse.ResponseInfo;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Flow.Subscription;
+
+/**
+ * Base class for {@link HttpClientTransportListener} that forward all events to another listener, giving a
+ * {@link HttpClientTransport} decorator a place to observe an exchange. The wrapper is also the {@link Subscription}
+ * given to the wrapped listener so demand and aborts may be observed.
+ */
+abstract class HttpClientTransportListenerWrapper implements HttpClientTransportListener, Subscription {
+
+    HttpClientTransportListenerWrapper(final HttpClientTransportListener listener) {
+        super();
+        this.listener = Objects.requireNonNull(listener, "listener");
+    }
+
+    // HttpClientTransportListener......................................................................................
+
+    @Override
+    public void onSubscribe(final Subscription subscription) {
+        this.subscription = subscription;
+        this.listener.onSubscribe(this);
+    }
+
+    /**
+     * The {@link Subscription} from the wrapped transport.
+     */
+    Subscription subscription;
+
+    @Override
+    public void onQueued() {
+        this.listener.onQueued();
+    }
+
+    @Override
+    public void onDispatched() {
+        this.listener.onDispatched();
+    }
+
+    @Override
+    public void onResponse(final ResponseInfo info) {
+        this.listener.onResponse(info);
+    }
+
+    @Override
+    public void onSendProgress(final long sent) {
+        this.listener.onSendProgress(sent);
+    }
+
+    @Override
+    public void onReceiveProgress(final long received) {
+        this.listener.onReceiveProgress(received);
+    }
+
+    @Override
+    public Optional<HttpClientBufferPool> bufferPool() {
+        return this.listener.bufferPool();
+    }
+
+    @Override
+    public void onNext(final List<ByteBuffer> body) {
+        this.listener.onNext(body);
+    }
+
+    @Override
+    public void onError(final Throwable cause) {
+        this.listener.onError(cause);
+    }
+
+    @Override
+    public void onComplete() {
+        this.listener.onComplete();
+    }
+
+    final HttpClientTransportListener listener;
+
+    // Subscription.....................................................................................................
+
+    @Override
+    public void request(final long count) {
+        this.subscription.request(count);
+    }
+
+    @Override
+    public void cancel() {
+        this.subscription.cancel();
+    }
+
+    // Object...........................................................................................................
+
+    @Override
+    public String toString() {
+        return this.listener.toString();
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import java.util.concurrent.Flow.Subscription;
+import java.util.function.Consumer;
+
+/**
+ * The listener for an exchange that is queued before it is sent. The wrapped listener receives this as its
+ * {@link Subscription} immediately, so it may abort while still queued, which removes it from the queue.
+ * Demand requested before the exchange is sent is forwarded once the transport subscribes, which is also reported to
+ * the wrapped listener as {@link HttpClientTransportListener#onDispatched()}, unless the transport failed the exchange
+ * without sending it.
+ */
+final class HttpClientTransportQueuedListener extends HttpClientTransportListenerWrapper {
+
+    static HttpClientTransportQueuedListener with(final HttpRequest request,
+                                                  final HttpClientTransportListener listener,
+                                                  final Consumer<HttpClientTransportQueuedListener> dequeue) {
+        return new HttpClientTransportQueuedListener(request, listener, dequeue);
+    }
+
+    private HttpClientTransportQueuedListener(final HttpRequest request,
+                                              final HttpClientTransportListener listener,
+                                              final Consumer<HttpClientTransportQueuedListener> dequeue) {
+        super(listener);
+        this.request = request;
+        this.dequeue = dequeue;
+    }
+
+    /**
+     * Gives the wrapped listener its {@link Subscription}, this should be called after the exchange is queued.
+     */
+    void queued() {
+        this.listener.onQueued();
+        this.listener.onSubscribe(this);
+    }
+
+    /**
+     * Sends the queued request using the given {@link HttpClientTransport} and {@link HttpClientTransportListener},
+     * which should eventually forward to this.
+     */
+    void send(final HttpClientTransport transport,
+              final HttpClientTransportListener listener) {
+        transport.send(this.request, listener);
+    }
+
+    final HttpRequest request;
+
+    @Override
+    public void onSubscribe(final Subscription subscription) {
+        this.subscription = subscription;
+        if (false == HttpClientTransport.isFailed(subscription)) {
+            this.listener.onDispatched();
+        }
+
+        final long demand = this.demand;
+        if (demand > 0) {
+            this.demand = 0;
+            subscription.request(demand);
+        }
+    }
+
+    @Override
+    public void request(final long count) {
+        final Subscription subscription = this.subscription;
+        if (null != subscription) {
+            subscription.request(count);
+        } else {
+            final long demand = this.demand + count;
+            this.demand = demand < 0 ? Long.MAX_VALUE : demand;
+        }
+    }
+
+    /**
+     * Demand requested before the transport subscribed.
+     */
+    private long demand;
+
+    @Override
+    public void cancel() {
+        final Subscription subscription = this.subscription;
+        if (null != subscription) {
+            subscription.cancel();
+        } else {
+            this.dequeue.accept(this);
+        }
+    }
+
+    /**
+     * Removes this from its queue.
+     */
+    private final Consumer<HttpClientTransportQueuedListener> dequeue;
+
+    // Object...........................................................................................................
+
+    @Override
+    public String toString() {
+        return this.request.toString();
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import walkingkooka.collect.map.Maps;
+
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.LongSupplier;
+
+/**
+ * A {@link HttpClientTransport} that paces requests using token buckets, delaying requests rather than rejecting them.
+ * Requests whose URI starts with one of the prefixes share that prefix's bucket, the longest prefix winning, all other
+ * requests use a bucket for their origin when a per origin limit is present.
+ */
+final class HttpClientTransportRateLimited extends HttpClientTransport {
+
+    static HttpClientTransportRateLimited with(final HttpClientTransport transport,
+                                               final Optional<HttpClientRateLimit> originLimit,
+                                               final Map<String, HttpClientRateLimit> prefixLimits,
+                                               final HttpClientTimer timer,
+                                               final LongSupplier now) {
+        Objects.requireNonNull(transport, "transport");
+        Objects.requireNonNull(originLimit, "originLimit");
+        Objects.requireNonNull(prefixLimits, "prefixLimits");
+        Objects.requireNonNull(timer, "timer");
+        Objects.requireNonNull(now, "now");
+
+        return new HttpClientTransportRateLimited(transport, originLimit, prefixLimits, timer, now);
+    }
+
+    private HttpClientTransportRateLimited(final HttpClientTransport transport,
+                                           final Optional<HttpClientRateLimit> originLimit,
+                                           final Map<String, HttpClientRateLimit> prefixLimits,
+                                           final HttpClientTimer timer,
+                                           final LongSupplier now) {
+        super();
+        this.transport = transport;
+        this.originLimit = originLimit;
+        this.timer = timer;
+        this.now = now;
+
+        for (final Entry<String, HttpClientRateLimit> prefixAndLimit : prefixLimits.entrySet()) {
+            this.prefixBuckets.put(prefixAndLimit.getKey(), this.bucket(prefixAndLimit.getValue()));
+        }
+    }
+
+    @Override
+    void send(final HttpRequest request,
+              final HttpClientTransportListener listener) {
+        final HttpClientTransportRateLimitedBucket bucket = this.bucket(request);
+        if (null != bucket) {
+            bucket.send(request, listener);
+        } else {
+            this.transport.send(request, listener);
+        }
+    }
+
+    /**
+     * Finds the bucket for the longest matching prefix, or the origin bucket, or null if the request is not limited.
+     */
+    HttpClientTransportRateLimitedBucket bucket(final HttpRequest request) {
+        final String uri = request.uri().toString();
+
+        HttpClientTransportRateLimitedBucket bucket = null;
+        int longest = -1;
+
+        for (final Entry<String, HttpClientTransportRateLimitedBucket> prefixAndBucket : this.prefixBuckets.entrySet()) {
+            final String prefix = prefixAndBucket.getKey();
+            if (prefix.length() > longest && uri.startsWith(prefix)) {
+                bucket = prefixAndBucket.getValue();
+                longest = prefix.length();
+            }
+        }
+
+        if (null == bucket && this.originLimit.isPresent()) {
+            final String origin = origin(request.uri());
+            bucket = this.originBuckets.get(origin);
+            if (null == bucket) {
+                bucket = this.bucket(this.originLimit.get());
+                this.originBuckets.put(origin, bucket);
+            }
+        }
+
+        return bucket;
+    }
+
+    private HttpClientTransportRateLimitedBucket bucket(final HttpClientRateLimit limit) {
+        return HttpClientTransportRateLimitedBucket.with(limit, this.transport, this.timer, this.now);
+    }
+
+    private final Optional<HttpClientRateLimit> originLimit;
+
+    private final Map<String, HttpClientTransportRateLimitedBucket> originBuckets = Maps.sorted();
+
+    private final Map<String, HttpClientTransportRateLimitedBucket> prefixBuckets = Maps.sorted();
+
+    private final HttpClientTransport transport;
+
+    private final HttpClientTimer timer;
+
+    private final LongSupplier now;
+
+    // Object...........................................................................................................
+
+    @Override
+    public String toString() {
+        return this.transport + " " + this.prefixBuckets + " " + this.originBuckets;
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import walkingkooka.collect.list.Lists;
+
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * A token bucket shared by all requests to an origin or URI prefix. Requests take a token when one is available,
+ * otherwise they are queued in order and the {@link HttpClientTimer} is used to send them as tokens are added.
+ */
+final class HttpClientTransportRateLimitedBucket {
+
+    static HttpClientTransportRateLimitedBucket with(final HttpClientRateLimit limit,
+                                                     final HttpClientTransport transport,
+                                                     final HttpClientTimer timer,
+                                                     final LongSupplier now) {
+        return new HttpClientTransportRateLimitedBucket(limit, transport, timer, now);
+    }
+
+    private HttpClientTransportRateLimitedBucket(final HttpClientRateLimit limit,
+                                                 final HttpClientTransport transport,
+                                                 final HttpClientTimer timer,
+                                                 final LongSupplier now) {
+        super();
+        this.limit = limit;
+        this.transport = transport;
+        this.timer = timer;
+        this.now = now;
+
+        this.tokens = limit.burst;
+        this.refilled = now.getAsLong();
+    }
+
+    void send(final HttpRequest request,
+              final HttpClientTransportListener listener) {
+        final HttpClientTransportQueuedListener queued = HttpClientTransportQueuedListener.with(request,
+                listener,
+                this.queue::remove);
+        this.queue.add(queued);
+        queued.queued();
+
+        this.drain();
+    }
+
+    /**
+     * Sends as many queued requests as there are tokens, scheduling another drain for when the next token is
+     * available if any remain queued.
+     */
+    private void drain() {
+        this.refill();
+
+        final List<HttpClientTransportQueuedListener> queue = this.queue;
+        while (false == queue.isEmpty() && this.tokens >= 1) {
+            this.tokens--;
+
+            final HttpClientTransportQueuedListener queued = queue.remove(0);
+            queued.send(this.transport, queued);
+        }
+
+        if (false == queue.isEmpty() && false == this.scheduled) {
+            this.scheduled = true;
+            this.timer.schedule(this::onTimer,
+                    (long) Math.ceil((1 - this.tokens) * 1000 / this.limit.permitsPerSecond));
+        }
+    }
+
+    private void onTimer() {
+        this.scheduled = false;
+        this.drain();
+    }
+
+    /**
+     * Adds the tokens earned since the last refill, never exceeding the burst.
+     */
+    private void refill() {
+        final long now = this.now.getAsLong();
+        final HttpClientRateLimit limit = this.limit;
+
+        this.tokens = Math.min(limit.burst,
+                this.tokens + (now - this.refilled) * limit.permitsPerSecond / 1000);
+        this.refilled = now;
+    }
+
+    double tokens;
+
+    private long refilled;
+
+    /**
+     * Requests waiting for a token, in the order they were sent.
+     */
+    final List<HttpClientTransportQueuedListener> queue = Lists.array();
+
+    /**
+     * True when the timer has been scheduled to drain the queue.
+     */
+    private boolean scheduled;
+
+    private final HttpClientRateLimit limit;
+
+    private final HttpClientTransport transport;
+
+    private final HttpClientTimer timer;
+
+    private final LongSupplier now;
+
+    // Object...........................................................................................................
+
+    @Override
+    public String toString() {
+        return this.limit + " tokens: " + this.tokens + " queued: " + this.queue.size();
+    }
+}
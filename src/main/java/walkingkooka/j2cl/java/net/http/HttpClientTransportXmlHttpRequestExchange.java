@@ -0,0 +1,377 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import elemental2.dom.ProgressEvent;
+import elemental2.dom.XMLHttpRequest;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.map.Maps;
+import walkingkooka.j2cl.java.net.http.HttpRequest.BodyPublisher;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Flow.Subscriber;
+import java.util.concurrent.Flow.Subscription;
+
+/**
+ * A single exchange of a {@link HttpClientTransportXmlHttpRequest}. The exchange is the {@link Subscription} given to
+ * the {@link HttpClientTransportListener}, and the {@link Subscriber} of any request body, which is collected before
+ * the XMLHttpRequest is sent as XHR cannot stream a request body. The response body is read as text with each char
+ * holding a single byte, and is delivered as a single part once loaded, as string decoding subscribers expect.
+ */
+final class HttpClientTransportXmlHttpRequestExchange implements Subscription, Subscriber<ByteBuffer> {
+
+    static HttpClientTransportXmlHttpRequestExchange with(final HttpRequest request,
+                                                         final HttpClientTransportListener listener) {
+        Objects.requireNonNull(request, "request");
+        Objects.requireNonNull(listener, "listener");
+
+        return new HttpClientTransportXmlHttpRequestExchange(request, listener);
+    }
+
+    private HttpClientTransportXmlHttpRequestExchange(final HttpRequest request,
+                                                      final HttpClientTransportListener listener) {
+        super();
+        this.request = request;
+        this.listener = listener;
+    }
+
+    /**
+     * Gives the listener its {@link Subscription} and then subscribes to any request body, sending the XMLHttpRequest
+     * once the body is complete.
+     */
+    void start() {
+        this.listener.onSubscribe(this);
+
+        if (false == this.done) {
+            final Optional<BodyPublisher> bodyPublisher = this.request.bodyPublisher();
+            if (bodyPublisher.isPresent()) {
+                bodyPublisher.get().subscribe(this);
+            } else {
+                this.open(null);
+            }
+        }
+    }
+
+    // Subscription.....................................................................................................
+
+    @Override
+    public void request(final long count) {
+        if (false == this.done) {
+            if (count <= 0) {
+                this.cancel();
+                this.listener.onError(new IllegalArgumentException("Invalid count " + count + " <= 0"));
+            } else {
+                final long demand = this.demand + count;
+                this.demand = demand < 0 ?
+                        Long.MAX_VALUE :
+                        demand;
+                this.flush();
+            }
+        }
+    }
+
+    /**
+     * The number of body parts requested by the listener but not yet delivered.
+     */
+    long demand;
+
+    /**
+     * Aborts the XMLHttpRequest and cancels any request body, after which no further events are delivered.
+     */
+    @Override
+    public void cancel() {
+        this.done = true;
+
+        final Subscription bodySubscription = this.bodySubscription;
+        if (null != bodySubscription) {
+            this.bodySubscription = null;
+            bodySubscription.cancel();
+        }
+        this.body = null;
+
+        final XMLHttpRequest xhr = this.xhr;
+        if (null != xhr) {
+            xhr.abort();
+        }
+    }
+
+    // Subscriber.......................................................................................................
+
+    /**
+     * Requests the entire request body, as XMLHttpRequest needs all of it before sending.
+     */
+    @Override
+    public void onSubscribe(final Subscription subscription) {
+        if (this.done) {
+            subscription.cancel();
+        } else {
+            this.bodySubscription = subscription;
+            this.body = new ByteArrayOutputStream();
+            subscription.request(Long.MAX_VALUE);
+        }
+    }
+
+    private Subscription bodySubscription;
+
+    @Override
+    public void onNext(final ByteBuffer buffer) {
+        final ByteArrayOutputStream body = this.body;
+        if (null != body) {
+            final byte[] bytes = new byte[buffer.remaining()];
+            buffer.get(bytes);
+            body.write(bytes, 0, bytes.length);
+        }
+    }
+
+    /**
+     * The request body collected so far.
+     */
+    private ByteArrayOutputStream body;
+
+    @Override
+    public void onError(final Throwable cause) {
+        if (false == this.done) {
+            this.cancel();
+            this.listener.onError(cause);
+        }
+    }
+
+    /**
+     * XMLHttpRequest encodes a {@link String} body as UTF-8, so the collected body is decoded as UTF-8 before sending.
+     */
+    @Override
+    public void onComplete() {
+        final ByteArrayOutputStream body = this.body;
+        if (false == this.done && null != body) {
+            this.bodySubscription = null;
+            this.body = null;
+            this.open(new String(body.toByteArray(), StandardCharsets.UTF_8));
+        }
+    }
+
+    // XMLHttpRequest...................................................................................................
+
+    /**
+     * Opens and sends the XMLHttpRequest, reporting any failure to the listener rather than the caller, which may be
+     * the request body publisher.
+     */
+    private void open(final String body) {
+        try {
+            this.open0(body);
+        } catch (final RuntimeException cause) {
+            this.onError(cause);
+        }
+    }
+
+    private void open0(final String body) {
+        final HttpRequest request = this.request;
+
+        final XMLHttpRequest xhr = new XMLHttpRequest();
+        this.xhr = xhr;
+
+        xhr.open(request.method(), request.uri().toString());
+        for (final Map.Entry<String, List<String>> nameAndValues : request.headers().map().entrySet()) {
+            final String name = nameAndValues.getKey();
+            for (final String value : nameAndValues.getValue()) {
+                xhr.setRequestHeader(name, value);
+            }
+        }
+        request.timeout()
+                .ifPresent(t -> xhr.timeout = (int) t.toMillis());
+        xhr.overrideMimeType(BYTES_MIME_TYPE);
+
+        xhr.addEventListener("readystatechange", e -> this.onReadyStateChange());
+        xhr.addEventListener("progress", e -> this.onReceiveProgress((ProgressEvent) e));
+        xhr.addEventListener("load", e -> this.onLoad());
+        xhr.addEventListener("error", e -> this.onError(new IOException("Network error " + request.method() + " " + request.uri())));
+        xhr.addEventListener("timeout", e -> this.onError(new HttpTimeoutException("Request timed out")));
+
+        if (null == body || body.isEmpty()) {
+            xhr.send();
+        } else {
+            xhr.upload.addEventListener("progress", e -> this.onSendProgress((ProgressEvent) e));
+            xhr.send(body);
+        }
+    }
+
+    /**
+     * Reads the response body as text without decoding, so each char of {@link XMLHttpRequest#responseText} holds
+     * a single byte in its lower 8 bits.
+     */
+    private final static String BYTES_MIME_TYPE = "text/plain; charset=x-user-defined";
+
+    /**
+     * The {@link XMLHttpRequest#readyState} once the status and headers are available.
+     */
+    private final static int HEADERS_RECEIVED = 2;
+
+    private void onReadyStateChange() {
+        if (false == this.done && this.xhr.readyState >= HEADERS_RECEIVED) {
+            this.respond();
+        }
+    }
+
+    private void onSendProgress(final ProgressEvent event) {
+        if (false == this.done) {
+            this.listener.onSendProgress((long) event.loaded);
+        }
+    }
+
+    private void onReceiveProgress(final ProgressEvent event) {
+        if (false == this.done) {
+            this.respond();
+            if (false == this.done) {
+                this.listener.onReceiveProgress((long) event.loaded);
+            }
+        }
+    }
+
+    private void onLoad() {
+        if (false == this.done) {
+            this.respond();
+            if (false == this.responded) {
+                this.onError(new IOException("Missing response status " + this.request.method() + " " + this.request.uri()));
+            } else {
+                this.loaded = true;
+                this.flush();
+            }
+        }
+    }
+
+    /**
+     * Reports the status and headers once. A status of zero means the request failed and an error event follows.
+     */
+    private void respond() {
+        final XMLHttpRequest xhr = this.xhr;
+        final int statusCode = (int) xhr.status;
+
+        if (false == this.responded && 0 != statusCode) {
+            this.responded = true;
+            this.listener.onResponse(
+                    HttpClientTransportXmlHttpRequestResponseInfo.with(
+                            statusCode,
+                            headers(xhr.getAllResponseHeaders())
+                    )
+            );
+        }
+    }
+
+    private boolean responded;
+
+    /**
+     * Once the body has loaded and the listener has requested it, delivers the entire body as a single part, then
+     * completes. An empty body completes without a part.
+     */
+    private void flush() {
+        final XMLHttpRequest xhr = this.xhr;
+
+        if (null != xhr && false == this.done && this.loaded) {
+            final String text = xhr.responseText;
+            final int length = null != text ?
+                    text.length() :
+                    0;
+
+            if (0 == length) {
+                this.complete();
+            } else {
+                if (this.demand > 0) {
+                    final ByteBuffer buffer = HttpClientTransport.allocate(this.listener, length);
+                    copy(text, 0, buffer);
+                    buffer.flip();
+
+                    // the body is delivered once even if the listener requests more within onNext
+                    this.xhr = null;
+                    this.demand--;
+                    this.listener.onNext(Lists.of(buffer));
+                    this.complete();
+                }
+            }
+        }
+    }
+
+    private void complete() {
+        if (false == this.done) {
+            this.done = true;
+            this.xhr = null;
+            this.listener.onComplete();
+        }
+    }
+
+    /**
+     * Becomes true when the load event is received, after which no more body arrives.
+     */
+    private boolean loaded;
+
+    private XMLHttpRequest xhr;
+
+    /**
+     * Becomes true once the exchange completes, fails or is cancelled, after which no more events are delivered.
+     */
+    boolean done;
+
+    private final HttpRequest request;
+
+    private final HttpClientTransportListener listener;
+
+    // helpers..........................................................................................................
+
+    /**
+     * Parses the text returned by XMLHttpRequest.getAllResponseHeaders, one header per line.
+     */
+    static HttpHeaders headers(final String text) {
+        final Map<String, List<String>> nameToValues = Maps.sorted(String.CASE_INSENSITIVE_ORDER);
+
+        if (null != text) {
+            for (final String line : text.split("\r\n")) {
+                final int colon = line.indexOf(':');
+                if (colon > 0) {
+                    nameToValues.computeIfAbsent(line.substring(0, colon).trim(), n -> Lists.array())
+                            .add(line.substring(colon + 1).trim());
+                }
+            }
+        }
+
+        return HttpHeaders.of(nameToValues, (n, v) -> true);
+    }
+
+    /**
+     * Copies the chars of text starting at from into the buffer, keeping only the lower 8 bits of each.
+     */
+    static void copy(final String text,
+                     final int from,
+                     final ByteBuffer buffer) {
+        final int length = text.length();
+        for (int i = from; i < length; i++) {
+            buffer.put((byte) text.charAt(i));
+        }
+    }
+
+    // Object...........................................................................................................
+
+    @Override
+    public String toString() {
+        return this.request.toString();
+    }
+}
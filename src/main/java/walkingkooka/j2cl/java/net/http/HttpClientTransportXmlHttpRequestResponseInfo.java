@@ -0,0 +1,72 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import walkingkooka.j2cl.java.net.http.HttpResponse.ResponseInfo;
+
+import java.util.Objects;
+
+/**
+ * The {@link ResponseInfo} of a {@link HttpClientTransportXmlHttpRequestExchange}, captured once the status and
+ * headers have been received.
+ */
+final class HttpClientTransportXmlHttpRequestResponseInfo implements ResponseInfo {
+
+    static HttpClientTransportXmlHttpRequestResponseInfo with(final int statusCode,
+                                                              final HttpHeaders headers) {
+        Objects.requireNonNull(headers, "headers");
+
+        return new HttpClientTransportXmlHttpRequestResponseInfo(statusCode, headers);
+    }
+
+    private HttpClientTransportXmlHttpRequestResponseInfo(final int statusCode,
+                                                          final HttpHeaders headers) {
+        super();
+        this.statusCode = statusCode;
+        this.headers = headers;
+    }
+
+    @Override
+    public HttpHeaders headers() {
+        return this.headers;
+    }
+
+    private final HttpHeaders headers;
+
+    @Override
+    public int statusCode() {
+        return this.statusCode;
+    }
+
+    private final int statusCode;
+
+    /**
+     * XMLHttpRequest does not reveal the protocol, so HTTP/1.1 is always reported.
+     */
+    @Override
+    public HttpClient.Version version() {
+        return HttpClient.Version.HTTP_1_1;
+    }
+
+    // Object...........................................................................................................
+
+    @Override
+    public String toString() {
+        return this.statusCode + " " + this.headers;
+    }
+}
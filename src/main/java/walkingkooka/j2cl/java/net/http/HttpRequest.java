@@ -20,8 +20,10 @@ package walkingkooka.j2cl.java.net.http;
 import java.net.URI;
 import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.concurrent.Flow;
 
 public interface HttpRequest {
@@ -40,11 +42,22 @@ public interface HttpRequest {
 
         Builder headers(final String... headers);
 
+        /**
+         * Limits the bytes of the response body, replacing any limit set by {@link HttpClient.Builder#maxBodySize(long)}.
+         */
+        Builder maxBodySize(final long maxBodySize);
+
         Builder method(final String method,
                        final BodyPublisher bodyPublisher);
 
         Builder POST(final BodyPublisher bodyPublisher);
 
+        /**
+         * Reports the bytes transferred by this request, replacing any listener given to
+         * {@link HttpClient.Builder#progressListener(HttpClientProgressListener)}.
+         */
+        Builder progressListener(final HttpClientProgressListener listener);
+
         Builder PUT(final BodyPublisher bodyPublisher);
 
         Builder setHeader(final String name,
@@ -64,14 +77,17 @@ public interface HttpRequest {
     }
 
     final class BodyPublishers {
-//        public static BodyPublisher fromPublisher(final Flow.Publisher<? extends ByteBuffer> publisher) {
-//            throw new UnsupportedOperationException();
-//        }
-//
-//        public static BodyPublisher fromPublisher(final Flow.Publisher<? extends ByteBuffer> publisher,
-//                                                  final long contentLength) {
-//            throw new UnsupportedOperationException();
-//        }
+        /**
+         * The transport subscribes directly to the {@link Flow.Publisher}, requesting chunks only as it can send them.
+         */
+        public static BodyPublisher fromPublisher(final Flow.Publisher<? extends ByteBuffer> publisher) {
+            return HttpRequestPublishersBodyPublisherFromPublisher.unknownLength(publisher);
+        }
+
+        public static BodyPublisher fromPublisher(final Flow.Publisher<? extends ByteBuffer> publisher,
+                                                  final long contentLength) {
+            return HttpRequestPublishersBodyPublisherFromPublisher.with(publisher, contentLength);
+        }
 
         public static BodyPublisher noBody() {
             return HttpRequestPublishersBodyPublisher.noBody();
@@ -92,11 +108,9 @@ public interface HttpRequest {
 //        }
 
         public static BodyPublisher ofString(final String s) {
-            return HttpRequestPublishersBodyPublisher.stringBody(s, UTF8);
+            return HttpRequestPublishersBodyPublisher.stringBody(s, StandardCharsets.UTF_8);
         }
 
-        private final static Charset UTF8 = Charset.forName("UTF-8");
-
         public static BodyPublisher ofString(final String s,
                                              final Charset charset) {
             return HttpRequestPublishersBodyPublisher.stringBody(s, charset);
@@ -120,8 +134,18 @@ public interface HttpRequest {
 
     HttpHeaders headers();
 
+    /**
+     * The limit given to {@link Builder#maxBodySize(long)}, if any.
+     */
+    OptionalLong maxBodySize();
+
     String method();
 
+    /**
+     * The listener given to {@link Builder#progressListener(HttpClientProgressListener)}, if any.
+     */
+    Optional<HttpClientProgressListener> progressListener();
+
     Optional<Duration> timeout();
 
     URI uri();
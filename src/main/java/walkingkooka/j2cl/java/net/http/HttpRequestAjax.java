@@ -24,13 +24,16 @@ import walkingkooka.j2cl.java.net.http.HttpClient.Version;
 import java.net.URI;
 import java.time.Duration;
 import java.util.Optional;
+import java.util.OptionalLong;
 
 final class HttpRequestAjax implements HttpRequest {
 
     static HttpRequestAjax with(final Optional<BodyPublisher> bodyPublisher,
                                 final boolean expectContinue,
                                 final HttpHeaders headers,
+                                final OptionalLong maxBodySize,
                                 final String method,
+                                final Optional<HttpClientProgressListener> progressListener,
                                 final Optional<Duration> timeout,
                                 final URI uri,
                                 final Optional<Version> version) {
@@ -41,7 +44,9 @@ final class HttpRequestAjax implements HttpRequest {
         return new HttpRequestAjax(bodyPublisher,
                 expectContinue,
                 headers,
+                maxBodySize,
                 null == method ? "GET" : method, // default METHOD is GET
+                progressListener,
                 timeout,
                 uri,
                 version);
@@ -50,14 +55,18 @@ final class HttpRequestAjax implements HttpRequest {
     private HttpRequestAjax(final Optional<BodyPublisher> bodyPublisher,
                             final boolean expectContinue,
                             final HttpHeaders headers,
+                            final OptionalLong maxBodySize,
                             final String method,
+                            final Optional<HttpClientProgressListener> progressListener,
                             final Optional<Duration> timeout,
                             final URI uri,
                             final Optional<Version> version) {
         this.bodyPublisher = bodyPublisher;
         this.expectContinue = expectContinue;
         this.headers = headers;
+        this.maxBodySize = maxBodySize;
         this.method = method;
+        this.progressListener = progressListener;
         this.timeout = timeout;
         this.uri = uri;
         this.version = version;
@@ -84,6 +93,13 @@ final class HttpRequestAjax implements HttpRequest {
 
     final HttpHeaders headers;
 
+    @Override
+    public OptionalLong maxBodySize() {
+        return this.maxBodySize;
+    }
+
+    final OptionalLong maxBodySize;
+
     @Override
     public String method() {
         return this.method;
@@ -91,6 +107,13 @@ final class HttpRequestAjax implements HttpRequest {
 
     final String method;
 
+    @Override
+    public Optional<HttpClientProgressListener> progressListener() {
+        return this.progressListener;
+    }
+
+    final Optional<HttpClientProgressListener> progressListener;
+
     @Override
     public Optional<Duration> timeout() {
         return this.timeout;
@@ -133,6 +156,7 @@ final class HttpRequestAjax implements HttpRequest {
                 .labelSeparator(": ")
                 .label("expectContinue").value(this.expectContinue)
                 .separator(", ")
+                .label("maxBodySize").value(this.maxBodySize.isPresent() ? this.maxBodySize.getAsLong() : null)
                 .label("timeout").value(this.timeout)
                 .value(this.bodyPublisher)
                 .build();
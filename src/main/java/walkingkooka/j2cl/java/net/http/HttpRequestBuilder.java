@@ -32,18 +32,21 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.function.BiPredicate;
 
 final class HttpRequestBuilder implements HttpRequest.Builder {
 
     static HttpRequestBuilder empty() {
-        return new HttpRequestBuilder(null, null, false, Maps.sorted(String.CASE_INSENSITIVE_ORDER), null, null, null);
+        return new HttpRequestBuilder(null, null, false, Maps.sorted(String.CASE_INSENSITIVE_ORDER), null, null, null, null, null);
     }
 
     private HttpRequestBuilder(final String method,
                                final BodyPublisher bodyPublisher,
                                final boolean expectContinue,
                                final Map<String, List<String>> headers,
+                               final Long maxBodySize,
+                               final HttpClientProgressListener progressListener,
                                final Duration timeout,
                                final URI uri,
                                final Version version) {
@@ -53,6 +56,8 @@ final class HttpRequestBuilder implements HttpRequest.Builder {
         this.bodyPublisher = bodyPublisher;
         this.expectContinue = expectContinue;
         this.headers = headers;
+        this.maxBodySize = maxBodySize;
+        this.progressListener = progressListener;
         this.timeout = timeout;
         this.uri = uri;
         this.version = version;
@@ -64,6 +69,8 @@ final class HttpRequestBuilder implements HttpRequest.Builder {
                 this.bodyPublisher,
                 this.expectContinue,
                 this.headers,
+                this.maxBodySize,
+                this.progressListener,
                 this.timeout,
                 this.uri,
                 this.version);
@@ -165,6 +172,28 @@ final class HttpRequestBuilder implements HttpRequest.Builder {
 
     final Map<String, List<String>> headers;
 
+    @Override
+    public HttpRequestBuilder maxBodySize(final long maxBodySize) {
+        if (maxBodySize < 0) {
+            throw new IllegalArgumentException("Invalid maxBodySize " + maxBodySize + " must not be negative");
+        }
+
+        this.maxBodySize = maxBodySize;
+        return this;
+    }
+
+    Long maxBodySize;
+
+    @Override
+    public HttpRequestBuilder progressListener(final HttpClientProgressListener listener) {
+        Objects.requireNonNull(listener, "listener");
+
+        this.progressListener = listener;
+        return this;
+    }
+
+    HttpClientProgressListener progressListener;
+
     @Override
     public HttpRequestBuilder timeout(final Duration duration) {
         Objects.requireNonNull(duration, "duration");
@@ -200,7 +229,9 @@ final class HttpRequestBuilder implements HttpRequest.Builder {
         return HttpRequestAjax.with(Optional.ofNullable(this.bodyPublisher),
                 this.expectContinue,
                 HttpHeaders.of(this.headers, KEEP_ALL_HEADERS),
+                null != this.maxBodySize ? OptionalLong.of(this.maxBodySize) : OptionalLong.empty(),
                 this.method,
+                Optional.ofNullable(this.progressListener),
                 Optional.ofNullable(this.timeout),
                 this.uri,
                 Optional.ofNullable(this.version));
@@ -235,6 +266,7 @@ final class HttpRequestBuilder implements HttpRequest.Builder {
         return b.separator("\n\n")
                 .label("expectContinue").value(this.expectContinue)
                 .separator(", ")
+                .label("maxBodySize").value(this.maxBodySize)
                 .label("timeout").value(this.timeout)
                 .value(this.bodyPublisher)
                 .build();
@@ -25,7 +25,8 @@ import java.util.Objects;
 import java.util.concurrent.Flow.Subscriber;
 
 /**
- * Base class for any of the {@link BodyPublisher} factory methods in {@link HttpRequest.BodyPublishers}
+ * Base class for any of the {@link BodyPublisher} factory methods in {@link HttpRequest.BodyPublishers}. Sub classes
+ * are immutable, keeping no state for any {@link Subscriber}.
  */
 abstract class HttpRequestPublishersBodyPublisher implements BodyPublisher {
 
@@ -53,35 +54,40 @@ abstract class HttpRequestPublishersBodyPublisher implements BodyPublisher {
 
     // BodyPublisher....................................................................................................
 
+    /**
+     * The length of the body in bytes, which may differ from the length of {@link #stringBody()}.
+     */
     @Override
-    public final long contentLength() {
-        return this.stringBody().length();
-    }
+    public abstract long contentLength();
 
+    /**
+     * Each {@link Subscriber} gets its own {@link HttpRequestPublishersBodyPublisherSubscription} with its own cursor,
+     * so the same publisher and {@link HttpRequest} may be sent any number of times, including concurrently.
+     */
     @Override
     public final void subscribe(final Subscriber<? super ByteBuffer> subscriber) {
         Objects.requireNonNull(subscriber, "subscriber");
-        this.subscriber = subscriber;
-
-        subscriber.onSubscribe(HttpRequestPublishersBodyPublisherSubscription.with(this));
-        this.onSubscribe(subscriber);
-    }
-
-    abstract void onSubscribe(final Subscriber<? super ByteBuffer> subscriber);
 
-    final void onCancel() {
+        final HttpRequestPublishersBodyPublisherSubscription subscription = HttpRequestPublishersBodyPublisherSubscription.with(this, subscriber);
+        subscriber.onSubscribe(subscription);
 
+        // the subscriber may have cancelled within onSubscribe
+        if (false == subscription.cancelled) {
+            this.onSubscribe(subscriber, subscription);
+        }
     }
 
     /**
-     * Prepare the content as a {@link String}.
+     * Starts publishing, typically by giving the body to {@link HttpRequestPublishersBodyPublisherSubscription#start(ByteBuffer)}
+     * which publishes chunks as they are requested.
      */
-    abstract String stringBody();
+    abstract void onSubscribe(final Subscriber<? super ByteBuffer> subscriber,
+                              final HttpRequestPublishersBodyPublisherSubscription subscription);
 
     /**
-     * Only one subscriber may be recorded.
+     * Prepare the content as a {@link String}.
      */
-    private Subscriber<? super ByteBuffer> subscriber = null;
+    abstract String stringBody();
 
     // Object...........................................................................................................
 
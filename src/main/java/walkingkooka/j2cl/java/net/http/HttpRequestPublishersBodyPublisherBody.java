@@ -27,23 +27,23 @@ abstract class HttpRequestPublishersBodyPublisherBody extends HttpRequestPublish
     }
 
     @Override
-    void onSubscribe(final Subscriber<? super ByteBuffer> subscriber) {
-        if (this.contentLength() > 0) {
-            this.onSubscribe0(subscriber);
-        }
-        subscriber.onComplete();
-    }
-
-    private void onSubscribe0(final Subscriber<? super ByteBuffer> subscriber) {
+    void onSubscribe(final Subscriber<? super ByteBuffer> subscriber,
+                     final HttpRequestPublishersBodyPublisherSubscription subscription) {
         if (subscriber instanceof HttpRequestPublishersBodyPublisherSubscriber) {
             this.onSubscribeHttpRequestPublishersBodyPublisherSubscriber((HttpRequestPublishersBodyPublisherSubscriber) subscriber);
         } else {
-            subscriber.onNext(this.byteBufferBody());
+            subscription.start(this.byteBufferBody());
         }
     }
 
+    /**
+     * XMLHttpRequest.send accepts the whole body as a single {@link String}, so there is nothing to gain from chunking.
+     */
     private void onSubscribeHttpRequestPublishersBodyPublisherSubscriber(final HttpRequestPublishersBodyPublisherSubscriber subscriber) {
-        subscriber.onNextStringBody(this.stringBody());
+        if (this.contentLength() > 0) {
+            subscriber.onNextStringBody(this.stringBody());
+        }
+        subscriber.onComplete();
     }
 
     abstract ByteBuffer byteBufferBody();
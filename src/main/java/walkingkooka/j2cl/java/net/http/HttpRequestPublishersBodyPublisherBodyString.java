@@ -36,13 +36,31 @@ final class HttpRequestPublishersBodyPublisherBodyString extends HttpRequestPubl
         super();
         this.body = body;
         this.charset = charset;
+        this.bytes = body.getBytes(charset);
     }
 
+    /**
+     * The length of the encoded bytes, not the number of chars in the body.
+     */
+    @Override
+    public long contentLength() {
+        return this.bytes.length;
+    }
+
+    /**
+     * Each subscription gets its own {@link ByteBuffer} and cursor over the shared encoded bytes, which are never
+     * modified.
+     */
     @Override
     ByteBuffer byteBufferBody() {
-        return ByteBuffer.wrap(this.body.getBytes(this.charset));
+        return ByteBuffer.wrap(this.bytes);
     }
 
+    /**
+     * The body encoded once, rather than for each subscription.
+     */
+    private final byte[] bytes;
+
     @Override
     String stringBody() {
         return this.body;
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import walkingkooka.j2cl.java.net.http.HttpRequest.BodyPublisher;
+
+import java.nio.ByteBuffer;
+import java.util.Objects;
+import java.util.concurrent.Flow.Publisher;
+import java.util.concurrent.Flow.Subscriber;
+
+/**
+ * A {@link BodyPublisher} that subscribes the transport directly to a {@link Publisher}, so chunks are only produced as
+ * the transport requests them and the body is never materialised.
+ */
+final class HttpRequestPublishersBodyPublisherFromPublisher implements BodyPublisher {
+
+    /**
+     * The {@link #contentLength()} when the length of the body is unknown.
+     */
+    private final static long UNKNOWN_LENGTH = -1;
+
+    static HttpRequestPublishersBodyPublisherFromPublisher unknownLength(final Publisher<? extends ByteBuffer> publisher) {
+        Objects.requireNonNull(publisher, "publisher");
+
+        return new HttpRequestPublishersBodyPublisherFromPublisher(publisher, UNKNOWN_LENGTH);
+    }
+
+    static HttpRequestPublishersBodyPublisherFromPublisher with(final Publisher<? extends ByteBuffer> publisher,
+                                                                final long contentLength) {
+        Objects.requireNonNull(publisher, "publisher");
+        if (contentLength <= 0) {
+            throw new IllegalArgumentException("Invalid contentLength " + contentLength + " must be greater than 0");
+        }
+
+        return new HttpRequestPublishersBodyPublisherFromPublisher(publisher, contentLength);
+    }
+
+    private HttpRequestPublishersBodyPublisherFromPublisher(final Publisher<? extends ByteBuffer> publisher,
+                                                            final long contentLength) {
+        super();
+        this.publisher = publisher;
+        this.contentLength = contentLength;
+    }
+
+    // BodyPublisher....................................................................................................
+
+    @Override
+    public long contentLength() {
+        return this.contentLength;
+    }
+
+    private final long contentLength;
+
+    /**
+     * Demand and cancellation from the transport go straight to the {@link Publisher}.
+     */
+    @Override
+    public void subscribe(final Subscriber<? super ByteBuffer> subscriber) {
+        Objects.requireNonNull(subscriber, "subscriber");
+
+        this.publisher.subscribe(subscriber);
+    }
+
+    private final Publisher<? extends ByteBuffer> publisher;
+
+    // Object...........................................................................................................
+
+    @Override
+    public String toString() {
+        return UNKNOWN_LENGTH == this.contentLength ?
+                this.publisher.toString() :
+                this.publisher + " " + this.contentLength;
+    }
+}
@@ -31,10 +31,18 @@ final class HttpRequestPublishersBodyPublisherNoBody extends HttpRequestPublishe
     }
 
     @Override
-    void onSubscribe(final Subscriber<? super ByteBuffer> subscriber) {
-        subscriber.onComplete();
+    public long contentLength() {
+        return 0;
     }
 
+    @Override
+    void onSubscribe(final Subscriber<? super ByteBuffer> subscriber,
+                     final HttpRequestPublishersBodyPublisherSubscription subscription) {
+        subscription.start(EMPTY);
+    }
+
+    private final static ByteBuffer EMPTY = ByteBuffer.allocate(0);
+
     @Override
     String stringBody() {
         return "";
@@ -17,17 +17,32 @@
 
 package walkingkooka.j2cl.java.net.http;
 
+import java.nio.ByteBuffer;
+import java.util.concurrent.Flow.Subscriber;
 import java.util.concurrent.Flow.Subscription;
 
+/**
+ * The {@link Subscription} given to a {@link Subscriber} of a {@link HttpRequestPublishersBodyPublisher}. The body is
+ * published in chunks of at most {@link #CHUNK_SIZE} bytes, one for each unit of demand, so a slow transport is never
+ * given more than it requested. The {@link Subscriber} is completed after the last chunk, without waiting for demand.
+ */
 final class HttpRequestPublishersBodyPublisherSubscription implements Subscription {
 
-    static HttpRequestPublishersBodyPublisherSubscription with(final HttpRequestPublishersBodyPublisher publisher) {
-        return new HttpRequestPublishersBodyPublisherSubscription(publisher);
+    /**
+     * The largest chunk given to {@link Subscriber#onNext(Object)}, the same as the JRE.
+     */
+    final static int CHUNK_SIZE = 16 * 1024;
+
+    static HttpRequestPublishersBodyPublisherSubscription with(final HttpRequestPublishersBodyPublisher publisher,
+                                                               final Subscriber<? super ByteBuffer> subscriber) {
+        return new HttpRequestPublishersBodyPublisherSubscription(publisher, subscriber);
     }
 
-    private HttpRequestPublishersBodyPublisherSubscription(final HttpRequestPublishersBodyPublisher publisher) {
+    private HttpRequestPublishersBodyPublisherSubscription(final HttpRequestPublishersBodyPublisher publisher,
+                                                           final Subscriber<? super ByteBuffer> subscriber) {
         super();
         this.publisher = publisher;
+        this.subscriber = subscriber;
     }
 
     @Override
@@ -35,13 +50,76 @@ final class HttpRequestPublishersBodyPublisherSubscription implements Subscripti
         if (count <= 0) {
             throw new IllegalArgumentException("Invalid request count " + count);
         }
+
+        final long demand = this.demand + count;
+        this.demand = demand < 0 ? Long.MAX_VALUE : demand;
+        this.drain();
     }
 
+    /**
+     * Chunks requested but not yet published.
+     */
+    private long demand;
+
+    /**
+     * Called by the publisher after {@link Subscriber#onSubscribe(Subscription)} returns, publishing any chunks already
+     * requested.
+     */
+    void start(final ByteBuffer body) {
+        this.body = body;
+        this.drain();
+    }
+
+    /**
+     * The remaining body, null until {@link #start(ByteBuffer)} and after completion or cancellation.
+     */
+    private ByteBuffer body;
+
+    private void drain() {
+        if (false == this.draining) {
+            this.draining = true;
+            try {
+                this.drain0();
+            } finally {
+                this.draining = false;
+            }
+        }
+    }
+
+    private void drain0() {
+        final ByteBuffer body = this.body;
+        if (null != body) {
+            while (this.demand > 0 && body.hasRemaining() && false == this.cancelled) {
+                this.demand--;
+                this.subscriber.onNext(nextChunk(body));
+            }
+            if (false == body.hasRemaining() && false == this.cancelled) {
+                this.body = null;
+                this.subscriber.onComplete();
+            }
+        }
+    }
+
+    /**
+     * Copies the next chunk so each has its own backing array, just like the JRE.
+     */
+    private static ByteBuffer nextChunk(final ByteBuffer body) {
+        final byte[] chunk = new byte[Math.min(CHUNK_SIZE, body.remaining())];
+        body.get(chunk);
+        return ByteBuffer.wrap(chunk);
+    }
+
+    /**
+     * Guards against a {@link Subscriber} requesting more from within {@link Subscriber#onNext(Object)}, the loop in
+     * {@link #drain0()} picks up the new demand.
+     */
+    private boolean draining;
+
     @Override
     public final void cancel() {
         if (false == this.cancelled) {
             this.cancelled = true;
-            this.publisher.onCancel();
+            this.body = null;
         }
     }
 
@@ -51,4 +129,13 @@ final class HttpRequestPublishersBodyPublisherSubscription implements Subscripti
     boolean cancelled;
 
     private final HttpRequestPublishersBodyPublisher publisher;
+
+    private final Subscriber<? super ByteBuffer> subscriber;
+
+    // Object...........................................................................................................
+
+    @Override
+    public String toString() {
+        return this.publisher + " demand: " + this.demand;
+    }
 }
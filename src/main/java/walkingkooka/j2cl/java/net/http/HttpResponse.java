@@ -17,14 +17,22 @@
 
 package walkingkooka.j2cl.java.net.http;
 
+import java.io.InputStream;
 import java.net.URI;
-import java.net.http.HttpHeaders;
 import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.Flow;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 public interface HttpResponse<T> {
 
@@ -39,58 +47,126 @@ public interface HttpResponse<T> {
 //            throw new UnsupportedOperationException();
 //        }
 
+        /**
+         * Creates a {@link BodyHandler} that uses the matched {@link BodyHandler} when the {@link ResponseInfo} passes the
+         * condition, otherwise the other {@link BodyHandler}.
+         */
+        public static <T> BodyHandler<T> dispatching(final Predicate<? super ResponseInfo> condition,
+                                                     final BodyHandler<T> matched,
+                                                     final BodyHandler<T> otherwise) {
+            return HttpResponseBodyHandler.dispatching(condition, matched, otherwise);
+        }
+
+        /**
+         * Dispatches on the status code, eg <code>dispatchingStatusCode((s) -&gt; s &lt; 300, ofString(), replacing(null))</code>
+         * drains the body of any unsuccessful response.
+         */
+        public static <T> BodyHandler<T> dispatchingStatusCode(final IntPredicate statusCode,
+                                                               final BodyHandler<T> matched,
+                                                               final BodyHandler<T> otherwise) {
+            Objects.requireNonNull(statusCode, "statusCode");
+
+            return dispatching((i) -> statusCode.test(i.statusCode()), matched, otherwise);
+        }
+
+        /**
+         * Dispatches on the Content-Type header, a response without a Content-Type uses the other {@link BodyHandler}.
+         */
+        public static <T> BodyHandler<T> dispatchingContentType(final Predicate<String> contentType,
+                                                                final BodyHandler<T> matched,
+                                                                final BodyHandler<T> otherwise) {
+            Objects.requireNonNull(contentType, "contentType");
+
+            return dispatching((i) -> i.headers()
+                            .firstValue("Content-Type")
+                            .filter(contentType)
+                            .isPresent(),
+                    matched,
+                    otherwise);
+        }
+
         public static BodyHandler<Void> discarding() {
             return HttpResponseBodyHandler.discarding();
         }
 
-//        public static BodyHandler<Void> fromSubscriber(final Subscriber<? super List<ByteBuffer>> subscriber) {
-//            throw new UnsupportedOperationException();
-//        }
-//
-//        public static <S extends Subscriber<? super List<ByteBuffer>>, T> BodyHandler<T> fromSubscriber(final S subscriber,
-//                                                                                                        final Function<? super S, ? extends T> finisher) {
-//            throw new UnsupportedOperationException();
-//        }
-//
-//        public static BodyHandler<Void> fromLineSubscriber(Subscriber<? super String> subscriber) {
-//            throw new UnsupportedOperationException();
-//        }
-//
-//        public static <S extends Subscriber<? super String>, T> BodyHandler<T> fromLineSubscriber(final S subscriber,
-//                                                                                                  final Function<? super S, ? extends T> finisher,
-//                                                                                                  final String lineSeparator) {
-//            throw new UnsupportedOperationException();
-//        }
-//
-//        public static BodyHandler<byte[]> ofByteArray() {
-//            throw new UnsupportedOperationException();
-//        }
-//
-//        public static BodyHandler<Void> ofByteArrayConsumer(final Consumer<Optional<byte[]>> consumer) {
-//            throw new UnsupportedOperationException();
-//        }
-//
-//        public static BodyHandler<Stream<String>> ofLines() {
-//            throw new UnsupportedOperationException();
-//        }
-//
-//        public static BodyHandler<Flow.Publisher<List<ByteBuffer>>> ofPublisher() {
-//            throw new UnsupportedOperationException();
-//        }
+        public static BodyHandler<Void> fromLineSubscriber(final Flow.Subscriber<? super String> subscriber) {
+            return fromLineSubscriber(subscriber, (s) -> null, null);
+        }
 
-        public static BodyHandler<String> ofString() {
-            return ofString(UTF8);
+        /**
+         * The body is decoded using UTF-8, a null lineSeparator splits lines on any of LF, CR or CRLF.
+         */
+        public static <S extends Flow.Subscriber<? super String>, T> BodyHandler<T> fromLineSubscriber(final S subscriber,
+                                                                                                       final Function<? super S, ? extends T> finisher,
+                                                                                                       final String lineSeparator) {
+            return HttpResponseBodyHandler.fromLineSubscriber(subscriber, finisher, lineSeparator);
+        }
+
+        public static BodyHandler<Void> fromSubscriber(final Flow.Subscriber<? super List<ByteBuffer>> subscriber) {
+            return fromSubscriber(subscriber, (s) -> null);
+        }
+
+        /**
+         * The chunks are passed directly to the {@link Flow.Subscriber} without any copying or buffering.
+         */
+        public static <S extends Flow.Subscriber<? super List<ByteBuffer>>, T> BodyHandler<T> fromSubscriber(final S subscriber,
+                                                                                                             final Function<? super S, ? extends T> finisher) {
+            return HttpResponseBodyHandler.fromSubscriber(subscriber, finisher);
+        }
+
+        /**
+         * The array is allocated up front, up to 4MB, when the response has a valid Content-Length header.
+         */
+        public static BodyHandler<byte[]> ofByteArray() {
+            return HttpResponseBodyHandler.ofByteArray();
+        }
+
+        /**
+         * Each buffer is given to the consumer as it arrives, with the next chunk requested only after it returns.
+         */
+        public static BodyHandler<Void> ofByteArrayConsumer(final Consumer<Optional<byte[]>> consumer) {
+            return HttpResponseBodyHandler.ofByteArrayConsumer(consumer);
+        }
+
+        /**
+         * The browser cannot block, so only the bytes reported by {@link InputStream#available()} may be read, reading
+         * bytes that have not yet been received throws an {@link java.io.IOException} with the message
+         * "Bytes read before they were received" rather than waiting for them.
+         */
+        public static BodyHandler<InputStream> ofInputStream() {
+            return HttpResponseBodyHandler.ofInputStream();
         }
 
-        private final static Charset UTF8 = Charset.forName("UTF-8");
+        public static BodyHandler<Stream<String>> ofLines() {
+            return HttpResponseBodyHandler.ofLines(StandardCharsets.UTF_8);
+        }
+
+        public static BodyHandler<Flow.Publisher<List<ByteBuffer>>> ofPublisher() {
+            return ofPublisher(HttpResponseBodySubscriberPublisher.MAX_CHUNKS);
+        }
+
+        /**
+         * Creates a {@link BodyHandler} whose {@link Flow.Publisher} requests or buffers at most the given number of
+         * chunks.
+         */
+        public static BodyHandler<Flow.Publisher<List<ByteBuffer>>> ofPublisher(final int maxChunks) {
+            return HttpResponseBodyHandler.ofPublisher(maxChunks);
+        }
+
+        public static BodyHandler<String> ofString() {
+            return ofString(StandardCharsets.UTF_8);
+        }
 
         public static BodyHandler<String> ofString(final Charset charset) {
             return HttpResponseBodyHandler.ofString(charset);
         }
-//
-//        public static <U> BodyHandler<U> replacing(final U value) {
-//            throw new UnsupportedOperationException();
-//        }
+
+        /**
+         * The body is drained without being decoded or kept.
+         */
+        public static <U> BodyHandler<U> replacing(final U value) {
+            return HttpResponseBodyHandler.replacing(value);
+        }
 
         private BodyHandlers() {
         }
@@ -115,58 +191,102 @@ public interface HttpResponse<T> {
             return HttpResponseBodySubscriber.discarding();
         }
 
-//        public static BodySubscriber<Void> fromSubscriber(final Subscriber<? super List<ByteBuffer>> subscriber) {
-//            throw new UnsupportedOperationException();
-//        }
-//
-//        public static <S extends Subscriber<? super List<ByteBuffer>>, T> BodySubscriber<T> fromSubscriber(final S subscriber,
-//                                                                                                           final Function<? super S, ? extends T> finisher) {
-//            throw new UnsupportedOperationException();
-//        }
-//
-//        public static BodySubscriber<Void> fromLineSubscriber(final Subscriber<? super String> subscriber) {
-//            throw new UnsupportedOperationException();
-//        }
-//
-//        public static <S extends Subscriber<? super String>, T> BodySubscriber<T> fromLineSubscriber(final S subscriber,
-//                                                                                                     final Function<? super S, ? extends T> finisher,
-//                                                                                                     final Charset charset,
-//                                                                                                     final String lineSeparator) {
-//            throw new UnsupportedOperationException();
-//        }
-//
-//        public static <T, U> BodySubscriber<U> mapping(final BodySubscriber<T> upstream,
-//                                                       final Function<? super T, ? extends U> mapper) {
-//            throw new UnsupportedOperationException();
-//        }
-//
-//        public static BodySubscriber<byte[]> ofByteArray() {
-//            throw new UnsupportedOperationException();
-//        }
-//
-//        public static BodySubscriber<Void> ofByteArrayConsumer(final Consumer<Optional<byte[]>> consumer) {
-//            throw new UnsupportedOperationException();
-//        }
-//
-//        public static BodySubscriber<InputStream> ofInputStream() {
-//            throw new UnsupportedOperationException();
-//        }
-//
-//        public static BodySubscriber<Stream<String>> ofLines(final Charset charset) {
-//            throw new UnsupportedOperationException();
-//        }
-//
-//        public static BodySubscriber<Publisher<List<ByteBuffer>>> ofPublisher() {
-//            throw new UnsupportedOperationException();
-//        }
+        public static BodySubscriber<Void> fromLineSubscriber(final Flow.Subscriber<? super String> subscriber) {
+            return fromLineSubscriber(subscriber, (s) -> null, StandardCharsets.UTF_8, null);
+        }
+
+        /**
+         * Lines are delivered only as the {@link Flow.Subscriber} requests them, a null lineSeparator splits lines on
+         * any of LF, CR or CRLF.
+         */
+        public static <S extends Flow.Subscriber<? super String>, T> BodySubscriber<T> fromLineSubscriber(final S subscriber,
+                                                                                                          final Function<? super S, ? extends T> finisher,
+                                                                                                          final Charset charset,
+                                                                                                          final String lineSeparator) {
+            return HttpResponseBodySubscriberLineSubscriber.with(subscriber, finisher, charset, lineSeparator);
+        }
+
+        public static BodySubscriber<Void> fromSubscriber(final Flow.Subscriber<? super List<ByteBuffer>> subscriber) {
+            return fromSubscriber(subscriber, (s) -> null);
+        }
+
+        /**
+         * The chunks are passed directly to the {@link Flow.Subscriber} without any copying or buffering.
+         */
+        public static <S extends Flow.Subscriber<? super List<ByteBuffer>>, T> BodySubscriber<T> fromSubscriber(final S subscriber,
+                                                                                                                final Function<? super S, ? extends T> finisher) {
+            return HttpResponseBodySubscriberSubscriber.with(subscriber, finisher);
+        }
+
+        /**
+         * When the returned {@link BodySubscriber} is used by {@link HttpClient#sendAsync(HttpRequest, BodyHandler)}, the
+         * mapper only runs on the first call to {@link HttpResponse#body()}, any failure is thrown by that call.
+         */
+        public static <T, U> BodySubscriber<U> mapping(final BodySubscriber<T> upstream,
+                                                       final Function<? super T, ? extends U> mapper) {
+            return HttpResponseBodySubscriberMapping.with(upstream, mapper);
+        }
+
+        public static BodySubscriber<byte[]> ofByteArray() {
+            return HttpResponseBodySubscriberByteArray.unknownLength();
+        }
+
+        /**
+         * Each buffer is given to the consumer as it arrives, with the next chunk requested only after it returns.
+         */
+        public static BodySubscriber<Void> ofByteArrayConsumer(final Consumer<Optional<byte[]>> consumer) {
+            return HttpResponseBodySubscriberByteArrayConsumer.with(consumer);
+        }
+
+        /**
+         * The {@link InputStream} is available immediately, reading pulls chunks from the transport, with at most a few
+         * chunks requested ahead of the reader. Only the bytes reported by {@link InputStream#available()} may be read,
+         * reading bytes not yet received throws an {@link java.io.IOException} rather than blocking.
+         */
+        public static BodySubscriber<InputStream> ofInputStream() {
+            return HttpResponseBodySubscriberInputStream.with(HttpResponseBodySubscriberInputStream.MAX_CHUNKS);
+        }
+
+        public static BodySubscriber<Stream<String>> ofLines(final Charset charset) {
+            return HttpResponseBodySubscriberLines.with(charset);
+        }
+
+        /**
+         * The {@link Flow.Publisher} requests chunks from the transport only as its subscriber requests them.
+         */
+        public static BodySubscriber<Flow.Publisher<List<ByteBuffer>>> ofPublisher() {
+            return ofPublisher(HttpResponseBodySubscriberPublisher.MAX_CHUNKS);
+        }
+
+        /**
+         * Creates a {@link BodySubscriber} whose {@link Flow.Publisher} requests or buffers at most the given number of
+         * chunks.
+         */
+        public static BodySubscriber<Flow.Publisher<List<ByteBuffer>>> ofPublisher(final int maxChunks) {
+            return HttpResponseBodySubscriberPublisher.with(maxChunks);
+        }
 
         public static BodySubscriber<String> ofString(final Charset charset) {
             return HttpResponseBodySubscriber.ofString(charset);
         }
 
-//        public static <U> BodySubscriber<U> replacing(final U value) {
-//            throw new UnsupportedOperationException();
-//        }
+        /**
+         * The body is drained without being decoded or kept.
+         */
+        public static <U> BodySubscriber<U> replacing(final U value) {
+            return HttpResponseBodySubscriberReplacing.with(value);
+        }
+
+        /**
+         * Creates a {@link BodySubscriber} that gives each chunk to all the {@link BodySubscriber}, without copying any
+         * bytes, requesting chunks only as fast as the slowest. The body is that of the primary {@link BodySubscriber}.
+         */
+        public static <T> BodySubscriber<T> tee(final BodySubscriber<T> primary,
+                                                final BodySubscriber<?>... others) {
+            Objects.requireNonNull(others, "others");
+
+            return HttpResponseBodySubscriberTee.with(primary, Arrays.asList(others));
+        }
 
         private BodySubscribers() {
         }
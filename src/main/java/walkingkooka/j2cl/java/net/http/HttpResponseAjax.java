@@ -0,0 +1,127 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import walkingkooka.ToStringBuilder;
+import walkingkooka.ToStringBuilderOption;
+import walkingkooka.j2cl.java.net.http.HttpClient.Version;
+
+import java.net.URI;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+final class HttpResponseAjax<T> implements HttpResponse<T> {
+
+    static <T> HttpResponseAjax<T> with(final HttpRequest request,
+                                        final ResponseInfo info,
+                                        final T body) {
+        return lazy(request, info, () -> body);
+    }
+
+    /**
+     * Creates a response whose body is only computed when {@link #body()} is called, any {@link RuntimeException}
+     * thrown by the {@link Supplier} is thrown by {@link #body()}.
+     */
+    static <T> HttpResponseAjax<T> lazy(final HttpRequest request,
+                                        final ResponseInfo info,
+                                        final Supplier<? extends T> body) {
+        Objects.requireNonNull(request, "request");
+        Objects.requireNonNull(info, "info");
+        Objects.requireNonNull(body, "body");
+
+        return new HttpResponseAjax<>(request,
+                info.statusCode(),
+                info.headers(),
+                info.version(),
+                body);
+    }
+
+    private HttpResponseAjax(final HttpRequest request,
+                             final int statusCode,
+                             final HttpHeaders headers,
+                             final Version version,
+                             final Supplier<? extends T> body) {
+        super();
+        this.request = request;
+        this.statusCode = statusCode;
+        this.headers = headers;
+        this.version = version;
+        this.body = body;
+    }
+
+    @Override
+    public T body() {
+        return this.body.get();
+    }
+
+    private final Supplier<? extends T> body;
+
+    @Override
+    public HttpHeaders headers() {
+        return this.headers;
+    }
+
+    private final HttpHeaders headers;
+
+    @Override
+    public Optional<HttpResponse<T>> previousResponse() {
+        return Optional.empty();
+    }
+
+    @Override
+    public HttpRequest request() {
+        return this.request;
+    }
+
+    private final HttpRequest request;
+
+    @Override
+    public int statusCode() {
+        return this.statusCode;
+    }
+
+    private final int statusCode;
+
+    @Override
+    public URI uri() {
+        return this.request.uri();
+    }
+
+    @Override
+    public Version version() {
+        return this.version;
+    }
+
+    private final Version version;
+
+    // Object...........................................................................................................
+
+    @Override
+    public String toString() {
+        return ToStringBuilder.empty()
+                .disable(ToStringBuilderOption.QUOTE)
+                .valueSeparator(" ")
+                .value(this.statusCode)
+                .value(this.uri())
+                .value(this.version)
+                .append('\n')
+                .value(this.headers)
+                .build();
+    }
+}
@@ -21,8 +21,17 @@ import walkingkooka.j2cl.java.net.http.HttpResponse.BodyHandler;
 import walkingkooka.j2cl.java.net.http.HttpResponse.BodySubscriber;
 import walkingkooka.j2cl.java.net.http.HttpResponse.ResponseInfo;
 
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.Flow.Subscriber;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
 
 abstract class HttpResponseBodyHandler<T> implements BodyHandler<T> {
 
@@ -33,6 +42,67 @@ abstract class HttpResponseBodyHandler<T> implements BodyHandler<T> {
         return HttpResponseBodyHandlerDiscarding.INSTANCE;
     }
 
+    /**
+     * {@see HttpResponseBodyHandlerDispatching}
+     */
+    static <T> HttpResponseBodyHandlerDispatching<T> dispatching(final Predicate<? super ResponseInfo> condition,
+                                                                 final BodyHandler<T> matched,
+                                                                 final BodyHandler<T> otherwise) {
+        return HttpResponseBodyHandlerDispatching.with(condition, matched, otherwise);
+    }
+
+    /**
+     * {@see HttpResponseBodyHandlerLineSubscriber}
+     */
+    static <S extends Subscriber<? super String>, T> HttpResponseBodyHandlerLineSubscriber<S, T> fromLineSubscriber(final S subscriber,
+                                                                                                                  final Function<? super S, ? extends T> finisher,
+                                                                                                                  final String lineSeparator) {
+        return HttpResponseBodyHandlerLineSubscriber.with(subscriber, finisher, lineSeparator);
+    }
+
+    /**
+     * {@see HttpResponseBodyHandlerSubscriber}
+     */
+    static <S extends Subscriber<? super List<ByteBuffer>>, T> HttpResponseBodyHandlerSubscriber<S, T> fromSubscriber(final S subscriber,
+                                                                                                                    final Function<? super S, ? extends T> finisher) {
+        return HttpResponseBodyHandlerSubscriber.with(subscriber, finisher);
+    }
+
+    /**
+     * {@see HttpResponseBodyHandlerByteArray}
+     */
+    static HttpResponseBodyHandlerByteArray ofByteArray() {
+        return HttpResponseBodyHandlerByteArray.INSTANCE;
+    }
+
+    /**
+     * {@see HttpResponseBodyHandlerByteArrayConsumer}
+     */
+    static HttpResponseBodyHandlerByteArrayConsumer ofByteArrayConsumer(final Consumer<Optional<byte[]>> consumer) {
+        return HttpResponseBodyHandlerByteArrayConsumer.with(consumer);
+    }
+
+    /**
+     * {@see HttpResponseBodyHandlerInputStream}
+     */
+    static HttpResponseBodyHandlerInputStream ofInputStream() {
+        return HttpResponseBodyHandlerInputStream.INSTANCE;
+    }
+
+    /**
+     * {@see HttpResponseBodyHandlerLines}
+     */
+    static HttpResponseBodyHandlerLines ofLines(final Charset charset) {
+        return HttpResponseBodyHandlerLines.with(charset);
+    }
+
+    /**
+     * {@see HttpResponseBodyHandlerPublisher}
+     */
+    static HttpResponseBodyHandlerPublisher ofPublisher(final int maxChunks) {
+        return HttpResponseBodyHandlerPublisher.with(maxChunks);
+    }
+
     /**
      * {@see HttpResponseBodyHandlerString}
      */
@@ -40,6 +110,66 @@ abstract class HttpResponseBodyHandler<T> implements BodyHandler<T> {
         return HttpResponseBodyHandlerString.with(charset);
     }
 
+    /**
+     * {@see HttpResponseBodyHandlerReplacing}
+     */
+    static <U> HttpResponseBodyHandlerReplacing<U> replacing(final U value) {
+        return HttpResponseBodyHandlerReplacing.with(value);
+    }
+
+    /**
+     * Returns the Content-Length of the response, a malformed or negative value is treated as unknown.
+     */
+    static OptionalLong contentLength(final ResponseInfo responseInfo) {
+        OptionalLong contentLength;
+        try {
+            contentLength = responseInfo.headers()
+                    .firstValueAsLong(CONTENT_LENGTH);
+        } catch (final NumberFormatException invalid) {
+            contentLength = OptionalLong.empty();
+        }
+
+        return contentLength.isPresent() && contentLength.getAsLong() < 0 ?
+                OptionalLong.empty() :
+                contentLength;
+    }
+
+    private final static String CONTENT_LENGTH = "Content-Length";
+
+    /**
+     * Returns the charset parameter of the response Content-Type, a missing, malformed or unsupported charset is
+     * treated as UTF-8.
+     */
+    static Charset charset(final ResponseInfo responseInfo) {
+        Charset charset = StandardCharsets.UTF_8;
+
+        final Optional<String> contentType = responseInfo.headers()
+                .firstValue(CONTENT_TYPE);
+        if (contentType.isPresent()) {
+            for (final String parameter : contentType.get().split(";")) {
+                final int equals = parameter.indexOf('=');
+                if (-1 != equals && parameter.substring(0, equals).trim().equalsIgnoreCase(CHARSET)) {
+                    String name = parameter.substring(equals + 1).trim();
+                    if (name.length() > 1 && name.startsWith("\"") && name.endsWith("\"")) {
+                        name = name.substring(1, name.length() - 1);
+                    }
+                    try {
+                        charset = Charset.forName(name);
+                    } catch (final IllegalArgumentException unsupported) {
+                        charset = StandardCharsets.UTF_8;
+                    }
+                    break;
+                }
+            }
+        }
+
+        return charset;
+    }
+
+    private final static String CONTENT_TYPE = "Content-Type";
+
+    private final static String CHARSET = "charset";
+
     HttpResponseBodyHandler() {
         super();
     }
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import walkingkooka.j2cl.java.net.http.HttpResponse.BodyHandler;
+import walkingkooka.j2cl.java.net.http.HttpResponse.BodySubscriber;
+import walkingkooka.j2cl.java.net.http.HttpResponse.ResponseInfo;
+
+import java.util.Objects;
+import java.util.function.Predicate;
+
+/**
+ * A {@link BodyHandler} that picks one of two {@link BodyHandler} by testing the {@link ResponseInfo}, eg so the body
+ * of a 5xx response is drained by {@link HttpResponse.BodyHandlers#replacing(Object)} without ever being decoded.
+ * Dispatching handlers may be nested to select between more than two handlers.
+ */
+final class HttpResponseBodyHandlerDispatching<T> extends HttpResponseBodyHandler<T> {
+
+    static <T> HttpResponseBodyHandlerDispatching<T> with(final Predicate<? super ResponseInfo> condition,
+                                                          final BodyHandler<T> matched,
+                                                          final BodyHandler<T> otherwise) {
+        Objects.requireNonNull(condition, "condition");
+        Objects.requireNonNull(matched, "matched");
+        Objects.requireNonNull(otherwise, "otherwise");
+
+        return new HttpResponseBodyHandlerDispatching<>(condition, matched, otherwise);
+    }
+
+    private HttpResponseBodyHandlerDispatching(final Predicate<? super ResponseInfo> condition,
+                                               final BodyHandler<T> matched,
+                                               final BodyHandler<T> otherwise) {
+        super();
+        this.condition = condition;
+        this.matched = matched;
+        this.otherwise = otherwise;
+    }
+
+    @Override
+    BodySubscriber<T> apply0(final ResponseInfo responseInfo) {
+        return (this.condition.test(responseInfo) ?
+                this.matched :
+                this.otherwise)
+                .apply(responseInfo);
+    }
+
+    private final Predicate<? super ResponseInfo> condition;
+
+    private final BodyHandler<T> matched;
+
+    private final BodyHandler<T> otherwise;
+
+    @Override
+    public String toString() {
+        return this.condition + " ? " + this.matched + " : " + this.otherwise;
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import walkingkooka.j2cl.java.net.http.HttpResponse.BodyHandler;
+import walkingkooka.j2cl.java.net.http.HttpResponse.BodySubscriber;
+import walkingkooka.j2cl.java.net.http.HttpResponse.BodySubscribers;
+import walkingkooka.j2cl.java.net.http.HttpResponse.ResponseInfo;
+
+import java.util.Objects;
+import java.util.concurrent.Flow.Subscriber;
+import java.util.function.Function;
+
+/**
+ * A {@link BodyHandler} that decodes lines using the charset of the response Content-Type, defaulting to UTF-8.
+ */
+final class HttpResponseBodyHandlerLineSubscriber<S extends Subscriber<? super String>, T> extends HttpResponseBodyHandler<T> {
+
+    static <S extends Subscriber<? super String>, T> HttpResponseBodyHandlerLineSubscriber<S, T> with(final S subscriber,
+                                                                                                    final Function<? super S, ? extends T> finisher,
+                                                                                                    final String lineSeparator) {
+        Objects.requireNonNull(subscriber, "subscriber");
+        Objects.requireNonNull(finisher, "finisher");
+        if (null != lineSeparator && lineSeparator.isEmpty()) {
+            throw new IllegalArgumentException("Empty lineSeparator");
+        }
+
+        return new HttpResponseBodyHandlerLineSubscriber<>(subscriber, finisher, lineSeparator);
+    }
+
+    private HttpResponseBodyHandlerLineSubscriber(final S subscriber,
+                                                  final Function<? super S, ? extends T> finisher,
+                                                  final String lineSeparator) {
+        super();
+        this.subscriber = subscriber;
+        this.finisher = finisher;
+        this.lineSeparator = lineSeparator;
+    }
+
+    @Override
+    BodySubscriber<T> apply0(final ResponseInfo responseInfo) {
+        return BodySubscribers.fromLineSubscriber(this.subscriber, this.finisher, charset(responseInfo), this.lineSeparator);
+    }
+
+    private final S subscriber;
+
+    private final Function<? super S, ? extends T> finisher;
+
+    private final String lineSeparator;
+
+    @Override
+    public String toString() {
+        return "HttpResponse.fromLineSubscriber " + this.subscriber;
+    }
+}
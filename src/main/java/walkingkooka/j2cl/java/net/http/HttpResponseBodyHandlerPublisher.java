@@ -0,0 +1,54 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import walkingkooka.j2cl.java.net.http.HttpResponse.BodySubscriber;
+import walkingkooka.j2cl.java.net.http.HttpResponse.BodySubscribers;
+import walkingkooka.j2cl.java.net.http.HttpResponse.ResponseInfo;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.Flow.Publisher;
+
+final class HttpResponseBodyHandlerPublisher extends HttpResponseBodyHandler<Publisher<List<ByteBuffer>>> {
+
+    static HttpResponseBodyHandlerPublisher with(final int maxChunks) {
+        if (maxChunks <= 0) {
+            throw new IllegalArgumentException("Invalid maxChunks " + maxChunks + " must be greater than 0");
+        }
+
+        return new HttpResponseBodyHandlerPublisher(maxChunks);
+    }
+
+    private HttpResponseBodyHandlerPublisher(final int maxChunks) {
+        super();
+        this.maxChunks = maxChunks;
+    }
+
+    @Override
+    BodySubscriber<Publisher<List<ByteBuffer>>> apply0(final ResponseInfo responseInfo) {
+        return BodySubscribers.ofPublisher(this.maxChunks);
+    }
+
+    private final int maxChunks;
+
+    @Override
+    public String toString() {
+        return "HttpResponse.ofPublisher " + this.maxChunks;
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import walkingkooka.j2cl.java.net.http.HttpResponse.BodySubscriber;
+import walkingkooka.j2cl.java.net.http.HttpResponse.ResponseInfo;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Flow.Subscriber;
+import java.util.function.Function;
+
+final class HttpResponseBodyHandlerSubscriber<S extends Subscriber<? super List<ByteBuffer>>, T> extends HttpResponseBodyHandler<T> {
+
+    static <S extends Subscriber<? super List<ByteBuffer>>, T> HttpResponseBodyHandlerSubscriber<S, T> with(final S subscriber,
+                                                                                                          final Function<? super S, ? extends T> finisher) {
+        Objects.requireNonNull(subscriber, "subscriber");
+        Objects.requireNonNull(finisher, "finisher");
+
+        return new HttpResponseBodyHandlerSubscriber<>(subscriber, finisher);
+    }
+
+    private HttpResponseBodyHandlerSubscriber(final S subscriber,
+                                              final Function<? super S, ? extends T> finisher) {
+        super();
+        this.subscriber = subscriber;
+        this.finisher = finisher;
+    }
+
+    @Override
+    BodySubscriber<T> apply0(final ResponseInfo responseInfo) {
+        return HttpResponseBodySubscriberSubscriber.with(this.subscriber, this.finisher);
+    }
+
+    private final S subscriber;
+
+    private final Function<? super S, ? extends T> finisher;
+
+    @Override
+    public String toString() {
+        return "HttpResponse.fromSubscriber " + this.subscriber;
+    }
+}
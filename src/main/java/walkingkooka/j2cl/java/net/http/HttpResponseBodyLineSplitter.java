@@ -0,0 +1,244 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Incrementally splits body chunks into lines, terminated by LF, CR or CRLF or a given line separator, even when a
+ * terminator or multi byte character is split across chunks. Bytes are split before decoding, so only a partial line
+ * is ever buffered. This requires a {@link Charset} that encodes CR and LF as the single ASCII bytes, for any other
+ * such as UTF-16 the whole body is buffered and decoded when it ends, before being split.
+ */
+final class HttpResponseBodyLineSplitter {
+
+    /**
+     * Creates a splitter that accepts any of LF, CR or CRLF as the line terminator.
+     */
+    static HttpResponseBodyLineSplitter with(final Charset charset,
+                                             final Consumer<String> lines) {
+        return with(charset, null, lines);
+    }
+
+    /**
+     * Creates a splitter for the given line separator, a null separator accepts any of LF, CR or CRLF.
+     */
+    static HttpResponseBodyLineSplitter with(final Charset charset,
+                                             final String lineSeparator,
+                                             final Consumer<String> lines) {
+        Objects.requireNonNull(charset, "charset");
+        Objects.requireNonNull(lines, "lines");
+
+        if (null != lineSeparator && lineSeparator.isEmpty()) {
+            throw new IllegalArgumentException("Empty lineSeparator");
+        }
+
+        final byte[] crlf = "\r\n".getBytes(charset);
+        final boolean singleByteCrLf = crlf.length == 2 && crlf[0] == CR && crlf[1] == LF;
+
+        // lines are split after decoding the whole body and re-encoding it as UTF-8
+        final Charset lineCharset = singleByteCrLf ?
+                charset :
+                StandardCharsets.UTF_8;
+
+        return new HttpResponseBodyLineSplitter(lineCharset,
+                null != lineSeparator ? lineSeparator.getBytes(lineCharset) : null,
+                singleByteCrLf ? null : charset,
+                lines);
+    }
+
+    private final static byte CR = '\r';
+
+    private final static byte LF = '\n';
+
+    private HttpResponseBodyLineSplitter(final Charset charset,
+                                         final byte[] separator,
+                                         final Charset bodyCharset,
+                                         final Consumer<String> lines) {
+        super();
+        this.charset = charset;
+        this.separator = separator;
+        this.bodyCharset = bodyCharset;
+        this.body = null != bodyCharset ?
+                new ByteArrayOutputStream() :
+                null;
+        this.lines = lines;
+    }
+
+    /**
+     * Consumes all remaining bytes in the chunk, passing any completed lines to the {@link Consumer}.
+     */
+    void split(final ByteBuffer chunk) {
+        final ByteArrayOutputStream body = this.body;
+        if (null != body) {
+            final byte[] bytes = new byte[chunk.remaining()];
+            chunk.get(bytes);
+            body.write(bytes, 0, bytes.length);
+        } else {
+            this.split0(chunk);
+        }
+    }
+
+    private void split0(final ByteBuffer chunk) {
+        if (null != this.separator) {
+            this.splitSeparator(chunk);
+        } else {
+            this.splitCrLf(chunk);
+        }
+    }
+
+    /**
+     * A partially matched separator stays at the end of the line until it is either matched or not.
+     */
+    private void splitSeparator(final ByteBuffer chunk) {
+        final byte[] separator = this.separator;
+        final int separatorLength = separator.length;
+
+        while (chunk.hasRemaining()) {
+            this.append(chunk.get());
+
+            final int length = this.length;
+            if (length >= separatorLength && this.endsWithSeparator()) {
+                this.length = length - separatorLength;
+                this.line();
+            }
+        }
+    }
+
+    private boolean endsWithSeparator() {
+        final byte[] line = this.line;
+        final byte[] separator = this.separator;
+        final int offset = this.length - separator.length;
+
+        for (int i = 0; i < separator.length; i++) {
+            if (line[offset + i] != separator[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void splitCrLf(final ByteBuffer chunk) {
+        while (chunk.hasRemaining()) {
+            final byte b = chunk.get();
+
+            switch (b) {
+                case LF:
+                    if (this.skipLf) {
+                        this.skipLf = false;
+                    } else {
+                        this.line();
+                    }
+                    break;
+                case CR:
+                    this.line();
+                    this.skipLf = true;
+                    break;
+                default:
+                    this.skipLf = false;
+                    this.append(b);
+                    break;
+            }
+        }
+    }
+
+    /**
+     * The body is complete, any text after the last terminator is the last line.
+     */
+    void end() {
+        final ByteArrayOutputStream body = this.body;
+        if (null != body) {
+            this.body = null;
+            this.split0(
+                    ByteBuffer.wrap(
+                            new String(body.toByteArray(), this.bodyCharset)
+                                    .getBytes(this.charset)
+                    )
+            );
+        }
+
+        if (this.length > 0) {
+            this.line();
+        }
+    }
+
+    private void append(final byte b) {
+        byte[] line = this.line;
+        final int length = this.length;
+
+        if (length == line.length) {
+            final byte[] grown = new byte[length * 2];
+            System.arraycopy(line, 0, grown, 0, length);
+            this.line = line = grown;
+        }
+        line[length] = b;
+        this.length = length + 1;
+    }
+
+    private void line() {
+        this.lines.accept(new String(this.line, 0, this.length, this.charset));
+        this.length = 0;
+    }
+
+    /**
+     * The bytes of the current partial line, which grows as necessary.
+     */
+    private byte[] line = new byte[128];
+
+    private int length;
+
+    /**
+     * True when the previous byte was a CR, so a following LF does not end another line.
+     */
+    private boolean skipLf;
+
+    /**
+     * The {@link Charset} used to decode each line, which is UTF-8 when the body is buffered.
+     */
+    private final Charset charset;
+
+    /**
+     * The {@link Charset} of a body that is buffered until it ends, or null when splitting incrementally.
+     */
+    private final Charset bodyCharset;
+
+    /**
+     * The buffered body, or null when splitting incrementally or after the body ends.
+     */
+    private ByteArrayOutputStream body;
+
+    /**
+     * The encoded line separator or null when any of LF, CR or CRLF ends a line.
+     */
+    private final byte[] separator;
+
+    private final Consumer<String> lines;
+
+    // Object...........................................................................................................
+
+    @Override
+    public String toString() {
+        final Charset bodyCharset = this.bodyCharset;
+        return (null != bodyCharset ? bodyCharset : this.charset) + " " + this.length;
+    }
+}
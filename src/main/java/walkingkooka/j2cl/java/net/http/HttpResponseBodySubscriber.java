@@ -23,6 +23,7 @@ import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.Flow.Subscription;
@@ -30,7 +31,8 @@ import java.util.concurrent.Flow.Subscription;
 /**
  * This class is intended to only be subclasses by {@link HttpClient} collaborators.
  */
-abstract class HttpResponseBodySubscriber<T> implements BodySubscriber<T> {
+abstract class HttpResponseBodySubscriber<T> implements BodySubscriber<T>,
+        HttpResponseBodySubscriberConsuming {
 
     /**
      * {@see HttpResponseBodySubscriberDiscarding}
@@ -48,6 +50,8 @@ abstract class HttpResponseBodySubscriber<T> implements BodySubscriber<T> {
 
     HttpResponseBodySubscriber() {
         super();
+
+        this.stage.whenComplete(this::onStageComplete);
     }
 
     // BodySubscriber...................................................................................................
@@ -59,27 +63,65 @@ abstract class HttpResponseBodySubscriber<T> implements BodySubscriber<T> {
 
     private final CompletableFuture<T> stage = new CompletableFuture<>();
 
+    /**
+     * Cancelling the {@link CompletionStage} cancels the {@link Subscription} which aborts the transport, and releases
+     * any partial value.
+     */
+    private void onStageComplete(final T value,
+                                 final Throwable cause) {
+        if (cause instanceof CancellationException) {
+            final Subscription subscription = this.subscription;
+            if (null != subscription) {
+                subscription.cancel();
+            }
+            this.value = null;
+        }
+        this.subscription = null;
+    }
+
     // Subscriber.......................................................................................................
 
     @Override
     public final void onSubscribe(final Subscription subscription) {
         Objects.requireNonNull(subscription, "subscription");
 
-        subscription.request(1);
+        if (this.stage.isDone()) {
+            subscription.cancel();
+        } else {
+            this.subscription = subscription;
+            subscription.request(this.demand());
+        }
     }
 
+    /**
+     * The number of body parts requested on subscribe, by default a single part as the body is decoded as a whole.
+     */
+    long demand() {
+        return 1;
+    }
+
+    /**
+     * The {@link Subscription} is kept so cancelling the {@link CompletionStage} can abort the transport.
+     */
+    private Subscription subscription;
+
     @Override
     public void onNext(final List<ByteBuffer> body) {
         Objects.requireNonNull(body, "body");
 
-        body.forEach(this::onNext0);
+        if (false == this.stage.isDone()) {
+            body.forEach(this::onNext0);
+        }
     }
 
     /**
-     * Assumes a single body part.
+     * Assumes a single body part. Only the remaining bytes are decoded, a buffer from a {@link HttpClientBufferPool}
+     * may be larger than the part it holds.
      */
     private void onNext0(final ByteBuffer body) {
-        this.onNextStringBody(new String(body.array(), this.charset()));
+        final int remaining = body.remaining();
+        this.onNextStringBody(new String(body.array(), body.arrayOffset() + body.position(), remaining, this.charset()));
+        body.position(body.position() + remaining);
     }
 
     /**
@@ -121,6 +163,13 @@ abstract class HttpResponseBodySubscriber<T> implements BodySubscriber<T> {
      */
     T value;
 
+    // HttpResponseBodySubscriberConsuming..............................................................................
+
+    @Override
+    public boolean consumesBuffers() {
+        return true;
+    }
+
     // Object...........................................................................................................
 
     @Override
@@ -0,0 +1,191 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import walkingkooka.j2cl.java.net.http.HttpResponse.BodySubscriber;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow.Subscription;
+
+/**
+ * A {@link BodySubscriber} that copies each chunk once into a single byte array. When the length of the body is known,
+ * typically from the Content-Length header, the array is allocated up front and returned without any copying,
+ * otherwise it grows by doubling and is trimmed at the end. Up front allocations are capped at {@link #MAX_PRESIZE},
+ * so a huge or lying Content-Length cannot allocate more than that before any bytes arrive.
+ */
+final class HttpResponseBodySubscriberByteArray implements BodySubscriber<byte[]>,
+        HttpResponseBodySubscriberConsuming {
+
+    /**
+     * The initial size of the array when the length is unknown.
+     */
+    final static int INITIAL_CAPACITY = 8 * 1024;
+
+    /**
+     * The largest length that will be allocated up front, larger lengths start at this and grow as chunks arrive.
+     */
+    final static int MAX_PRESIZE = 4 * 1024 * 1024;
+
+    /**
+     * The largest array that will be allocated.
+     */
+    private final static long MAX_CAPACITY = Integer.MAX_VALUE - 8;
+
+    /**
+     * Creates a subscriber for a body whose length is unknown.
+     */
+    static HttpResponseBodySubscriberByteArray unknownLength() {
+        return new HttpResponseBodySubscriberByteArray(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Creates a subscriber whose array is allocated for the given length up to {@link #MAX_PRESIZE}, negative lengths
+     * are treated as unknown.
+     */
+    static HttpResponseBodySubscriberByteArray with(final long contentLength) {
+        return contentLength >= 0 ?
+                new HttpResponseBodySubscriberByteArray((int) Math.min(contentLength, MAX_PRESIZE)) :
+                unknownLength();
+    }
+
+    private HttpResponseBodySubscriberByteArray(final int capacity) {
+        super();
+        this.bytes = new byte[capacity];
+
+        this.stage.whenComplete(this::onStageComplete);
+    }
+
+    // BodySubscriber...................................................................................................
+
+    @Override
+    public CompletionStage<byte[]> getBody() {
+        return this.stage;
+    }
+
+    private final CompletableFuture<byte[]> stage = new CompletableFuture<>();
+
+    /**
+     * Cancelling the {@link CompletionStage} aborts the transport and releases the partial body.
+     */
+    private void onStageComplete(final byte[] value,
+                                 final Throwable cause) {
+        if (cause instanceof CancellationException) {
+            final Subscription subscription = this.subscription;
+            if (null != subscription) {
+                subscription.cancel();
+            }
+        }
+        this.subscription = null;
+        this.bytes = null;
+    }
+
+    // Subscriber.......................................................................................................
+
+    @Override
+    public void onSubscribe(final Subscription subscription) {
+        Objects.requireNonNull(subscription, "subscription");
+
+        if (null != this.subscription || this.stage.isDone()) {
+            subscription.cancel();
+        } else {
+            this.subscription = subscription;
+            subscription.request(Long.MAX_VALUE);
+        }
+    }
+
+    private Subscription subscription;
+
+    @Override
+    public void onNext(final List<ByteBuffer> chunk) {
+        Objects.requireNonNull(chunk, "chunk");
+
+        if (false == this.stage.isDone()) {
+            for (final ByteBuffer buffer : chunk) {
+                this.append(buffer);
+            }
+        }
+    }
+
+    private void append(final ByteBuffer buffer) {
+        final int remaining = buffer.remaining();
+        final int length = this.length;
+        final int required = length + remaining;
+        if (required < 0) {
+            throw new OutOfMemoryError("Body too large");
+        }
+
+        byte[] bytes = this.bytes;
+        if (required > bytes.length) {
+            // Content-Length was missing, wrong, eg the body was decompressed, or larger than MAX_PRESIZE.
+            final long doubled = Math.max(INITIAL_CAPACITY, bytes.length * 2L);
+            bytes = Arrays.copyOf(bytes, (int) Math.max(required, Math.min(doubled, MAX_CAPACITY)));
+            this.bytes = bytes;
+        }
+
+        buffer.get(bytes, length, remaining);
+        this.length = required;
+    }
+
+    /**
+     * The body received so far, which may be larger than {@link #length}.
+     */
+    private byte[] bytes;
+
+    /**
+     * The number of bytes received.
+     */
+    private int length;
+
+    @Override
+    public void onError(final Throwable cause) {
+        this.stage.completeExceptionally(cause);
+    }
+
+    @Override
+    public void onComplete() {
+        final byte[] bytes = this.bytes;
+        if (null != bytes) {
+            final int length = this.length;
+            this.stage.complete(
+                    length == bytes.length ?
+                            bytes :
+                            Arrays.copyOf(bytes, length)
+            );
+        }
+    }
+
+    // HttpResponseBodySubscriberConsuming..............................................................................
+
+    @Override
+    public boolean consumesBuffers() {
+        return true;
+    }
+
+    // Object...........................................................................................................
+
+    @Override
+    public String toString() {
+        return this.length + " bytes " + this.stage;
+    }
+}
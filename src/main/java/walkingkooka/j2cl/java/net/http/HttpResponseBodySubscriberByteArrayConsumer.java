@@ -0,0 +1,187 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import walkingkooka.j2cl.java.net.http.HttpResponse.BodySubscriber;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow.Subscription;
+import java.util.function.Consumer;
+
+/**
+ * A {@link BodySubscriber} that hands each received buffer to a {@link Consumer} as soon as it arrives, followed by
+ * {@link Optional#empty()} at the end of the body. Only one chunk is requested at a time, so a slow consumer throttles
+ * the transport and the whole body is never held in memory.
+ */
+final class HttpResponseBodySubscriberByteArrayConsumer implements BodySubscriber<Void>,
+        HttpResponseBodySubscriberConsuming {
+
+    static HttpResponseBodySubscriberByteArrayConsumer with(final Consumer<Optional<byte[]>> consumer) {
+        Objects.requireNonNull(consumer, "consumer");
+
+        return new HttpResponseBodySubscriberByteArrayConsumer(consumer);
+    }
+
+    private HttpResponseBodySubscriberByteArrayConsumer(final Consumer<Optional<byte[]>> consumer) {
+        super();
+        this.consumer = consumer;
+
+        this.stage.whenComplete(this::onStageComplete);
+    }
+
+    // BodySubscriber...................................................................................................
+
+    @Override
+    public CompletionStage<Void> getBody() {
+        return this.stage;
+    }
+
+    private final CompletableFuture<Void> stage = new CompletableFuture<>();
+
+    /**
+     * Cancelling the {@link CompletionStage} aborts the transport, no further chunks are given to the consumer.
+     */
+    private void onStageComplete(final Void value,
+                                 final Throwable cause) {
+        if (cause instanceof CancellationException) {
+            final Subscription subscription = this.subscription;
+            if (null != subscription) {
+                subscription.cancel();
+            }
+        }
+        this.subscription = null;
+    }
+
+    // Subscriber.......................................................................................................
+
+    @Override
+    public void onSubscribe(final Subscription subscription) {
+        Objects.requireNonNull(subscription, "subscription");
+
+        if (null != this.subscription || this.stage.isDone()) {
+            subscription.cancel();
+        } else {
+            this.subscription = subscription;
+            this.requestNext();
+        }
+    }
+
+    private Subscription subscription;
+
+    @Override
+    public void onNext(final List<ByteBuffer> chunk) {
+        Objects.requireNonNull(chunk, "chunk");
+
+        if (false == this.stage.isDone()) {
+            try {
+                for (final ByteBuffer buffer : chunk) {
+                    final int remaining = buffer.remaining();
+                    if (remaining > 0) {
+                        final byte[] bytes = new byte[remaining];
+                        buffer.get(bytes);
+                        this.consumer.accept(Optional.of(bytes));
+                    }
+                }
+                this.requestNext();
+            } catch (final RuntimeException cause) {
+                this.consumerFailed(cause);
+            }
+        }
+    }
+
+    /**
+     * Requests the next chunk, a synchronous transport delivering from within {@link Subscription#request(long)} is
+     * requested again after it returns, rather than recursing once per chunk.
+     */
+    private void requestNext() {
+        if (this.requesting) {
+            this.requestPending = true;
+        } else {
+            this.requesting = true;
+            try {
+                do {
+                    this.requestPending = false;
+                    final Subscription subscription = this.subscription;
+                    if (null == subscription || this.stage.isDone()) {
+                        break;
+                    }
+                    subscription.request(1);
+                } while (this.requestPending);
+            } finally {
+                this.requesting = false;
+            }
+        }
+    }
+
+    private boolean requesting;
+
+    private boolean requestPending;
+
+    @Override
+    public void onError(final Throwable cause) {
+        this.stage.completeExceptionally(cause);
+    }
+
+    @Override
+    public void onComplete() {
+        if (false == this.stage.isDone()) {
+            try {
+                this.consumer.accept(Optional.empty());
+                this.stage.complete(null);
+            } catch (final RuntimeException cause) {
+                this.consumerFailed(cause);
+            }
+        }
+    }
+
+    /**
+     * The consumer failed, eg storage is full, abort the transport and fail the body.
+     */
+    private void consumerFailed(final RuntimeException cause) {
+        final Subscription subscription = this.subscription;
+        if (null != subscription) {
+            subscription.cancel();
+        }
+        this.stage.completeExceptionally(cause);
+    }
+
+    private final Consumer<Optional<byte[]>> consumer;
+
+    // HttpResponseBodySubscriberConsuming..............................................................................
+
+    /**
+     * Each buffer is copied into a new array before it is given to the consumer.
+     */
+    @Override
+    public boolean consumesBuffers() {
+        return true;
+    }
+
+    // Object...........................................................................................................
+
+    @Override
+    public String toString() {
+        return this.consumer + " " + this.stage;
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import walkingkooka.j2cl.java.net.http.HttpResponse.BodySubscriber;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Implemented by {@link BodySubscriber} that copy or decode every {@link ByteBuffer} within
+ * {@link BodySubscriber#onNext(Object)}, keeping no reference once it returns, so the buffers may be returned to a
+ * {@link HttpClientBufferPool}.
+ */
+interface HttpResponseBodySubscriberConsuming {
+
+    /**
+     * Tests if the given {@link BodySubscriber} is finished with every {@link ByteBuffer} once
+     * {@link BodySubscriber#onNext(Object)} returns.
+     */
+    static boolean isConsuming(final BodySubscriber<?> subscriber) {
+        return subscriber instanceof HttpResponseBodySubscriberConsuming &&
+                ((HttpResponseBodySubscriberConsuming) subscriber).consumesBuffers();
+    }
+
+    /**
+     * Tests if all the given {@link BodySubscriber} are finished with every {@link ByteBuffer} once
+     * {@link BodySubscriber#onNext(Object)} returns.
+     */
+    static boolean isConsuming(final List<? extends BodySubscriber<?>> subscribers) {
+        for (final BodySubscriber<?> subscriber : subscribers) {
+            if (false == isConsuming(subscriber)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns true if no {@link ByteBuffer} is referenced after {@link BodySubscriber#onNext(Object)} returns.
+     */
+    boolean consumesBuffers();
+}
@@ -17,8 +17,11 @@
 
 package walkingkooka.j2cl.java.net.http;
 
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Objects;
 
 /**
  * A {@link walkingkooka.j2cl.java.net.http.HttpResponse.BodySubscriber} that ignores the body.
@@ -33,12 +36,26 @@ final class HttpResponseBodySubscriberDiscarding extends HttpResponseBodySubscri
         super();
     }
 
+    /**
+     * All body parts are requested, as each is ignored, like {@link HttpResponseBodySubscriberReplacing}.
+     */
     @Override
-    Charset charset() {
-        return UTF8;
+    long demand() {
+        return Long.MAX_VALUE;
+    }
+
+    /**
+     * The body is ignored without being decoded.
+     */
+    @Override
+    public void onNext(final List<ByteBuffer> body) {
+        Objects.requireNonNull(body, "body");
     }
 
-    private final static Charset UTF8 = StandardCharsets.UTF_8;
+    @Override
+    Charset charset() {
+        return StandardCharsets.UTF_8;
+    }
 
     @Override
     void onBody(final String body) {
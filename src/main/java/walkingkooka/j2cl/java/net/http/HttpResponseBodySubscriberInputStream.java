@@ -0,0 +1,283 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import walkingkooka.j2cl.java.net.http.HttpResponse.BodySubscriber;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow.Subscription;
+
+/**
+ * A {@link BodySubscriber} that is also the {@link InputStream} view of the body, completing as soon as it is
+ * subscribed. At most {@link #maxChunks} chunks are requested ahead of the reader, and each chunk is released as soon as
+ * it has been read, so huge bodies are read using constant memory.
+ * <br>
+ * Chunks are never waited for, as there is no thread to block in the browser. Reading bytes that an asynchronous
+ * transport has not yet delivered throws an {@link IOException}, {@link #available()} may be used to read only the
+ * bytes already received.
+ */
+final class HttpResponseBodySubscriberInputStream extends InputStream implements BodySubscriber<InputStream> {
+
+    /**
+     * The default number of chunks requested ahead of the reader.
+     */
+    final static int MAX_CHUNKS = 4;
+
+    static HttpResponseBodySubscriberInputStream with(final int maxChunks) {
+        if (maxChunks <= 0) {
+            throw new IllegalArgumentException("Invalid maxChunks " + maxChunks + " must be greater than 0");
+        }
+
+        return new HttpResponseBodySubscriberInputStream(maxChunks);
+    }
+
+    private HttpResponseBodySubscriberInputStream(final int maxChunks) {
+        super();
+        this.maxChunks = maxChunks;
+
+        this.stage.whenComplete(this::onStageComplete);
+    }
+
+    // BodySubscriber...................................................................................................
+
+    @Override
+    public CompletionStage<InputStream> getBody() {
+        return this.stage;
+    }
+
+    private final CompletableFuture<InputStream> stage = new CompletableFuture<>();
+
+    /**
+     * Cancelling the {@link CompletionStage} aborts the transport.
+     */
+    private void onStageComplete(final InputStream value,
+                                 final Throwable cause) {
+        if (cause instanceof CancellationException) {
+            this.close();
+        }
+    }
+
+    // Subscriber.......................................................................................................
+
+    @Override
+    public void onSubscribe(final Subscription subscription) {
+        Objects.requireNonNull(subscription, "subscription");
+
+        if (null != this.subscription || this.stage.isDone()) {
+            subscription.cancel();
+        } else {
+            this.subscription = subscription;
+            this.stage.complete(this);
+            subscription.request(this.maxChunks);
+        }
+    }
+
+    /**
+     * The transport {@link Subscription}, null once the body is complete or closed.
+     */
+    private Subscription subscription;
+
+    @Override
+    public void onNext(final List<ByteBuffer> chunk) {
+        Objects.requireNonNull(chunk, "chunk");
+
+        if (false == this.done) {
+            this.chunks.add(chunk);
+        }
+    }
+
+    @Override
+    public void onError(final Throwable cause) {
+        if (false == this.done) {
+            this.cause = cause;
+            this.complete();
+        }
+    }
+
+    /**
+     * The failure, which is thrown once the queued chunks have been read.
+     */
+    private Throwable cause;
+
+    @Override
+    public void onComplete() {
+        this.complete();
+    }
+
+    private void complete() {
+        this.subscription = null;
+        this.done = true;
+    }
+
+    /**
+     * True once the body is complete, failed or closed.
+     */
+    private boolean done;
+
+    // InputStream......................................................................................................
+
+    @Override
+    public int read() throws IOException {
+        final ByteBuffer buffer = this.buffer();
+        return null != buffer ?
+                buffer.get() & 0xff :
+                -1;
+    }
+
+    @Override
+    public int read(final byte[] bytes,
+                    final int offset,
+                    final int length) throws IOException {
+        Objects.requireNonNull(bytes, "bytes");
+        if (offset < 0 || length < 0 || length > bytes.length - offset) {
+            throw new IndexOutOfBoundsException("Invalid offset " + offset + " length " + length + " for " + bytes.length);
+        }
+
+        int read = 0;
+        if (length > 0) {
+            ByteBuffer buffer = this.buffer();
+            if (null == buffer) {
+                read = -1;
+            } else {
+                while (read < length) {
+                    final int count = Math.min(length - read, buffer.remaining());
+                    buffer.get(bytes, offset + read, count);
+                    read += count;
+
+                    // only continue with chunks already received
+                    if (read == length || (buffer = this.available0()) == null) {
+                        break;
+                    }
+                }
+            }
+        }
+        return read;
+    }
+
+    @Override
+    public int available() throws IOException {
+        this.failIfClosed();
+
+        int available = 0;
+        for (final List<ByteBuffer> chunk : this.chunks) {
+            for (final ByteBuffer buffer : chunk) {
+                available += buffer.remaining();
+            }
+        }
+        return available;
+    }
+
+    /**
+     * Returns the next {@link ByteBuffer} with bytes, or null at the end of the body.
+     */
+    private ByteBuffer buffer() throws IOException {
+        this.failIfClosed();
+
+        final ByteBuffer buffer = this.available0();
+        if (null == buffer) {
+            if (false == this.done) {
+                throw new IOException("Bytes read before they were received");
+            }
+            this.failIfError();
+        }
+        return buffer;
+    }
+
+    /**
+     * Returns the next received {@link ByteBuffer} with bytes, releasing and replacing each fully read chunk.
+     */
+    private ByteBuffer available0() {
+        final Queue<List<ByteBuffer>> chunks = this.chunks;
+
+        while (false == chunks.isEmpty()) {
+            for (final ByteBuffer buffer : chunks.peek()) {
+                if (buffer.hasRemaining()) {
+                    return buffer;
+                }
+            }
+
+            chunks.remove();
+            final Subscription subscription = this.subscription;
+            if (null != subscription) {
+                subscription.request(1);
+            }
+        }
+
+        return null;
+    }
+
+    private void failIfError() throws IOException {
+        final Throwable cause = this.cause;
+        if (null != cause) {
+            throw cause instanceof IOException ?
+                    (IOException) cause :
+                    new IOException(cause.getMessage(), cause);
+        }
+    }
+
+    private void failIfClosed() throws IOException {
+        if (this.closed) {
+            throw new IOException("Stream closed");
+        }
+    }
+
+    /**
+     * Closing before the end of the body aborts the exchange.
+     */
+    @Override
+    public void close() {
+        if (false == this.closed) {
+            this.closed = true;
+            this.chunks.clear();
+
+            final Subscription subscription = this.subscription;
+            this.complete();
+            if (null != subscription) {
+                subscription.cancel();
+            }
+        }
+    }
+
+    private boolean closed;
+
+    /**
+     * Received chunks, the head being the chunk currently being read.
+     */
+    private final Queue<List<ByteBuffer>> chunks = new ArrayDeque<>();
+
+    /**
+     * The number of chunks requested ahead of the reader.
+     */
+    private final int maxChunks;
+
+    // Object...........................................................................................................
+
+    @Override
+    public String toString() {
+        return this.chunks.size() + " chunks " + this.stage;
+    }
+}
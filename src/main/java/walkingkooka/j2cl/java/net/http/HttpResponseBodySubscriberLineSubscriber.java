@@ -0,0 +1,271 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import walkingkooka.j2cl.java.net.http.HttpResponse.BodySubscriber;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow.Subscriber;
+import java.util.concurrent.Flow.Subscription;
+import java.util.function.Function;
+
+/**
+ * A {@link BodySubscriber} that delivers lines to a {@link Subscriber} only as fast as it requests them. A chunk is
+ * requested from the transport only when all the lines of the previous chunk have been delivered and more are wanted,
+ * so a slow {@link Subscriber} throttles the download rather than lines being buffered. The body is the result of
+ * applying the finisher to the {@link Subscriber} after it completes.
+ */
+final class HttpResponseBodySubscriberLineSubscriber<S extends Subscriber<? super String>, T> implements BodySubscriber<T>,
+        HttpResponseBodySubscriberConsuming,
+        Subscription {
+
+    static <S extends Subscriber<? super String>, T> HttpResponseBodySubscriberLineSubscriber<S, T> with(final S subscriber,
+                                                                                                       final Function<? super S, ? extends T> finisher,
+                                                                                                       final Charset charset,
+                                                                                                       final String lineSeparator) {
+        Objects.requireNonNull(subscriber, "subscriber");
+        Objects.requireNonNull(finisher, "finisher");
+        Objects.requireNonNull(charset, "charset");
+
+        return new HttpResponseBodySubscriberLineSubscriber<>(subscriber, finisher, charset, lineSeparator);
+    }
+
+    private HttpResponseBodySubscriberLineSubscriber(final S subscriber,
+                                                     final Function<? super S, ? extends T> finisher,
+                                                     final Charset charset,
+                                                     final String lineSeparator) {
+        super();
+        this.subscriber = subscriber;
+        this.finisher = finisher;
+        this.splitter = HttpResponseBodyLineSplitter.with(charset, lineSeparator, this.lines::add);
+
+        this.stage.whenComplete(this::onStageComplete);
+    }
+
+    // BodySubscriber...................................................................................................
+
+    @Override
+    public CompletionStage<T> getBody() {
+        return this.stage;
+    }
+
+    private final CompletableFuture<T> stage = new CompletableFuture<>();
+
+    /**
+     * Cancelling the {@link CompletionStage} aborts the transport.
+     */
+    private void onStageComplete(final T value,
+                                 final Throwable cause) {
+        if (cause instanceof CancellationException) {
+            this.cancel();
+        }
+    }
+
+    // Subscriber.......................................................................................................
+
+    @Override
+    public void onSubscribe(final Subscription subscription) {
+        Objects.requireNonNull(subscription, "subscription");
+
+        if (null != this.upstream || this.stage.isDone()) {
+            subscription.cancel();
+        } else {
+            this.upstream = subscription;
+            this.subscriber.onSubscribe(this);
+        }
+    }
+
+    /**
+     * The transport {@link Subscription}, null once the body is complete or cancelled.
+     */
+    private Subscription upstream;
+
+    @Override
+    public void onNext(final List<ByteBuffer> chunk) {
+        Objects.requireNonNull(chunk, "chunk");
+
+        this.upstreamRequested = false;
+        for (final ByteBuffer buffer : chunk) {
+            this.splitter.split(buffer);
+        }
+        this.drain();
+    }
+
+    @Override
+    public void onError(final Throwable cause) {
+        if (false == this.done) {
+            this.done = true;
+            this.upstream = null;
+            this.lines.clear();
+
+            this.subscriber.onError(cause);
+            this.stage.completeExceptionally(cause);
+        }
+    }
+
+    @Override
+    public void onComplete() {
+        this.splitter.end();
+        this.upstreamComplete = true;
+        this.upstream = null;
+        this.drain();
+    }
+
+    /**
+     * True once the transport has completed, the remaining lines are still delivered as requested.
+     */
+    private boolean upstreamComplete;
+
+    // Subscription.....................................................................................................
+
+    @Override
+    public void request(final long count) {
+        if (count <= 0) {
+            this.cancelUpstream();
+            this.onError(new IllegalArgumentException("Invalid count " + count + " must be greater than 0"));
+        } else {
+            final long demand = this.demand + count;
+            this.demand = demand < 0 ? Long.MAX_VALUE : demand;
+            this.drain();
+        }
+    }
+
+    /**
+     * Lines requested by the {@link Subscriber} but not yet delivered.
+     */
+    private long demand;
+
+    @Override
+    public void cancel() {
+        if (false == this.done) {
+            this.done = true;
+            this.lines.clear();
+            this.cancelUpstream();
+            this.stage.cancel(false);
+        }
+    }
+
+    private void cancelUpstream() {
+        final Subscription upstream = this.upstream;
+        this.upstream = null;
+        if (null != upstream) {
+            upstream.cancel();
+        }
+    }
+
+    // drain............................................................................................................
+
+    /**
+     * Delivers buffered lines while there is demand, completing the {@link Subscriber} after the last line, or
+     * requesting another chunk when the buffered lines run out.
+     */
+    private void drain() {
+        if (false == this.draining) {
+            this.draining = true;
+            try {
+                this.drain0();
+            } finally {
+                this.draining = false;
+            }
+        }
+    }
+
+    private void drain0() {
+        final Queue<String> lines = this.lines;
+
+        while (false == this.done) {
+            if (lines.isEmpty()) {
+                if (this.upstreamComplete) {
+                    this.complete();
+                } else if (this.demand > 0 && false == this.upstreamRequested) {
+                    this.upstreamRequested = true;
+                    this.upstream.request(1);
+                    continue; // a synchronous transport may have delivered the chunk
+                }
+                break;
+            }
+            if (0 == this.demand) {
+                break;
+            }
+            this.demand--;
+            this.subscriber.onNext(lines.remove());
+        }
+    }
+
+    private void complete() {
+        this.done = true;
+        this.subscriber.onComplete();
+
+        try {
+            this.stage.complete(this.finisher.apply(this.subscriber));
+        } catch (final RuntimeException cause) {
+            this.stage.completeExceptionally(cause);
+        }
+    }
+
+    /**
+     * Guards against a synchronous transport or {@link Subscriber} calling back into {@link #drain()}.
+     */
+    private boolean draining;
+
+    /**
+     * True while a chunk has been requested but not yet received.
+     */
+    private boolean upstreamRequested;
+
+    /**
+     * True once the {@link Subscriber} has completed, failed or cancelled.
+     */
+    private boolean done;
+
+    /**
+     * Lines split from the current chunk not yet delivered.
+     */
+    private final Queue<String> lines = new ArrayDeque<>();
+
+    private final HttpResponseBodyLineSplitter splitter;
+
+    private final S subscriber;
+
+    private final Function<? super S, ? extends T> finisher;
+
+    // HttpResponseBodySubscriberConsuming..............................................................................
+
+    /**
+     * The bytes are copied into lines as each chunk arrives, only decoded lines are buffered.
+     */
+    @Override
+    public boolean consumesBuffers() {
+        return true;
+    }
+
+    // Object...........................................................................................................
+
+    @Override
+    public String toString() {
+        return this.subscriber + " " + this.stage;
+    }
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import walkingkooka.j2cl.java.net.http.HttpResponse.BodySubscriber;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow.Subscription;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A {@link BodySubscriber} that splits each chunk into lines as it arrives, completing with a {@link Stream} of the
+ * lines once the body is complete. The browser cannot block a reader waiting for a line from an asynchronous transport,
+ * so the {@link Stream} is only given once every line has been received. Only decoded lines are ever held, never the
+ * chunks. A failure after some lines have been received completes with the lines received, with reading past them
+ * throwing the failure. Cancelling the {@link CompletionStage} before then aborts the exchange.
+ */
+final class HttpResponseBodySubscriberLines implements BodySubscriber<Stream<String>>,
+        HttpResponseBodySubscriberConsuming {
+
+    static HttpResponseBodySubscriberLines with(final Charset charset) {
+        Objects.requireNonNull(charset, "charset");
+
+        return new HttpResponseBodySubscriberLines(charset);
+    }
+
+    private HttpResponseBodySubscriberLines(final Charset charset) {
+        super();
+        this.splitter = HttpResponseBodyLineSplitter.with(charset, this.lines::add);
+        this.stage.whenComplete(this::onStageComplete);
+    }
+
+    // BodySubscriber...................................................................................................
+
+    @Override
+    public CompletionStage<Stream<String>> getBody() {
+        return this.stage;
+    }
+
+    private final CompletableFuture<Stream<String>> stage = new CompletableFuture<>();
+
+    /**
+     * Cancelling the {@link CompletionStage} aborts the transport and releases any lines.
+     */
+    private void onStageComplete(final Stream<String> lines,
+                                 final Throwable cause) {
+        if (cause instanceof CancellationException) {
+            final Subscription subscription = this.subscription;
+            if (null != subscription) {
+                subscription.cancel();
+            }
+            this.lines.clear();
+            this.done = true;
+        }
+        this.subscription = null;
+    }
+
+    // Subscriber.......................................................................................................
+
+    /**
+     * All chunks are requested, each is split into lines as it arrives.
+     */
+    @Override
+    public void onSubscribe(final Subscription subscription) {
+        Objects.requireNonNull(subscription, "subscription");
+
+        if (null != this.subscription || this.done) {
+            subscription.cancel();
+        } else {
+            this.subscription = subscription;
+            subscription.request(Long.MAX_VALUE);
+        }
+    }
+
+    /**
+     * The transport {@link Subscription}, null once the body is complete.
+     */
+    private Subscription subscription;
+
+    @Override
+    public void onNext(final List<ByteBuffer> chunk) {
+        Objects.requireNonNull(chunk, "chunk");
+
+        if (false == this.done) {
+            for (final ByteBuffer buffer : chunk) {
+                this.splitter.split(buffer);
+            }
+        }
+    }
+
+    @Override
+    public void onError(final Throwable cause) {
+        if (false == this.done) {
+            this.cause = cause;
+            this.complete();
+        }
+    }
+
+    /**
+     * The failure, which is thrown once the received lines have been read.
+     */
+    private Throwable cause;
+
+    @Override
+    public void onComplete() {
+        if (false == this.done) {
+            this.splitter.end();
+            this.complete();
+        }
+    }
+
+    private void complete() {
+        this.subscription = null;
+        this.done = true;
+
+        this.stage.complete(
+                StreamSupport.stream(new Spliterators.AbstractSpliterator<String>(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+                    @Override
+                    public boolean tryAdvance(final Consumer<? super String> action) {
+                        return HttpResponseBodySubscriberLines.this.tryAdvance(action);
+                    }
+                }, false)
+        );
+    }
+
+    /**
+     * Becomes true once the body completes, fails or is cancelled, after which further events are ignored.
+     */
+    private boolean done;
+
+    // Stream...........................................................................................................
+
+    private boolean tryAdvance(final Consumer<? super String> action) {
+        final Queue<String> lines = this.lines;
+
+        final boolean advanced = false == lines.isEmpty();
+        if (advanced) {
+            action.accept(lines.remove());
+        } else {
+            this.failIfError();
+        }
+        return advanced;
+    }
+
+    private void failIfError() {
+        final Throwable cause = this.cause;
+        if (null != cause) {
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new UncheckedIOException(cause instanceof IOException ?
+                    (IOException) cause :
+                    new IOException(cause.getMessage(), cause));
+        }
+    }
+
+    /**
+     * Lines split from received chunks that have not yet been read.
+     */
+    private final Queue<String> lines = new ArrayDeque<>();
+
+    private final HttpResponseBodyLineSplitter splitter;
+
+    // HttpResponseBodySubscriberConsuming..............................................................................
+
+    /**
+     * The bytes are copied into lines as each chunk arrives, only decoded lines are buffered.
+     */
+    @Override
+    public boolean consumesBuffers() {
+        return true;
+    }
+
+    // Object...........................................................................................................
+
+    @Override
+    public String toString() {
+        return this.stage.toString();
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import walkingkooka.j2cl.java.net.http.HttpResponse.BodySubscriber;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow.Subscription;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * A {@link BodySubscriber} that forwards all events to an upstream {@link BodySubscriber} and maps its body. When used
+ * by {@link HttpClient#sendAsync(HttpRequest, HttpResponse.BodyHandler)} the mapper only runs on the first call to
+ * {@link HttpResponse#body()}, so a response whose body is never read, eg after a status check fails, never pays for
+ * the mapping. Calling {@link #getBody()} directly maps the body as soon as upstream completes.
+ */
+final class HttpResponseBodySubscriberMapping<T, U> implements BodySubscriber<U>,
+        HttpResponseBodySubscriberConsuming {
+
+    static <T, U> HttpResponseBodySubscriberMapping<T, U> with(final BodySubscriber<T> upstream,
+                                                               final Function<? super T, ? extends U> mapper) {
+        Objects.requireNonNull(upstream, "upstream");
+        Objects.requireNonNull(mapper, "mapper");
+
+        return new HttpResponseBodySubscriberMapping<>(upstream, mapper);
+    }
+
+    /**
+     * Returns a {@link CompletionStage} that completes with a {@link Supplier} of the body when the body has been
+     * received, only a {@link HttpResponseBodySubscriberMapping} defers any work to the {@link Supplier}.
+     */
+    static <T> CompletionStage<Supplier<T>> lazyBody(final BodySubscriber<T> subscriber) {
+        return subscriber instanceof HttpResponseBodySubscriberMapping ?
+                ((HttpResponseBodySubscriberMapping<?, T>) subscriber).lazyBody() :
+                subscriber.getBody()
+                        .thenApply((body) -> () -> body);
+    }
+
+    private HttpResponseBodySubscriberMapping(final BodySubscriber<T> upstream,
+                                              final Function<? super T, ? extends U> mapper) {
+        super();
+        this.upstream = upstream;
+        this.mapper = mapper;
+    }
+
+    // BodySubscriber...................................................................................................
+
+    @Override
+    public CompletionStage<U> getBody() {
+        if (null == this.body) {
+            final CompletableFuture<U> body = this.lazyBody()
+                    .thenApply(Supplier::get)
+                    .toCompletableFuture();
+            body.whenComplete(this::onBodyComplete);
+            this.body = body;
+        }
+        return this.body;
+    }
+
+    /**
+     * Created on demand by {@link #getBody()}.
+     */
+    private CompletableFuture<U> body;
+
+    /**
+     * Cancelling the mapped body cancels the upstream body which in turn aborts the transport.
+     */
+    private void onBodyComplete(final U value,
+                                final Throwable cause) {
+        if (cause instanceof CancellationException) {
+            this.upstream.getBody()
+                    .toCompletableFuture()
+                    .cancel(false);
+        }
+    }
+
+    /**
+     * Returns the {@link CompletionStage} of the single memoizing {@link Supplier}, shared by {@link #getBody()} and
+     * any {@link HttpResponse}, so the mapper runs at most once.
+     */
+    private CompletionStage<Supplier<U>> lazyBody() {
+        if (null == this.lazyBody) {
+            final Function<? super T, ? extends U> mapper = this.mapper;
+
+            this.lazyBody = lazyBody(this.upstream)
+                    .thenApply((supplier) -> HttpResponseBodySubscriberMappingSupplier.with(supplier, mapper));
+        }
+        return this.lazyBody;
+    }
+
+    /**
+     * Created on demand by {@link #lazyBody()}.
+     */
+    private CompletionStage<Supplier<U>> lazyBody;
+
+    private final Function<? super T, ? extends U> mapper;
+
+    // Subscriber.......................................................................................................
+
+    @Override
+    public void onSubscribe(final Subscription subscription) {
+        this.upstream.onSubscribe(subscription);
+    }
+
+    @Override
+    public void onNext(final List<ByteBuffer> chunk) {
+        this.upstream.onNext(chunk);
+    }
+
+    @Override
+    public void onError(final Throwable cause) {
+        this.upstream.onError(cause);
+    }
+
+    @Override
+    public void onComplete() {
+        this.upstream.onComplete();
+    }
+
+    private final BodySubscriber<T> upstream;
+
+    // HttpResponseBodySubscriberConsuming..............................................................................
+
+    @Override
+    public boolean consumesBuffers() {
+        return HttpResponseBodySubscriberConsuming.isConsuming(this.upstream);
+    }
+
+    // Object...........................................................................................................
+
+    @Override
+    public String toString() {
+        return this.upstream + " " + this.mapper;
+    }
+}
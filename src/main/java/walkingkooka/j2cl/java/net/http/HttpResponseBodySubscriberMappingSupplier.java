@@ -0,0 +1,69 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * A {@link Supplier} that maps the upstream body on the first call to {@link #get()} and remembers the result, releasing
+ * the upstream body. A mapper that fails is retried by the next {@link #get()}.
+ */
+final class HttpResponseBodySubscriberMappingSupplier<T, U> implements Supplier<U> {
+
+    static <T, U> HttpResponseBodySubscriberMappingSupplier<T, U> with(final Supplier<T> upstream,
+                                                                       final Function<? super T, ? extends U> mapper) {
+        return new HttpResponseBodySubscriberMappingSupplier<>(upstream, mapper);
+    }
+
+    private HttpResponseBodySubscriberMappingSupplier(final Supplier<T> upstream,
+                                                      final Function<? super T, ? extends U> mapper) {
+        super();
+        this.upstream = upstream;
+        this.mapper = mapper;
+    }
+
+    @Override
+    public U get() {
+        final Supplier<T> upstream = this.upstream;
+        if (null != upstream) {
+            this.value = this.mapper.apply(upstream.get());
+            this.upstream = null;
+            this.mapper = null;
+        }
+        return this.value;
+    }
+
+    /**
+     * The unmapped body, cleared once mapped.
+     */
+    private Supplier<T> upstream;
+
+    private Function<? super T, ? extends U> mapper;
+
+    private U value;
+
+    // Object...........................................................................................................
+
+    @Override
+    public String toString() {
+        return null != this.upstream ?
+                this.mapper.toString() :
+                String.valueOf(this.value);
+    }
+}
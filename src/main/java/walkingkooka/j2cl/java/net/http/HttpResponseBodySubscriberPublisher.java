@@ -0,0 +1,301 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import walkingkooka.j2cl.java.net.http.HttpResponse.BodySubscriber;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow.Publisher;
+import java.util.concurrent.Flow.Subscriber;
+import java.util.concurrent.Flow.Subscription;
+
+/**
+ * A {@link BodySubscriber} whose body is a {@link Publisher} of the body chunks, available as soon as it is subscribed.
+ * Chunks are requested from the transport only as the single {@link Subscriber} requests them, with at most
+ * {@link #maxChunks} requested or buffered at any time.
+ */
+final class HttpResponseBodySubscriberPublisher implements BodySubscriber<Publisher<List<ByteBuffer>>>,
+        Publisher<List<ByteBuffer>>,
+        Subscription {
+
+    /**
+     * The default maximum number of chunks requested or buffered.
+     */
+    final static int MAX_CHUNKS = 4;
+
+    static HttpResponseBodySubscriberPublisher with(final int maxChunks) {
+        if (maxChunks <= 0) {
+            throw new IllegalArgumentException("Invalid maxChunks " + maxChunks + " must be greater than 0");
+        }
+
+        return new HttpResponseBodySubscriberPublisher(maxChunks);
+    }
+
+    private HttpResponseBodySubscriberPublisher(final int maxChunks) {
+        super();
+        this.maxChunks = maxChunks;
+
+        this.stage.whenComplete(this::onStageComplete);
+    }
+
+    // BodySubscriber...................................................................................................
+
+    @Override
+    public CompletionStage<Publisher<List<ByteBuffer>>> getBody() {
+        return this.stage;
+    }
+
+    private final CompletableFuture<Publisher<List<ByteBuffer>>> stage = new CompletableFuture<>();
+
+    /**
+     * Cancelling the {@link CompletionStage} aborts the transport.
+     */
+    private void onStageComplete(final Publisher<List<ByteBuffer>> value,
+                                 final Throwable cause) {
+        if (cause instanceof CancellationException) {
+            this.cancel();
+        }
+    }
+
+    // Subscriber.......................................................................................................
+
+    @Override
+    public void onSubscribe(final Subscription subscription) {
+        Objects.requireNonNull(subscription, "subscription");
+
+        if (null != this.upstream || this.stage.isDone()) {
+            subscription.cancel();
+        } else {
+            this.upstream = subscription;
+            this.stage.complete(this);
+        }
+    }
+
+    /**
+     * The transport {@link Subscription}, null once the body is complete or cancelled.
+     */
+    private Subscription upstream;
+
+    @Override
+    public void onNext(final List<ByteBuffer> chunk) {
+        Objects.requireNonNull(chunk, "chunk");
+
+        if (false == this.done) {
+            this.upstreamRequested--;
+            this.chunks.add(chunk);
+            this.drain();
+        }
+    }
+
+    @Override
+    public void onError(final Throwable cause) {
+        if (false == this.done) {
+            this.upstream = null;
+            this.chunks.clear();
+            this.cause = cause;
+            this.upstreamComplete = true;
+            this.drain();
+        }
+    }
+
+    /**
+     * A failure is delivered to the {@link Subscriber} immediately, dropping any buffered chunks.
+     */
+    private Throwable cause;
+
+    @Override
+    public void onComplete() {
+        this.upstream = null;
+        this.upstreamComplete = true;
+        this.drain();
+    }
+
+    /**
+     * True once the transport has completed or failed.
+     */
+    private boolean upstreamComplete;
+
+    // Publisher........................................................................................................
+
+    @Override
+    public void subscribe(final Subscriber<? super List<ByteBuffer>> subscriber) {
+        Objects.requireNonNull(subscriber, "subscriber");
+
+        if (null != this.subscriber) {
+            subscriber.onSubscribe(ALREADY_SUBSCRIBED);
+            subscriber.onError(new IllegalStateException("Publisher already subscribed"));
+        } else {
+            this.subscriber = subscriber;
+            subscriber.onSubscribe(this);
+            this.drain();
+        }
+    }
+
+    /**
+     * The {@link Subscription} given to a second {@link Subscriber} before it is failed.
+     */
+    private final static Subscription ALREADY_SUBSCRIBED = new Subscription() {
+        @Override
+        public void request(final long count) {
+        }
+
+        @Override
+        public void cancel() {
+        }
+
+        @Override
+        public String toString() {
+            return "Already subscribed";
+        }
+    };
+
+    /**
+     * The only {@link Subscriber} of the body.
+     */
+    private Subscriber<? super List<ByteBuffer>> subscriber;
+
+    // Subscription.....................................................................................................
+
+    @Override
+    public void request(final long count) {
+        if (false == this.done) {
+            if (count <= 0) {
+                this.cancelUpstream();
+                this.chunks.clear();
+                this.cause = new IllegalArgumentException("Invalid count " + count + " must be greater than 0");
+                this.upstreamComplete = true;
+            } else {
+                final long demand = this.demand + count;
+                this.demand = demand < 0 ? Long.MAX_VALUE : demand;
+            }
+            this.drain();
+        }
+    }
+
+    /**
+     * Chunks requested by the {@link Subscriber} but not yet delivered.
+     */
+    private long demand;
+
+    @Override
+    public void cancel() {
+        if (false == this.done) {
+            this.done = true;
+            this.chunks.clear();
+            this.cancelUpstream();
+        }
+    }
+
+    private void cancelUpstream() {
+        final Subscription upstream = this.upstream;
+        this.upstream = null;
+        if (null != upstream) {
+            upstream.cancel();
+        }
+    }
+
+    // drain............................................................................................................
+
+    /**
+     * Delivers buffered chunks while there is demand, followed by any completion, then requests more chunks from the
+     * transport for any demand not yet satisfied, never exceeding {@link #maxChunks}.
+     */
+    private void drain() {
+        if (false == this.draining && null != this.subscriber) {
+            this.draining = true;
+            try {
+                this.drain0();
+            } finally {
+                this.draining = false;
+            }
+        }
+    }
+
+    private void drain0() {
+        final Subscriber<? super List<ByteBuffer>> subscriber = this.subscriber;
+        final Queue<List<ByteBuffer>> chunks = this.chunks;
+
+        while (false == this.done) {
+            if (this.demand > 0 && false == chunks.isEmpty()) {
+                this.demand--;
+                subscriber.onNext(chunks.remove());
+                continue;
+            }
+
+            if (chunks.isEmpty() && this.upstreamComplete) {
+                this.done = true;
+
+                final Throwable cause = this.cause;
+                if (null != cause) {
+                    subscriber.onError(cause);
+                } else {
+                    subscriber.onComplete();
+                }
+                break;
+            }
+
+            final Subscription upstream = this.upstream;
+            final long pending = chunks.size() + this.upstreamRequested;
+            final long request = Math.min(this.demand, this.maxChunks) - pending;
+            if (null == upstream || request <= 0) {
+                break;
+            }
+            this.upstreamRequested += request;
+            upstream.request(request); // a synchronous transport may deliver immediately
+        }
+    }
+
+    /**
+     * Guards against a synchronous transport or {@link Subscriber} calling back into {@link #drain()}.
+     */
+    private boolean draining;
+
+    /**
+     * The number of chunks requested from the transport but not yet received.
+     */
+    private long upstreamRequested;
+
+    /**
+     * True once the {@link Subscriber} has completed, failed or cancelled.
+     */
+    private boolean done;
+
+    /**
+     * Chunks received but not yet delivered.
+     */
+    private final Queue<List<ByteBuffer>> chunks = new ArrayDeque<>();
+
+    /**
+     * The maximum number of chunks requested from the transport or buffered.
+     */
+    private final int maxChunks;
+
+    // Object...........................................................................................................
+
+    @Override
+    public String toString() {
+        return this.chunks.size() + " chunks " + this.stage;
+    }
+}
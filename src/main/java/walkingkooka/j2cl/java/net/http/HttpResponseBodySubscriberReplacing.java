@@ -0,0 +1,116 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import walkingkooka.j2cl.java.net.http.HttpResponse.BodySubscriber;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow.Subscription;
+
+/**
+ * A {@link BodySubscriber} that drains the body without decoding or keeping any of it, completing with a fixed value.
+ */
+final class HttpResponseBodySubscriberReplacing<U> implements BodySubscriber<U>,
+        HttpResponseBodySubscriberConsuming {
+
+    static <U> HttpResponseBodySubscriberReplacing<U> with(final U value) {
+        return new HttpResponseBodySubscriberReplacing<>(value);
+    }
+
+    private HttpResponseBodySubscriberReplacing(final U value) {
+        super();
+        this.value = value;
+
+        this.stage.whenComplete(this::onStageComplete);
+    }
+
+    // BodySubscriber...................................................................................................
+
+    @Override
+    public CompletionStage<U> getBody() {
+        return this.stage;
+    }
+
+    private final CompletableFuture<U> stage = new CompletableFuture<>();
+
+    /**
+     * Cancelling the {@link CompletionStage} aborts the transport rather than draining the rest of the body.
+     */
+    private void onStageComplete(final U value,
+                                 final Throwable cause) {
+        if (cause instanceof CancellationException) {
+            final Subscription subscription = this.subscription;
+            if (null != subscription) {
+                subscription.cancel();
+            }
+        }
+        this.subscription = null;
+    }
+
+    // Subscriber.......................................................................................................
+
+    @Override
+    public void onSubscribe(final Subscription subscription) {
+        Objects.requireNonNull(subscription, "subscription");
+
+        if (null != this.subscription || this.stage.isDone()) {
+            subscription.cancel();
+        } else {
+            this.subscription = subscription;
+            subscription.request(Long.MAX_VALUE);
+        }
+    }
+
+    private Subscription subscription;
+
+    @Override
+    public void onNext(final List<ByteBuffer> chunk) {
+        Objects.requireNonNull(chunk, "chunk");
+    }
+
+    @Override
+    public void onError(final Throwable cause) {
+        this.stage.completeExceptionally(cause);
+    }
+
+    @Override
+    public void onComplete() {
+        this.stage.complete(this.value);
+    }
+
+    private final U value;
+
+    // HttpResponseBodySubscriberConsuming..............................................................................
+
+    @Override
+    public boolean consumesBuffers() {
+        return true;
+    }
+
+    // Object...........................................................................................................
+
+    @Override
+    public String toString() {
+        return this.value + " " + this.stage;
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import walkingkooka.j2cl.java.net.http.HttpResponse.BodySubscriber;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow.Subscriber;
+import java.util.concurrent.Flow.Subscription;
+import java.util.function.Function;
+
+/**
+ * A {@link BodySubscriber} that passes the chunks received from the transport directly to a {@link Subscriber},
+ * without any copying or buffering. The {@link Subscriber} controls demand, and the body is the result of applying the
+ * finisher to the {@link Subscriber} after it completes.
+ */
+final class HttpResponseBodySubscriberSubscriber<S extends Subscriber<? super List<ByteBuffer>>, T> implements BodySubscriber<T>,
+        Subscription {
+
+    static <S extends Subscriber<? super List<ByteBuffer>>, T> HttpResponseBodySubscriberSubscriber<S, T> with(final S subscriber,
+                                                                                                             final Function<? super S, ? extends T> finisher) {
+        Objects.requireNonNull(subscriber, "subscriber");
+        Objects.requireNonNull(finisher, "finisher");
+
+        return new HttpResponseBodySubscriberSubscriber<>(subscriber, finisher);
+    }
+
+    private HttpResponseBodySubscriberSubscriber(final S subscriber,
+                                                 final Function<? super S, ? extends T> finisher) {
+        super();
+        this.subscriber = subscriber;
+        this.finisher = finisher;
+
+        this.stage.whenComplete(this::onStageComplete);
+    }
+
+    // BodySubscriber...................................................................................................
+
+    @Override
+    public CompletionStage<T> getBody() {
+        return this.stage;
+    }
+
+    private final CompletableFuture<T> stage = new CompletableFuture<>();
+
+    /**
+     * Cancelling the {@link CompletionStage} aborts the transport.
+     */
+    private void onStageComplete(final T value,
+                                 final Throwable cause) {
+        if (cause instanceof CancellationException) {
+            this.cancel();
+        }
+    }
+
+    // Subscriber.......................................................................................................
+
+    @Override
+    public void onSubscribe(final Subscription subscription) {
+        Objects.requireNonNull(subscription, "subscription");
+
+        if (null != this.upstream || this.done) {
+            subscription.cancel();
+        } else {
+            this.upstream = subscription;
+            this.subscriber.onSubscribe(this);
+        }
+    }
+
+    /**
+     * The transport {@link Subscription}, null once the body is complete or cancelled.
+     */
+    private Subscription upstream;
+
+    @Override
+    public void onNext(final List<ByteBuffer> chunk) {
+        Objects.requireNonNull(chunk, "chunk");
+
+        if (false == this.done) {
+            this.subscriber.onNext(chunk);
+        }
+    }
+
+    @Override
+    public void onError(final Throwable cause) {
+        if (false == this.done) {
+            this.done = true;
+            this.upstream = null;
+
+            this.subscriber.onError(cause);
+            this.stage.completeExceptionally(cause);
+        }
+    }
+
+    @Override
+    public void onComplete() {
+        if (false == this.done) {
+            this.done = true;
+            this.upstream = null;
+            this.subscriber.onComplete();
+
+            try {
+                this.stage.complete(this.finisher.apply(this.subscriber));
+            } catch (final RuntimeException cause) {
+                this.stage.completeExceptionally(cause);
+            }
+        }
+    }
+
+    // Subscription.....................................................................................................
+
+    @Override
+    public void request(final long count) {
+        final Subscription upstream = this.upstream;
+        if (null != upstream) {
+            upstream.request(count);
+        }
+    }
+
+    @Override
+    public void cancel() {
+        if (false == this.done) {
+            this.done = true;
+
+            final Subscription upstream = this.upstream;
+            this.upstream = null;
+            if (null != upstream) {
+                upstream.cancel();
+            }
+            this.stage.cancel(false);
+        }
+    }
+
+    /**
+     * True once the transport has completed, failed or either side cancelled.
+     */
+    private boolean done;
+
+    private final S subscriber;
+
+    private final Function<? super S, ? extends T> finisher;
+
+    // Object...........................................................................................................
+
+    @Override
+    public String toString() {
+        return this.subscriber + " " + this.stage;
+    }
+}
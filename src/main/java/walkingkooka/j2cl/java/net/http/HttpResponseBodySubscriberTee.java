@@ -0,0 +1,329 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import walkingkooka.j2cl.java.net.http.HttpResponse.BodySubscriber;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow.Subscription;
+
+/**
+ * A {@link BodySubscriber} that fans each chunk out to several {@link BodySubscriber}, eg one parsing the body and
+ * another writing it to a cache. Each receives its own {@link ByteBuffer#duplicate()} of every buffer, so the bytes
+ * are never copied and one subscriber reading a buffer does not move the position seen by another. Only as many chunks
+ * as the slowest subscriber has requested are requested from the transport. The body is that of the first
+ * {@link BodySubscriber}, the others complete their own bodies.
+ */
+final class HttpResponseBodySubscriberTee<T> implements BodySubscriber<T>,
+        HttpResponseBodySubscriberConsuming {
+
+    static <T> HttpResponseBodySubscriberTee<T> with(final BodySubscriber<T> primary,
+                                                     final List<BodySubscriber<?>> others) {
+        Objects.requireNonNull(primary, "primary");
+        Objects.requireNonNull(others, "others");
+
+        final List<BodySubscriber<?>> subscribers = new ArrayList<>();
+        subscribers.add(primary);
+        for (final BodySubscriber<?> other : others) {
+            subscribers.add(Objects.requireNonNull(other, "others includes null"));
+        }
+
+        return new HttpResponseBodySubscriberTee<>(primary, subscribers);
+    }
+
+    private HttpResponseBodySubscriberTee(final BodySubscriber<T> primary,
+                                          final List<BodySubscriber<?>> subscribers) {
+        super();
+        this.subscribers = subscribers;
+
+        primary.getBody()
+                .whenComplete(this::onPrimaryComplete);
+        this.stage.whenComplete(this::onStageComplete);
+    }
+
+    // BodySubscriber...................................................................................................
+
+    @Override
+    public CompletionStage<T> getBody() {
+        return this.stage;
+    }
+
+    private final CompletableFuture<T> stage = new CompletableFuture<>();
+
+    private void onPrimaryComplete(final T value,
+                                   final Throwable cause) {
+        this.primaryComplete = true;
+        if (null != cause) {
+            this.stage.completeExceptionally(cause);
+        } else {
+            this.stage.complete(value);
+        }
+    }
+
+    /**
+     * Set once the primary body completes, so the primary cancelling its own {@link Subscription} does not abort the
+     * transport for the others.
+     */
+    private boolean primaryComplete;
+
+    /**
+     * Cancelling the {@link CompletionStage} aborts the transport, and fails the subscribers that have not cancelled
+     * with a {@link CancellationException}, as nothing more will be delivered to them.
+     */
+    private void onStageComplete(final T value,
+                                 final Throwable cause) {
+        if (cause instanceof CancellationException && false == this.primaryComplete && false == this.done) {
+            this.cancelUpstream();
+            this.onErrorSubscribers(new CancellationException("Body cancelled"));
+        }
+    }
+
+    // Subscriber.......................................................................................................
+
+    @Override
+    public void onSubscribe(final Subscription subscription) {
+        Objects.requireNonNull(subscription, "subscription");
+
+        if (null != this.upstream || this.done) {
+            subscription.cancel();
+        } else {
+            this.upstream = subscription;
+
+            // all subscriptions must exist before any subscriber can request, so the slowest is always counted
+            final List<BodySubscriber<?>> subscribers = this.subscribers;
+            final int count = subscribers.size();
+            for (int i = 0; i < count; i++) {
+                this.subscriptions.add(HttpResponseBodySubscriberTeeSubscription.with(this));
+            }
+            for (int i = 0; i < count; i++) {
+                subscribers.get(i).onSubscribe(this.subscriptions.get(i));
+            }
+        }
+    }
+
+    /**
+     * The transport {@link Subscription}, null once the body is complete or cancelled.
+     */
+    private Subscription upstream;
+
+    @Override
+    public void onNext(final List<ByteBuffer> chunk) {
+        Objects.requireNonNull(chunk, "chunk");
+
+        if (false == this.done) {
+            this.requested--;
+
+            this.delivering = true;
+            try {
+                final List<BodySubscriber<?>> subscribers = this.subscribers;
+                final int count = subscribers.size();
+                for (int i = 0; i < count; i++) {
+                    final HttpResponseBodySubscriberTeeSubscription subscription = this.subscriptions.get(i);
+                    if (false == subscription.cancelled) {
+                        subscription.demand--;
+                        subscribers.get(i).onNext(duplicate(chunk));
+                    }
+                }
+            } finally {
+                this.delivering = false;
+            }
+
+            this.requestUpstream();
+        }
+    }
+
+    /**
+     * Each subscriber gets its own view with its own position and limit, the bytes are shared.
+     */
+    private static List<ByteBuffer> duplicate(final List<ByteBuffer> chunk) {
+        final List<ByteBuffer> duplicate = new ArrayList<>(chunk.size());
+        for (final ByteBuffer buffer : chunk) {
+            duplicate.add(buffer.duplicate());
+        }
+        return duplicate;
+    }
+
+    /**
+     * True while a chunk is being given to the subscribers, any requests are only passed to the transport after all
+     * have received the chunk, so they always see chunks in the same order.
+     */
+    private boolean delivering;
+
+    @Override
+    public void onError(final Throwable cause) {
+        if (false == this.done) {
+            this.done = true;
+            this.upstream = null;
+
+            this.onErrorSubscribers(cause);
+        }
+    }
+
+    private void onErrorSubscribers(final Throwable cause) {
+        final List<BodySubscriber<?>> subscribers = this.subscribers;
+        final int count = subscribers.size();
+        for (int i = 0; i < count; i++) {
+            if (false == this.subscriptions.get(i).cancelled) {
+                subscribers.get(i).onError(cause);
+            }
+        }
+    }
+
+    @Override
+    public void onComplete() {
+        if (false == this.done) {
+            this.done = true;
+            this.upstream = null;
+
+            final List<BodySubscriber<?>> subscribers = this.subscribers;
+            final int count = subscribers.size();
+            for (int i = 0; i < count; i++) {
+                if (false == this.subscriptions.get(i).cancelled) {
+                    subscribers.get(i).onComplete();
+                }
+            }
+        }
+    }
+
+    /**
+     * True once the transport has completed, failed or was cancelled.
+     */
+    private boolean done;
+
+    // HttpResponseBodySubscriberTeeSubscription........................................................................
+
+    /**
+     * A subscriber requested more, which may allow more to be requested from the transport.
+     */
+    void onRequest() {
+        this.requestUpstream();
+    }
+
+    /**
+     * A subscriber cancelled, it is no longer counted when requesting, and the transport is aborted once all have
+     * cancelled.
+     */
+    void onCancel() {
+        boolean all = true;
+        for (final HttpResponseBodySubscriberTeeSubscription subscription : this.subscriptions) {
+            all = all && subscription.cancelled;
+        }
+
+        if (all) {
+            this.cancelUpstream();
+        } else {
+            this.requestUpstream();
+        }
+    }
+
+    /**
+     * Requests from the transport up to the smallest demand of any subscriber that has not cancelled. A synchronous
+     * transport delivering from within {@link Subscription#request(long)} is requested again after it returns, rather
+     * than recursing once per chunk.
+     */
+    private void requestUpstream() {
+        if (this.delivering || this.requesting) {
+            this.requestPending = true;
+        } else {
+            this.requesting = true;
+            try {
+                do {
+                    this.requestPending = false;
+
+                    final Subscription upstream = this.upstream;
+                    if (null == upstream) {
+                        break;
+                    }
+                    final long wanted = this.smallestDemand();
+                    if (wanted > this.requested) {
+                        final long count = wanted - this.requested;
+                        this.requested = wanted;
+                        upstream.request(count);
+                    }
+                } while (this.requestPending);
+            } finally {
+                this.requesting = false;
+            }
+        }
+    }
+
+    private long smallestDemand() {
+        long smallest = Long.MAX_VALUE;
+        boolean active = false;
+
+        for (final HttpResponseBodySubscriberTeeSubscription subscription : this.subscriptions) {
+            if (false == subscription.cancelled) {
+                smallest = Math.min(smallest, subscription.demand);
+                active = true;
+            }
+        }
+        return active ? smallest : 0;
+    }
+
+    /**
+     * Chunks requested from the transport but not yet received.
+     */
+    private long requested;
+
+    private boolean requesting;
+
+    private boolean requestPending;
+
+    private void cancelUpstream() {
+        this.done = true;
+
+        final Subscription upstream = this.upstream;
+        this.upstream = null;
+        if (null != upstream) {
+            upstream.cancel();
+        }
+    }
+
+    /**
+     * The first is the primary {@link BodySubscriber} which provides the body.
+     */
+    private final List<BodySubscriber<?>> subscribers;
+
+    /**
+     * The {@link Subscription} given to each of the {@link #subscribers}, in the same order.
+     */
+    private final List<HttpResponseBodySubscriberTeeSubscription> subscriptions = new ArrayList<>();
+
+    // HttpResponseBodySubscriberConsuming..............................................................................
+
+    /**
+     * Buffers are shared by all subscribers, so may only be released if every subscriber consumes them.
+     */
+    @Override
+    public boolean consumesBuffers() {
+        return HttpResponseBodySubscriberConsuming.isConsuming(this.subscribers);
+    }
+
+    // Object...........................................................................................................
+
+    @Override
+    public String toString() {
+        return this.subscribers + " " + this.stage;
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import java.util.concurrent.Flow.Subscription;
+
+/**
+ * The {@link Subscription} given to each {@link HttpResponse.BodySubscriber} of a {@link HttpResponseBodySubscriberTee},
+ * recording its demand.
+ */
+final class HttpResponseBodySubscriberTeeSubscription implements Subscription {
+
+    static HttpResponseBodySubscriberTeeSubscription with(final HttpResponseBodySubscriberTee<?> tee) {
+        return new HttpResponseBodySubscriberTeeSubscription(tee);
+    }
+
+    private HttpResponseBodySubscriberTeeSubscription(final HttpResponseBodySubscriberTee<?> tee) {
+        super();
+        this.tee = tee;
+    }
+
+    @Override
+    public void request(final long count) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("Invalid request count " + count);
+        }
+
+        if (false == this.cancelled) {
+            final long demand = this.demand + count;
+            this.demand = demand < 0 ? Long.MAX_VALUE : demand;
+            this.tee.onRequest();
+        }
+    }
+
+    /**
+     * Chunks requested but not yet received.
+     */
+    long demand;
+
+    @Override
+    public void cancel() {
+        if (false == this.cancelled) {
+            this.cancelled = true;
+            this.tee.onCancel();
+        }
+    }
+
+    boolean cancelled;
+
+    private final HttpResponseBodySubscriberTee<?> tee;
+
+    // Object...........................................................................................................
+
+    @Override
+    public String toString() {
+        return "demand: " + this.demand + (this.cancelled ? " cancelled" : "");
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.ToStringTesting;
+import walkingkooka.reflect.ClassTesting2;
+import walkingkooka.reflect.JavaVisibility;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class HttpClientAdaptiveConcurrencyTest implements ClassTesting2<HttpClientAdaptiveConcurrency>,
+        ToStringTesting<HttpClientAdaptiveConcurrency> {
+
+    private final static Duration LATENCY = Duration.ofMillis(500);
+
+    @Test
+    public void testWithZeroMinLimitFails() {
+        assertThrows(IllegalArgumentException.class, () -> HttpClientAdaptiveConcurrency.with(1, 0, 10, LATENCY, 0.5));
+    }
+
+    @Test
+    public void testWithMaxLimitLessThanMinLimitFails() {
+        assertThrows(IllegalArgumentException.class, () -> HttpClientAdaptiveConcurrency.with(2, 2, 1, LATENCY, 0.5));
+    }
+
+    @Test
+    public void testWithInitialLimitLessThanMinLimitFails() {
+        assertThrows(IllegalArgumentException.class, () -> HttpClientAdaptiveConcurrency.with(1, 2, 10, LATENCY, 0.5));
+    }
+
+    @Test
+    public void testWithInitialLimitGreaterThanMaxLimitFails() {
+        assertThrows(IllegalArgumentException.class, () -> HttpClientAdaptiveConcurrency.with(11, 1, 10, LATENCY, 0.5));
+    }
+
+    @Test
+    public void testWithNullLatencyThresholdFails() {
+        assertThrows(NullPointerException.class, () -> HttpClientAdaptiveConcurrency.with(1, 1, 10, null, 0.5));
+    }
+
+    @Test
+    public void testWithZeroLatencyThresholdFails() {
+        assertThrows(IllegalArgumentException.class, () -> HttpClientAdaptiveConcurrency.with(1, 1, 10, Duration.ZERO, 0.5));
+    }
+
+    @Test
+    public void testWithZeroBackoffRatioFails() {
+        assertThrows(IllegalArgumentException.class, () -> HttpClientAdaptiveConcurrency.with(1, 1, 10, LATENCY, 0));
+    }
+
+    @Test
+    public void testWithOneBackoffRatioFails() {
+        assertThrows(IllegalArgumentException.class, () -> HttpClientAdaptiveConcurrency.with(1, 1, 10, LATENCY, 1));
+    }
+
+    @Test
+    public void testWith() {
+        final HttpClientAdaptiveConcurrency concurrency = HttpClientAdaptiveConcurrency.with(4, 1, 10, LATENCY, 0.5);
+        assertEquals(4, concurrency.initialLimit, "initialLimit");
+        assertEquals(1, concurrency.minLimit, "minLimit");
+        assertEquals(10, concurrency.maxLimit, "maxLimit");
+        assertEquals(LATENCY, concurrency.latencyThreshold, "latencyThreshold");
+        assertEquals(0.5, concurrency.backoffRatio, "backoffRatio");
+    }
+
+    @Test
+    public void testToString() {
+        this.toStringAndCheck(HttpClientAdaptiveConcurrency.with(4, 1, 10, LATENCY, 0.5),
+                "initialLimit: 4, minLimit: 1, maxLimit: 10, latencyThreshold: PT0.5S, backoffRatio: 0.5");
+    }
+
+    // ClassTesting2....................................................................................................
+
+    @Override
+    public Class<HttpClientAdaptiveConcurrency> type() {
+        return HttpClientAdaptiveConcurrency.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PUBLIC;
+    }
+}
@@ -0,0 +1,274 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.map.Maps;
+import walkingkooka.reflect.ClassTesting2;
+import walkingkooka.reflect.JavaVisibility;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class HttpClientAjaxExchangeLifecycleTest implements ClassTesting2<HttpClientAjaxExchangeLifecycle> {
+
+    private final static URI URL = URI.create("http://example.com/path");
+
+    private final static HttpRequest GET = HttpRequest.newBuilder(URL).build();
+
+    private final static HttpRequest POST = HttpRequest.newBuilder(URL)
+            .POST(HttpRequest.BodyPublishers.ofString("0123456789"))
+            .build();
+
+    @Test
+    public void testWithNullRequestFails() {
+        assertThrows(NullPointerException.class, () -> HttpClientAjaxExchangeLifecycle.with(null, Optional.empty(), this.metrics, Optional.empty(), () -> 0));
+    }
+
+    @Test
+    public void testWithNullListenerFails() {
+        assertThrows(NullPointerException.class, () -> HttpClientAjaxExchangeLifecycle.with(GET, null, this.metrics, Optional.empty(), () -> 0));
+    }
+
+    @Test
+    public void testWithNullMetricsFails() {
+        assertThrows(NullPointerException.class, () -> HttpClientAjaxExchangeLifecycle.with(GET, Optional.empty(), null, Optional.empty(), () -> 0));
+    }
+
+    @Test
+    public void testWithNullSpanFails() {
+        assertThrows(NullPointerException.class, () -> HttpClientAjaxExchangeLifecycle.with(GET, Optional.empty(), this.metrics, null, () -> 0));
+    }
+
+    @Test
+    public void testWithNullNowFails() {
+        assertThrows(NullPointerException.class, () -> HttpClientAjaxExchangeLifecycle.with(GET, Optional.empty(), this.metrics, Optional.empty(), null));
+    }
+
+    @Test
+    public void testQueued() {
+        this.createLifecycle(GET).queued();
+
+        this.check("onQueued /path 0");
+    }
+
+    @Test
+    public void testSubscribeDispatchesWithoutBody() {
+        final HttpClientAjaxExchangeLifecycle lifecycle = this.createLifecycle(GET);
+        this.now = 5;
+        lifecycle.onSubscribe();
+        lifecycle.onSubscribe();
+
+        this.check("onDispatched /path 5", "onRequestBodySent /path 5");
+    }
+
+    @Test
+    public void testSubscribeWhileQueued() {
+        final HttpClientAjaxExchangeLifecycle lifecycle = this.createLifecycle(GET);
+        lifecycle.onQueued();
+        lifecycle.onSubscribe();
+
+        this.check();
+    }
+
+    @Test
+    public void testDispatchedAfterEveryQueue() {
+        final HttpClientAjaxExchangeLifecycle lifecycle = this.createLifecycle(POST);
+        lifecycle.onQueued();
+        lifecycle.onSubscribe();
+        lifecycle.onQueued();
+        this.now = 5;
+        lifecycle.onDispatched();
+        this.check();
+
+        this.now = 10;
+        lifecycle.onDispatched();
+        this.check("onDispatched /path 10");
+    }
+
+    @Test
+    public void testRequestBodySentWhenContentLengthSent() {
+        final HttpClientAjaxExchangeLifecycle lifecycle = this.createLifecycle(POST);
+        lifecycle.onSubscribe();
+        this.now = 5;
+        lifecycle.onSendProgress(5);
+        this.now = 10;
+        lifecycle.onSendProgress(10);
+        lifecycle.onSendProgress(10);
+
+        this.check("onDispatched /path 0", "onRequestBodySent /path 10");
+    }
+
+    @Test
+    public void testResponseImpliesDispatchedAndRequestBodySent() {
+        final HttpClientAjaxExchangeLifecycle lifecycle = this.createLifecycle(POST);
+        lifecycle.onQueued();
+        this.now = 5;
+        lifecycle.onResponse(TestHttpClientTransport.responseInfo(200, Maps.empty()));
+
+        this.check("onDispatched /path 5", "onRequestBodySent /path 5", "onHeadersReceived 200 /path 5");
+    }
+
+    @Test
+    public void testFirstBodyByteAndComplete() {
+        final HttpClientAjaxExchangeLifecycle lifecycle = this.createLifecycle(GET);
+        lifecycle.onSubscribe();
+        this.now = 5;
+        lifecycle.onResponse(TestHttpClientTransport.responseInfo(200, Maps.empty()));
+        lifecycle.onReceived(0);
+        this.now = 7;
+        lifecycle.onReceived(1);
+        lifecycle.onReceived(2);
+        this.now = 9;
+        lifecycle.onComplete();
+        lifecycle.onFailed(new IOException("ignored"));
+
+        this.check("onDispatched /path 0",
+                "onRequestBodySent /path 0",
+                "onHeadersReceived 200 /path 5",
+                "onFirstBodyByte 200 /path 7",
+                "onComplete 200 /path 9");
+    }
+
+    @Test
+    public void testReceivedBeforeResponseIgnored() {
+        final HttpClientAjaxExchangeLifecycle lifecycle = this.createLifecycle(GET);
+        lifecycle.onReceived(1);
+
+        this.check();
+    }
+
+    @Test
+    public void testFailedWithoutResponse() {
+        final HttpClientAjaxExchangeLifecycle lifecycle = this.createLifecycle(GET);
+        this.now = 5;
+        lifecycle.onFailed(new IOException("network"));
+        lifecycle.onFailed(new IOException("ignored"));
+
+        this.check("onFailed - network /path 5");
+    }
+
+    @Test
+    public void testCompleteWithoutResponseFails() {
+        this.createLifecycle(GET).onComplete();
+
+        this.check("onFailed - Exchange completed without response /path 0");
+    }
+
+    @Test
+    public void testMetricsComplete() {
+        final HttpClientAjaxExchangeLifecycle lifecycle = this.createLifecycle(POST);
+        this.now = 2;
+        lifecycle.queued();
+        lifecycle.onSubscribe();
+        lifecycle.onSendProgress(4);
+        lifecycle.onResponse(TestHttpClientTransport.responseInfo(200, Maps.empty()));
+        lifecycle.onReceived(3);
+        lifecycle.onReceived(5);
+        this.now = 9;
+        lifecycle.onComplete();
+
+        this.checkMetrics("http://example.com 2xx requests: 1 failures: 0 sent: 10 received: 5 latency count: 1 p50: 7 p95: 7 p99: 7 max: 7");
+    }
+
+    @Test
+    public void testMetricsFailedWithResponse() {
+        final HttpClientAjaxExchangeLifecycle lifecycle = this.createLifecycle(GET);
+        lifecycle.queued();
+        lifecycle.onResponse(TestHttpClientTransport.responseInfo(503, Maps.empty()));
+        this.now = 20;
+        lifecycle.onFailed(new IOException("network"));
+
+        this.checkMetrics("http://example.com 5xx requests: 1 failures: 1 sent: 0 received: 0 latency count: 1 p50: 20 p95: 20 p99: 20 max: 20");
+    }
+
+    @Test
+    public void testMetricsFailedWithoutResponse() {
+        final HttpClientAjaxExchangeLifecycle lifecycle = this.createLifecycle(POST);
+        lifecycle.queued();
+        lifecycle.onSendProgress(4);
+        this.now = 3;
+        lifecycle.onFailed(new IOException("network"));
+
+        this.checkMetrics("http://example.com none requests: 1 failures: 1 sent: 4 received: 0 latency count: 1 p50: 3 p95: 3 p99: 3 max: 3");
+    }
+
+    @Test
+    public void testMetricsWithoutListener() {
+        final HttpClientAjaxExchangeLifecycle lifecycle = HttpClientAjaxExchangeLifecycle.with(GET, Optional.empty(), this.metrics, Optional.empty(), () -> this.now);
+        lifecycle.queued();
+        lifecycle.onResponse(TestHttpClientTransport.responseInfo(200, Maps.empty()));
+        lifecycle.onComplete();
+
+        this.check();
+        this.checkMetrics("http://example.com 2xx requests: 1 failures: 0 sent: 0 received: 0 latency count: 1 p50: 0 p95: 0 p99: 0 max: 0");
+    }
+
+    @Test
+    public void testSpanEndedOnce() {
+        final List<HttpClientSpan> spans = Lists.array();
+        final HttpClientTracingSpan span = HttpClientTracingSpan.with("4bf92f3577b34da6a3ce929d0e0e4736", "00f067aa0ba902b7", Optional.empty(), GET, 0, spans::add);
+        final HttpClientAjaxExchangeLifecycle lifecycle = HttpClientAjaxExchangeLifecycle.with(GET, Optional.empty(), this.metrics, Optional.of(span), () -> this.now);
+        lifecycle.queued();
+        lifecycle.onResponse(TestHttpClientTransport.responseInfo(200, Maps.empty()));
+        this.now = 4;
+        lifecycle.onComplete();
+        lifecycle.onFailed(new IOException("ignored"));
+
+        assertEquals(Lists.of(HttpClientSpan.with("4bf92f3577b34da6a3ce929d0e0e4736", "00f067aa0ba902b7", Optional.empty(), GET, 0, 4, OptionalInt.of(200), Optional.empty())),
+                spans);
+    }
+
+    private void checkMetrics(final String metrics) {
+        assertEquals(metrics, this.metrics.snapshot().stream().map(Object::toString).collect(Collectors.joining(",")));
+    }
+
+    private HttpClientAjaxExchangeLifecycle createLifecycle(final HttpRequest request) {
+        return HttpClientAjaxExchangeLifecycle.with(request, Optional.of(this.listener), this.metrics, Optional.empty(), () -> this.now);
+    }
+
+    private void check(final String... events) {
+        assertEquals(Lists.of(events), this.listener.events);
+    }
+
+    private final TestHttpClientLifecycleListener listener = new TestHttpClientLifecycleListener();
+
+    private final HttpClientMetricsCollector metrics = HttpClientMetricsCollector.empty();
+
+    private long now;
+
+    // ClassTesting2....................................................................................................
+
+    @Override
+    public Class<HttpClientAjaxExchangeLifecycle> type() {
+        return HttpClientAjaxExchangeLifecycle.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.reflect.ClassTesting2;
+import walkingkooka.reflect.JavaVisibility;
+
+import java.net.URI;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public final class HttpClientAjaxExchangeProgressTest implements ClassTesting2<HttpClientAjaxExchangeProgress> {
+
+    private final static HttpRequest REQUEST = HttpRequest.newBuilder(URI.create("http://example.com/path"))
+            .POST(HttpRequest.BodyPublishers.ofString("0123456789"))
+            .build();
+
+    private final static long INTERVAL = 100;
+
+    @Test
+    public void testFirstReportedImmediately() {
+        final HttpClientAjaxExchangeProgress progress = this.createProgress();
+        progress.sent(1);
+
+        this.check("1/10 0/-1");
+    }
+
+    @Test
+    public void testWithinIntervalHeldBack() {
+        final HttpClientAjaxExchangeProgress progress = this.createProgress();
+        progress.sent(1);
+        this.now = 99;
+        progress.sent(2);
+        progress.sent(3);
+
+        this.check("1/10 0/-1");
+    }
+
+    @Test
+    public void testAfterIntervalReported() {
+        final HttpClientAjaxExchangeProgress progress = this.createProgress();
+        progress.sent(1);
+        this.now = 50;
+        progress.sent(2);
+        this.now = 100;
+        progress.sent(3);
+
+        this.check("1/10 0/-1", "3/10 0/-1");
+    }
+
+    @Test
+    public void testFlushReportsPending() {
+        final HttpClientAjaxExchangeProgress progress = this.createProgress();
+        progress.sent(10);
+        progress.receiveTotal(5);
+        progress.received(5);
+        progress.flush();
+
+        this.check("10/10 0/-1", "10/10 5/5");
+    }
+
+    @Test
+    public void testFlushNothingPending() {
+        final HttpClientAjaxExchangeProgress progress = this.createProgress();
+        progress.sent(10);
+        progress.flush();
+
+        this.check("10/10 0/-1");
+    }
+
+    @Test
+    public void testDecreaseIgnored() {
+        final HttpClientAjaxExchangeProgress progress = this.createProgress();
+        progress.received(5);
+        this.now = 200;
+        progress.received(3);
+        progress.flush();
+
+        this.check("0/10 5/-1");
+    }
+
+    @Test
+    public void testWithoutBody() {
+        final HttpClientAjaxExchangeProgress progress = HttpClientAjaxExchangeProgress.with(HttpRequest.newBuilder(URI.create("http://example.com")).build(),
+                (p) -> this.reports.add(p.sent() + "/" + p.sendTotal() + " " + p.received() + "/" + p.receiveTotal()),
+                INTERVAL,
+                () -> this.now);
+        progress.received(1);
+
+        this.check("0/0 1/-1");
+    }
+
+    private HttpClientAjaxExchangeProgress createProgress() {
+        return HttpClientAjaxExchangeProgress.with(REQUEST,
+                (p) -> this.reports.add(p.sent() + "/" + p.sendTotal() + " " + p.received() + "/" + p.receiveTotal()),
+                INTERVAL,
+                () -> this.now);
+    }
+
+    private void check(final String... reports) {
+        assertEquals(Lists.of(reports), this.reports);
+    }
+
+    private final List<String> reports = Lists.array();
+
+    private long now;
+
+    // ClassTesting2....................................................................................................
+
+    @Override
+    public Class<HttpClientAjaxExchangeProgress> type() {
+        return HttpClientAjaxExchangeProgress.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
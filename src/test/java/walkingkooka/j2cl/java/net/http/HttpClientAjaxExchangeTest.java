@@ -0,0 +1,611 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.Cast;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.map.Maps;
+import walkingkooka.j2cl.java.net.http.HttpResponse.BodyHandlers;
+import walkingkooka.j2cl.java.net.http.HttpResponse.BodySubscriber;
+import walkingkooka.j2cl.java.net.http.HttpResponse.BodySubscribers;
+import walkingkooka.reflect.ClassTesting2;
+import walkingkooka.reflect.JavaVisibility;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow.Subscription;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class HttpClientAjaxExchangeTest implements ClassTesting2<HttpClientAjaxExchange<?>> {
+
+    private final static HttpRequest REQUEST = HttpRequest.newBuilder(URI.create("http://example.com/path")).build();
+
+    @Test
+    public void testWithNullRequestFails() {
+        assertThrows(NullPointerException.class, () -> HttpClientAjaxExchange.with(null, BodyHandlers.discarding(), Optional.empty(), OptionalLong.empty(), Optional.empty(), Optional.empty()));
+    }
+
+    @Test
+    public void testWithNullHandlerFails() {
+        assertThrows(NullPointerException.class, () -> HttpClientAjaxExchange.with(REQUEST, null, Optional.empty(), OptionalLong.empty(), Optional.empty(), Optional.empty()));
+    }
+
+    @Test
+    public void testWithNullBufferPoolFails() {
+        assertThrows(NullPointerException.class, () -> HttpClientAjaxExchange.with(REQUEST, BodyHandlers.discarding(), null, OptionalLong.empty(), Optional.empty(), Optional.empty()));
+    }
+
+    @Test
+    public void testResponse() throws Exception {
+        final TestHttpClientTransport transport = new TestHttpClientTransport();
+        final CompletableFuture<HttpResponse<String>> future = this.sendAsync(transport, BodyHandlers.ofString());
+
+        final TestHttpClientTransport.Exchange exchange = transport.exchange(0);
+        exchange.respond(200)
+                .body("abc123")
+                .complete();
+
+        final HttpResponse<String> response = future.get();
+        assertEquals(200, response.statusCode(), "statusCode");
+        assertEquals("abc123", response.body(), "body");
+        assertEquals(REQUEST.uri(), response.uri(), "uri");
+        assertEquals(false, exchange.cancelled, "cancelled");
+    }
+
+    @Test
+    public void testBodySubscriberDemandPassedToTransport() {
+        final TestHttpClientTransport transport = new TestHttpClientTransport();
+        this.sendAsync(transport, BodyHandlers.ofString());
+
+        final TestHttpClientTransport.Exchange exchange = transport.exchange(0);
+        exchange.respond(200);
+
+        assertEquals(1L, exchange.requested, "requested");
+    }
+
+    @Test
+    public void testResponseStreamingBody() throws Exception {
+        final TestHttpClientTransport transport = new TestHttpClientTransport();
+        final CompletableFuture<HttpResponse<Stream<String>>> future = this.sendAsync(transport, BodyHandlers.ofLines());
+
+        final TestHttpClientTransport.Exchange exchange = transport.exchange(0);
+        exchange.respond(200);
+        assertEquals(false, future.isDone(), "lines given once the body is complete");
+
+        exchange.body("abc\n123")
+                .complete();
+        assertEquals(Lists.of("abc", "123"), future.get().body().collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testResponseStreamingBodyFutureCancelAbortsTransport() {
+        final TestHttpClientTransport transport = new TestHttpClientTransport();
+        final CompletableFuture<HttpResponse<Stream<String>>> future = this.sendAsync(transport, BodyHandlers.ofLines());
+
+        final TestHttpClientTransport.Exchange exchange = transport.exchange(0);
+        exchange.respond(200)
+                .body("abc\n");
+
+        future.cancel(true);
+        assertEquals(true, exchange.cancelled, "cancelled");
+    }
+
+    @Test
+    public void testFutureCancelBeforeResponseAbortsTransport() {
+        final TestHttpClientTransport transport = new TestHttpClientTransport();
+        final CompletableFuture<HttpResponse<String>> future = this.sendAsync(transport, BodyHandlers.ofString());
+
+        future.cancel(true);
+
+        final TestHttpClientTransport.Exchange exchange = transport.exchange(0);
+        assertEquals(true, exchange.cancelled, "cancelled");
+    }
+
+    @Test
+    public void testFutureCancelDuringBodyAbortsTransport() {
+        final TestHttpClientTransport transport = new TestHttpClientTransport();
+        final CompletableFuture<HttpResponse<String>> future = this.sendAsync(transport, BodyHandlers.ofString());
+
+        final TestHttpClientTransport.Exchange exchange = transport.exchange(0);
+        exchange.respond(200);
+
+        future.cancel(true);
+        assertEquals(true, exchange.cancelled, "cancelled");
+        assertEquals(true, future.isCancelled(), "future cancelled");
+    }
+
+    @Test
+    public void testBodySubscriberCancelAbortsTransport() {
+        final TestHttpClientTransport transport = new TestHttpClientTransport();
+        final CompletableFuture<HttpResponse<Void>> future = this.sendAsync(transport, (i) -> new BodySubscriber<Void>() {
+            @Override
+            public CompletionStage<Void> getBody() {
+                return new CompletableFuture<>();
+            }
+
+            @Override
+            public void onSubscribe(final Subscription subscription) {
+                subscription.cancel();
+            }
+
+            @Override
+            public void onNext(final List<ByteBuffer> item) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public void onError(final Throwable throwable) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public void onComplete() {
+                throw new UnsupportedOperationException();
+            }
+        });
+
+        final TestHttpClientTransport.Exchange exchange = transport.exchange(0);
+        exchange.respond(200);
+
+        assertEquals(true, exchange.cancelled, "cancelled");
+        assertEquals(true, future.isCancelled(), "future cancelled");
+    }
+
+    @Test
+    public void testBodySubscriberStageCancelAbortsTransport() {
+        final TestHttpClientTransport transport = new TestHttpClientTransport();
+        final HttpResponseBodySubscriberString bodySubscriber = HttpResponseBodySubscriberString.with(HttpResponseBodySubscriberTestCase2.UTF8);
+        final CompletableFuture<HttpResponse<String>> future = this.sendAsync(transport, (i) -> bodySubscriber);
+
+        final TestHttpClientTransport.Exchange exchange = transport.exchange(0);
+        exchange.respond(200);
+
+        bodySubscriber.getBody().toCompletableFuture().cancel(true);
+
+        assertEquals(true, exchange.cancelled, "cancelled");
+        assertEquals(true, future.isCompletedExceptionally(), "future completed exceptionally");
+    }
+
+    @Test
+    public void testTransportErrorBeforeResponse() {
+        final TestHttpClientTransport transport = new TestHttpClientTransport();
+        final CompletableFuture<HttpResponse<String>> future = this.sendAsync(transport, BodyHandlers.ofString());
+
+        final TestHttpClientTransport.Exchange exchange = transport.exchange(0);
+        final Exception cause = new Exception("network failure");
+        exchange.fail(cause);
+
+        assertEquals(cause, assertThrows(ExecutionException.class, future::get).getCause());
+        assertEquals(false, exchange.cancelled, "cancelled");
+    }
+
+    @Test
+    public void testTransportCompleteWithoutResponseFails() {
+        final TestHttpClientTransport transport = new TestHttpClientTransport();
+        final CompletableFuture<HttpResponse<String>> future = this.sendAsync(transport, BodyHandlers.ofString());
+
+        transport.exchange(0).complete();
+
+        assertEquals(IllegalStateException.class, assertThrows(ExecutionException.class, future::get).getCause().getClass());
+    }
+
+    @Test
+    public void testHandlerFailsAbortsTransport() {
+        final TestHttpClientTransport transport = new TestHttpClientTransport();
+        final CompletableFuture<HttpResponse<String>> future = this.sendAsync(transport, (i) -> {
+            throw new IllegalArgumentException("handler failed");
+        });
+
+        final TestHttpClientTransport.Exchange exchange = transport.exchange(0);
+        exchange.respond(500);
+
+        assertEquals(true, exchange.cancelled, "cancelled");
+        assertEquals(IllegalArgumentException.class, assertThrows(ExecutionException.class, future::get).getCause().getClass());
+    }
+
+    @Test
+    public void testBufferPoolConsumedBuffersReleased() throws Exception {
+        final HttpClientBufferPool pool = HttpClientBufferPool.with(16, 64, 2);
+        final TestHttpClientTransport transport = new TestHttpClientTransport();
+
+        final CompletableFuture<HttpResponse<String>> first = this.sendAsync(transport, BodyHandlers.ofString(), pool);
+        transport.exchange(0)
+                .respond(200)
+                .body("abc")
+                .complete();
+        assertEquals("abc", first.get().body(), "first");
+
+        final CompletableFuture<HttpResponse<String>> second = this.sendAsync(transport, BodyHandlers.ofString(), pool);
+        transport.exchange(1)
+                .respond(200)
+                .body("def")
+                .complete();
+        assertEquals("def", second.get().body(), "second");
+
+        assertEquals(1L, pool.hits(), "hits");
+        assertEquals(1L, pool.misses(), "misses");
+        assertEquals(1, pool.idle(), "idle");
+    }
+
+    @Test
+    public void testBufferPoolMappedConsumedBuffersReleased() throws Exception {
+        final HttpClientBufferPool pool = HttpClientBufferPool.with(16, 64, 2);
+        final TestHttpClientTransport transport = new TestHttpClientTransport();
+
+        final CompletableFuture<HttpResponse<Integer>> future = this.sendAsync(transport,
+                (i) -> BodySubscribers.mapping(BodySubscribers.ofByteArray(), (b) -> b.length),
+                pool);
+        transport.exchange(0)
+                .respond(200)
+                .body("abc")
+                .complete();
+        assertEquals(Integer.valueOf(3), future.get().body());
+
+        assertEquals(1, pool.idle(), "idle");
+    }
+
+    @Test
+    public void testBufferPoolStreamingBuffersNotReleased() throws Exception {
+        final HttpClientBufferPool pool = HttpClientBufferPool.with(16, 64, 2);
+        final TestHttpClientTransport transport = new TestHttpClientTransport();
+
+        this.sendAsync(transport, BodyHandlers.ofInputStream(), pool);
+        transport.exchange(0)
+                .respond(200)
+                .body("abc")
+                .complete();
+
+        assertEquals(1L, pool.misses(), "misses");
+        assertEquals(0, pool.idle(), "idle");
+    }
+
+    @Test
+    public void testBufferPoolCancelledBuffersReleased() {
+        final HttpClientBufferPool pool = HttpClientBufferPool.with(16, 64, 2);
+        final TestHttpClientTransport transport = new TestHttpClientTransport();
+
+        this.sendAsync(transport, BodyHandlers.ofInputStream(), pool)
+                .cancel(false);
+        transport.exchange(0)
+                .body("abc");
+
+        assertEquals(1, pool.idle(), "idle");
+    }
+
+    @Test
+    public void testWithNullMaxBodySizeFails() {
+        assertThrows(NullPointerException.class, () -> HttpClientAjaxExchange.with(REQUEST, BodyHandlers.discarding(), Optional.empty(), null, Optional.empty(), Optional.empty()));
+    }
+
+    @Test
+    public void testMaxBodySizeContentLengthExceededAbortsBeforeHandler() {
+        final TestHttpClientTransport transport = new TestHttpClientTransport();
+        final boolean[] handled = new boolean[1];
+        final CompletableFuture<HttpResponse<String>> future = this.sendAsync(transport,
+                (i) -> {
+                    handled[0] = true;
+                    return BodySubscribers.ofString(StandardCharsets.UTF_8);
+                },
+                OptionalLong.of(10));
+
+        final TestHttpClientTransport.Exchange exchange = transport.exchange(0);
+        exchange.respond(200, Maps.of("Content-Length", Lists.of("11")));
+
+        assertEquals(true, exchange.cancelled, "cancelled");
+        assertEquals(false, handled[0], "handler called");
+        final Throwable cause = assertThrows(ExecutionException.class, future::get).getCause();
+        assertEquals(IOException.class, cause.getClass(), "cause");
+        assertEquals("Content-Length 11 exceeds maxBodySize 10", cause.getMessage(), "message");
+    }
+
+    @Test
+    public void testMaxBodySizeContentLengthEqual() throws Exception {
+        final TestHttpClientTransport transport = new TestHttpClientTransport();
+        final CompletableFuture<HttpResponse<String>> future = this.sendAsync(transport, BodyHandlers.ofString(), OptionalLong.of(3));
+
+        transport.exchange(0)
+                .respond(200, Maps.of("Content-Length", Lists.of("3")))
+                .body("abc")
+                .complete();
+
+        assertEquals("abc", future.get().body());
+    }
+
+    @Test
+    public void testMaxBodySizeMalformedContentLength() throws Exception {
+        final TestHttpClientTransport transport = new TestHttpClientTransport();
+        final CompletableFuture<HttpResponse<byte[]>> future = this.sendAsync(transport, BodyHandlers.ofByteArray(), OptionalLong.of(3));
+
+        transport.exchange(0)
+                .respond(200, Maps.of("Content-Length", Lists.of("abc")))
+                .body("abc")
+                .complete();
+
+        assertArrayEquals("abc".getBytes(StandardCharsets.UTF_8), future.get().body());
+    }
+
+    @Test
+    public void testMaxBodySizeBodyExceededAbortsTransport() {
+        final TestHttpClientTransport transport = new TestHttpClientTransport();
+        final CompletableFuture<HttpResponse<byte[]>> future = this.sendAsync(transport, BodyHandlers.ofByteArray(), OptionalLong.of(5));
+
+        final TestHttpClientTransport.Exchange exchange = transport.exchange(0);
+        exchange.respond(200)
+                .body("abc");
+        assertEquals(false, exchange.cancelled, "cancelled");
+
+        exchange.body("def");
+        assertEquals(true, exchange.cancelled, "cancelled");
+
+        final Throwable cause = assertThrows(ExecutionException.class, future::get).getCause();
+        assertEquals(IOException.class, cause.getClass(), "cause");
+        assertEquals("Body 6 exceeds maxBodySize 5", cause.getMessage(), "message");
+    }
+
+    @Test
+    public void testMaxBodySizeBodyExceededFailsStreamingBody() throws Exception {
+        final TestHttpClientTransport transport = new TestHttpClientTransport();
+        final CompletableFuture<HttpResponse<Stream<String>>> future = this.sendAsync(transport, BodyHandlers.ofLines(), OptionalLong.of(5));
+
+        final TestHttpClientTransport.Exchange exchange = transport.exchange(0);
+        exchange.respond(200)
+                .body("abc\n123\n");
+        assertEquals(true, exchange.cancelled, "cancelled");
+
+        final Stream<String> lines = future.get().body();
+        assertThrows(UncheckedIOException.class, () -> lines.collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testMaxBodySizeBodyExceededLaterPartsIgnored() {
+        final TestHttpClientTransport transport = new TestHttpClientTransport();
+        final TestBodyChunkSubscriber chunks = new TestBodyChunkSubscriber();
+        this.sendAsync(transport,
+                BodyHandlers.fromSubscriber(chunks),
+                OptionalLong.of(2));
+
+        final TestHttpClientTransport.Exchange exchange = transport.exchange(0);
+        exchange.respond(200);
+        chunks.subscription.request(Long.MAX_VALUE);
+
+        exchange.body("ab")
+                .body("c")
+                .body("d")
+                .complete();
+
+        assertEquals(Lists.of("onSubscribe", "ab", "onError Body 3 exceeds maxBodySize 2"), chunks.events);
+    }
+
+    @Test
+    public void testMaxBodySizeRequestReplacesClient() throws Exception {
+        final TestHttpClientTransport transport = new TestHttpClientTransport();
+        final CompletableFuture<HttpResponse<String>> future = HttpClientAjax.with(null, null, HttpClient.Redirect.NEVER, HttpClient.Version.HTTP_1_1, transport, Optional.empty(), Optional.empty(), Optional.empty(), OptionalLong.of(1), Optional.empty(), Duration.ZERO, Optional.empty(), () -> 0)
+                .sendAsync(HttpRequest.newBuilder(REQUEST.uri()).maxBodySize(3).build(), BodyHandlers.ofString());
+
+        transport.exchange(0)
+                .respond(200)
+                .body("abc")
+                .complete();
+
+        assertEquals("abc", future.get().body());
+    }
+
+    @Test
+    public void testWithNullProgressFails() {
+        assertThrows(NullPointerException.class, () -> HttpClientAjaxExchange.with(REQUEST, BodyHandlers.discarding(), Optional.empty(), OptionalLong.empty(), null, Optional.empty()));
+    }
+
+    @Test
+    public void testProgress() throws Exception {
+        final TestHttpClientTransport transport = new TestHttpClientTransport();
+        final List<String> reports = Lists.array();
+        final long[] now = new long[1];
+        final HttpRequest request = HttpRequest.newBuilder(REQUEST.uri())
+                .POST(HttpRequest.BodyPublishers.ofString("123456"))
+                .build();
+        final CompletableFuture<HttpResponse<String>> future = HttpClientAjax.with(null, null, HttpClient.Redirect.NEVER, HttpClient.Version.HTTP_1_1, transport, Optional.empty(), Optional.empty(), Optional.empty(), OptionalLong.empty(), Optional.of((p) -> reports.add(p.sent() + "/" + p.sendTotal() + " " + p.received() + "/" + p.receiveTotal())), Duration.ofMillis(100), Optional.empty(), () -> now[0])
+                .sendAsync(request, BodyHandlers.ofString());
+
+        final TestHttpClientTransport.Exchange exchange = transport.exchange(0);
+        exchange.sendProgress(2);
+        now[0] = 50;
+        exchange.sendProgress(6);
+        now[0] = 100;
+        exchange.respond(200, Maps.of("Content-Length", Lists.of("3")));
+        now[0] = 120;
+        exchange.receiveProgress(1)
+                .body("abc")
+                .complete();
+
+        assertEquals("abc", future.get().body());
+        assertEquals(Lists.of("2/6 0/-1", "6/6 0/3", "6/6 3/3"), reports);
+    }
+
+    @Test
+    public void testProgressRequestListenerReplacesClient() {
+        final TestHttpClientTransport transport = new TestHttpClientTransport();
+        final List<String> reports = Lists.array();
+        final HttpRequest request = HttpRequest.newBuilder(REQUEST.uri())
+                .progressListener((p) -> reports.add("request " + p.received()))
+                .build();
+        HttpClientAjax.with(null, null, HttpClient.Redirect.NEVER, HttpClient.Version.HTTP_1_1, transport, Optional.empty(), Optional.empty(), Optional.empty(), OptionalLong.empty(), Optional.of((p) -> reports.add("client " + p.received())), Duration.ZERO, Optional.empty(), () -> 0)
+                .sendAsync(request, BodyHandlers.discarding());
+
+        transport.exchange(0)
+                .respond(200)
+                .body("abc")
+                .complete();
+
+        assertEquals(Lists.of("request 0", "request 3"), reports);
+    }
+
+    @Test
+    public void testWithNullLifecycleFails() {
+        assertThrows(NullPointerException.class, () -> HttpClientAjaxExchange.with(REQUEST, BodyHandlers.discarding(), Optional.empty(), OptionalLong.empty(), Optional.empty(), null));
+    }
+
+    @Test
+    public void testLifecycle() throws Exception {
+        final TestHttpClientTransport transport = new TestHttpClientTransport();
+        final TestHttpClientLifecycleListener listener = new TestHttpClientLifecycleListener();
+        final long[] now = new long[1];
+        final HttpRequest request = HttpRequest.newBuilder(REQUEST.uri())
+                .POST(HttpRequest.BodyPublishers.ofString("123456"))
+                .build();
+        final CompletableFuture<HttpResponse<String>> future = this.lifecycleClient(transport, listener, now)
+                .sendAsync(request, BodyHandlers.ofString());
+
+        final TestHttpClientTransport.Exchange exchange = transport.exchange(0);
+        now[0] = 10;
+        exchange.sendProgress(6);
+        now[0] = 20;
+        exchange.respond(200);
+        now[0] = 30;
+        exchange.body("abc");
+        now[0] = 40;
+        exchange.complete();
+
+        assertEquals("abc", future.get().body());
+        assertEquals(Lists.of("onQueued /path 0",
+                "onDispatched /path 0",
+                "onRequestBodySent /path 10",
+                "onHeadersReceived 200 /path 20",
+                "onFirstBodyByte 200 /path 30",
+                "onComplete 200 /path 40"), listener.events);
+    }
+
+    @Test
+    public void testLifecycleQueued() {
+        final TestHttpClientTransport transport = new TestHttpClientTransport();
+        final TestHttpClientLifecycleListener listener = new TestHttpClientLifecycleListener();
+        final long[] now = new long[1];
+        final HttpClientTransportAdaptiveConcurrency concurrency = HttpClientTransport.adaptiveConcurrency(transport,
+                HttpClientAdaptiveConcurrency.with(1, 1, 1, Duration.ofMillis(500), 0.5),
+                () -> now[0]);
+        final HttpClient client = this.lifecycleClient(concurrency, listener, now);
+
+        client.sendAsync(REQUEST, BodyHandlers.discarding());
+        client.sendAsync(HttpRequest.newBuilder(URI.create("http://example.com/queued")).build(), BodyHandlers.discarding());
+
+        now[0] = 10;
+        transport.exchange(0)
+                .respond(200)
+                .complete();
+
+        assertEquals(Lists.of("onQueued /path 0",
+                "onDispatched /path 0",
+                "onRequestBodySent /path 0",
+                "onQueued /queued 0",
+                "onHeadersReceived 200 /path 10",
+                "onDispatched /queued 10",
+                "onRequestBodySent /queued 10",
+                "onComplete 200 /path 10"), listener.events);
+    }
+
+    @Test
+    public void testLifecycleFailed() {
+        final TestHttpClientTransport transport = new TestHttpClientTransport();
+        final TestHttpClientLifecycleListener listener = new TestHttpClientLifecycleListener();
+        final long[] now = new long[1];
+        this.lifecycleClient(transport, listener, now)
+                .sendAsync(REQUEST, BodyHandlers.discarding());
+
+        now[0] = 10;
+        transport.exchange(0)
+                .respond(500)
+                .fail(new IOException("network"));
+
+        assertEquals(Lists.of("onQueued /path 0",
+                "onDispatched /path 0",
+                "onRequestBodySent /path 0",
+                "onHeadersReceived 500 /path 10",
+                "onFailed 500 network /path 10"), listener.events);
+    }
+
+    @Test
+    public void testLifecycleCancelled() {
+        final TestHttpClientTransport transport = new TestHttpClientTransport();
+        final TestHttpClientLifecycleListener listener = new TestHttpClientLifecycleListener();
+        final long[] now = new long[1];
+        final CompletableFuture<HttpResponse<Void>> future = this.lifecycleClient(transport, listener, now)
+                .sendAsync(REQUEST, BodyHandlers.discarding());
+
+        now[0] = 10;
+        future.cancel(false);
+
+        assertEquals(true, transport.exchange(0).cancelled, "cancelled");
+        assertEquals(Lists.of("onQueued /path 0",
+                "onDispatched /path 0",
+                "onRequestBodySent /path 0",
+                "onFailed - null /path 10"), listener.events);
+    }
+
+    private HttpClient lifecycleClient(final HttpClientTransport transport,
+                                       final HttpClientLifecycleListener listener,
+                                       final long[] now) {
+        return HttpClientAjax.with(null, null, HttpClient.Redirect.NEVER, HttpClient.Version.HTTP_1_1, transport, Optional.empty(), Optional.empty(), Optional.of(listener), OptionalLong.empty(), Optional.empty(), Duration.ZERO, Optional.empty(), () -> now[0]);
+    }
+
+    private <T> CompletableFuture<HttpResponse<T>> sendAsync(final HttpClientTransport transport,
+                                                             final HttpResponse.BodyHandler<T> handler,
+                                                             final OptionalLong maxBodySize) {
+        return HttpClientAjax.with(null, null, HttpClient.Redirect.NEVER, HttpClient.Version.HTTP_1_1, transport, Optional.empty(), Optional.empty(), Optional.empty(), maxBodySize, Optional.empty(), Duration.ZERO, Optional.empty(), () -> 0)
+                .sendAsync(REQUEST, handler);
+    }
+
+    private <T> CompletableFuture<HttpResponse<T>> sendAsync(final HttpClientTransport transport,
+                                                             final HttpResponse.BodyHandler<T> handler) {
+        return HttpClientAjax.with(null, null, HttpClient.Redirect.NEVER, HttpClient.Version.HTTP_1_1, transport, Optional.empty(), Optional.empty(), Optional.empty(), OptionalLong.empty(), Optional.empty(), Duration.ZERO, Optional.empty(), () -> 0)
+                .sendAsync(REQUEST, handler);
+    }
+
+    private <T> CompletableFuture<HttpResponse<T>> sendAsync(final HttpClientTransport transport,
+                                                             final HttpResponse.BodyHandler<T> handler,
+                                                             final HttpClientBufferPool pool) {
+        return HttpClientAjax.with(null, null, HttpClient.Redirect.NEVER, HttpClient.Version.HTTP_1_1, transport, Optional.empty(), Optional.of(pool), Optional.empty(), OptionalLong.empty(), Optional.empty(), Duration.ZERO, Optional.empty(), () -> 0)
+                .sendAsync(REQUEST, handler);
+    }
+
+    // ClassTesting2....................................................................................................
+
+    @Override
+    public Class<HttpClientAjaxExchange<?>> type() {
+        return Cast.to(HttpClientAjaxExchange.class);
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
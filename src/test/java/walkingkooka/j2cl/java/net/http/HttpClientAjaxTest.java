@@ -18,17 +18,27 @@
 package walkingkooka.j2cl.java.net.http;
 
 import org.junit.jupiter.api.Test;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.map.Maps;
 import walkingkooka.j2cl.java.net.http.HttpClient.Redirect;
 import walkingkooka.j2cl.java.net.http.HttpClient.Version;
 import walkingkooka.reflect.ClassTesting2;
 import walkingkooka.reflect.JavaVisibility;
 
+import java.io.IOException;
+import java.net.URI;
 import java.time.Duration;
+import java.util.List;
 import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 public final class HttpClientAjaxTest implements ClassTesting2<HttpClientAjax> {
 
@@ -61,11 +71,245 @@ public final class HttpClientAjaxTest implements ClassTesting2<HttpClientAjax> {
         }, Redirect.ALWAYS, null);
     }
 
+    @Test
+    public void testWithNullTransportFails() {
+        assertThrows(NullPointerException.class, () -> HttpClientAjax.with(null, null, Redirect.ALWAYS, Version.HTTP_1_1, null, Optional.empty(), Optional.empty(), Optional.empty(), OptionalLong.empty(), Optional.empty(), Duration.ZERO, Optional.empty(), () -> 0));
+    }
+
+    @Test
+    public void testSendAsyncNullRequestFails() {
+        assertThrows(NullPointerException.class, () -> this.createClient().sendAsync(null, HttpResponse.BodyHandlers.discarding()));
+    }
+
+    @Test
+    public void testSendAsyncNullHandlerFails() {
+        assertThrows(NullPointerException.class, () -> this.createClient().sendAsync(HttpRequest.newBuilder(URI.create("http://example.com")).build(), null));
+    }
+
+    @Test
+    public void testSendAsync() {
+        final TestHttpClientTransport transport = new TestHttpClientTransport();
+        final HttpRequest request = HttpRequest.newBuilder(URI.create("http://example.com")).build();
+        HttpClientAjax.with(null, null, Redirect.ALWAYS, Version.HTTP_1_1, transport, Optional.empty(), Optional.empty(), Optional.empty(), OptionalLong.empty(), Optional.empty(), Duration.ZERO, Optional.empty(), () -> 0)
+                .sendAsync(request, HttpResponse.BodyHandlers.discarding());
+
+        assertSame(request, transport.exchange(0).request, "request");
+    }
+
+    @Test
+    public void testSendAsyncDiscardingManyChunks() throws Exception {
+        final TestHttpClientTransport transport = new TestHttpClientTransport();
+        final CompletableFuture<HttpResponse<Void>> future = HttpClientAjax.with(null, null, Redirect.ALWAYS, Version.HTTP_1_1, transport, Optional.empty(), Optional.empty(), Optional.empty(), OptionalLong.empty(), Optional.empty(), Duration.ZERO, Optional.empty(), () -> 0)
+                .sendAsync(HttpRequest.newBuilder(URI.create("http://example.com")).build(), HttpResponse.BodyHandlers.discarding());
+
+        final TestHttpClientTransport.Exchange exchange = transport.exchange(0);
+        exchange.respond(200);
+        assertEquals(Long.MAX_VALUE, exchange.requested, "requested");
+
+        exchange.body("abc")
+                .body("def")
+                .body("ghi")
+                .complete();
+
+        assertEquals(200, future.get().statusCode(), "statusCode");
+        assertEquals(null, future.get().body(), "body");
+    }
+
+    @Test
+    public void testSendAsyncTransportThrowsFailsFuture() {
+        final IllegalStateException cause = new IllegalStateException("fail");
+        final TestHttpClientLifecycleListener listener = new TestHttpClientLifecycleListener();
+        final CompletableFuture<HttpResponse<Void>> future = HttpClientAjax.with(null, null, Redirect.ALWAYS, Version.HTTP_1_1, new HttpClientTransport() {
+                    @Override
+                    void send(final HttpRequest request,
+                              final HttpClientTransportListener listener) {
+                        throw cause;
+                    }
+                }, Optional.empty(), Optional.empty(), Optional.of(listener), OptionalLong.empty(), Optional.empty(), Duration.ZERO, Optional.empty(), () -> 0)
+                .sendAsync(HttpRequest.newBuilder(URI.create("http://example.com/path")).build(), HttpResponse.BodyHandlers.discarding());
+
+        assertSame(cause, assertThrows(ExecutionException.class, future::get).getCause(), "cause");
+        assertEquals(Lists.of("onQueued /path 0", "onFailed - fail /path 0"), listener.events, "events");
+    }
+
+    @Test
+    public void testSendAsyncTransportFailedNotDispatched() {
+        final TestHttpClientLifecycleListener listener = new TestHttpClientLifecycleListener();
+        final CompletableFuture<HttpResponse<Void>> future = HttpClientAjax.with(null, null, Redirect.ALWAYS, Version.HTTP_1_1, new HttpClientTransport() {
+                    @Override
+                    void send(final HttpRequest request,
+                              final HttpClientTransportListener listener) {
+                        fail(listener, new IOException("Circuit breaker open"));
+                    }
+                }, Optional.empty(), Optional.empty(), Optional.of(listener), OptionalLong.empty(), Optional.empty(), Duration.ZERO, Optional.empty(), () -> 0)
+                .sendAsync(HttpRequest.newBuilder(URI.create("http://example.com/path")).build(), HttpResponse.BodyHandlers.discarding());
+
+        assertEquals(IOException.class, assertThrows(ExecutionException.class, future::get).getCause().getClass(), "cause");
+        assertEquals(Lists.of("onQueued /path 0", "onFailed - Circuit breaker open /path 0"), listener.events, "events");
+    }
+
+    @Test
+    public void testWithNullAdaptiveConcurrencyFails() {
+        assertThrows(NullPointerException.class, () -> HttpClientAjax.with(null, null, Redirect.ALWAYS, Version.HTTP_1_1, new TestHttpClientTransport(), null, Optional.empty(), Optional.empty(), OptionalLong.empty(), Optional.empty(), Duration.ZERO, Optional.empty(), () -> 0));
+    }
+
+    @Test
+    public void testWithNullBufferPoolFails() {
+        assertThrows(NullPointerException.class, () -> HttpClientAjax.with(null, null, Redirect.ALWAYS, Version.HTTP_1_1, new TestHttpClientTransport(), Optional.empty(), null, Optional.empty(), OptionalLong.empty(), Optional.empty(), Duration.ZERO, Optional.empty(), () -> 0));
+    }
+
+    @Test
+    public void testBufferPool() {
+        final HttpClientBufferPool pool = HttpClientBufferPool.with(1024, 16 * 1024, 8);
+        final HttpClientAjax client = HttpClientAjax.with(null, null, Redirect.ALWAYS, Version.HTTP_1_1, new TestHttpClientTransport(), Optional.empty(), Optional.of(pool), Optional.empty(), OptionalLong.empty(), Optional.empty(), Duration.ZERO, Optional.empty(), () -> 0);
+
+        assertEquals(Optional.of(pool), client.bufferPool());
+    }
+
+    @Test
+    public void testWithNullMaxBodySizeFails() {
+        assertThrows(NullPointerException.class, () -> HttpClientAjax.with(null, null, Redirect.ALWAYS, Version.HTTP_1_1, new TestHttpClientTransport(), Optional.empty(), Optional.empty(), Optional.empty(), null, Optional.empty(), Duration.ZERO, Optional.empty(), () -> 0));
+    }
+
+    @Test
+    public void testWithNullProgressListenerFails() {
+        assertThrows(NullPointerException.class, () -> HttpClientAjax.with(null, null, Redirect.ALWAYS, Version.HTTP_1_1, new TestHttpClientTransport(), Optional.empty(), Optional.empty(), Optional.empty(), OptionalLong.empty(), null, Duration.ZERO, Optional.empty(), () -> 0));
+    }
+
+    @Test
+    public void testWithNullProgressIntervalFails() {
+        assertThrows(NullPointerException.class, () -> HttpClientAjax.with(null, null, Redirect.ALWAYS, Version.HTTP_1_1, new TestHttpClientTransport(), Optional.empty(), Optional.empty(), Optional.empty(), OptionalLong.empty(), Optional.empty(), null, Optional.empty(), () -> 0));
+    }
+
+    @Test
+    public void testWithNullNowFails() {
+        assertThrows(NullPointerException.class, () -> HttpClientAjax.with(null, null, Redirect.ALWAYS, Version.HTTP_1_1, new TestHttpClientTransport(), Optional.empty(), Optional.empty(), Optional.empty(), OptionalLong.empty(), Optional.empty(), Duration.ZERO, Optional.empty(), null));
+    }
+
+    @Test
+    public void testWithNullLifecycleListenerFails() {
+        assertThrows(NullPointerException.class, () -> HttpClientAjax.with(null, null, Redirect.ALWAYS, Version.HTTP_1_1, new TestHttpClientTransport(), Optional.empty(), Optional.empty(), null, OptionalLong.empty(), Optional.empty(), Duration.ZERO, Optional.empty(), () -> 0));
+    }
+
+    @Test
+    public void testLifecycleListener() {
+        final HttpClientLifecycleListener listener = new TestHttpClientLifecycleListener();
+        final HttpClientAjax client = HttpClientAjax.with(null, null, Redirect.ALWAYS, Version.HTTP_1_1, new TestHttpClientTransport(), Optional.empty(), Optional.empty(), Optional.of(listener), OptionalLong.empty(), Optional.empty(), Duration.ZERO, Optional.empty(), () -> 0);
+
+        assertEquals(Optional.of(listener), client.lifecycleListener());
+    }
+
+    @Test
+    public void testMaxBodySize() {
+        final HttpClientAjax client = HttpClientAjax.with(null, null, Redirect.ALWAYS, Version.HTTP_1_1, new TestHttpClientTransport(), Optional.empty(), Optional.empty(), Optional.empty(), OptionalLong.of(1024), Optional.empty(), Duration.ZERO, Optional.empty(), () -> 0);
+
+        assertEquals(OptionalLong.of(1024), client.maxBodySize());
+    }
+
+    @Test
+    public void testWithNullTracingFails() {
+        assertThrows(NullPointerException.class, () -> HttpClientAjax.with(null, null, Redirect.ALWAYS, Version.HTTP_1_1, new TestHttpClientTransport(), Optional.empty(), Optional.empty(), Optional.empty(), OptionalLong.empty(), Optional.empty(), Duration.ZERO, null, () -> 0));
+    }
+
+    @Test
+    public void testTracingSampled() throws Exception {
+        final TestHttpClientTransport transport = new TestHttpClientTransport();
+        final List<HttpClientSpan> spans = Lists.array();
+        final long[] now = new long[1];
+        final long[] ids = new long[]{1, 2, 3};
+        final int[] next = new int[1];
+        final HttpClientTracing tracing = HttpClientTracing.with(1, spans::add, () -> ids[next[0]++]);
+        final HttpClientAjax client = HttpClientAjax.with(null, null, Redirect.ALWAYS, Version.HTTP_1_1, transport, Optional.empty(), Optional.empty(), Optional.empty(), OptionalLong.empty(), Optional.empty(), Duration.ZERO, Optional.of(tracing), () -> now[0]);
+
+        final CompletableFuture<HttpResponse<String>> future = client.sendAsync(HttpRequest.newBuilder(URI.create("http://example.com/path")).build(), HttpResponse.BodyHandlers.ofString());
+
+        final TestHttpClientTransport.Exchange exchange = transport.exchange(0);
+        final HttpRequest sent = exchange.request;
+        assertEquals(Optional.of("00-00000000000000010000000000000002-0000000000000003-01"), sent.headers().firstValue("traceparent"), "traceparent");
+        assertEquals(Lists.empty(), spans, "spans before complete");
+
+        now[0] = 8;
+        exchange.respond(200)
+                .body("abc")
+                .complete();
+
+        assertSame(sent, future.get().request(), "response request");
+        assertEquals(Lists.of(HttpClientSpan.with("00000000000000010000000000000002", "0000000000000003", Optional.empty(), sent, 0, 8, OptionalInt.of(200), Optional.empty())),
+                spans);
+    }
+
+    @Test
+    public void testTracingNotSampled() {
+        final TestHttpClientTransport transport = new TestHttpClientTransport();
+        final HttpClientTracing tracing = HttpClientTracing.with(0, (s) -> {
+            throw new UnsupportedOperationException();
+        });
+        final HttpClientAjax client = HttpClientAjax.with(null, null, Redirect.ALWAYS, Version.HTTP_1_1, transport, Optional.empty(), Optional.empty(), Optional.empty(), OptionalLong.empty(), Optional.empty(), Duration.ZERO, Optional.of(tracing), () -> 0);
+
+        final HttpRequest request = HttpRequest.newBuilder(URI.create("http://example.com/path")).build();
+        client.sendAsync(request, HttpResponse.BodyHandlers.discarding());
+
+        final TestHttpClientTransport.Exchange exchange = transport.exchange(0);
+        assertSame(request, exchange.request, "request");
+
+        exchange.respond(200)
+                .complete();
+    }
+
+    @Test
+    public void testMetricsEmpty() {
+        assertEquals(Lists.empty(), this.createClient().metrics());
+    }
+
+    @Test
+    public void testMetrics() {
+        final TestHttpClientTransport transport = new TestHttpClientTransport();
+        final long[] now = new long[1];
+        final HttpClientAjax client = HttpClientAjax.with(null, null, Redirect.ALWAYS, Version.HTTP_1_1, transport, Optional.empty(), Optional.empty(), Optional.empty(), OptionalLong.empty(), Optional.empty(), Duration.ZERO, Optional.empty(), () -> now[0]);
+        client.sendAsync(HttpRequest.newBuilder(URI.create("http://example.com/path")).build(), HttpResponse.BodyHandlers.ofString());
+
+        now[0] = 12;
+        transport.exchange(0)
+                .respond(200)
+                .body("abc")
+                .complete();
+
+        final List<HttpClientMetrics> metrics = client.metrics();
+        assertEquals(1, metrics.size(), "metrics " + metrics);
+
+        final HttpClientMetrics first = metrics.get(0);
+        assertEquals("http://example.com", first.origin(), "origin");
+        assertEquals("2xx", first.statusClass(), "statusClass");
+        assertEquals(1L, first.requests(), "requests");
+        assertEquals(3L, first.bytesReceived(), "bytesReceived");
+        assertEquals(12L, first.latency().max(), "latency");
+    }
+
+    @Test
+    public void testConcurrencyLimitsWithoutAdaptiveConcurrency() {
+        assertEquals(Maps.empty(), this.createClient().concurrencyLimits());
+    }
+
+    @Test
+    public void testConcurrencyLimits() {
+        final HttpClientTransportAdaptiveConcurrency transport = HttpClientTransport.adaptiveConcurrency(new TestHttpClientTransport(),
+                HttpClientAdaptiveConcurrency.with(4, 1, 10, Duration.ofMillis(500), 0.5),
+                () -> 0);
+        final HttpClientAjax client = HttpClientAjax.with(null, null, Redirect.ALWAYS, Version.HTTP_1_1, transport, Optional.of(transport), Optional.empty(), Optional.empty(), OptionalLong.empty(), Optional.empty(), Duration.ZERO, Optional.empty(), () -> 0);
+        client.sendAsync(HttpRequest.newBuilder(URI.create("http://example.com/path")).build(), HttpResponse.BodyHandlers.discarding());
+
+        assertEquals(Maps.of("http://example.com", 4), client.concurrencyLimits());
+    }
+
+    private HttpClientAjax createClient() {
+        return HttpClientAjax.with(null, null, Redirect.ALWAYS, Version.HTTP_1_1, new TestHttpClientTransport(), Optional.empty(), Optional.empty(), Optional.empty(), OptionalLong.empty(), Optional.empty(), Duration.ZERO, Optional.empty(), () -> 0);
+    }
+
     private void with(final Duration connectTimeout,
                       final Executor executor,
                       final HttpClient.Redirect followRedirects,
                       final HttpClient.Version version) {
-        final HttpClientAjax client = HttpClientAjax.with(connectTimeout, executor, followRedirects, version);
+        final HttpClientAjax client = HttpClientAjax.with(connectTimeout, executor, followRedirects, version, HttpClientTransport.xmlHttpRequest(), Optional.empty(), Optional.empty(), Optional.empty(), OptionalLong.empty(), Optional.empty(), Duration.ZERO, Optional.empty(), () -> 0);
         assertEquals(Optional.ofNullable(connectTimeout), client.connectTimeout());
         assertEquals(Optional.ofNullable(executor), client.executor());
         assertSame(followRedirects, client.followRedirects());
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.ToStringTesting;
+import walkingkooka.reflect.ClassTesting2;
+import walkingkooka.reflect.JavaVisibility;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class HttpClientBufferPoolTest implements ClassTesting2<HttpClientBufferPool>,
+        ToStringTesting<HttpClientBufferPool> {
+
+    private final static int MIN = 16;
+    private final static int MAX = 64;
+    private final static int PER_SIZE = 2;
+
+    @Test
+    public void testWithZeroMinCapacityFails() {
+        assertThrows(IllegalArgumentException.class, () -> HttpClientBufferPool.with(0, MAX, PER_SIZE));
+    }
+
+    @Test
+    public void testWithMaxCapacityLessThanMinFails() {
+        assertThrows(IllegalArgumentException.class, () -> HttpClientBufferPool.with(MIN, MIN - 1, PER_SIZE));
+    }
+
+    @Test
+    public void testWithZeroMaxPerSizeFails() {
+        assertThrows(IllegalArgumentException.class, () -> HttpClientBufferPool.with(MIN, MAX, 0));
+    }
+
+    @Test
+    public void testAcquireNegativeFails() {
+        assertThrows(IllegalArgumentException.class, () -> this.createPool().acquire(-1));
+    }
+
+    @Test
+    public void testAcquireSizeClasses() {
+        this.acquireAndCheck(0, 16);
+        this.acquireAndCheck(1, 16);
+        this.acquireAndCheck(16, 16);
+        this.acquireAndCheck(17, 32);
+        this.acquireAndCheck(33, 64);
+        this.acquireAndCheck(64, 64);
+    }
+
+    @Test
+    public void testAcquireLargerThanMaxCapacity() {
+        this.acquireAndCheck(65, 65);
+    }
+
+    @Test
+    public void testAcquireMaxCapacityNotPowerOfTwo() {
+        final HttpClientBufferPool pool = HttpClientBufferPool.with(10, 30, PER_SIZE);
+        assertEquals(20, pool.acquire(11).capacity(), "11");
+        assertEquals(30, pool.acquire(21).capacity(), "21");
+        assertEquals(31, pool.acquire(31).capacity(), "31");
+    }
+
+    private void acquireAndCheck(final int capacity,
+                                 final int expected) {
+        final HttpClientBufferPool pool = this.createPool();
+        final ByteBuffer buffer = pool.acquire(capacity);
+
+        assertEquals(expected, buffer.capacity(), "capacity");
+        assertEquals(0, buffer.position(), "position");
+        assertEquals(capacity, buffer.limit(), "limit");
+        assertEquals(1L, pool.misses(), "misses");
+        assertEquals(0L, pool.hits(), "hits");
+    }
+
+    @Test
+    public void testReleaseThenAcquire() {
+        final HttpClientBufferPool pool = this.createPool();
+        final ByteBuffer buffer = pool.acquire(20);
+        buffer.put((byte) 1);
+        pool.release(buffer);
+        assertEquals(1, pool.idle(), "idle");
+
+        final ByteBuffer buffer2 = pool.acquire(30);
+        assertSame(buffer, buffer2);
+        assertEquals(0, buffer2.position(), "position");
+        assertEquals(30, buffer2.limit(), "limit");
+        assertEquals(1L, pool.hits(), "hits");
+        assertEquals(1L, pool.misses(), "misses");
+        assertEquals(0, pool.idle(), "idle");
+    }
+
+    @Test
+    public void testReleaseDifferentSizeClassNotReused() {
+        final HttpClientBufferPool pool = this.createPool();
+        final ByteBuffer buffer = pool.acquire(16);
+        pool.release(buffer);
+
+        assertNotSame(buffer, pool.acquire(17));
+        assertEquals(2L, pool.misses(), "misses");
+    }
+
+    @Test
+    public void testReleaseForeignCapacityIgnored() {
+        final HttpClientBufferPool pool = this.createPool();
+        pool.release(ByteBuffer.allocate(20));
+        pool.release(ByteBuffer.allocate(65));
+
+        assertEquals(0, pool.idle(), "idle");
+    }
+
+    @Test
+    public void testReleaseSizeClassFull() {
+        final HttpClientBufferPool pool = this.createPool();
+        pool.release(pool.acquire(16));
+        pool.release(pool.acquire(16));
+        pool.release(ByteBuffer.allocate(16));
+        pool.release(ByteBuffer.allocate(16));
+
+        assertEquals(PER_SIZE, pool.idle(), "idle");
+    }
+
+    @Test
+    public void testToString() {
+        final HttpClientBufferPool pool = this.createPool();
+        pool.release(pool.acquire(16));
+        pool.acquire(16);
+
+        this.toStringAndCheck(pool, "minCapacity: 16, maxCapacity: 64, maxPerSize: 2, hits: 1, misses: 1");
+    }
+
+    private HttpClientBufferPool createPool() {
+        return HttpClientBufferPool.with(MIN, MAX, PER_SIZE);
+    }
+
+    // ClassTesting2....................................................................................................
+
+    @Override
+    public Class<HttpClientBufferPool> type() {
+        return HttpClientBufferPool.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PUBLIC;
+    }
+}
@@ -18,13 +18,16 @@
 package walkingkooka.j2cl.java.net.http;
 
 import org.junit.jupiter.api.Test;
+import walkingkooka.collect.map.Maps;
 import walkingkooka.j2cl.java.net.http.HttpClient.Redirect;
 import walkingkooka.j2cl.java.net.http.HttpClient.Version;
 import walkingkooka.reflect.ClassTesting2;
 import walkingkooka.reflect.JavaVisibility;
 
+import java.net.URI;
 import java.time.Duration;
 import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.concurrent.Executor;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -33,6 +36,113 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 
 public final class HttpClientBuilderTest implements ClassTesting2<HttpClientBuilder> {
 
+    @Test
+    public void testAdaptiveConcurrencyNullFails() {
+        assertThrows(NullPointerException.class, () -> HttpClientBuilder.empty().adaptiveConcurrency(null));
+    }
+
+    @Test
+    public void testAdaptiveConcurrency() {
+        final HttpClientAdaptiveConcurrency concurrency = HttpClientAdaptiveConcurrency.with(4, 1, 10, Duration.ofMillis(500), 0.5);
+        final HttpClientBuilder b = HttpClientBuilder.empty();
+        assertSame(b, b.adaptiveConcurrency(concurrency));
+        assertSame(concurrency, b.adaptiveConcurrency, "adaptiveConcurrency");
+
+        final HttpClientAjax client = b.build();
+        assertEquals(HttpClientTransportAdaptiveConcurrency.class, client.transport.getClass());
+        assertSame(client.transport, client.adaptiveConcurrency.get(), "adaptiveConcurrency");
+    }
+
+    @Test
+    public void testAdaptiveConcurrencyAndRateLimit() {
+        final HttpClientAjax client = HttpClientBuilder.empty()
+                .adaptiveConcurrency(HttpClientAdaptiveConcurrency.with(4, 1, 10, Duration.ofMillis(500), 0.5))
+                .rateLimit(HttpClientRateLimit.with(1, 1))
+                .build();
+        assertEquals(HttpClientTransportRateLimited.class, client.transport.getClass());
+        assertEquals(true, client.adaptiveConcurrency.isPresent(), "adaptiveConcurrency");
+    }
+
+    @Test
+    public void testBuildWithoutAdaptiveConcurrency() {
+        assertEquals(Optional.empty(), HttpClientBuilder.empty().build().adaptiveConcurrency);
+    }
+
+    @Test
+    public void testBufferPoolNullFails() {
+        assertThrows(NullPointerException.class, () -> HttpClientBuilder.empty().bufferPool(null));
+    }
+
+    @Test
+    public void testBufferPool() {
+        final HttpClientBufferPool pool = HttpClientBufferPool.with(1024, 16 * 1024, 8);
+        final HttpClientBuilder b = HttpClientBuilder.empty();
+        assertSame(b, b.bufferPool(pool));
+        assertSame(pool, b.bufferPool, "bufferPool");
+
+        assertSame(pool, b.build().bufferPool().get(), "bufferPool");
+    }
+
+    @Test
+    public void testBuildWithoutBufferPool() {
+        assertEquals(Optional.empty(), HttpClientBuilder.empty().build().bufferPool());
+    }
+
+    @Test
+    public void testCircuitBreakerNullFails() {
+        assertThrows(NullPointerException.class, () -> HttpClientBuilder.empty().circuitBreaker(null));
+    }
+
+    @Test
+    public void testCircuitBreaker() {
+        final HttpClientCircuitBreaker circuitBreaker = HttpClientCircuitBreaker.with(0.5f, 0.5f, Duration.ofMillis(1000), 10, Duration.ofMillis(1000), 1);
+        final HttpClientBuilder b = HttpClientBuilder.empty();
+        assertSame(b, b.circuitBreaker(circuitBreaker));
+        assertSame(circuitBreaker, b.circuitBreaker, "circuitBreaker");
+
+        assertEquals(HttpClientTransportCircuitBreaker.class, b.build().transport.getClass());
+    }
+
+    @Test
+    public void testBuildWithoutCircuitBreaker() {
+        assertSame(HttpClientTransport.xmlHttpRequest(), HttpClientBuilder.empty().build().transport);
+    }
+
+    @Test
+    public void testRateLimitNullFails() {
+        assertThrows(NullPointerException.class, () -> HttpClientBuilder.empty().rateLimit(null));
+    }
+
+    @Test
+    public void testRateLimit() {
+        final HttpClientRateLimit limit = HttpClientRateLimit.with(1, 1);
+        final HttpClientBuilder b = HttpClientBuilder.empty();
+        assertSame(b, b.rateLimit(limit));
+        assertSame(limit, b.rateLimit, "rateLimit");
+
+        assertEquals(HttpClientTransportRateLimited.class, b.build().transport.getClass());
+    }
+
+    @Test
+    public void testRateLimitPrefixNullPrefixFails() {
+        assertThrows(NullPointerException.class, () -> HttpClientBuilder.empty().rateLimit(null, HttpClientRateLimit.with(1, 1)));
+    }
+
+    @Test
+    public void testRateLimitPrefixNullLimitFails() {
+        assertThrows(NullPointerException.class, () -> HttpClientBuilder.empty().rateLimit(URI.create("http://example.com/api/"), null));
+    }
+
+    @Test
+    public void testRateLimitPrefix() {
+        final HttpClientRateLimit limit = HttpClientRateLimit.with(1, 1);
+        final HttpClientBuilder b = HttpClientBuilder.empty();
+        assertSame(b, b.rateLimit(URI.create("http://example.com/api/"), limit));
+        assertEquals(Maps.of("http://example.com/api/", limit), b.rateLimitPrefixes, "rateLimitPrefixes");
+
+        assertEquals(HttpClientTransportRateLimited.class, b.build().transport.getClass());
+    }
+
     @Test
     public void testConnectTimeoutFails() {
         assertThrows(NullPointerException.class, () -> java.net.http.HttpClient.newBuilder().connectTimeout(null));
@@ -138,6 +248,112 @@ public final class HttpClientBuilderTest implements ClassTesting2<HttpClientBuil
         assertSame(redirect, b.followRedirects, "followRedirects");
     }
 
+    @Test
+    public void testLifecycleListenerNullFails() {
+        assertThrows(NullPointerException.class, () -> HttpClientBuilder.empty().lifecycleListener(null));
+    }
+
+    @Test
+    public void testLifecycleListener() {
+        final HttpClientLifecycleListener listener = new TestHttpClientLifecycleListener();
+        final HttpClientBuilder b = HttpClientBuilder.empty();
+        assertSame(b, b.lifecycleListener(listener));
+        assertSame(listener, b.lifecycleListener, "lifecycleListener");
+
+        assertSame(listener, b.build().lifecycleListener().get(), "lifecycleListener");
+    }
+
+    @Test
+    public void testBuildWithoutLifecycleListener() {
+        assertEquals(Optional.empty(), HttpClientBuilder.empty().build().lifecycleListener());
+    }
+
+    @Test
+    public void testMaxBodySizeNegativeFails() {
+        assertThrows(IllegalArgumentException.class, () -> HttpClientBuilder.empty().maxBodySize(-1));
+    }
+
+    @Test
+    public void testMaxBodySize() {
+        final HttpClientBuilder b = HttpClientBuilder.empty();
+        assertSame(b, b.maxBodySize(1024));
+        assertEquals(Long.valueOf(1024), b.maxBodySize, "maxBodySize");
+
+        assertEquals(OptionalLong.of(1024), b.build().maxBodySize(), "maxBodySize");
+    }
+
+    @Test
+    public void testBuildWithoutMaxBodySize() {
+        assertEquals(OptionalLong.empty(), HttpClientBuilder.empty().build().maxBodySize());
+    }
+
+    @Test
+    public void testProgressIntervalNullFails() {
+        assertThrows(NullPointerException.class, () -> HttpClientBuilder.empty().progressInterval(null));
+    }
+
+    @Test
+    public void testProgressIntervalNegativeFails() {
+        assertThrows(IllegalArgumentException.class, () -> HttpClientBuilder.empty().progressInterval(Duration.ofMillis(-1)));
+    }
+
+    @Test
+    public void testProgressInterval() {
+        final Duration interval = Duration.ofMillis(250);
+        final HttpClientBuilder b = HttpClientBuilder.empty();
+        assertSame(b, b.progressInterval(interval));
+        assertSame(interval, b.progressInterval, "progressInterval");
+
+        assertSame(interval, b.build().progressInterval(), "progressInterval");
+    }
+
+    @Test
+    public void testBuildWithoutProgressInterval() {
+        assertEquals(Duration.ofMillis(100), HttpClientBuilder.empty().build().progressInterval());
+    }
+
+    @Test
+    public void testProgressListenerNullFails() {
+        assertThrows(NullPointerException.class, () -> HttpClientBuilder.empty().progressListener(null));
+    }
+
+    @Test
+    public void testProgressListener() {
+        final HttpClientProgressListener listener = (p) -> {
+        };
+        final HttpClientBuilder b = HttpClientBuilder.empty();
+        assertSame(b, b.progressListener(listener));
+        assertSame(listener, b.progressListener, "progressListener");
+
+        assertSame(listener, b.build().progressListener().get(), "progressListener");
+    }
+
+    @Test
+    public void testBuildWithoutProgressListener() {
+        assertEquals(Optional.empty(), HttpClientBuilder.empty().build().progressListener());
+    }
+
+    @Test
+    public void testTracingNullFails() {
+        assertThrows(NullPointerException.class, () -> HttpClientBuilder.empty().tracing(null));
+    }
+
+    @Test
+    public void testTracing() {
+        final HttpClientTracing tracing = HttpClientTracing.with(1, (s) -> {
+        });
+        final HttpClientBuilder b = HttpClientBuilder.empty();
+        assertSame(b, b.tracing(tracing));
+        assertSame(tracing, b.tracing, "tracing");
+
+        assertSame(tracing, b.build().tracing().get(), "tracing");
+    }
+
+    @Test
+    public void testBuildWithoutTracing() {
+        assertEquals(Optional.empty(), HttpClientBuilder.empty().build().tracing());
+    }
+
     @Test
     public void testPriorityFails() {
         assertThrows(IllegalArgumentException.class, () -> java.net.http.HttpClient.newBuilder().priority(0));
@@ -294,7 +510,7 @@ public final class HttpClientBuilderTest implements ClassTesting2<HttpClientBuil
 
             jre = b.build();
         } catch (final Exception cause) {
-            assertThrows(cause.getClass(), () -> HttpClientAjax.with(connectTimeout, executor, followRedirects, version));
+            assertThrows(cause.getClass(), () -> HttpClientAjax.with(connectTimeout, executor, followRedirects, version, HttpClientTransport.xmlHttpRequest(), Optional.empty(), Optional.empty(), Optional.empty(), OptionalLong.empty(), Optional.empty(), Duration.ZERO, Optional.empty(), () -> 0));
         }
 
         if (null != jre) {
@@ -337,7 +553,7 @@ public final class HttpClientBuilderTest implements ClassTesting2<HttpClientBuil
                 checkEnum(jre.version(), client.version(), "version");
             }
 
-            final HttpClientAjax client = HttpClientAjax.with(connectTimeout, executor, followRedirects, version);
+            final HttpClientAjax client = HttpClientAjax.with(connectTimeout, executor, followRedirects, version, HttpClientTransport.xmlHttpRequest(), Optional.empty(), Optional.empty(), Optional.empty(), OptionalLong.empty(), Optional.empty(), Duration.ZERO, Optional.empty(), () -> 0);
 
             assertEquals(Optional.ofNullable(connectTimeout), client.connectTimeout());
             assertEquals(Optional.ofNullable(executor), client.executor());
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.ToStringTesting;
+import walkingkooka.reflect.ClassTesting2;
+import walkingkooka.reflect.JavaVisibility;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class HttpClientCircuitBreakerTest implements ClassTesting2<HttpClientCircuitBreaker>,
+        ToStringTesting<HttpClientCircuitBreaker> {
+
+    private final static float FAILURE_RATE = 0.5f;
+    private final static float SLOW_RATE = 0.75f;
+    private final static Duration SLOW = Duration.ofMillis(1000);
+    private final static int WINDOW = 10;
+    private final static Duration OPEN = Duration.ofMillis(5000);
+    private final static int HALF_OPEN = 2;
+
+    @Test
+    public void testWithZeroFailureRateFails() {
+        assertThrows(IllegalArgumentException.class, () -> HttpClientCircuitBreaker.with(0, SLOW_RATE, SLOW, WINDOW, OPEN, HALF_OPEN));
+    }
+
+    @Test
+    public void testWithFailureRateGreaterThanOneFails() {
+        assertThrows(IllegalArgumentException.class, () -> HttpClientCircuitBreaker.with(1.5f, SLOW_RATE, SLOW, WINDOW, OPEN, HALF_OPEN));
+    }
+
+    @Test
+    public void testWithZeroSlowRateFails() {
+        assertThrows(IllegalArgumentException.class, () -> HttpClientCircuitBreaker.with(FAILURE_RATE, 0, SLOW, WINDOW, OPEN, HALF_OPEN));
+    }
+
+    @Test
+    public void testWithNullSlowCallDurationFails() {
+        assertThrows(NullPointerException.class, () -> HttpClientCircuitBreaker.with(FAILURE_RATE, SLOW_RATE, null, WINDOW, OPEN, HALF_OPEN));
+    }
+
+    @Test
+    public void testWithNegativeSlowCallDurationFails() {
+        assertThrows(IllegalArgumentException.class, () -> HttpClientCircuitBreaker.with(FAILURE_RATE, SLOW_RATE, Duration.ofMillis(-1), WINDOW, OPEN, HALF_OPEN));
+    }
+
+    @Test
+    public void testWithZeroWindowFails() {
+        assertThrows(IllegalArgumentException.class, () -> HttpClientCircuitBreaker.with(FAILURE_RATE, SLOW_RATE, SLOW, 0, OPEN, HALF_OPEN));
+    }
+
+    @Test
+    public void testWithNullOpenDurationFails() {
+        assertThrows(NullPointerException.class, () -> HttpClientCircuitBreaker.with(FAILURE_RATE, SLOW_RATE, SLOW, WINDOW, null, HALF_OPEN));
+    }
+
+    @Test
+    public void testWithZeroHalfOpenCallsFails() {
+        assertThrows(IllegalArgumentException.class, () -> HttpClientCircuitBreaker.with(FAILURE_RATE, SLOW_RATE, SLOW, WINDOW, OPEN, 0));
+    }
+
+    @Test
+    public void testWith() {
+        final HttpClientCircuitBreaker circuitBreaker = HttpClientCircuitBreaker.with(FAILURE_RATE, SLOW_RATE, SLOW, WINDOW, OPEN, HALF_OPEN);
+        assertEquals(FAILURE_RATE, circuitBreaker.failureRateThreshold, "failureRateThreshold");
+        assertEquals(SLOW_RATE, circuitBreaker.slowCallRateThreshold, "slowCallRateThreshold");
+        assertEquals(SLOW, circuitBreaker.slowCallDuration, "slowCallDuration");
+        assertEquals(WINDOW, circuitBreaker.windowSize, "windowSize");
+        assertEquals(OPEN, circuitBreaker.openDuration, "openDuration");
+        assertEquals(HALF_OPEN, circuitBreaker.halfOpenCalls, "halfOpenCalls");
+    }
+
+    @Test
+    public void testToString() {
+        this.toStringAndCheck(HttpClientCircuitBreaker.with(FAILURE_RATE, SLOW_RATE, SLOW, WINDOW, OPEN, HALF_OPEN),
+                "failureRateThreshold: 0.5, slowCallRateThreshold: 0.75, slowCallDuration: PT1S, windowSize: 10, openDuration: PT5S, halfOpenCalls: 2");
+    }
+
+    // ClassTesting2....................................................................................................
+
+    @Override
+    public Class<HttpClientCircuitBreaker> type() {
+        return HttpClientCircuitBreaker.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PUBLIC;
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.ToStringTesting;
+import walkingkooka.reflect.ClassTesting2;
+import walkingkooka.reflect.JavaVisibility;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class HttpClientLatencyHistogramTest implements ClassTesting2<HttpClientLatencyHistogram>,
+        ToStringTesting<HttpClientLatencyHistogram> {
+
+    @Test
+    public void testEmpty() {
+        final HttpClientLatencyHistogram histogram = HttpClientLatencyHistogram.empty();
+        assertEquals(0L, histogram.count(), "count");
+        assertEquals(0L, histogram.min(), "min");
+        assertEquals(0L, histogram.max(), "max");
+        assertEquals(0L, histogram.valueAtPercentile(99), "p99");
+    }
+
+    @Test
+    public void testValueAtPercentileNegativeFails() {
+        assertThrows(IllegalArgumentException.class, () -> HttpClientLatencyHistogram.empty().valueAtPercentile(-1));
+    }
+
+    @Test
+    public void testValueAtPercentileGreaterThan100Fails() {
+        assertThrows(IllegalArgumentException.class, () -> HttpClientLatencyHistogram.empty().valueAtPercentile(100.5));
+    }
+
+    @Test
+    public void testValueAtPercentileNaNFails() {
+        assertThrows(IllegalArgumentException.class, () -> HttpClientLatencyHistogram.empty().valueAtPercentile(Double.NaN));
+    }
+
+    @Test
+    public void testSmallValuesExact() {
+        final HttpClientLatencyHistogram histogram = HttpClientLatencyHistogram.empty();
+        for (int i = 1; i <= 10; i++) {
+            histogram.record(i);
+        }
+
+        assertEquals(10L, histogram.count(), "count");
+        assertEquals(1L, histogram.min(), "min");
+        assertEquals(10L, histogram.max(), "max");
+        assertEquals(1L, histogram.valueAtPercentile(0), "p0");
+        assertEquals(5L, histogram.valueAtPercentile(50), "p50");
+        assertEquals(10L, histogram.valueAtPercentile(95), "p95");
+        assertEquals(10L, histogram.valueAtPercentile(100), "p100");
+    }
+
+    @Test
+    public void testNegativeRecordedAsZero() {
+        final HttpClientLatencyHistogram histogram = HttpClientLatencyHistogram.empty();
+        histogram.record(-5);
+
+        assertEquals(0L, histogram.min(), "min");
+        assertEquals(0L, histogram.max(), "max");
+    }
+
+    @Test
+    public void testLargeValuesWithinBucketError() {
+        final HttpClientLatencyHistogram histogram = HttpClientLatencyHistogram.empty();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i);
+        }
+
+        final long p50 = histogram.valueAtPercentile(50);
+        assertEquals(true, p50 >= 500 && p50 <= 500 + 500 / 16, "p50 " + p50);
+
+        final long p99 = histogram.valueAtPercentile(99);
+        assertEquals(true, p99 >= 990 && p99 <= 990 + 990 / 16, "p99 " + p99);
+
+        assertEquals(1000L, histogram.valueAtPercentile(100), "p100 clamped to max");
+    }
+
+    @Test
+    public void testLongMaxValue() {
+        final HttpClientLatencyHistogram histogram = HttpClientLatencyHistogram.empty();
+        histogram.record(Long.MAX_VALUE);
+
+        assertEquals(Long.MAX_VALUE, histogram.valueAtPercentile(50));
+    }
+
+    @Test
+    public void testIndexAndUpperBound() {
+        for (long value = 0; value < 100_000; value++) {
+            final int index = HttpClientLatencyHistogram.index(value);
+            final long upperBound = HttpClientLatencyHistogram.upperBound(index);
+
+            assertEquals(true, value <= upperBound, "value " + value + " upperBound " + upperBound);
+            assertEquals(true, upperBound - value <= value / 16, "value " + value + " upperBound " + upperBound);
+            assertEquals(index, HttpClientLatencyHistogram.index(upperBound), "upperBound " + upperBound + " index");
+        }
+    }
+
+    @Test
+    public void testCopy() {
+        final HttpClientLatencyHistogram histogram = HttpClientLatencyHistogram.empty();
+        histogram.record(1);
+
+        final HttpClientLatencyHistogram copy = histogram.copy();
+        histogram.record(100);
+
+        assertEquals(1L, copy.count(), "count");
+        assertEquals(1L, copy.max(), "max");
+        assertEquals(1L, copy.valueAtPercentile(100), "p100");
+    }
+
+    @Test
+    public void testToString() {
+        final HttpClientLatencyHistogram histogram = HttpClientLatencyHistogram.empty();
+        histogram.record(1);
+        histogram.record(2);
+        histogram.record(40);
+
+        this.toStringAndCheck(histogram, "count: 3 p50: 2 p95: 40 p99: 40 max: 40");
+    }
+
+    // ClassTesting2....................................................................................................
+
+    @Override
+    public Class<HttpClientLatencyHistogram> type() {
+        return HttpClientLatencyHistogram.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PUBLIC;
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.collect.map.Maps;
+import walkingkooka.reflect.ClassTesting2;
+import walkingkooka.reflect.JavaVisibility;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class HttpClientMetricsCollectorTest implements ClassTesting2<HttpClientMetricsCollector> {
+
+    @Test
+    public void testEmpty() {
+        assertEquals("", this.snapshot(HttpClientMetricsCollector.empty()));
+    }
+
+    @Test
+    public void testRecordGroupsByOriginAndStatusClass() {
+        final HttpClientMetricsCollector collector = HttpClientMetricsCollector.empty();
+        collector.record(request("http://example.com/a"), response(200), false, 1, 10, 5);
+        collector.record(request("http://example.com/b"), response(204), false, 2, 20, 7);
+        collector.record(request("http://example.com/c"), response(404), false, 0, 1, 1);
+        collector.record(request("http://example.com:8080/d"), Optional.empty(), true, 3, 0, 2);
+        collector.record(request("http://api.example.com/e"), response(503), true, 0, 0, 9);
+
+        assertEquals("http://api.example.com 5xx requests: 1 failures: 1 sent: 0 received: 0 latency count: 1 p50: 9 p95: 9 p99: 9 max: 9\n" +
+                        "http://example.com 2xx requests: 2 failures: 0 sent: 3 received: 30 latency count: 2 p50: 5 p95: 7 p99: 7 max: 7\n" +
+                        "http://example.com 4xx requests: 1 failures: 0 sent: 0 received: 1 latency count: 1 p50: 1 p95: 1 p99: 1 max: 1\n" +
+                        "http://example.com:8080 none requests: 1 failures: 1 sent: 3 received: 0 latency count: 1 p50: 2 p95: 2 p99: 2 max: 2",
+                this.snapshot(collector));
+    }
+
+    @Test
+    public void testSnapshotUnaffectedByLaterRecords() {
+        final HttpClientMetricsCollector collector = HttpClientMetricsCollector.empty();
+        collector.record(request("http://example.com/a"), response(200), false, 1, 10, 5);
+
+        final List<HttpClientMetrics> snapshot = collector.snapshot();
+        collector.record(request("http://example.com/a"), response(200), false, 1, 10, 5);
+
+        assertEquals(1L, snapshot.get(0).requests(), "requests");
+    }
+
+    @Test
+    public void testSnapshotReadOnly() {
+        final HttpClientMetricsCollector collector = HttpClientMetricsCollector.empty();
+        assertThrows(UnsupportedOperationException.class, () -> collector.snapshot().add(HttpClientMetrics.with("http://example.com", "2xx")));
+    }
+
+    private static HttpRequest request(final String url) {
+        return HttpRequest.newBuilder(URI.create(url)).build();
+    }
+
+    private static Optional<HttpResponse.ResponseInfo> response(final int statusCode) {
+        return Optional.of(TestHttpClientTransport.responseInfo(statusCode, Maps.empty()));
+    }
+
+    private String snapshot(final HttpClientMetricsCollector collector) {
+        return collector.snapshot()
+                .stream()
+                .map(Object::toString)
+                .collect(Collectors.joining("\n"));
+    }
+
+    // ClassTesting2....................................................................................................
+
+    @Override
+    public Class<HttpClientMetricsCollector> type() {
+        return HttpClientMetricsCollector.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.ToStringTesting;
+import walkingkooka.reflect.ClassTesting2;
+import walkingkooka.reflect.JavaVisibility;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public final class HttpClientMetricsTest implements ClassTesting2<HttpClientMetrics>,
+        ToStringTesting<HttpClientMetrics> {
+
+    private final static String ORIGIN = "http://example.com";
+
+    @Test
+    public void testStatusClass() {
+        assertEquals("1xx", HttpClientMetrics.statusClass(101), "101");
+        assertEquals("2xx", HttpClientMetrics.statusClass(200), "200");
+        assertEquals("4xx", HttpClientMetrics.statusClass(404), "404");
+        assertEquals("5xx", HttpClientMetrics.statusClass(599), "599");
+    }
+
+    @Test
+    public void testWith() {
+        final HttpClientMetrics metrics = HttpClientMetrics.with(ORIGIN, "2xx");
+        assertEquals(ORIGIN, metrics.origin(), "origin");
+        assertEquals("2xx", metrics.statusClass(), "statusClass");
+        assertEquals(0L, metrics.requests(), "requests");
+        assertEquals(0L, metrics.failures(), "failures");
+        assertEquals(0L, metrics.bytesSent(), "bytesSent");
+        assertEquals(0L, metrics.bytesReceived(), "bytesReceived");
+        assertEquals(0L, metrics.latency().count(), "latency");
+    }
+
+    @Test
+    public void testRecord() {
+        final HttpClientMetrics metrics = HttpClientMetrics.with(ORIGIN, "5xx");
+        metrics.record(false, 1, 2, 10);
+        metrics.record(true, 3, 4, 20);
+
+        assertEquals(2L, metrics.requests(), "requests");
+        assertEquals(1L, metrics.failures(), "failures");
+        assertEquals(4L, metrics.bytesSent(), "bytesSent");
+        assertEquals(6L, metrics.bytesReceived(), "bytesReceived");
+        assertEquals(2L, metrics.latency().count(), "latency count");
+        assertEquals(20L, metrics.latency().max(), "latency max");
+    }
+
+    @Test
+    public void testCopy() {
+        final HttpClientMetrics metrics = HttpClientMetrics.with(ORIGIN, "2xx");
+        metrics.record(false, 1, 2, 10);
+
+        final HttpClientMetrics copy = metrics.copy();
+        metrics.record(true, 3, 4, 20);
+
+        assertEquals(1L, copy.requests(), "requests");
+        assertEquals(0L, copy.failures(), "failures");
+        assertEquals(1L, copy.bytesSent(), "bytesSent");
+        assertEquals(2L, copy.bytesReceived(), "bytesReceived");
+        assertEquals(1L, copy.latency().count(), "latency count");
+    }
+
+    @Test
+    public void testToString() {
+        final HttpClientMetrics metrics = HttpClientMetrics.with(ORIGIN, "2xx");
+        metrics.record(false, 1, 2, 10);
+
+        this.toStringAndCheck(metrics, "http://example.com 2xx requests: 1 failures: 0 sent: 1 received: 2 latency count: 1 p50: 10 p95: 10 p99: 10 max: 10");
+    }
+
+    // ClassTesting2....................................................................................................
+
+    @Override
+    public Class<HttpClientMetrics> type() {
+        return HttpClientMetrics.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PUBLIC;
+    }
+}
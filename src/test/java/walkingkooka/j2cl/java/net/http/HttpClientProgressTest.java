@@ -0,0 +1,83 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.ToStringTesting;
+import walkingkooka.reflect.ClassTesting2;
+import walkingkooka.reflect.JavaVisibility;
+
+import java.net.URI;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class HttpClientProgressTest implements ClassTesting2<HttpClientProgress>,
+        ToStringTesting<HttpClientProgress> {
+
+    private final static HttpRequest REQUEST = HttpRequest.newBuilder(URI.create("http://example.com/path")).build();
+
+    @Test
+    public void testWithNullRequestFails() {
+        assertThrows(NullPointerException.class, () -> HttpClientProgress.with(null, 1, 2, 3, 4));
+    }
+
+    @Test
+    public void testWith() {
+        final HttpClientProgress progress = HttpClientProgress.with(REQUEST, 1, 2, 3, 4);
+        assertSame(REQUEST, progress.request(), "request");
+        assertEquals(1L, progress.sent(), "sent");
+        assertEquals(2L, progress.sendTotal(), "sendTotal");
+        assertEquals(3L, progress.received(), "received");
+        assertEquals(4L, progress.receiveTotal(), "receiveTotal");
+    }
+
+    @Test
+    public void testEquals() {
+        assertEquals(HttpClientProgress.with(REQUEST, 1, 2, 3, 4), HttpClientProgress.with(REQUEST, 1, 2, 3, 4));
+    }
+
+    @Test
+    public void testEqualsDifferentReceived() {
+        assertNotEquals(HttpClientProgress.with(REQUEST, 1, 2, 3, 4), HttpClientProgress.with(REQUEST, 1, 2, 4, 4));
+    }
+
+    @Test
+    public void testHashCode() {
+        assertEquals(HttpClientProgress.with(REQUEST, 1, 2, 3, 4).hashCode(), HttpClientProgress.with(REQUEST, 1, 2, 3, 4).hashCode());
+    }
+
+    @Test
+    public void testToString() {
+        this.toStringAndCheck(HttpClientProgress.with(REQUEST, 1, 2, 3, -1), "GET http://example.com/path sent 1/2 received 3/-1");
+    }
+
+    // ClassTesting2....................................................................................................
+
+    @Override
+    public Class<HttpClientProgress> type() {
+        return HttpClientProgress.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PUBLIC;
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.ToStringTesting;
+import walkingkooka.reflect.ClassTesting2;
+import walkingkooka.reflect.JavaVisibility;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class HttpClientRateLimitTest implements ClassTesting2<HttpClientRateLimit>,
+        ToStringTesting<HttpClientRateLimit> {
+
+    @Test
+    public void testWithZeroPermitsFails() {
+        assertThrows(IllegalArgumentException.class, () -> HttpClientRateLimit.with(0, 1));
+    }
+
+    @Test
+    public void testWithNaNPermitsFails() {
+        assertThrows(IllegalArgumentException.class, () -> HttpClientRateLimit.with(Double.NaN, 1));
+    }
+
+    @Test
+    public void testWithZeroBurstFails() {
+        assertThrows(IllegalArgumentException.class, () -> HttpClientRateLimit.with(1, 0));
+    }
+
+    @Test
+    public void testWith() {
+        final HttpClientRateLimit limit = HttpClientRateLimit.with(2.5, 10);
+        assertEquals(2.5, limit.permitsPerSecond, "permitsPerSecond");
+        assertEquals(10, limit.burst, "burst");
+    }
+
+    @Test
+    public void testToString() {
+        this.toStringAndCheck(HttpClientRateLimit.with(2.5, 10), "2.5/s burst 10");
+    }
+
+    // ClassTesting2....................................................................................................
+
+    @Override
+    public Class<HttpClientRateLimit> type() {
+        return HttpClientRateLimit.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PUBLIC;
+    }
+}
@@ -0,0 +1,255 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.j2cl.java.net.http.HttpClient.Redirect;
+import walkingkooka.j2cl.java.net.http.HttpClient.Version;
+import walkingkooka.j2cl.java.net.http.HttpResponse.BodyHandlers;
+import walkingkooka.reflect.ClassTesting2;
+import walkingkooka.reflect.JavaVisibility;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class HttpClientRequestGroupTest implements ClassTesting2<HttpClientRequestGroup> {
+
+    private final static URI URI = java.net.URI.create("http://example.com/path");
+    private final static HttpRequest REQUEST = HttpRequest.newBuilder(URI).build();
+
+    @Test
+    public void testWithNullClientFails() {
+        assertThrows(NullPointerException.class, () -> HttpClientRequestGroup.with(null, Optional.empty(), new TestHttpClientTimer(), () -> 0));
+    }
+
+    @Test
+    public void testWithNullDeadlineFails() {
+        assertThrows(NullPointerException.class, () -> HttpClientRequestGroup.with(this.client(new TestHttpClientTransport()), null, new TestHttpClientTimer(), () -> 0));
+    }
+
+    @Test
+    public void testWithNegativeDeadlineFails() {
+        assertThrows(IllegalArgumentException.class, () -> HttpClientRequestGroup.with(this.client(new TestHttpClientTransport()), Optional.of(Duration.ofMillis(-1)), new TestHttpClientTimer(), () -> 0));
+    }
+
+    @Test
+    public void testNewRequestGroupNullDeadlineFails() {
+        assertThrows(NullPointerException.class, () -> this.client(new TestHttpClientTransport()).newRequestGroup(null));
+    }
+
+    @Test
+    public void testSendAsyncWithoutDeadline() {
+        final TestHttpClientTransport transport = new TestHttpClientTransport();
+        final HttpClientRequestGroup group = this.client(transport).newRequestGroup();
+
+        group.sendAsync(REQUEST, BodyHandlers.discarding());
+        assertSame(REQUEST, transport.exchange(0).request, "request");
+        assertEquals(1, group.outstanding(), "outstanding");
+        assertEquals(Optional.empty(), group.remaining(), "remaining");
+    }
+
+    @Test
+    public void testSendAsyncDeadlineSetsTimeout() {
+        final TestHttpClientTransport transport = new TestHttpClientTransport();
+        final long[] now = new long[]{1000};
+        final HttpClientRequestGroup group = HttpClientRequestGroup.with(this.client(transport), Optional.of(Duration.ofMillis(500)), new TestHttpClientTimer(), () -> now[0]);
+
+        now[0] = 1100;
+        group.sendAsync(REQUEST, BodyHandlers.discarding());
+
+        final HttpRequest sent = transport.exchange(0).request;
+        assertEquals(Optional.of(Duration.ofMillis(400)), sent.timeout(), "timeout");
+        assertEquals(URI, sent.uri(), "uri");
+    }
+
+    @Test
+    public void testSendAsyncDeadlineKeepsShorterTimeout() {
+        final TestHttpClientTransport transport = new TestHttpClientTransport();
+        final HttpClientRequestGroup group = HttpClientRequestGroup.with(this.client(transport), Optional.of(Duration.ofMillis(500)), new TestHttpClientTimer(), () -> 1000);
+
+        final HttpRequest request = HttpRequest.newBuilder(URI).timeout(Duration.ofMillis(100)).build();
+        group.sendAsync(request, BodyHandlers.discarding());
+
+        assertSame(request, transport.exchange(0).request, "request");
+    }
+
+    @Test
+    public void testSendAsyncDeadlineKeepsMaxBodySize() {
+        final TestHttpClientTransport transport = new TestHttpClientTransport();
+        final HttpClientRequestGroup group = HttpClientRequestGroup.with(this.client(transport), Optional.of(Duration.ofMillis(500)), new TestHttpClientTimer(), () -> 1000);
+
+        group.sendAsync(HttpRequest.newBuilder(URI).maxBodySize(100).build(), BodyHandlers.discarding());
+
+        assertEquals(OptionalLong.of(100), transport.exchange(0).request.maxBodySize(), "maxBodySize");
+    }
+
+    @Test
+    public void testSendAsyncDeadlineKeepsProgressListener() {
+        final TestHttpClientTransport transport = new TestHttpClientTransport();
+        final HttpClientRequestGroup group = HttpClientRequestGroup.with(this.client(transport), Optional.of(Duration.ofMillis(500)), new TestHttpClientTimer(), () -> 1000);
+        final HttpClientProgressListener listener = (p) -> {
+        };
+
+        group.sendAsync(HttpRequest.newBuilder(URI).progressListener(listener).build(), BodyHandlers.discarding());
+
+        assertEquals(Optional.of(listener), transport.exchange(0).request.progressListener(), "progressListener");
+    }
+
+    @Test
+    public void testSendAsyncAfterDeadlineFails() {
+        final TestHttpClientTransport transport = new TestHttpClientTransport();
+        final long[] now = new long[]{1000};
+        final HttpClientRequestGroup group = HttpClientRequestGroup.with(this.client(transport), Optional.of(Duration.ofMillis(500)), new TestHttpClientTimer(), () -> now[0]);
+
+        now[0] = 1500;
+        final CompletableFuture<HttpResponse<Void>> future = group.sendAsync(REQUEST, BodyHandlers.discarding());
+
+        assertEquals(HttpTimeoutException.class, assertThrows(ExecutionException.class, future::get).getCause().getClass());
+        assertEquals(0, transport.exchanges.size(), "exchanges");
+    }
+
+    @Test
+    public void testWithNullTimerFails() {
+        assertThrows(NullPointerException.class, () -> HttpClientRequestGroup.with(this.client(new TestHttpClientTransport()), Optional.empty(), null, () -> 0));
+    }
+
+    @Test
+    public void testWithoutDeadlineNotScheduled() {
+        final TestHttpClientTimer timer = new TestHttpClientTimer();
+        HttpClientRequestGroup.with(this.client(new TestHttpClientTransport()), Optional.empty(), timer, () -> 1000);
+
+        assertEquals(Lists.empty(), timer.delays, "delays");
+    }
+
+    @Test
+    public void testDeadlineFailsOutstanding() {
+        final TestHttpClientTransport transport = new TestHttpClientTransport();
+        final TestHttpClientTimer timer = new TestHttpClientTimer();
+        final long[] now = new long[]{1000};
+        final HttpClientRequestGroup group = HttpClientRequestGroup.with(this.client(transport), Optional.of(Duration.ofMillis(500)), timer, () -> now[0]);
+
+        assertEquals(Lists.of(500L), timer.delays, "single timer at deadline");
+
+        final CompletableFuture<HttpResponse<Void>> future1 = group.sendAsync(REQUEST, BodyHandlers.discarding());
+        now[0] = 1200;
+        final CompletableFuture<HttpResponse<Void>> future2 = group.sendAsync(REQUEST, BodyHandlers.discarding());
+        transport.exchange(1).respond(200);
+
+        assertEquals(Lists.of(500L), timer.delays, "sending does not schedule");
+
+        now[0] = 1500;
+        timer.run();
+
+        assertEquals(HttpTimeoutException.class, assertThrows(ExecutionException.class, future1::get).getCause().getClass(), "future1");
+        assertEquals(HttpTimeoutException.class, assertThrows(ExecutionException.class, future2::get).getCause().getClass(), "future2");
+        assertEquals(true, transport.exchange(0).cancelled, "exchange 0 aborted");
+        assertEquals(true, transport.exchange(1).cancelled, "exchange 1 aborted");
+        assertEquals(0, group.outstanding(), "outstanding");
+    }
+
+    @Test
+    public void testDeadlineIgnoresCompleted() {
+        final TestHttpClientTransport transport = new TestHttpClientTransport();
+        final TestHttpClientTimer timer = new TestHttpClientTimer();
+        final HttpClientRequestGroup group = HttpClientRequestGroup.with(this.client(transport), Optional.of(Duration.ofMillis(500)), timer, () -> 1000);
+
+        final CompletableFuture<HttpResponse<Void>> future = group.sendAsync(REQUEST, BodyHandlers.discarding());
+        transport.exchange(0)
+                .respond(200)
+                .complete();
+
+        timer.run();
+
+        assertEquals(false, future.isCompletedExceptionally(), "completedExceptionally");
+        assertEquals(false, transport.exchange(0).cancelled, "exchange aborted");
+    }
+
+    @Test
+    public void testCompletedRemoved() {
+        final TestHttpClientTransport transport = new TestHttpClientTransport();
+        final HttpClientRequestGroup group = this.client(transport).newRequestGroup();
+
+        group.sendAsync(REQUEST, BodyHandlers.discarding());
+        transport.exchange(0)
+                .respond(200)
+                .complete();
+
+        assertEquals(0, group.outstanding(), "outstanding");
+    }
+
+    @Test
+    public void testCloseAbortsOutstanding() {
+        final TestHttpClientTransport transport = new TestHttpClientTransport();
+        final HttpClientRequestGroup group = this.client(transport).newRequestGroup();
+
+        final CompletableFuture<HttpResponse<Void>> future1 = group.sendAsync(REQUEST, BodyHandlers.discarding());
+        final CompletableFuture<HttpResponse<Void>> future2 = group.sendAsync(REQUEST, BodyHandlers.discarding());
+        transport.exchange(1).respond(200);
+
+        group.close();
+
+        assertEquals(true, future1.isCancelled(), "future1 cancelled");
+        assertEquals(true, future2.isCancelled(), "future2 cancelled");
+        assertEquals(true, transport.exchange(0).cancelled, "exchange 0 aborted");
+        assertEquals(true, transport.exchange(1).cancelled, "exchange 1 aborted");
+        assertEquals(0, group.outstanding(), "outstanding");
+    }
+
+    @Test
+    public void testCloseCancelsDeadlineTimer() {
+        final TestHttpClientTimer timer = new TestHttpClientTimer();
+        final HttpClientRequestGroup group = HttpClientRequestGroup.with(this.client(new TestHttpClientTransport()), Optional.of(Duration.ofMillis(500)), timer, () -> 1000);
+
+        group.close();
+
+        assertEquals(Lists.empty(), timer.delays, "deadline timer cancelled");
+    }
+
+    @Test
+    public void testSendAsyncAfterCloseFails() {
+        final HttpClientRequestGroup group = this.client(new TestHttpClientTransport()).newRequestGroup();
+        group.close();
+
+        assertThrows(IllegalStateException.class, () -> group.sendAsync(REQUEST, BodyHandlers.discarding()));
+    }
+
+    private HttpClient client(final HttpClientTransport transport) {
+        return HttpClientAjax.with(null, null, Redirect.NEVER, Version.HTTP_1_1, transport, Optional.empty(), Optional.empty(), Optional.empty(), OptionalLong.empty(), Optional.empty(), Duration.ZERO, Optional.empty(), () -> 0);
+    }
+
+    // ClassTesting2....................................................................................................
+
+    @Override
+    public Class<HttpClientRequestGroup> type() {
+        return HttpClientRequestGroup.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PUBLIC;
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.ToStringTesting;
+import walkingkooka.reflect.ClassTesting2;
+import walkingkooka.reflect.JavaVisibility;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Optional;
+import java.util.OptionalInt;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public final class HttpClientSpanTest implements ClassTesting2<HttpClientSpan>,
+        ToStringTesting<HttpClientSpan> {
+
+    private final static String TRACE_ID = "4bf92f3577b34da6a3ce929d0e0e4736";
+
+    private final static String SPAN_ID = "00f067aa0ba902b7";
+
+    private final static HttpRequest REQUEST = HttpRequest.newBuilder(URI.create("http://example.com/path")).build();
+
+    @Test
+    public void testWith() {
+        final HttpClientSpan span = this.createSpan();
+        assertEquals(TRACE_ID, span.traceId(), "traceId");
+        assertEquals(SPAN_ID, span.spanId(), "spanId");
+        assertEquals(Optional.empty(), span.parentSpanId(), "parentSpanId");
+        assertSame(REQUEST, span.request(), "request");
+        assertEquals(10L, span.start(), "start");
+        assertEquals(25L, span.end(), "end");
+        assertEquals(OptionalInt.of(200), span.statusCode(), "statusCode");
+        assertEquals(Optional.empty(), span.failure(), "failure");
+    }
+
+    @Test
+    public void testEquals() {
+        assertEquals(this.createSpan(), this.createSpan());
+    }
+
+    @Test
+    public void testEqualsDifferentEnd() {
+        assertNotEquals(this.createSpan(), HttpClientSpan.with(TRACE_ID, SPAN_ID, Optional.empty(), REQUEST, 10, 26, OptionalInt.of(200), Optional.empty()));
+    }
+
+    @Test
+    public void testHashCode() {
+        assertEquals(this.createSpan().hashCode(), this.createSpan().hashCode());
+    }
+
+    @Test
+    public void testToString() {
+        this.toStringAndCheck(this.createSpan(), "4bf92f3577b34da6a3ce929d0e0e4736 00f067aa0ba902b7 GET http://example.com/path 200 15ms");
+    }
+
+    @Test
+    public void testToStringParentAndFailure() {
+        this.toStringAndCheck(HttpClientSpan.with(TRACE_ID, SPAN_ID, Optional.of("0000000000000001"), REQUEST, 10, 12, OptionalInt.empty(), Optional.of(new IOException("network"))),
+                "4bf92f3577b34da6a3ce929d0e0e4736 00f067aa0ba902b7 parent 0000000000000001 GET http://example.com/path failed network 2ms");
+    }
+
+    private HttpClientSpan createSpan() {
+        return HttpClientSpan.with(TRACE_ID, SPAN_ID, Optional.empty(), REQUEST, 10, 25, OptionalInt.of(200), Optional.empty());
+    }
+
+    // ClassTesting2....................................................................................................
+
+    @Override
+    public Class<HttpClientSpan> type() {
+        return HttpClientSpan.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PUBLIC;
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.map.Maps;
+import walkingkooka.reflect.ClassTesting2;
+import walkingkooka.reflect.JavaVisibility;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public final class HttpClientTracingSpanTest implements ClassTesting2<HttpClientTracingSpan> {
+
+    private final static HttpRequest REQUEST = HttpRequest.newBuilder(URI.create("http://example.com/path")).build();
+
+    @Test
+    public void testEndResponse() {
+        final List<HttpClientSpan> spans = Lists.array();
+        HttpClientTracingSpan.with("4bf92f3577b34da6a3ce929d0e0e4736", "00f067aa0ba902b7", Optional.empty(), REQUEST, 10, spans::add)
+                .end(Optional.of(TestHttpClientTransport.responseInfo(404, Maps.empty())), Optional.empty(), 20);
+
+        assertEquals(Lists.of(HttpClientSpan.with("4bf92f3577b34da6a3ce929d0e0e4736", "00f067aa0ba902b7", Optional.empty(), REQUEST, 10, 20, OptionalInt.of(404), Optional.empty())),
+                spans);
+    }
+
+    @Test
+    public void testEndFailure() {
+        final List<HttpClientSpan> spans = Lists.array();
+        final IOException cause = new IOException("network");
+        HttpClientTracingSpan.with("4bf92f3577b34da6a3ce929d0e0e4736", "00f067aa0ba902b7", Optional.of("0000000000000001"), REQUEST, 10, spans::add)
+                .end(Optional.empty(), Optional.of(cause), 20);
+
+        assertEquals(Lists.of(HttpClientSpan.with("4bf92f3577b34da6a3ce929d0e0e4736", "00f067aa0ba902b7", Optional.of("0000000000000001"), REQUEST, 10, 20, OptionalInt.empty(), Optional.of(cause))),
+                spans);
+    }
+
+    // ClassTesting2....................................................................................................
+
+    @Override
+    public Class<HttpClientTracingSpan> type() {
+        return HttpClientTracingSpan.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.ToStringTesting;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.reflect.ClassTesting2;
+import walkingkooka.reflect.JavaVisibility;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.LongSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class HttpClientTracingTest implements ClassTesting2<HttpClientTracing>,
+        ToStringTesting<HttpClientTracing> {
+
+    private final static URI URL = URI.create("http://example.com/path");
+
+    private final static HttpRequest REQUEST = HttpRequest.newBuilder(URL)
+            .header("Accept", "text/plain")
+            .build();
+
+    private final static String PARENT = "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01";
+
+    private final static HttpClientSpanExporter EXPORTER = (s) -> {
+        throw new UnsupportedOperationException();
+    };
+
+    @Test
+    public void testWithNegativeSampleRatioFails() {
+        assertThrows(IllegalArgumentException.class, () -> HttpClientTracing.with(-0.1, EXPORTER));
+    }
+
+    @Test
+    public void testWithSampleRatioGreaterThanOneFails() {
+        assertThrows(IllegalArgumentException.class, () -> HttpClientTracing.with(1.1, EXPORTER));
+    }
+
+    @Test
+    public void testWithNaNSampleRatioFails() {
+        assertThrows(IllegalArgumentException.class, () -> HttpClientTracing.with(Double.NaN, EXPORTER));
+    }
+
+    @Test
+    public void testWithNullExporterFails() {
+        assertThrows(NullPointerException.class, () -> HttpClientTracing.with(1, null));
+    }
+
+    @Test
+    public void testWith() {
+        final HttpClientTracing tracing = HttpClientTracing.with(0.25, EXPORTER);
+        assertEquals(0.25, tracing.sampleRatio(), "sampleRatio");
+        assertSame(EXPORTER, tracing.exporter(), "exporter");
+    }
+
+    @Test
+    public void testStartNotSampled() {
+        assertEquals(Optional.empty(), this.start(0, REQUEST, () -> {
+            throw new UnsupportedOperationException();
+        }));
+    }
+
+    @Test
+    public void testStartSampleRatio() {
+        final LongSupplier random = () -> 0x4000000000000000L; // 0.25
+        assertEquals(false, HttpClientTracing.with(0.25, EXPORTER, random).start(REQUEST, () -> 0).isPresent(), "0.25");
+        assertEquals(true, HttpClientTracing.with(0.26, EXPORTER, this.ids(0x4000000000000000L, 1, 2, 3)).start(REQUEST, () -> 0).isPresent(), "0.26");
+    }
+
+    @Test
+    public void testStartSampledAddsTraceparent() {
+        final HttpClientTracingSpan span = this.start(1, REQUEST, this.ids(0x123, 0x456, 0xabc)).get();
+        final HttpRequest request = span.request;
+
+        assertEquals(Optional.of("00-00000000000001230000000000000456-0000000000000abc-01"), request.headers().firstValue("traceparent"), "traceparent");
+        assertEquals(Optional.of("text/plain"), request.headers().firstValue("Accept"), "Accept");
+        assertEquals(REQUEST.uri(), request.uri(), "uri");
+        assertEquals(REQUEST.method(), request.method(), "method");
+        assertEquals(Optional.of("text/plain"), REQUEST.headers().firstValue("Accept"), "original unchanged");
+        assertEquals(Optional.empty(), REQUEST.headers().firstValue("traceparent"), "original unchanged");
+    }
+
+    @Test
+    public void testStartSkipsZeroIds() {
+        final HttpClientTracingSpan span = this.start(1, REQUEST, this.ids(0, 1, 2, 0, 3)).get();
+
+        assertEquals(Optional.of("00-00000000000000010000000000000002-0000000000000003-01"), span.request.headers().firstValue("traceparent"));
+    }
+
+    @Test
+    public void testStartSampledParentContinuesTrace() {
+        final List<HttpClientSpan> spans = Lists.array();
+        final HttpRequest request = HttpRequest.newBuilder(URL)
+                .header("traceparent", PARENT)
+                .header("tracestate", "vendor=value")
+                .build();
+        final HttpClientTracingSpan span = HttpClientTracing.with(0, spans::add, this.ids(0x999)).start(request, () -> 5).get();
+
+        assertEquals(Optional.of("00-4bf92f3577b34da6a3ce929d0e0e4736-0000000000000999-01"), span.request.headers().firstValue("traceparent"), "traceparent");
+        assertEquals(Optional.of("vendor=value"), span.request.headers().firstValue("tracestate"), "tracestate");
+
+        span.end(Optional.empty(), Optional.empty(), 7);
+        assertEquals(Optional.of("00f067aa0ba902b7"), spans.get(0).parentSpanId(), "parentSpanId");
+    }
+
+    @Test
+    public void testStartUnsampledParent() {
+        final HttpRequest request = HttpRequest.newBuilder(URL)
+                .header("traceparent", "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-00")
+                .build();
+
+        assertEquals(Optional.empty(), this.start(1, request, () -> {
+            throw new UnsupportedOperationException();
+        }));
+    }
+
+    @Test
+    public void testStartInvalidParentReplaced() {
+        final HttpRequest request = HttpRequest.newBuilder(URL)
+                .header("traceparent", "invalid")
+                .build();
+        final HttpClientTracingSpan span = this.start(1, request, this.ids(1, 2, 3)).get();
+
+        assertEquals(Optional.of("00-00000000000000010000000000000002-0000000000000003-01"), span.request.headers().firstValue("traceparent"));
+    }
+
+    @Test
+    public void testIsTraceparent() {
+        assertEquals(true, HttpClientTracing.isTraceparent(PARENT), PARENT);
+        assertEquals(true, HttpClientTracing.isTraceparent("00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-00"), "unsampled");
+    }
+
+    @Test
+    public void testIsTraceparentInvalid() {
+        for (final String header : Lists.of("",
+                "01-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01",
+                "00-4BF92F3577B34DA6A3CE929D0E0E4736-00f067aa0ba902b7-01",
+                "00-00000000000000000000000000000000-00f067aa0ba902b7-01",
+                "00-4bf92f3577b34da6a3ce929d0e0e4736-0000000000000000-01",
+                "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-0g",
+                "00-4bf92f3577b34da6a3ce929d0e0e4736_00f067aa0ba902b7-01",
+                PARENT + "-extra")) {
+            assertEquals(false, HttpClientTracing.isTraceparent(header), header);
+        }
+    }
+
+    @Test
+    public void testToString() {
+        this.toStringAndCheck(HttpClientTracing.with(0.5, EXPORTER), "sampleRatio: 0.5 exporter: " + EXPORTER);
+    }
+
+    private Optional<HttpClientTracingSpan> start(final double sampleRatio,
+                                                  final HttpRequest request,
+                                                  final LongSupplier random) {
+        return HttpClientTracing.with(sampleRatio, EXPORTER, random).start(request, () -> 0);
+    }
+
+    /**
+     * Returns a {@link LongSupplier} that returns each of the given values in turn.
+     */
+    private LongSupplier ids(final long... ids) {
+        final int[] next = new int[1];
+        return () -> ids[next[0]++];
+    }
+
+    // ClassTesting2....................................................................................................
+
+    @Override
+    public Class<HttpClientTracing> type() {
+        return HttpClientTracing.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PUBLIC;
+    }
+}
@@ -0,0 +1,351 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.reflect.ClassTesting2;
+import walkingkooka.reflect.JavaVisibility;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public final class HttpClientTransportAdaptiveConcurrencyOriginTest implements ClassTesting2<HttpClientTransportAdaptiveConcurrencyOrigin> {
+
+    private final static long LATENCY = 500;
+
+    @Test
+    public void testSendWithinLimit() {
+        final HttpClientTransportAdaptiveConcurrencyOrigin origin = this.createOrigin(2);
+        this.send(origin);
+        this.send(origin);
+
+        assertEquals(2, this.transport.exchanges.size(), "exchanges");
+        assertEquals(2, origin.inFlight, "inFlight");
+        assertEquals(0, origin.queue.size(), "queue");
+    }
+
+    @Test
+    public void testSendOverLimitQueued() {
+        final HttpClientTransportAdaptiveConcurrencyOrigin origin = this.createOrigin(1);
+        this.send(origin);
+        final TestHttpClientTransportListener listener = this.send(origin);
+
+        assertEquals(1, this.transport.exchanges.size(), "exchanges");
+        assertEquals(1, origin.queue.size(), "queue");
+        assertEquals(Lists.of("onQueued", "onSubscribe"), listener.events, "queued listener");
+    }
+
+    @Test
+    public void testCompleteSendsQueued() {
+        final HttpClientTransportAdaptiveConcurrencyOrigin origin = this.createOrigin(1);
+        this.send(origin);
+        this.send(origin);
+
+        this.transport.exchange(0).respond(200).complete();
+
+        assertEquals(2, this.transport.exchanges.size(), "exchanges");
+        assertEquals(1, origin.inFlight, "inFlight");
+        assertEquals(0, origin.queue.size(), "queue");
+    }
+
+    @Test
+    public void testErrorSendsQueued() {
+        final HttpClientTransportAdaptiveConcurrencyOrigin origin = this.createOrigin(1);
+        this.send(origin);
+        this.send(origin);
+
+        this.transport.exchange(0).fail(new IOException("fail"));
+
+        assertEquals(2, this.transport.exchanges.size(), "exchanges");
+        assertEquals(1, origin.inFlight, "inFlight");
+    }
+
+    @Test
+    public void testCancelSendsQueued() {
+        final HttpClientTransportAdaptiveConcurrencyOrigin origin = this.createOrigin(1);
+        final TestHttpClientTransportListener listener = this.send(origin);
+        this.send(origin);
+
+        listener.subscription.cancel();
+
+        assertEquals(true, this.transport.exchange(0).cancelled, "cancelled");
+        assertEquals(2, this.transport.exchanges.size(), "exchanges");
+        assertEquals(1, origin.inFlight, "inFlight");
+    }
+
+    @Test
+    public void testCancelAbortsBeforeSendingQueued() {
+        final boolean[] abortedBeforeSend = new boolean[1];
+        final HttpClientTransportAdaptiveConcurrencyOrigin origin = this.createOrigin(1, new HttpClientTransport() {
+            @Override
+            void send(final HttpRequest request,
+                      final HttpClientTransportListener listener) {
+                final TestHttpClientTransport transport = HttpClientTransportAdaptiveConcurrencyOriginTest.this.transport;
+                if (false == transport.exchanges.isEmpty()) {
+                    abortedBeforeSend[0] = transport.exchange(0).cancelled;
+                }
+                transport.send(request, listener);
+            }
+        });
+        final TestHttpClientTransportListener listener = this.send(origin);
+        this.send(origin);
+
+        listener.subscription.cancel();
+
+        assertEquals(2, this.transport.exchanges.size(), "exchanges");
+        assertEquals(true, abortedBeforeSend[0], "aborted before queued request sent");
+    }
+
+    @Test
+    public void testCancelTwiceReleasesOnce() {
+        final HttpClientTransportAdaptiveConcurrencyOrigin origin = this.createOrigin(2);
+        final TestHttpClientTransportListener listener = this.send(origin);
+        this.send(origin);
+
+        listener.subscription.cancel();
+        listener.subscription.cancel();
+
+        assertEquals(1, origin.inFlight, "inFlight");
+    }
+
+    @Test
+    public void testCancelWhileQueued() {
+        final HttpClientTransportAdaptiveConcurrencyOrigin origin = this.createOrigin(1);
+        this.send(origin);
+        final TestHttpClientTransportListener listener = this.send(origin);
+
+        listener.subscription.cancel();
+
+        assertEquals(0, origin.queue.size(), "queue");
+        assertEquals(1, origin.inFlight, "inFlight");
+
+        this.transport.exchange(0).respond(200).complete();
+        assertEquals(1, this.transport.exchanges.size(), "exchanges");
+        assertEquals(0, origin.inFlight, "inFlight");
+    }
+
+    @Test
+    public void testTransportThrowsReleasesSlot() {
+        final HttpClientTransportAdaptiveConcurrencyOrigin origin = this.createOrigin(1, new HttpClientTransport() {
+            @Override
+            void send(final HttpRequest request,
+                      final HttpClientTransportListener listener) {
+                throw new IllegalStateException("Transport failed");
+            }
+        });
+        final TestHttpClientTransportListener listener = this.send(origin);
+
+        assertEquals(Lists.of("onQueued", "onSubscribe", "onError Transport failed"), listener.events, "events");
+        assertEquals(0, origin.inFlight, "inFlight");
+    }
+
+    @Test
+    public void testTransportThrowsWhileDrainingSendsNext() {
+        final URI fail = URI.create("http://example.com/fail");
+        final HttpClientTransportAdaptiveConcurrencyOrigin origin = this.createOrigin(1, new HttpClientTransport() {
+            @Override
+            void send(final HttpRequest request,
+                      final HttpClientTransportListener listener) {
+                if (fail.equals(request.uri())) {
+                    throw new IllegalStateException("Transport failed");
+                }
+                HttpClientTransportAdaptiveConcurrencyOriginTest.this.transport.send(request, listener);
+            }
+        });
+        this.send(origin);
+
+        final TestHttpClientTransportListener failed = new TestHttpClientTransportListener();
+        origin.send(HttpRequest.newBuilder(fail).build(), failed);
+        final TestHttpClientTransportListener next = this.send(origin);
+
+        this.transport.exchange(0).respond(200).complete();
+
+        assertEquals(Lists.of("onQueued", "onSubscribe", "onError Transport failed"), failed.events, "failed events");
+        assertEquals(Lists.of("onQueued", "onSubscribe", "onDispatched"), next.events, "next events");
+        assertEquals(2, this.transport.exchanges.size(), "exchanges");
+        assertEquals(1, origin.inFlight, "inFlight");
+        assertEquals(0, origin.queue.size(), "queue");
+    }
+
+    @Test
+    public void testFastResponsesGrowLimit() {
+        final HttpClientTransportAdaptiveConcurrencyOrigin origin = this.createOrigin(2);
+
+        // each fast response while using the limit adds 1/limit
+        this.send(origin);
+        this.send(origin);
+        this.transport.exchange(0).respond(200);
+        this.transport.exchange(1).respond(200);
+
+        assertEquals(2, origin.limit(), "limit");
+
+        origin.sample(1);
+        assertEquals(3, origin.limit(), "limit");
+    }
+
+    @Test
+    public void testFastResponsesWhileIdleKeepLimit() {
+        final HttpClientTransportAdaptiveConcurrencyOrigin origin = this.createOrigin(4);
+
+        for (int i = 0; i < 10; i++) {
+            this.send(origin);
+            this.transport.exchange(i).respond(200).complete();
+        }
+
+        assertEquals(4, origin.limit(), "limit");
+    }
+
+    @Test
+    public void testGrowLimitStopsAtMax() {
+        final HttpClientTransportAdaptiveConcurrencyOrigin origin = this.createOrigin(9);
+
+        for (int i = 0; i < 100; i++) {
+            origin.inFlight = origin.limit();
+            origin.sample(1);
+        }
+
+        assertEquals(10, origin.limit(), "limit");
+    }
+
+    @Test
+    public void testSlowResponseShrinksLimit() {
+        final HttpClientTransportAdaptiveConcurrencyOrigin origin = this.createOrigin(8);
+        this.send(origin);
+
+        this.now = LATENCY + 1;
+        this.transport.exchange(0).respond(200);
+
+        assertEquals(4, origin.limit(), "limit");
+    }
+
+    @Test
+    public void testErrorShrinksLimit() {
+        final HttpClientTransportAdaptiveConcurrencyOrigin origin = this.createOrigin(8);
+        this.send(origin);
+
+        this.transport.exchange(0).fail(new IOException("fail"));
+
+        assertEquals(4, origin.limit(), "limit");
+    }
+
+    @Test
+    public void testErrorAfterResponseKeepsLimit() {
+        final HttpClientTransportAdaptiveConcurrencyOrigin origin = this.createOrigin(8);
+        this.send(origin);
+
+        this.transport.exchange(0)
+                .respond(200)
+                .fail(new IOException("fail"));
+
+        assertEquals(8, origin.limit(), "limit");
+    }
+
+    @Test
+    public void testErrorsShrinkOncePerLatencyWindow() {
+        final HttpClientTransportAdaptiveConcurrencyOrigin origin = this.createOrigin(8);
+        this.send(origin);
+        this.send(origin);
+        this.send(origin);
+
+        this.transport.exchange(0).fail(new IOException("fail"));
+        this.now = LATENCY - 1;
+        this.transport.exchange(1).fail(new IOException("fail"));
+        assertEquals(4, origin.limit(), "limit after errors within window");
+
+        this.now = LATENCY;
+        this.transport.exchange(2).fail(new IOException("fail"));
+        assertEquals(2, origin.limit(), "limit after next window");
+    }
+
+    @Test
+    public void testFailedWithoutDispatchKeepsLimit() {
+        final HttpClientTransportAdaptiveConcurrencyOrigin origin = HttpClientTransportAdaptiveConcurrencyOrigin.with(HttpClientAdaptiveConcurrency.with(8, 1, 10, Duration.ofMillis(LATENCY), 0.5),
+                new HttpClientTransport() {
+                    @Override
+                    void send(final HttpRequest request,
+                              final HttpClientTransportListener listener) {
+                        fail(listener, new IOException("Circuit breaker open"));
+                    }
+                },
+                () -> this.now);
+
+        final TestHttpClientTransportListener listener = this.send(origin);
+
+        assertEquals(Lists.of("onQueued", "onSubscribe", "onError Circuit breaker open"), listener.events, "events");
+        assertEquals(8, origin.limit(), "limit");
+        assertEquals(0, origin.inFlight, "inFlight");
+    }
+
+    @Test
+    public void testShrinkLimitStopsAtMin() {
+        final HttpClientTransportAdaptiveConcurrencyOrigin origin = this.createOrigin(8);
+
+        for (int i = 0; i < 10; i++) {
+            origin.failed();
+            this.now += LATENCY;
+        }
+
+        assertEquals(1, origin.limit(), "limit");
+    }
+
+    @Test
+    public void testToString() {
+        final HttpClientTransportAdaptiveConcurrencyOrigin origin = this.createOrigin(1);
+        this.send(origin);
+        this.send(origin);
+
+        assertEquals("limit: 1 inFlight: 1 queued: 1", origin.toString());
+    }
+
+    private HttpClientTransportAdaptiveConcurrencyOrigin createOrigin(final int initialLimit) {
+        return this.createOrigin(initialLimit, this.transport);
+    }
+
+    private HttpClientTransportAdaptiveConcurrencyOrigin createOrigin(final int initialLimit,
+                                                                      final HttpClientTransport transport) {
+        return HttpClientTransportAdaptiveConcurrencyOrigin.with(HttpClientAdaptiveConcurrency.with(initialLimit, 1, 10, Duration.ofMillis(LATENCY), 0.5),
+                transport,
+                () -> this.now);
+    }
+
+    private TestHttpClientTransportListener send(final HttpClientTransportAdaptiveConcurrencyOrigin origin) {
+        final TestHttpClientTransportListener listener = new TestHttpClientTransportListener();
+        origin.send(HttpRequest.newBuilder(URI.create("http://example.com")).build(), listener);
+        return listener;
+    }
+
+    private final TestHttpClientTransport transport = new TestHttpClientTransport();
+
+    private long now;
+
+    // ClassTesting2....................................................................................................
+
+    @Override
+    public Class<HttpClientTransportAdaptiveConcurrencyOrigin> type() {
+        return HttpClientTransportAdaptiveConcurrencyOrigin.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.collect.map.Maps;
+import walkingkooka.reflect.ClassTesting2;
+import walkingkooka.reflect.JavaVisibility;
+
+import java.net.URI;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class HttpClientTransportAdaptiveConcurrencyTest implements ClassTesting2<HttpClientTransportAdaptiveConcurrency> {
+
+    private final static HttpClientAdaptiveConcurrency CONCURRENCY = HttpClientAdaptiveConcurrency.with(1, 1, 10, Duration.ofMillis(500), 0.5);
+
+    @Test
+    public void testWithNullTransportFails() {
+        assertThrows(NullPointerException.class, () -> HttpClientTransportAdaptiveConcurrency.with(null, CONCURRENCY, () -> 0));
+    }
+
+    @Test
+    public void testWithNullConcurrencyFails() {
+        assertThrows(NullPointerException.class, () -> HttpClientTransportAdaptiveConcurrency.with(new TestHttpClientTransport(), null, () -> 0));
+    }
+
+    @Test
+    public void testWithNullNowFails() {
+        assertThrows(NullPointerException.class, () -> HttpClientTransportAdaptiveConcurrency.with(new TestHttpClientTransport(), CONCURRENCY, null));
+    }
+
+    @Test
+    public void testOriginSame() {
+        final HttpClientTransportAdaptiveConcurrency transport = this.createTransport(new TestHttpClientTransport());
+        assertSame(transport.origin("http://example.com"), transport.origin("http://example.com"));
+    }
+
+    @Test
+    public void testOriginDifferent() {
+        final HttpClientTransportAdaptiveConcurrency transport = this.createTransport(new TestHttpClientTransport());
+        assertNotSame(transport.origin("http://example.com"), transport.origin("http://example2.com"));
+    }
+
+    @Test
+    public void testSendLimitsEachOrigin() {
+        final TestHttpClientTransport wrapped = new TestHttpClientTransport();
+        final HttpClientTransportAdaptiveConcurrency transport = this.createTransport(wrapped);
+
+        this.send(transport, "http://example.com/1");
+        this.send(transport, "http://example.com/2");
+        this.send(transport, "http://example2.com/3");
+
+        assertEquals(2, wrapped.exchanges.size(), "exchanges");
+        assertEquals("http://example2.com/3", wrapped.exchange(1).request.uri().toString());
+
+        wrapped.exchange(0).respond(200).complete();
+        assertEquals("http://example.com/2", wrapped.exchange(2).request.uri().toString());
+    }
+
+    @Test
+    public void testLimits() {
+        final HttpClientTransportAdaptiveConcurrency transport = this.createTransport(new TestHttpClientTransport());
+        this.send(transport, "http://example.com/1");
+        this.send(transport, "https://example2.com/2");
+
+        assertEquals(Maps.of("http://example.com", 1, "https://example2.com", 1), transport.limits());
+    }
+
+    @Test
+    public void testLimitsEmpty() {
+        assertEquals(Maps.empty(), this.createTransport(new TestHttpClientTransport()).limits());
+    }
+
+    private HttpClientTransportAdaptiveConcurrency createTransport(final HttpClientTransport transport) {
+        return HttpClientTransportAdaptiveConcurrency.with(transport, CONCURRENCY, () -> 0);
+    }
+
+    private void send(final HttpClientTransportAdaptiveConcurrency transport,
+                      final String uri) {
+        transport.send(HttpRequest.newBuilder(URI.create(uri)).build(), new TestHttpClientTransportListener());
+    }
+
+    // ClassTesting2....................................................................................................
+
+    @Override
+    public Class<HttpClientTransportAdaptiveConcurrency> type() {
+        return HttpClientTransportAdaptiveConcurrency.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.reflect.ClassTesting2;
+import walkingkooka.reflect.JavaVisibility;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public final class HttpClientTransportCircuitBreakerOriginTest implements ClassTesting2<HttpClientTransportCircuitBreakerOrigin> {
+
+    private final static HttpClientCircuitBreaker CIRCUIT_BREAKER = HttpClientCircuitBreaker.with(0.5f,
+            0.5f,
+            Duration.ofMillis(100),
+            4,
+            Duration.ofMillis(1000),
+            2);
+
+    @Test
+    public void testClosedBelowThreshold() {
+        final HttpClientTransportCircuitBreakerOrigin origin = HttpClientTransportCircuitBreakerOrigin.with(CIRCUIT_BREAKER, () -> 0);
+
+        this.record(origin, true);
+        this.record(origin, false);
+        this.record(origin, false);
+        this.record(origin, false);
+
+        assertEquals(HttpClientTransportCircuitBreakerOrigin.State.CLOSED, origin.state);
+    }
+
+    @Test
+    public void testWindowNotFull() {
+        final HttpClientTransportCircuitBreakerOrigin origin = HttpClientTransportCircuitBreakerOrigin.with(CIRCUIT_BREAKER, () -> 0);
+
+        this.record(origin, true);
+        this.record(origin, true);
+        this.record(origin, true);
+
+        assertEquals(HttpClientTransportCircuitBreakerOrigin.State.CLOSED, origin.state);
+    }
+
+    @Test
+    public void testFailureRateOpens() {
+        final HttpClientTransportCircuitBreakerOrigin origin = HttpClientTransportCircuitBreakerOrigin.with(CIRCUIT_BREAKER, () -> 0);
+
+        this.record(origin, false);
+        this.record(origin, true);
+        this.record(origin, false);
+        this.record(origin, true);
+
+        assertEquals(HttpClientTransportCircuitBreakerOrigin.State.OPEN, origin.state);
+        assertEquals(false, origin.tryAcquire(), "tryAcquire");
+    }
+
+    @Test
+    public void testOldOutcomesSlideOutOfWindow() {
+        final HttpClientTransportCircuitBreakerOrigin origin = HttpClientTransportCircuitBreakerOrigin.with(CIRCUIT_BREAKER, () -> 0);
+
+        this.record(origin, true);
+        this.record(origin, false);
+        this.record(origin, false);
+        this.record(origin, false);
+
+        // first failure slides out
+        this.record(origin, false);
+        this.record(origin, true);
+
+        assertEquals(HttpClientTransportCircuitBreakerOrigin.State.CLOSED, origin.state);
+    }
+
+    @Test
+    public void testSlowRateOpens() {
+        final HttpClientTransportCircuitBreakerOrigin origin = HttpClientTransportCircuitBreakerOrigin.with(CIRCUIT_BREAKER, () -> 0);
+
+        origin.record(false, 101);
+        origin.record(false, 0);
+        origin.record(false, 101);
+        origin.record(false, 0);
+
+        assertEquals(HttpClientTransportCircuitBreakerOrigin.State.OPEN, origin.state);
+    }
+
+    @Test
+    public void testHalfOpenAfterOpenDuration() {
+        final long[] now = new long[1];
+        final HttpClientTransportCircuitBreakerOrigin origin = this.open(now);
+
+        now[0] = 999;
+        assertEquals(false, origin.tryAcquire(), "tryAcquire still open");
+
+        now[0] = 1000;
+        assertEquals(true, origin.tryAcquire(), "tryAcquire probe 1");
+        assertEquals(HttpClientTransportCircuitBreakerOrigin.State.HALF_OPEN, origin.state);
+        assertEquals(true, origin.tryAcquire(), "tryAcquire probe 2");
+        assertEquals(false, origin.tryAcquire(), "tryAcquire probe 3");
+    }
+
+    @Test
+    public void testHalfOpenAllProbesSucceedCloses() {
+        final long[] now = new long[1];
+        final HttpClientTransportCircuitBreakerOrigin origin = this.open(now);
+
+        now[0] = 1000;
+        origin.tryAcquire();
+        origin.tryAcquire();
+
+        this.record(origin, false);
+        assertEquals(HttpClientTransportCircuitBreakerOrigin.State.HALF_OPEN, origin.state);
+
+        this.record(origin, false);
+        assertEquals(HttpClientTransportCircuitBreakerOrigin.State.CLOSED, origin.state);
+    }
+
+    @Test
+    public void testHalfOpenSlowProbeReopens() {
+        final long[] now = new long[1];
+        final HttpClientTransportCircuitBreakerOrigin origin = this.open(now);
+
+        now[0] = 1000;
+        origin.tryAcquire();
+        origin.record(false, 500);
+
+        assertEquals(HttpClientTransportCircuitBreakerOrigin.State.OPEN, origin.state);
+    }
+
+    @Test
+    public void testHalfOpenCancelledReleasesProbe() {
+        final long[] now = new long[1];
+        final HttpClientTransportCircuitBreakerOrigin origin = this.open(now);
+
+        now[0] = 1000;
+        origin.tryAcquire();
+        origin.tryAcquire();
+        origin.cancelled();
+
+        assertEquals(true, origin.tryAcquire(), "tryAcquire after cancel");
+    }
+
+    private HttpClientTransportCircuitBreakerOrigin open(final long[] now) {
+        final HttpClientTransportCircuitBreakerOrigin origin = HttpClientTransportCircuitBreakerOrigin.with(CIRCUIT_BREAKER, () -> now[0]);
+
+        for (int i = 0; i < 4; i++) {
+            this.record(origin, true);
+        }
+        assertEquals(HttpClientTransportCircuitBreakerOrigin.State.OPEN, origin.state);
+        return origin;
+    }
+
+    private void record(final HttpClientTransportCircuitBreakerOrigin origin,
+                        final boolean failed) {
+        origin.record(failed, 0);
+    }
+
+    // ClassTesting2....................................................................................................
+
+    @Override
+    public Class<HttpClientTransportCircuitBreakerOrigin> type() {
+        return HttpClientTransportCircuitBreakerOrigin.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
@@ -0,0 +1,276 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.reflect.ClassTesting2;
+import walkingkooka.reflect.JavaVisibility;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class HttpClientTransportCircuitBreakerTest implements ClassTesting2<HttpClientTransportCircuitBreaker> {
+
+    private final static HttpRequest REQUEST = HttpRequest.newBuilder(URI.create("http://example.com/path")).build();
+    private final static HttpRequest REQUEST2 = HttpRequest.newBuilder(URI.create("http://other.example.com/path")).build();
+
+    private final static HttpClientCircuitBreaker CIRCUIT_BREAKER = HttpClientCircuitBreaker.with(0.5f,
+            1f,
+            Duration.ofMillis(100),
+            2,
+            Duration.ofMillis(1000),
+            1);
+
+    @Test
+    public void testWithNullTransportFails() {
+        assertThrows(NullPointerException.class, () -> HttpClientTransportCircuitBreaker.with(null, CIRCUIT_BREAKER, () -> 0));
+    }
+
+    @Test
+    public void testWithNullCircuitBreakerFails() {
+        assertThrows(NullPointerException.class, () -> HttpClientTransportCircuitBreaker.with(new TestHttpClientTransport(), null, () -> 0));
+    }
+
+    @Test
+    public void testWithNullNowFails() {
+        assertThrows(NullPointerException.class, () -> HttpClientTransportCircuitBreaker.with(new TestHttpClientTransport(), CIRCUIT_BREAKER, null));
+    }
+
+    @Test
+    public void testClosedForwards() {
+        final TestHttpClientTransport transport = new TestHttpClientTransport();
+        final HttpClientTransportCircuitBreaker circuitBreaker = HttpClientTransportCircuitBreaker.with(transport, CIRCUIT_BREAKER, () -> 0);
+
+        final TestHttpClientTransportListener listener = new TestHttpClientTransportListener();
+        circuitBreaker.send(REQUEST, listener);
+
+        transport.exchange(0)
+                .respond(200)
+                .body("abc")
+                .complete();
+
+        assertEquals(Lists.of("onSubscribe", "onResponse 200", "onNext", "onComplete"), listener.events);
+    }
+
+    @Test
+    public void testFailuresOpenFailsFast() {
+        final TestHttpClientTransport transport = new TestHttpClientTransport();
+        final HttpClientTransportCircuitBreaker circuitBreaker = HttpClientTransportCircuitBreaker.with(transport, CIRCUIT_BREAKER, () -> 0);
+
+        this.sendAndFail(circuitBreaker, transport, REQUEST, 0);
+        this.sendAndFail(circuitBreaker, transport, REQUEST, 1);
+
+        final TestHttpClientTransportListener listener = new TestHttpClientTransportListener();
+        circuitBreaker.send(REQUEST, listener);
+
+        assertEquals(2, transport.exchanges.size(), "request should not have been sent");
+        assertEquals(IOException.class, listener.cause.getClass(), () -> "" + listener.cause);
+    }
+
+    @Test
+    public void testServerErrorsOpen() {
+        final TestHttpClientTransport transport = new TestHttpClientTransport();
+        final HttpClientTransportCircuitBreaker circuitBreaker = HttpClientTransportCircuitBreaker.with(transport, CIRCUIT_BREAKER, () -> 0);
+
+        circuitBreaker.send(REQUEST, new TestHttpClientTransportListener());
+        transport.exchange(0).respond(503).complete();
+
+        circuitBreaker.send(REQUEST, new TestHttpClientTransportListener());
+        transport.exchange(1).respond(500).complete();
+
+        assertEquals(HttpClientTransportCircuitBreakerOrigin.State.OPEN, circuitBreaker.origin("http://example.com").state);
+    }
+
+    @Test
+    public void testOtherOriginUnaffected() {
+        final TestHttpClientTransport transport = new TestHttpClientTransport();
+        final HttpClientTransportCircuitBreaker circuitBreaker = HttpClientTransportCircuitBreaker.with(transport, CIRCUIT_BREAKER, () -> 0);
+
+        this.sendAndFail(circuitBreaker, transport, REQUEST, 0);
+        this.sendAndFail(circuitBreaker, transport, REQUEST, 1);
+
+        circuitBreaker.send(REQUEST2, new TestHttpClientTransportListener());
+        assertEquals(3, transport.exchanges.size(), "other origin should have been sent");
+    }
+
+    @Test
+    public void testSlowCallsOpen() {
+        final TestHttpClientTransport transport = new TestHttpClientTransport();
+        final long[] now = new long[1];
+        final HttpClientTransportCircuitBreaker circuitBreaker = HttpClientTransportCircuitBreaker.with(transport, CIRCUIT_BREAKER, () -> now[0]);
+
+        for (int i = 0; i < 2; i++) {
+            circuitBreaker.send(REQUEST, new TestHttpClientTransportListener());
+            now[0] += 500;
+            transport.exchange(i).respond(200).complete();
+        }
+
+        assertEquals(HttpClientTransportCircuitBreakerOrigin.State.OPEN, circuitBreaker.origin("http://example.com").state);
+    }
+
+    @Test
+    public void testSlowBodyIsNotSlowCall() {
+        final TestHttpClientTransport transport = new TestHttpClientTransport();
+        final long[] now = new long[1];
+        final HttpClientTransportCircuitBreaker circuitBreaker = HttpClientTransportCircuitBreaker.with(transport, CIRCUIT_BREAKER, () -> now[0]);
+
+        for (int i = 0; i < 2; i++) {
+            circuitBreaker.send(REQUEST, new TestHttpClientTransportListener());
+            transport.exchange(i).respond(200);
+            now[0] += 500;
+            transport.exchange(i).complete();
+        }
+
+        assertEquals(HttpClientTransportCircuitBreakerOrigin.State.CLOSED, circuitBreaker.origin("http://example.com").state);
+    }
+
+    @Test
+    public void testHalfOpenProbeSuccessCloses() {
+        final TestHttpClientTransport transport = new TestHttpClientTransport();
+        final long[] now = new long[1];
+        final HttpClientTransportCircuitBreaker circuitBreaker = HttpClientTransportCircuitBreaker.with(transport, CIRCUIT_BREAKER, () -> now[0]);
+
+        this.sendAndFail(circuitBreaker, transport, REQUEST, 0);
+        this.sendAndFail(circuitBreaker, transport, REQUEST, 1);
+
+        now[0] = 1000;
+        circuitBreaker.send(REQUEST, new TestHttpClientTransportListener());
+        assertEquals(3, transport.exchanges.size(), "probe should have been sent");
+
+        final TestHttpClientTransportListener blocked = new TestHttpClientTransportListener();
+        circuitBreaker.send(REQUEST, blocked);
+        assertEquals(3, transport.exchanges.size(), "only one probe should have been sent");
+        assertEquals(IOException.class, blocked.cause.getClass());
+
+        transport.exchange(2).respond(200).complete();
+        assertEquals(HttpClientTransportCircuitBreakerOrigin.State.CLOSED, circuitBreaker.origin("http://example.com").state);
+    }
+
+    @Test
+    public void testHalfOpenProbeFailureReopens() {
+        final TestHttpClientTransport transport = new TestHttpClientTransport();
+        final long[] now = new long[1];
+        final HttpClientTransportCircuitBreaker circuitBreaker = HttpClientTransportCircuitBreaker.with(transport, CIRCUIT_BREAKER, () -> now[0]);
+
+        this.sendAndFail(circuitBreaker, transport, REQUEST, 0);
+        this.sendAndFail(circuitBreaker, transport, REQUEST, 1);
+
+        now[0] = 1000;
+        this.sendAndFail(circuitBreaker, transport, REQUEST, 2);
+
+        assertEquals(HttpClientTransportCircuitBreakerOrigin.State.OPEN, circuitBreaker.origin("http://example.com").state);
+    }
+
+    @Test
+    public void testHalfOpenProbeAbortReleasesProbe() {
+        final TestHttpClientTransport transport = new TestHttpClientTransport();
+        final long[] now = new long[1];
+        final HttpClientTransportCircuitBreaker circuitBreaker = HttpClientTransportCircuitBreaker.with(transport, CIRCUIT_BREAKER, () -> now[0]);
+
+        this.sendAndFail(circuitBreaker, transport, REQUEST, 0);
+        this.sendAndFail(circuitBreaker, transport, REQUEST, 1);
+
+        now[0] = 1000;
+        final TestHttpClientTransportListener probe = new TestHttpClientTransportListener();
+        circuitBreaker.send(REQUEST, probe);
+        probe.subscription.cancel();
+
+        assertEquals(true, transport.exchange(2).cancelled, "probe aborted");
+
+        circuitBreaker.send(REQUEST, new TestHttpClientTransportListener());
+        assertEquals(4, transport.exchanges.size(), "another probe should have been sent");
+    }
+
+    @Test
+    public void testTransportThrowsReportedAndRecorded() {
+        final HttpClientTransportCircuitBreaker circuitBreaker = HttpClientTransportCircuitBreaker.with(this.throwing(new boolean[]{true}, new TestHttpClientTransport()), CIRCUIT_BREAKER, () -> 0);
+
+        for (int i = 0; i < 2; i++) {
+            final TestHttpClientTransportListener listener = new TestHttpClientTransportListener();
+            circuitBreaker.send(REQUEST, listener);
+            assertEquals(Lists.of("onSubscribe", "onError Transport failed"), listener.events, "events");
+        }
+
+        assertEquals(HttpClientTransportCircuitBreakerOrigin.State.OPEN, circuitBreaker.origin("http://example.com").state);
+    }
+
+    @Test
+    public void testHalfOpenProbeTransportThrowsReleasesProbe() {
+        final TestHttpClientTransport transport = new TestHttpClientTransport();
+        final boolean[] throwing = new boolean[1];
+        final long[] now = new long[1];
+        final HttpClientTransportCircuitBreaker circuitBreaker = HttpClientTransportCircuitBreaker.with(this.throwing(throwing, transport), CIRCUIT_BREAKER, () -> now[0]);
+
+        this.sendAndFail(circuitBreaker, transport, REQUEST, 0);
+        this.sendAndFail(circuitBreaker, transport, REQUEST, 1);
+
+        now[0] = 1000;
+        throwing[0] = true;
+        final TestHttpClientTransportListener probe = new TestHttpClientTransportListener();
+        circuitBreaker.send(REQUEST, probe);
+        assertEquals(Lists.of("onSubscribe", "onError Transport failed"), probe.events, "probe events");
+        assertEquals(HttpClientTransportCircuitBreakerOrigin.State.OPEN, circuitBreaker.origin("http://example.com").state, "reopened");
+
+        now[0] = 2000;
+        throwing[0] = false;
+        circuitBreaker.send(REQUEST, new TestHttpClientTransportListener());
+        assertEquals(3, transport.exchanges.size(), "another probe should have been sent");
+    }
+
+    /**
+     * Returns a transport that throws while the flag is set, otherwise sending to the given transport.
+     */
+    private HttpClientTransport throwing(final boolean[] throwing,
+                                         final TestHttpClientTransport transport) {
+        return new HttpClientTransport() {
+            @Override
+            void send(final HttpRequest request,
+                      final HttpClientTransportListener listener) {
+                if (throwing[0]) {
+                    throw new IllegalStateException("Transport failed");
+                }
+                transport.send(request, listener);
+            }
+        };
+    }
+
+    private void sendAndFail(final HttpClientTransportCircuitBreaker circuitBreaker,
+                             final TestHttpClientTransport transport,
+                             final HttpRequest request,
+                             final int index) {
+        circuitBreaker.send(request, new TestHttpClientTransportListener());
+        transport.exchange(index).fail(new IOException("failed " + index));
+    }
+
+    // ClassTesting2....................................................................................................
+
+    @Override
+    public Class<HttpClientTransportCircuitBreaker> type() {
+        return HttpClientTransportCircuitBreaker.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.reflect.ClassTesting2;
+import walkingkooka.reflect.JavaVisibility;
+
+import java.net.URI;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public final class HttpClientTransportQueuedListenerTest implements ClassTesting2<HttpClientTransportQueuedListener> {
+
+    private final static HttpRequest REQUEST = HttpRequest.newBuilder(URI.create("http://example.com/path")).build();
+
+    @Test
+    public void testQueuedReportsQueuedAndSubscribes() {
+        final TestHttpClientTransportListener listener = new TestHttpClientTransportListener();
+        final HttpClientTransportQueuedListener queued = HttpClientTransportQueuedListener.with(REQUEST, listener, (q) -> {
+            throw new UnsupportedOperationException();
+        });
+        queued.queued();
+
+        assertEquals(Lists.of("onQueued", "onSubscribe"), listener.events);
+        assertSame(queued, listener.subscription, "subscription");
+    }
+
+    @Test
+    public void testCancelWhileQueuedDequeues() {
+        final List<HttpClientTransportQueuedListener> dequeued = Lists.array();
+        final HttpClientTransportQueuedListener queued = HttpClientTransportQueuedListener.with(REQUEST,
+                new TestHttpClientTransportListener(),
+                dequeued::add);
+        queued.queued();
+        queued.cancel();
+
+        assertEquals(Lists.of(queued), dequeued);
+    }
+
+    @Test
+    public void testSendForwardsDemandAndEvents() {
+        final TestHttpClientTransportListener listener = new TestHttpClientTransportListener();
+        final HttpClientTransportQueuedListener queued = HttpClientTransportQueuedListener.with(REQUEST, listener, (q) -> {
+            throw new UnsupportedOperationException();
+        });
+        queued.queued();
+        queued.request(2);
+
+        final TestHttpClientTransport transport = new TestHttpClientTransport();
+        queued.send(transport, queued);
+
+        final TestHttpClientTransport.Exchange exchange = transport.exchange(0);
+        assertSame(REQUEST, exchange.request, "request");
+        assertEquals(2L, exchange.requested, "requested");
+
+        exchange.sendProgress(5)
+                .respond(200)
+                .receiveProgress(7)
+                .complete();
+        assertEquals(Lists.of("onQueued", "onSubscribe", "onDispatched", "onSendProgress 5", "onResponse 200", "onReceiveProgress 7", "onComplete"), listener.events);
+
+        queued.cancel();
+        assertEquals(true, exchange.cancelled, "cancelled");
+    }
+
+    // ClassTesting2....................................................................................................
+
+    @Override
+    public Class<HttpClientTransportQueuedListener> type() {
+        return HttpClientTransportQueuedListener.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.reflect.ClassTesting2;
+import walkingkooka.reflect.JavaVisibility;
+
+import java.net.URI;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public final class HttpClientTransportRateLimitedBucketTest implements ClassTesting2<HttpClientTransportRateLimitedBucket> {
+
+    private final static HttpRequest REQUEST = HttpRequest.newBuilder(URI.create("http://example.com/path")).build();
+
+    @Test
+    public void testBurstSentImmediately() {
+        final TestHttpClientTransport transport = new TestHttpClientTransport();
+        final TestHttpClientTimer timer = new TestHttpClientTimer();
+        final HttpClientTransportRateLimitedBucket bucket = HttpClientTransportRateLimitedBucket.with(HttpClientRateLimit.with(2, 3), transport, timer, () -> 0);
+
+        for (int i = 0; i < 3; i++) {
+            bucket.send(REQUEST, new TestHttpClientTransportListener());
+        }
+
+        assertEquals(3, transport.exchanges.size(), "sent");
+        assertEquals(Lists.empty(), timer.delays, "timer");
+    }
+
+    @Test
+    public void testDelayedUntilToken() {
+        final TestHttpClientTransport transport = new TestHttpClientTransport();
+        final TestHttpClientTimer timer = new TestHttpClientTimer();
+        final long[] now = new long[1];
+        final HttpClientTransportRateLimitedBucket bucket = HttpClientTransportRateLimitedBucket.with(HttpClientRateLimit.with(2, 1), transport, timer, () -> now[0]);
+
+        bucket.send(REQUEST, new TestHttpClientTransportListener());
+
+        final TestHttpClientTransportListener delayed = new TestHttpClientTransportListener();
+        bucket.send(REQUEST, delayed);
+
+        assertEquals(1, transport.exchanges.size(), "sent");
+        assertEquals(Lists.of("onQueued", "onSubscribe"), delayed.events, "delayed events");
+        assertEquals(Lists.of(500L), timer.delays, "timer");
+
+        now[0] = 500;
+        timer.run();
+
+        assertEquals(2, transport.exchanges.size(), "sent after timer");
+        assertEquals(Lists.empty(), timer.delays, "timer");
+    }
+
+    @Test
+    public void testQueuedInOrderWithSingleTimer() {
+        final TestHttpClientTransport transport = new TestHttpClientTransport();
+        final TestHttpClientTimer timer = new TestHttpClientTimer();
+        final long[] now = new long[1];
+        final HttpClientTransportRateLimitedBucket bucket = HttpClientTransportRateLimitedBucket.with(HttpClientRateLimit.with(10, 1), transport, timer, () -> now[0]);
+
+        final HttpRequest request1 = HttpRequest.newBuilder(URI.create("http://example.com/1")).build();
+        final HttpRequest request2 = HttpRequest.newBuilder(URI.create("http://example.com/2")).build();
+        final HttpRequest request3 = HttpRequest.newBuilder(URI.create("http://example.com/3")).build();
+
+        bucket.send(request1, new TestHttpClientTransportListener());
+        bucket.send(request2, new TestHttpClientTransportListener());
+        bucket.send(request3, new TestHttpClientTransportListener());
+
+        assertEquals(Lists.of(100L), timer.delays, "only one timer");
+
+        now[0] = 100;
+        timer.run();
+        assertEquals(request2, transport.exchange(1).request);
+        assertEquals(Lists.of(100L), timer.delays, "rescheduled");
+
+        now[0] = 200;
+        timer.run();
+        assertEquals(request3, transport.exchange(2).request);
+        assertEquals(Lists.empty(), timer.delays, "timer");
+    }
+
+    @Test
+    public void testCancelWhileQueued() {
+        final TestHttpClientTransport transport = new TestHttpClientTransport();
+        final TestHttpClientTimer timer = new TestHttpClientTimer();
+        final long[] now = new long[1];
+        final HttpClientTransportRateLimitedBucket bucket = HttpClientTransportRateLimitedBucket.with(HttpClientRateLimit.with(1, 1), transport, timer, () -> now[0]);
+
+        bucket.send(REQUEST, new TestHttpClientTransportListener());
+
+        final TestHttpClientTransportListener cancelled = new TestHttpClientTransportListener();
+        bucket.send(REQUEST, cancelled);
+        cancelled.subscription.cancel();
+
+        assertEquals(0, bucket.queue.size(), "queue");
+
+        now[0] = 1000;
+        timer.run();
+        assertEquals(1, transport.exchanges.size(), "cancelled request should not be sent");
+    }
+
+    @Test
+    public void testQueuedRequestSentAfterRefill() {
+        final TestHttpClientTransport transport = new TestHttpClientTransport();
+        final TestHttpClientTimer timer = new TestHttpClientTimer();
+        final long[] now = new long[1];
+        final HttpClientTransportRateLimitedBucket bucket = HttpClientTransportRateLimitedBucket.with(HttpClientRateLimit.with(1, 1), transport, timer, () -> now[0]);
+
+        bucket.send(REQUEST, new TestHttpClientTransportListener());
+
+        final TestHttpClientTransportListener delayed = new TestHttpClientTransportListener();
+        bucket.send(REQUEST, delayed);
+
+        assertEquals(1, transport.exchanges.size(), "sent");
+        assertEquals(Lists.of("onQueued", "onSubscribe"), delayed.events, "waiting events");
+        assertEquals(Lists.of(1000L), timer.delays, "timer");
+
+        now[0] = 1000;
+        timer.run();
+
+        assertEquals(2, transport.exchanges.size(), "sent after refill");
+        transport.exchange(1).respond(200);
+        assertEquals(Lists.of("onQueued", "onSubscribe", "onDispatched", "onResponse 200"), delayed.events, "events");
+        assertEquals(0, bucket.queue.size(), "queue");
+    }
+
+    @Test
+    public void testRefillCappedAtBurst() {
+        final TestHttpClientTransport transport = new TestHttpClientTransport();
+        final long[] now = new long[1];
+        final HttpClientTransportRateLimitedBucket bucket = HttpClientTransportRateLimitedBucket.with(HttpClientRateLimit.with(1, 2), transport, new TestHttpClientTimer(), () -> now[0]);
+
+        now[0] = 60 * 1000;
+        bucket.send(REQUEST, new TestHttpClientTransportListener());
+
+        assertEquals(1.0, bucket.tokens, 0.001);
+    }
+
+    // ClassTesting2....................................................................................................
+
+    @Override
+    public Class<HttpClientTransportRateLimitedBucket> type() {
+        return HttpClientTransportRateLimitedBucket.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
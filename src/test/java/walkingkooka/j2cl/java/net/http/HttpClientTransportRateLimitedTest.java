@@ -0,0 +1,135 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.collect.map.Maps;
+import walkingkooka.reflect.ClassTesting2;
+import walkingkooka.reflect.JavaVisibility;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class HttpClientTransportRateLimitedTest implements ClassTesting2<HttpClientTransportRateLimited> {
+
+    private final static HttpClientRateLimit LIMIT = HttpClientRateLimit.with(1, 1);
+
+    @Test
+    public void testWithNullTransportFails() {
+        assertThrows(NullPointerException.class, () -> HttpClientTransportRateLimited.with(null, Optional.of(LIMIT), Maps.empty(), new TestHttpClientTimer(), () -> 0));
+    }
+
+    @Test
+    public void testWithNullOriginLimitFails() {
+        assertThrows(NullPointerException.class, () -> HttpClientTransportRateLimited.with(new TestHttpClientTransport(), null, Maps.empty(), new TestHttpClientTimer(), () -> 0));
+    }
+
+    @Test
+    public void testWithNullPrefixLimitsFails() {
+        assertThrows(NullPointerException.class, () -> HttpClientTransportRateLimited.with(new TestHttpClientTransport(), Optional.of(LIMIT), null, new TestHttpClientTimer(), () -> 0));
+    }
+
+    @Test
+    public void testWithNullTimerFails() {
+        assertThrows(NullPointerException.class, () -> HttpClientTransportRateLimited.with(new TestHttpClientTransport(), Optional.of(LIMIT), Maps.empty(), null, () -> 0));
+    }
+
+    @Test
+    public void testUnlimitedSentImmediately() {
+        final TestHttpClientTransport transport = new TestHttpClientTransport();
+        final HttpClientTransportRateLimited limited = HttpClientTransportRateLimited.with(transport,
+                Optional.empty(),
+                Maps.of("http://example.com/api/", LIMIT),
+                new TestHttpClientTimer(),
+                () -> 0);
+
+        final HttpRequest request = this.request("http://example.com/other");
+        for (int i = 0; i < 3; i++) {
+            limited.send(request, new TestHttpClientTransportListener());
+        }
+
+        assertEquals(3, transport.exchanges.size(), "sent");
+        assertEquals(null, limited.bucket(request), "bucket");
+    }
+
+    @Test
+    public void testOriginBucketShared() {
+        final HttpClientTransportRateLimited limited = this.limited(Maps.empty());
+
+        final HttpClientTransportRateLimitedBucket bucket = limited.bucket(this.request("http://example.com/1"));
+        assertSame(bucket, limited.bucket(this.request("http://example.com/2")));
+        assertNotSame(bucket, limited.bucket(this.request("http://other.example.com/1")));
+    }
+
+    @Test
+    public void testLongestPrefixWins() {
+        final HttpClientTransportRateLimited limited = this.limited(Maps.of("http://example.com/api/", LIMIT, "http://example.com/api/slow/", LIMIT));
+
+        final HttpClientTransportRateLimitedBucket api = limited.bucket(this.request("http://example.com/api/1"));
+        final HttpClientTransportRateLimitedBucket slow = limited.bucket(this.request("http://example.com/api/slow/1"));
+        final HttpClientTransportRateLimitedBucket origin = limited.bucket(this.request("http://example.com/1"));
+
+        assertNotSame(api, slow);
+        assertNotSame(api, origin);
+        assertNotSame(slow, origin);
+        assertSame(slow, limited.bucket(this.request("http://example.com/api/slow/2")));
+    }
+
+    @Test
+    public void testDelaysRatherThanRejects() {
+        final TestHttpClientTransport transport = new TestHttpClientTransport();
+        final TestHttpClientTimer timer = new TestHttpClientTimer();
+        final HttpClientTransportRateLimited limited = HttpClientTransportRateLimited.with(transport, Optional.of(LIMIT), Maps.empty(), timer, () -> 0);
+
+        final HttpRequest request = this.request("http://example.com/1");
+        limited.send(request, new TestHttpClientTransportListener());
+
+        final TestHttpClientTransportListener delayed = new TestHttpClientTransportListener();
+        limited.send(request, delayed);
+
+        assertEquals(1, transport.exchanges.size(), "sent");
+        assertEquals(null, delayed.cause, "not rejected");
+        assertEquals(1, timer.tasks.size(), "timer");
+    }
+
+    private HttpClientTransportRateLimited limited(final Map<String, HttpClientRateLimit> prefixes) {
+        return HttpClientTransportRateLimited.with(new TestHttpClientTransport(), Optional.of(LIMIT), prefixes, new TestHttpClientTimer(), () -> 0);
+    }
+
+    private HttpRequest request(final String uri) {
+        return HttpRequest.newBuilder(URI.create(uri)).build();
+    }
+
+    // ClassTesting2....................................................................................................
+
+    @Override
+    public Class<HttpClientTransportRateLimited> type() {
+        return HttpClientTransportRateLimited.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
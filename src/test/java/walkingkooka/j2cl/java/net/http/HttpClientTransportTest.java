@@ -0,0 +1,87 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.reflect.ClassTesting2;
+import walkingkooka.reflect.JavaVisibility;
+
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public final class HttpClientTransportTest implements ClassTesting2<HttpClientTransport> {
+
+    @Test
+    public void testOrigin() {
+        this.originAndCheck("http://example.com/path?query", "http://example.com");
+    }
+
+    @Test
+    public void testOriginPort() {
+        this.originAndCheck("https://example.com:8080/path", "https://example.com:8080");
+    }
+
+    @Test
+    public void testOriginUserInfo() {
+        this.originAndCheck("http://user@example.com/", "http://example.com");
+    }
+
+    private void originAndCheck(final String uri,
+                                final String origin) {
+        assertEquals(origin, HttpClientTransport.origin(URI.create(uri)), uri);
+    }
+
+    @Test
+    public void testFail() {
+        final TestHttpClientTransportListener listener = new TestHttpClientTransportListener();
+        HttpClientTransport.fail(listener, new Exception("failed123"));
+        assertEquals("[onSubscribe, onError failed123]", listener.events.toString());
+    }
+
+    @Test
+    public void testAllocateWithoutBufferPool() {
+        final ByteBuffer buffer = HttpClientTransport.allocate(new TestHttpClientTransportListener(), 10);
+        assertEquals(10, buffer.capacity(), "capacity");
+        assertEquals(10, buffer.remaining(), "remaining");
+    }
+
+    @Test
+    public void testAllocateBufferPool() {
+        final HttpClientBufferPool pool = HttpClientBufferPool.with(16, 64, 2);
+        final TestHttpClientTransportListener listener = new TestHttpClientTransportListener();
+        listener.bufferPool = Optional.of(pool);
+
+        final ByteBuffer buffer = HttpClientTransport.allocate(listener, 10);
+        assertEquals(16, buffer.capacity(), "capacity");
+        assertEquals(10, buffer.remaining(), "remaining");
+        assertEquals(1L, pool.misses(), "misses");
+    }
+
+    @Override
+    public Class<HttpClientTransport> type() {
+        return HttpClientTransport.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
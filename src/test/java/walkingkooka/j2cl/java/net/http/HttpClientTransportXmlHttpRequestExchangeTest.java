@@ -0,0 +1,205 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.ToStringTesting;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.map.Maps;
+import walkingkooka.reflect.ClassTesting2;
+import walkingkooka.reflect.JavaVisibility;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.concurrent.Flow.Publisher;
+import java.util.concurrent.Flow.Subscription;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class HttpClientTransportXmlHttpRequestExchangeTest implements ClassTesting2<HttpClientTransportXmlHttpRequestExchange>,
+        ToStringTesting<HttpClientTransportXmlHttpRequestExchange> {
+
+    private final static URI URL = URI.create("http://example.com/path");
+
+    @Test
+    public void testWithNullRequestFails() {
+        assertThrows(NullPointerException.class, () -> HttpClientTransportXmlHttpRequestExchange.with(null, new TestHttpClientTransportListener()));
+    }
+
+    @Test
+    public void testWithNullListenerFails() {
+        assertThrows(NullPointerException.class, () -> HttpClientTransportXmlHttpRequestExchange.with(this.request(), null));
+    }
+
+    @Test
+    public void testStartRequestsEntireBody() {
+        final TestSubscription body = new TestSubscription();
+        final TestHttpClientTransportListener listener = new TestHttpClientTransportListener();
+        final HttpClientTransportXmlHttpRequestExchange exchange = HttpClientTransportXmlHttpRequestExchange.with(this.request(s -> s.onSubscribe(body)), listener);
+        exchange.start();
+
+        assertEquals(Lists.of("onSubscribe"), listener.events, "events");
+        assertEquals(Long.MAX_VALUE, body.requested, "requested");
+    }
+
+    @Test
+    public void testStartBodyErrorReported() {
+        final TestSubscription body = new TestSubscription();
+        final TestHttpClientTransportListener listener = new TestHttpClientTransportListener();
+        HttpClientTransportXmlHttpRequestExchange.with(this.request(s -> {
+            s.onSubscribe(body);
+            s.onError(new IOException("Body failed"));
+        }), listener).start();
+
+        assertEquals(Lists.of("onSubscribe", "onError Body failed"), listener.events, "events");
+        assertTrue(body.cancelled, "body cancelled");
+    }
+
+    @Test
+    public void testCancelCancelsRequestBody() {
+        final TestSubscription body = new TestSubscription();
+        final TestHttpClientTransportListener listener = new TestHttpClientTransportListener();
+        final HttpClientTransportXmlHttpRequestExchange exchange = HttpClientTransportXmlHttpRequestExchange.with(this.request(s -> s.onSubscribe(body)), listener);
+        exchange.start();
+        listener.subscription.cancel();
+
+        assertTrue(body.cancelled, "body cancelled");
+        assertTrue(exchange.done, "done");
+        assertEquals(Lists.of("onSubscribe"), listener.events, "events");
+    }
+
+    @Test
+    public void testCancelledBeforeBodySubscribeCancelsBody() {
+        final TestSubscription body = new TestSubscription();
+        final HttpClientTransportXmlHttpRequestExchange exchange = HttpClientTransportXmlHttpRequestExchange.with(this.request(), new TestHttpClientTransportListener());
+        exchange.cancel();
+        exchange.onSubscribe(body);
+
+        assertTrue(body.cancelled, "body cancelled");
+        assertEquals(0, body.requested, "requested");
+    }
+
+    @Test
+    public void testRequestAccumulatesDemand() {
+        final HttpClientTransportXmlHttpRequestExchange exchange = HttpClientTransportXmlHttpRequestExchange.with(this.request(), new TestHttpClientTransportListener());
+        exchange.request(1);
+        exchange.request(2);
+
+        assertEquals(3, exchange.demand);
+    }
+
+    @Test
+    public void testRequestDemandOverflow() {
+        final HttpClientTransportXmlHttpRequestExchange exchange = HttpClientTransportXmlHttpRequestExchange.with(this.request(), new TestHttpClientTransportListener());
+        exchange.request(1);
+        exchange.request(Long.MAX_VALUE);
+
+        assertEquals(Long.MAX_VALUE, exchange.demand);
+    }
+
+    @Test
+    public void testRequestInvalidCountFails() {
+        final TestHttpClientTransportListener listener = new TestHttpClientTransportListener();
+        final HttpClientTransportXmlHttpRequestExchange exchange = HttpClientTransportXmlHttpRequestExchange.with(this.request(), listener);
+        exchange.request(0);
+
+        assertEquals(Lists.of("onError Invalid count 0 <= 0"), listener.events, "events");
+        assertTrue(exchange.done, "done");
+    }
+
+    @Test
+    public void testHeaders() {
+        assertEquals(
+                HttpHeaders.of(
+                        Maps.of(
+                                "content-type", Lists.of("text/plain"),
+                                "set-cookie", Lists.of("a=1", "b=2")
+                        ),
+                        (n, v) -> true
+                ),
+                HttpClientTransportXmlHttpRequestExchange.headers("content-type: text/plain\r\nset-cookie: a=1\r\nSet-Cookie: b=2\r\n")
+        );
+    }
+
+    @Test
+    public void testHeadersEmpty() {
+        assertEquals(HttpHeaders.of(Maps.empty(), (n, v) -> true), HttpClientTransportXmlHttpRequestExchange.headers(""));
+    }
+
+    @Test
+    public void testHeadersNull() {
+        assertEquals(HttpHeaders.of(Maps.empty(), (n, v) -> true), HttpClientTransportXmlHttpRequestExchange.headers(null));
+    }
+
+    @Test
+    public void testCopy() {
+        final ByteBuffer buffer = ByteBuffer.allocate(3);
+        HttpClientTransportXmlHttpRequestExchange.copy("a\u0001\u00ff\u01fe", 1, buffer);
+
+        assertArrayEquals(new byte[]{1, (byte) 0xff, (byte) 0xfe}, buffer.array());
+    }
+
+    @Test
+    public void testToString() {
+        final HttpRequest request = this.request();
+        this.toStringAndCheck(HttpClientTransportXmlHttpRequestExchange.with(request, new TestHttpClientTransportListener()), request.toString());
+    }
+
+    private HttpRequest request() {
+        return HttpRequest.newBuilder(URL).build();
+    }
+
+    private HttpRequest request(final Publisher<ByteBuffer> body) {
+        return HttpRequest.newBuilder(URL)
+                .POST(HttpRequest.BodyPublishers.fromPublisher(body))
+                .build();
+    }
+
+    static final class TestSubscription implements Subscription {
+
+        @Override
+        public void request(final long count) {
+            this.requested += count;
+        }
+
+        long requested;
+
+        @Override
+        public void cancel() {
+            this.cancelled = true;
+        }
+
+        boolean cancelled;
+    }
+
+    // ClassTesting2....................................................................................................
+
+    @Override
+    public Class<HttpClientTransportXmlHttpRequestExchange> type() {
+        return HttpClientTransportXmlHttpRequestExchange.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
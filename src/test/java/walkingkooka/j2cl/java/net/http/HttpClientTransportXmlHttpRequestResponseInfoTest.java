@@ -0,0 +1,69 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.ToStringTesting;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.map.Maps;
+import walkingkooka.reflect.ClassTesting2;
+import walkingkooka.reflect.JavaVisibility;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class HttpClientTransportXmlHttpRequestResponseInfoTest implements ClassTesting2<HttpClientTransportXmlHttpRequestResponseInfo>,
+        ToStringTesting<HttpClientTransportXmlHttpRequestResponseInfo> {
+
+    @Test
+    public void testWithNullHeadersFails() {
+        assertThrows(NullPointerException.class, () -> HttpClientTransportXmlHttpRequestResponseInfo.with(200, null));
+    }
+
+    @Test
+    public void testWith() {
+        final HttpHeaders headers = this.headers();
+        final HttpClientTransportXmlHttpRequestResponseInfo info = HttpClientTransportXmlHttpRequestResponseInfo.with(201, headers);
+        assertEquals(201, info.statusCode(), "statusCode");
+        assertSame(headers, info.headers(), "headers");
+        assertSame(HttpClient.Version.HTTP_1_1, info.version(), "version");
+    }
+
+    @Test
+    public void testToString() {
+        final HttpHeaders headers = this.headers();
+        this.toStringAndCheck(HttpClientTransportXmlHttpRequestResponseInfo.with(200, headers), "200 " + headers);
+    }
+
+    private HttpHeaders headers() {
+        return HttpHeaders.of(Maps.of("content-type", Lists.of("text/plain")), (n, v) -> true);
+    }
+
+    // ClassTesting2....................................................................................................
+
+    @Override
+    public Class<HttpClientTransportXmlHttpRequestResponseInfo> type() {
+        return HttpClientTransportXmlHttpRequestResponseInfo.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.ToStringTesting;
+import walkingkooka.reflect.ClassTesting2;
+import walkingkooka.reflect.JavaVisibility;
+
+import java.net.URI;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class HttpClientTransportXmlHttpRequestTest implements ClassTesting2<HttpClientTransportXmlHttpRequest>,
+        ToStringTesting<HttpClientTransportXmlHttpRequest> {
+
+    @Test
+    public void testSendNullRequestFails() {
+        assertThrows(NullPointerException.class, () -> HttpClientTransportXmlHttpRequest.INSTANCE.send(null, new TestHttpClientTransportListener()));
+    }
+
+    @Test
+    public void testSendNullListenerFails() {
+        assertThrows(NullPointerException.class, () -> HttpClientTransportXmlHttpRequest.INSTANCE.send(HttpRequest.newBuilder(URI.create("http://example.com")).build(), null));
+    }
+
+    @Test
+    public void testToString() {
+        this.toStringAndCheck(HttpClientTransportXmlHttpRequest.INSTANCE, "XMLHttpRequest");
+    }
+
+    // ClassTesting2....................................................................................................
+
+    @Override
+    public Class<HttpClientTransportXmlHttpRequest> type() {
+        return HttpClientTransportXmlHttpRequest.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
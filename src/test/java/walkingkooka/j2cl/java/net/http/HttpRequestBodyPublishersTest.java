@@ -81,6 +81,15 @@ public final class HttpRequestBodyPublishersTest extends JavaNetHttpTestCase<Bod
         this.ofStringAndCheck("1a2b3c");
     }
 
+    @Test
+    public void testStringBodyLargerThanChunk() {
+        final StringBuilder b = new StringBuilder();
+        for (int i = 0; i < 40000; i++) {
+            b.append((char) ('a' + i % 26));
+        }
+        this.ofStringAndCheck(b.toString());
+    }
+
     private void ofStringAndCheck(final String body) {
         this.check(java.net.http.HttpRequest.BodyPublishers.ofString(body),
                 HttpRequest.BodyPublishers.ofString(body));
@@ -27,6 +27,7 @@ import walkingkooka.reflect.JavaVisibility;
 import java.net.URI;
 import java.nio.ByteBuffer;
 import java.time.Duration;
+import java.util.OptionalLong;
 import java.util.concurrent.Flow.Subscriber;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -65,6 +66,7 @@ public class HttpRequestBuilderTest implements ClassTesting2<HttpRequestBuilder>
         assertEquals(false, b.expectContinue, "expectContinue");
         assertEquals(null, b.method, "method");
         assertEquals(null, b.bodyPublisher, "bodyPublisher");
+        assertEquals(null, b.maxBodySize, "maxBodySize");
         assertEquals(null, b.timeout, "timeout");
         assertEquals(null, b.version, "version");
     }
@@ -80,6 +82,7 @@ public class HttpRequestBuilderTest implements ClassTesting2<HttpRequestBuilder>
 
         final HttpRequestBuilder b = HttpRequestBuilder.empty()
                 .expectContinue(expect)
+                .maxBodySize(1024)
                 .method(method, PUBLISHER)
                 .timeout(timeout)
                 .version(version);
@@ -89,6 +92,7 @@ public class HttpRequestBuilderTest implements ClassTesting2<HttpRequestBuilder>
         assertEquals(b.expectContinue, copy.expectContinue, "expectContinue");
         assertEquals(b.method, copy.method, "method");
         assertEquals(b.bodyPublisher, copy.bodyPublisher, "bodyPublisher");
+        assertEquals(b.maxBodySize, copy.maxBodySize, "maxBodySize");
         assertEquals(b.timeout, copy.timeout, "timeout");
         assertEquals(b.version, copy.version, "version");
     }
@@ -187,6 +191,46 @@ public class HttpRequestBuilderTest implements ClassTesting2<HttpRequestBuilder>
         assertSame(b, b.timeout(duration));
     }
 
+    // maxBodySize......................................................................................................
+
+    @Test
+    public void testMaxBodySizeNegativeFails() {
+        assertThrows(IllegalArgumentException.class, () -> HttpRequestBuilder.empty().maxBodySize(-1));
+    }
+
+    @Test
+    public void testMaxBodySize() {
+        final HttpRequestBuilder b = HttpRequestBuilder.empty();
+        assertSame(b, b.maxBodySize(1024));
+        assertEquals(Long.valueOf(1024), b.maxBodySize, "maxBodySize");
+
+        assertEquals(OptionalLong.of(1024), b.uri(URI).build().maxBodySize(), "maxBodySize");
+    }
+
+    @Test
+    public void testBuildWithoutMaxBodySize() {
+        assertEquals(OptionalLong.empty(), HttpRequestBuilder.empty().uri(URI).build().maxBodySize());
+    }
+
+    // progressListener.................................................................................................
+
+    @Test
+    public void testProgressListenerNullFails() {
+        assertThrows(NullPointerException.class, () -> HttpRequestBuilder.empty().progressListener(null));
+    }
+
+    @Test
+    public void testProgressListener() {
+        final HttpClientProgressListener listener = (p) -> {
+        };
+        final HttpRequestBuilder b = HttpRequestBuilder.empty();
+        assertSame(b, b.progressListener(listener));
+        assertSame(listener, b.progressListener, "progressListener");
+
+        assertSame(listener, b.uri(URI).build().progressListener().get(), "progressListener");
+        assertSame(listener, b.copy().progressListener, "copy");
+    }
+
     // version..........................................................................................................
 
     @Test
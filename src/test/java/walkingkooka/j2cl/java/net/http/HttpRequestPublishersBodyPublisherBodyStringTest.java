@@ -17,10 +17,155 @@
 
 package walkingkooka.j2cl.java.net.http;
 
+import org.junit.jupiter.api.Test;
+import walkingkooka.collect.list.Lists;
+
+import java.net.URI;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.Flow.Subscriber;
+import java.util.concurrent.Flow.Subscription;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
 
 public final class HttpRequestPublishersBodyPublisherBodyStringTest extends HttpRequestPublishersBodyPublisherTestCase2<HttpRequestPublishersBodyPublisherBodyString> {
 
+    @Test
+    public void testCancelWithinOnSubscribe() {
+        final List<String> events = Lists.array();
+
+        this.createPublisher()
+                .subscribe(new Subscriber<>() {
+                    @Override
+                    public void onSubscribe(final Subscription subscription) {
+                        events.add("onSubscribe");
+                        subscription.cancel();
+                    }
+
+                    @Override
+                    public void onNext(final ByteBuffer item) {
+                        events.add("onNext");
+                    }
+
+                    @Override
+                    public void onError(final Throwable throwable) {
+                        events.add("onError");
+                    }
+
+                    @Override
+                    public void onComplete() {
+                        events.add("onComplete");
+                    }
+                });
+
+        assertEquals(Lists.of("onSubscribe"), events);
+    }
+
+    @Test
+    public void testInterleavedSubscriptions() {
+        final HttpRequestPublishersBodyPublisherBodyString publisher = HttpRequestPublishersBodyPublisherBodyString.with(this.body(), StandardCharsets.UTF_8);
+
+        final ChunkSubscriber first = new ChunkSubscriber();
+        publisher.subscribe(first);
+        final ChunkSubscriber second = new ChunkSubscriber();
+        publisher.subscribe(second);
+
+        first.subscription.request(1);
+        second.subscription.request(3);
+        first.subscription.request(2);
+
+        assertEquals(this.body(), first.text.toString(), "first");
+        assertEquals(this.body(), second.text.toString(), "second");
+        assertEquals(true, first.completed, "first completed");
+        assertEquals(true, second.completed, "second completed");
+    }
+
+    @Test
+    public void testCancelDoesntAffectOtherSubscription() {
+        final HttpRequestPublishersBodyPublisherBodyString publisher = HttpRequestPublishersBodyPublisherBodyString.with(this.body(), StandardCharsets.UTF_8);
+
+        final ChunkSubscriber first = new ChunkSubscriber();
+        publisher.subscribe(first);
+        final ChunkSubscriber second = new ChunkSubscriber();
+        publisher.subscribe(second);
+
+        first.subscription.request(1);
+        first.subscription.cancel();
+        second.subscription.request(Long.MAX_VALUE);
+
+        assertEquals(false, first.completed, "first completed");
+        assertEquals(this.body(), second.text.toString(), "second");
+        assertEquals(true, second.completed, "second completed");
+    }
+
+    @Test
+    public void testContentLength() {
+        assertEquals(3L, this.createPublisher().contentLength());
+    }
+
+    @Test
+    public void testContentLengthMultiByteChars() {
+        assertEquals(6L, HttpRequestPublishersBodyPublisherBodyString.with("a\u00e9\u20ac", StandardCharsets.UTF_8).contentLength());
+    }
+
+    @Test
+    public void testRequestResent() {
+        final HttpRequest request = HttpRequest.newBuilder(URI.create("http://example.com"))
+                .POST(HttpRequest.BodyPublishers.ofString(this.body()))
+                .build();
+
+        for (int i = 0; i < 3; i++) {
+            final ChunkSubscriber subscriber = new ChunkSubscriber();
+            request.bodyPublisher().get().subscribe(subscriber);
+            subscriber.subscription.request(Long.MAX_VALUE);
+
+            assertEquals(this.body(), subscriber.text.toString(), "send " + i);
+        }
+    }
+
+    /**
+     * A body spanning several chunks.
+     */
+    private String body() {
+        final StringBuilder b = new StringBuilder();
+        for (int i = 0; i < 2 * HttpRequestPublishersBodyPublisherSubscription.CHUNK_SIZE + 5; i++) {
+            b.append((char) ('a' + i % 26));
+        }
+        return b.toString();
+    }
+
+    static final class ChunkSubscriber implements Subscriber<ByteBuffer> {
+
+        @Override
+        public void onSubscribe(final Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        Subscription subscription;
+
+        @Override
+        public void onNext(final ByteBuffer chunk) {
+            final byte[] bytes = new byte[chunk.remaining()];
+            chunk.get(bytes);
+            this.text.append(new String(bytes, StandardCharsets.UTF_8));
+        }
+
+        final StringBuilder text = new StringBuilder();
+
+        @Override
+        public void onError(final Throwable cause) {
+        }
+
+        @Override
+        public void onComplete() {
+            this.completed = true;
+        }
+
+        boolean completed;
+    }
+
     @Override
     HttpRequestPublishersBodyPublisherBodyString createPublisher() {
         return HttpRequestPublishersBodyPublisherBodyString.with("123", Charset.defaultCharset());
@@ -0,0 +1,229 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.j2cl.java.net.http.HttpRequest.BodyPublishers;
+import walkingkooka.reflect.ClassTesting2;
+import walkingkooka.reflect.JavaVisibility;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.Flow.Publisher;
+import java.util.concurrent.Flow.Subscriber;
+import java.util.concurrent.Flow.Subscription;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class HttpRequestPublishersBodyPublisherFromPublisherTest implements ClassTesting2<HttpRequestPublishersBodyPublisherFromPublisher> {
+
+    @Test
+    public void testUnknownLengthNullPublisherFails() {
+        assertThrows(NullPointerException.class, () -> HttpRequestPublishersBodyPublisherFromPublisher.unknownLength(null));
+    }
+
+    @Test
+    public void testWithNullPublisherFails() {
+        assertThrows(NullPointerException.class, () -> HttpRequestPublishersBodyPublisherFromPublisher.with(null, 1));
+    }
+
+    @Test
+    public void testWithZeroContentLengthFails() {
+        this.withInvalidContentLengthFails(0);
+    }
+
+    @Test
+    public void testWithNegativeContentLengthFails() {
+        this.withInvalidContentLengthFails(-1);
+    }
+
+    private void withInvalidContentLengthFails(final long contentLength) {
+        final GeneratingPublisher publisher = new GeneratingPublisher(1);
+
+        assertThrows(IllegalArgumentException.class, () -> java.net.http.HttpRequest.BodyPublishers.fromPublisher(publisher, contentLength));
+        assertThrows(IllegalArgumentException.class, () -> BodyPublishers.fromPublisher(publisher, contentLength));
+    }
+
+    @Test
+    public void testContentLengthUnknown() {
+        final GeneratingPublisher publisher = new GeneratingPublisher(1);
+
+        assertEquals(java.net.http.HttpRequest.BodyPublishers.fromPublisher(publisher).contentLength(),
+                BodyPublishers.fromPublisher(publisher).contentLength());
+    }
+
+    @Test
+    public void testContentLength() {
+        final GeneratingPublisher publisher = new GeneratingPublisher(1);
+
+        assertEquals(java.net.http.HttpRequest.BodyPublishers.fromPublisher(publisher, 123).contentLength(),
+                BodyPublishers.fromPublisher(publisher, 123).contentLength());
+    }
+
+    @Test
+    public void testSubscribeNullFails() {
+        assertThrows(NullPointerException.class, () -> HttpRequestPublishersBodyPublisherFromPublisher.unknownLength(new GeneratingPublisher(1)).subscribe(null));
+    }
+
+    @Test
+    public void testChunksGeneratedOnlyWhenRequested() {
+        final GeneratingPublisher publisher = new GeneratingPublisher(3);
+        final ChunkSubscriber subscriber = new ChunkSubscriber();
+        BodyPublishers.fromPublisher(publisher).subscribe(subscriber);
+
+        assertEquals(0, publisher.generated, "generated");
+
+        subscriber.subscription.request(1);
+        assertEquals(1, publisher.generated, "generated");
+        assertEquals(Lists.of("onSubscribe", "chunk0"), subscriber.events);
+
+        subscriber.subscription.request(5);
+        assertEquals(Lists.of("onSubscribe", "chunk0", "chunk1", "chunk2", "onComplete"), subscriber.events);
+    }
+
+    @Test
+    public void testCancel() {
+        final GeneratingPublisher publisher = new GeneratingPublisher(3);
+        final ChunkSubscriber subscriber = new ChunkSubscriber();
+        BodyPublishers.fromPublisher(publisher, 18).subscribe(subscriber);
+
+        subscriber.subscription.request(1);
+        subscriber.subscription.cancel();
+        subscriber.subscription.request(1);
+
+        assertEquals(1, publisher.generated, "generated");
+        assertEquals(Lists.of("onSubscribe", "chunk0"), subscriber.events);
+    }
+
+    @Test
+    public void testSameAsJre() {
+        final ChunkSubscriber jre = new ChunkSubscriber();
+        java.net.http.HttpRequest.BodyPublishers.fromPublisher(new GeneratingPublisher(2)).subscribe(jre);
+        jre.subscription.request(Long.MAX_VALUE);
+
+        final ChunkSubscriber subscriber = new ChunkSubscriber();
+        BodyPublishers.fromPublisher(new GeneratingPublisher(2)).subscribe(subscriber);
+        subscriber.subscription.request(Long.MAX_VALUE);
+
+        assertEquals(jre.events, subscriber.events);
+    }
+
+    @Test
+    public void testToString() {
+        final GeneratingPublisher publisher = new GeneratingPublisher(1);
+        assertEquals(publisher.toString(), HttpRequestPublishersBodyPublisherFromPublisher.unknownLength(publisher).toString());
+    }
+
+    @Test
+    public void testToStringContentLength() {
+        final GeneratingPublisher publisher = new GeneratingPublisher(1);
+        assertEquals(publisher + " 6", HttpRequestPublishersBodyPublisherFromPublisher.with(publisher, 6).toString());
+    }
+
+    /**
+     * Generates a chunk only when one is requested.
+     */
+    static final class GeneratingPublisher implements Publisher<ByteBuffer> {
+
+        GeneratingPublisher(final int count) {
+            this.count = count;
+        }
+
+        @Override
+        public void subscribe(final Subscriber<? super ByteBuffer> subscriber) {
+            subscriber.onSubscribe(new Subscription() {
+                @Override
+                public void request(final long n) {
+                    for (long i = 0; i < n && false == this.done; i++) {
+                        if (generated == count) {
+                            this.done = true;
+                            subscriber.onComplete();
+                        } else {
+                            subscriber.onNext(ByteBuffer.wrap(("chunk" + generated++).getBytes(StandardCharsets.UTF_8)));
+                        }
+                    }
+                    if (generated == count && false == this.done) {
+                        this.done = true;
+                        subscriber.onComplete();
+                    }
+                }
+
+                @Override
+                public void cancel() {
+                    this.done = true;
+                }
+
+                private boolean done;
+            });
+        }
+
+        private final int count;
+
+        int generated;
+
+        @Override
+        public String toString() {
+            return "GeneratingPublisher " + this.count;
+        }
+    }
+
+    static final class ChunkSubscriber implements Subscriber<ByteBuffer> {
+
+        @Override
+        public void onSubscribe(final Subscription subscription) {
+            this.subscription = subscription;
+            this.events.add("onSubscribe");
+        }
+
+        Subscription subscription;
+
+        @Override
+        public void onNext(final ByteBuffer chunk) {
+            final byte[] bytes = new byte[chunk.remaining()];
+            chunk.get(bytes);
+            this.events.add(new String(bytes, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public void onError(final Throwable cause) {
+            this.events.add("onError " + cause.getMessage());
+        }
+
+        @Override
+        public void onComplete() {
+            this.events.add("onComplete");
+        }
+
+        final List<String> events = Lists.array();
+    }
+
+    // ClassTesting2....................................................................................................
+
+    @Override
+    public Class<HttpRequestPublishersBodyPublisherFromPublisher> type() {
+        return HttpRequestPublishersBodyPublisherFromPublisher.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
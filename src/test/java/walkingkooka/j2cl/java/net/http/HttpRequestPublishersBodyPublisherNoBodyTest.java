@@ -17,8 +17,17 @@
 
 package walkingkooka.j2cl.java.net.http;
 
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
 public final class HttpRequestPublishersBodyPublisherNoBodyTest extends HttpRequestPublishersBodyPublisherTestCase2<HttpRequestPublishersBodyPublisherNoBody> {
 
+    @Test
+    public void testContentLength() {
+        assertEquals(0L, this.createPublisher().contentLength());
+    }
+
     @Override
     HttpRequestPublishersBodyPublisherNoBody createPublisher() {
         return HttpRequestPublishersBodyPublisherNoBody.with();
@@ -17,10 +17,217 @@
 
 package walkingkooka.j2cl.java.net.http;
 
+import org.junit.jupiter.api.Test;
+import walkingkooka.collect.list.Lists;
 import walkingkooka.reflect.ClassTesting2;
 import walkingkooka.reflect.JavaVisibility;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.Flow.Subscriber;
+import java.util.concurrent.Flow.Subscription;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
 public final class HttpRequestPublishersBodyPublisherSubscriptionTest implements ClassTesting2<HttpRequestPublishersBodyPublisherSubscription> {
+
+    private final static int CHUNK_SIZE = HttpRequestPublishersBodyPublisherSubscription.CHUNK_SIZE;
+
+    @Test
+    public void testRequestZeroFails() {
+        final EventSubscriber subscriber = this.subscribe("abc");
+        assertThrows(IllegalArgumentException.class, () -> subscriber.subscription.request(0));
+    }
+
+    @Test
+    public void testNothingPublishedUntilRequested() {
+        final EventSubscriber subscriber = this.subscribe("abc");
+        this.checkEvents(subscriber, "onSubscribe");
+
+        subscriber.subscription.request(1);
+        this.checkEvents(subscriber, "onSubscribe", "3", "onComplete");
+    }
+
+    @Test
+    public void testEmptyCompletesWithoutDemand() {
+        this.checkEvents(this.subscribe(""), "onSubscribe", "onComplete");
+    }
+
+    @Test
+    public void testNoBodyCompletesWithoutDemand() {
+        final EventSubscriber subscriber = new EventSubscriber(0);
+        HttpRequestPublishersBodyPublisherNoBody.with().subscribe(subscriber);
+
+        this.checkEvents(subscriber, "onSubscribe", "onComplete");
+    }
+
+    @Test
+    public void testRequestedWithinOnSubscribe() {
+        final EventSubscriber subscriber = new EventSubscriber(1);
+        HttpRequestPublishersBodyPublisherBodyString.with("abc", StandardCharsets.UTF_8).subscribe(subscriber);
+
+        this.checkEvents(subscriber, "onSubscribe", "3", "onComplete");
+    }
+
+    @Test
+    public void testChunksBoundedByDemand() {
+        final EventSubscriber subscriber = this.subscribe(this.body(2 * CHUNK_SIZE + 10));
+
+        subscriber.subscription.request(1);
+        this.checkEvents(subscriber, "onSubscribe", "" + CHUNK_SIZE);
+
+        subscriber.subscription.request(1);
+        this.checkEvents(subscriber, "onSubscribe", "" + CHUNK_SIZE, "" + CHUNK_SIZE);
+
+        subscriber.subscription.request(5);
+        this.checkEvents(subscriber, "onSubscribe", "" + CHUNK_SIZE, "" + CHUNK_SIZE, "10", "onComplete");
+    }
+
+    @Test
+    public void testCompletesAfterLastChunkWithoutDemand() {
+        final EventSubscriber subscriber = this.subscribe(this.body(CHUNK_SIZE + 1));
+
+        subscriber.subscription.request(2);
+        this.checkEvents(subscriber, "onSubscribe", "" + CHUNK_SIZE, "1", "onComplete");
+    }
+
+    @Test
+    public void testRequestWithinOnNextBoundedStack() {
+        final RequestingSubscriber subscriber = new RequestingSubscriber();
+        HttpRequestPublishersBodyPublisherBodyString.with(this.body(100 * CHUNK_SIZE), StandardCharsets.UTF_8)
+                .subscribe(subscriber);
+
+        assertEquals(100, subscriber.chunks, "chunks");
+        assertEquals(1, subscriber.maxDepth, "maxDepth");
+        assertEquals(true, subscriber.completed, "completed");
+    }
+
+    @Test
+    public void testChunksHaveOwnArrays() {
+        final EventSubscriber subscriber = this.subscribe(this.body(CHUNK_SIZE + 1));
+        subscriber.subscription.request(2);
+
+        assertEquals(CHUNK_SIZE, subscriber.arrays.get(0).length);
+        assertEquals(1, subscriber.arrays.get(1).length);
+    }
+
+    @Test
+    public void testCancel() {
+        final EventSubscriber subscriber = this.subscribe(this.body(3 * CHUNK_SIZE));
+
+        subscriber.subscription.request(1);
+        subscriber.subscription.cancel();
+        subscriber.subscription.request(1);
+
+        this.checkEvents(subscriber, "onSubscribe", "" + CHUNK_SIZE);
+    }
+
+    private EventSubscriber subscribe(final String body) {
+        final EventSubscriber subscriber = new EventSubscriber(0);
+        HttpRequestPublishersBodyPublisherBodyString.with(body, StandardCharsets.UTF_8).subscribe(subscriber);
+        return subscriber;
+    }
+
+    private String body(final int length) {
+        final StringBuilder b = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            b.append((char) ('a' + i % 26));
+        }
+        return b.toString();
+    }
+
+    private void checkEvents(final EventSubscriber subscriber,
+                             final String... events) {
+        assertEquals(Lists.of(events), subscriber.events);
+    }
+
+    /**
+     * Records each event, with chunks recorded as their length.
+     */
+    static final class EventSubscriber implements Subscriber<ByteBuffer> {
+
+        EventSubscriber(final long initial) {
+            this.initial = initial;
+        }
+
+        @Override
+        public void onSubscribe(final Subscription subscription) {
+            this.subscription = subscription;
+            this.events.add("onSubscribe");
+            if (this.initial > 0) {
+                subscription.request(this.initial);
+            }
+        }
+
+        private final long initial;
+
+        Subscription subscription;
+
+        @Override
+        public void onNext(final ByteBuffer chunk) {
+            this.events.add("" + chunk.remaining());
+            this.arrays.add(chunk.array());
+        }
+
+        @Override
+        public void onError(final Throwable cause) {
+            this.events.add("onError " + cause.getMessage());
+        }
+
+        @Override
+        public void onComplete() {
+            this.events.add("onComplete");
+        }
+
+        final List<String> events = Lists.array();
+
+        final List<byte[]> arrays = Lists.array();
+    }
+
+    /**
+     * Requests the next chunk from within {@link #onNext(ByteBuffer)}, recording how deeply onNext calls nest.
+     */
+    static final class RequestingSubscriber implements Subscriber<ByteBuffer> {
+
+        @Override
+        public void onSubscribe(final Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(1);
+        }
+
+        private Subscription subscription;
+
+        @Override
+        public void onNext(final ByteBuffer chunk) {
+            this.depth++;
+            this.maxDepth = Math.max(this.maxDepth, this.depth);
+            this.chunks++;
+            this.subscription.request(1);
+            this.depth--;
+        }
+
+        private int depth;
+
+        int maxDepth;
+
+        int chunks;
+
+        @Override
+        public void onError(final Throwable cause) {
+        }
+
+        @Override
+        public void onComplete() {
+            this.completed = true;
+        }
+
+        boolean completed;
+    }
+
+    // ClassTesting2....................................................................................................
+
     @Override
     public Class<HttpRequestPublishersBodyPublisherSubscription> type() {
         return HttpRequestPublishersBodyPublisherSubscription.class;
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.Cast;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.map.Maps;
+import walkingkooka.j2cl.java.net.http.HttpClient.Version;
+import walkingkooka.j2cl.java.net.http.HttpResponse.ResponseInfo;
+import walkingkooka.reflect.ClassTesting2;
+import walkingkooka.reflect.JavaVisibility;
+
+import java.net.URI;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class HttpResponseAjaxTest implements ClassTesting2<HttpResponseAjax<?>> {
+
+    private final static HttpRequest REQUEST = HttpRequest.newBuilder(URI.create("http://example.com/path")).build();
+
+    private final static ResponseInfo INFO = TestHttpClientTransport.responseInfo(201, Maps.of("Content-Type", Lists.of("text/plain")));
+
+    private final static String BODY = "body123";
+
+    @Test
+    public void testWithNullRequestFails() {
+        assertThrows(NullPointerException.class, () -> HttpResponseAjax.with(null, INFO, BODY));
+    }
+
+    @Test
+    public void testWithNullInfoFails() {
+        assertThrows(NullPointerException.class, () -> HttpResponseAjax.with(REQUEST, null, BODY));
+    }
+
+    @Test
+    public void testWith() {
+        final HttpResponseAjax<String> response = HttpResponseAjax.with(REQUEST, INFO, BODY);
+
+        assertSame(REQUEST, response.request(), "request");
+        assertEquals(REQUEST.uri(), response.uri(), "uri");
+        assertEquals(201, response.statusCode(), "statusCode");
+        assertEquals(INFO.headers(), response.headers(), "headers");
+        assertSame(Version.HTTP_1_1, response.version(), "version");
+        assertSame(BODY, response.body(), "body");
+        assertEquals(Optional.empty(), response.previousResponse(), "previousResponse");
+    }
+
+    @Test
+    public void testLazyNullBodyFails() {
+        assertThrows(NullPointerException.class, () -> HttpResponseAjax.lazy(REQUEST, INFO, null));
+    }
+
+    @Test
+    public void testLazy() {
+        final HttpResponseAjax<String> response = HttpResponseAjax.lazy(REQUEST, INFO, () -> BODY);
+
+        assertEquals(201, response.statusCode(), "statusCode");
+        assertSame(BODY, response.body(), "body");
+    }
+
+    @Test
+    public void testLazyBodyFails() {
+        final IllegalStateException cause = new IllegalStateException("fail");
+        final HttpResponseAjax<String> response = HttpResponseAjax.lazy(REQUEST, INFO, () -> {
+            throw cause;
+        });
+
+        assertEquals(201, response.statusCode(), "statusCode");
+        assertSame(cause, assertThrows(IllegalStateException.class, response::body));
+    }
+
+    // ClassTesting2....................................................................................................
+
+    @Override
+    public Class<HttpResponseAjax<?>> type() {
+        return Cast.to(HttpResponseAjax.class);
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.collect.map.Maps;
+
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class HttpResponseBodyHandlerByteArrayConsumerTest extends HttpResponseBodyHandlerTestCase2<HttpResponseBodyHandlerByteArrayConsumer, Void> {
+
+    @Test
+    public void testWithNullConsumerFails() {
+        assertThrows(NullPointerException.class, () -> HttpResponseBodyHandlerByteArrayConsumer.with(null));
+    }
+
+    @Test
+    public void testApplyResponseInfo() {
+        assertEquals(HttpResponseBodySubscriberByteArrayConsumer.class,
+                this.createBodyHandler()
+                        .apply(TestHttpClientTransport.responseInfo(200, Maps.empty()))
+                        .getClass());
+    }
+
+    @Test
+    public void testToString() {
+        this.toStringAndCheck(HttpResponseBodyHandlerByteArrayConsumer.with(CONSUMER), "HttpResponse.ofByteArrayConsumer " + CONSUMER);
+    }
+
+    @Override
+    HttpResponseBodyHandlerByteArrayConsumer createBodyHandler() {
+        return HttpResponseBodyHandlerByteArrayConsumer.with(CONSUMER);
+    }
+
+    private final static Consumer<Optional<byte[]>> CONSUMER = (b) -> {
+    };
+
+    @Override
+    public Class<HttpResponseBodyHandlerByteArrayConsumer> type() {
+        return HttpResponseBodyHandlerByteArrayConsumer.class;
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.map.Maps;
+import walkingkooka.j2cl.java.net.http.HttpResponse.BodySubscriber;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public final class HttpResponseBodyHandlerByteArrayTest extends HttpResponseBodyHandlerTestCase2<HttpResponseBodyHandlerByteArray, byte[]> {
+
+    @Test
+    public void testApplyResponseInfo() {
+        assertEquals(HttpResponseBodySubscriberByteArray.class,
+                this.createBodyHandler()
+                        .apply(TestHttpClientTransport.responseInfo(200, Maps.empty()))
+                        .getClass());
+    }
+
+    @Test
+    public void testApplyContentLength() throws Exception {
+        this.applyAndCheck("3", "abc");
+    }
+
+    @Test
+    public void testApplyInvalidContentLength() throws Exception {
+        this.applyAndCheck("-3", "abc");
+    }
+
+    @Test
+    public void testApplyMalformedContentLength() throws Exception {
+        this.applyAndCheck("abc", "abc");
+    }
+
+    private void applyAndCheck(final String contentLength,
+                               final String body) throws Exception {
+        final BodySubscriber<byte[]> subscriber = this.createBodyHandler()
+                .apply(TestHttpClientTransport.responseInfo(200, Maps.of("Content-Length", Lists.of(contentLength))));
+        TestBodySubscription.subscribe(subscriber, body);
+
+        assertArrayEquals(body.getBytes(StandardCharsets.UTF_8), subscriber.getBody().toCompletableFuture().get());
+    }
+
+    @Test
+    public void testToString() {
+        this.toStringAndCheck(HttpResponseBodyHandlerByteArray.INSTANCE, "HttpResponse.ofByteArray");
+    }
+
+    @Override
+    HttpResponseBodyHandlerByteArray createBodyHandler() {
+        return HttpResponseBodyHandlerByteArray.INSTANCE;
+    }
+
+    @Override
+    public Class<HttpResponseBodyHandlerByteArray> type() {
+        return HttpResponseBodyHandlerByteArray.class;
+    }
+}
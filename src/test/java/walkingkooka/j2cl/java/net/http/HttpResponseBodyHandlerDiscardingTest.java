@@ -21,8 +21,6 @@ import org.junit.jupiter.api.Test;
 import walkingkooka.j2cl.java.net.http.HttpClient.Version;
 import walkingkooka.j2cl.java.net.http.HttpResponse.ResponseInfo;
 
-import java.net.http.HttpHeaders;
-
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 public final class HttpResponseBodyHandlerDiscardingTest extends HttpResponseBodyHandlerTestCase2<HttpResponseBodyHandlerDiscarding, Void> {
@@ -0,0 +1,178 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.Cast;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.map.Maps;
+import walkingkooka.j2cl.java.net.http.HttpResponse.BodyHandler;
+import walkingkooka.j2cl.java.net.http.HttpResponse.BodyHandlers;
+import walkingkooka.j2cl.java.net.http.HttpResponse.BodySubscriber;
+import walkingkooka.j2cl.java.net.http.HttpResponse.ResponseInfo;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class HttpResponseBodyHandlerDispatchingTest extends HttpResponseBodyHandlerTestCase2<HttpResponseBodyHandlerDispatching<String>, String> {
+
+    private final static Predicate<ResponseInfo> CONDITION = new Predicate<>() {
+        @Override
+        public boolean test(final ResponseInfo info) {
+            return info.statusCode() < 300;
+        }
+
+        @Override
+        public String toString() {
+            return "successful";
+        }
+    };
+
+    private final static BodyHandler<String> MATCHED = BodyHandlers.ofString();
+
+    private final static BodyHandler<String> OTHERWISE = BodyHandlers.replacing("error");
+
+    @Test
+    public void testWithNullConditionFails() {
+        assertThrows(NullPointerException.class, () -> HttpResponseBodyHandlerDispatching.with(null, MATCHED, OTHERWISE));
+    }
+
+    @Test
+    public void testWithNullMatchedFails() {
+        assertThrows(NullPointerException.class, () -> HttpResponseBodyHandlerDispatching.with(CONDITION, null, OTHERWISE));
+    }
+
+    @Test
+    public void testWithNullOtherwiseFails() {
+        assertThrows(NullPointerException.class, () -> HttpResponseBodyHandlerDispatching.with(CONDITION, MATCHED, null));
+    }
+
+    @Test
+    public void testApplyMatched() throws Exception {
+        this.applyAndCheck(this.createBodyHandler(), 200, Maps.empty(), "abc");
+    }
+
+    @Test
+    public void testApplyOtherwise() throws Exception {
+        this.applyAndCheck(this.createBodyHandler(), 503, Maps.empty(), "error");
+    }
+
+    @Test
+    public void testApplyOtherwiseNotDecoded() {
+        assertEquals(HttpResponseBodySubscriberReplacing.class,
+                this.createBodyHandler()
+                        .apply(TestHttpClientTransport.responseInfo(500, Maps.empty()))
+                        .getClass());
+    }
+
+    @Test
+    public void testApplyNested() throws Exception {
+        final BodyHandler<String> handler = HttpResponseBodyHandlerDispatching.with(
+                CONDITION,
+                MATCHED,
+                HttpResponseBodyHandlerDispatching.with((i) -> i.statusCode() < 500, BodyHandlers.replacing("client error"), OTHERWISE)
+        );
+
+        this.applyAndCheck(handler, 200, Maps.empty(), "abc");
+        this.applyAndCheck(handler, 404, Maps.empty(), "client error");
+        this.applyAndCheck(handler, 500, Maps.empty(), "error");
+    }
+
+    @Test
+    public void testDispatchingStatusCode() throws Exception {
+        final BodyHandler<String> handler = BodyHandlers.dispatchingStatusCode((s) -> s >= 500, OTHERWISE, MATCHED);
+
+        this.applyAndCheck(handler, 201, Maps.empty(), "abc");
+        this.applyAndCheck(handler, 502, Maps.empty(), "error");
+    }
+
+    @Test
+    public void testDispatchingStatusCodeNullFails() {
+        assertThrows(NullPointerException.class, () -> BodyHandlers.dispatchingStatusCode(null, MATCHED, OTHERWISE));
+    }
+
+    @Test
+    public void testDispatchingContentType() throws Exception {
+        final BodyHandler<String> handler = BodyHandlers.dispatchingContentType((c) -> c.startsWith("text/"), MATCHED, OTHERWISE);
+
+        this.applyAndCheck(handler, 200, Maps.of("Content-Type", Lists.of("text/plain")), "abc");
+        this.applyAndCheck(handler, 200, Maps.of("Content-Type", Lists.of("image/png")), "error");
+        this.applyAndCheck(handler, 200, Maps.empty(), "error");
+    }
+
+    @Test
+    public void testDispatchingContentTypeNullFails() {
+        assertThrows(NullPointerException.class, () -> BodyHandlers.dispatchingContentType(null, MATCHED, OTHERWISE));
+    }
+
+    @Test
+    public void testSendAsync() throws Exception {
+        final TestHttpClientTransport transport = new TestHttpClientTransport();
+        final HttpClient client = HttpClientAjax.with(null, null, HttpClient.Redirect.NEVER, HttpClient.Version.HTTP_1_1, transport, Optional.empty(), Optional.empty(), Optional.empty(), OptionalLong.empty(), Optional.empty(), Duration.ZERO, Optional.empty(), () -> 0);
+        final HttpRequest request = HttpRequest.newBuilder(URI.create("http://example.com")).build();
+
+        final CompletableFuture<HttpResponse<String>> success = client.sendAsync(request, this.createBodyHandler());
+        final CompletableFuture<HttpResponse<String>> failure = client.sendAsync(request, this.createBodyHandler());
+
+        transport.exchange(0)
+                .respond(200, Maps.empty())
+                .body("abc")
+                .complete();
+        transport.exchange(1)
+                .respond(500, Maps.empty())
+                .body("stack trace")
+                .complete();
+
+        assertEquals("abc", success.get().body());
+        assertEquals("error", failure.get().body());
+    }
+
+    private void applyAndCheck(final BodyHandler<String> handler,
+                               final int statusCode,
+                               final Map<String, List<String>> headers,
+                               final String expected) throws Exception {
+        final BodySubscriber<String> subscriber = handler.apply(TestHttpClientTransport.responseInfo(statusCode, headers));
+        TestBodySubscription.subscribe(subscriber, "abc");
+
+        assertEquals(expected, subscriber.getBody().toCompletableFuture().get(), () -> statusCode + " " + headers);
+    }
+
+    @Test
+    public void testToString() {
+        this.toStringAndCheck(this.createBodyHandler(), "successful ? " + MATCHED + " : " + OTHERWISE);
+    }
+
+    @Override
+    HttpResponseBodyHandlerDispatching<String> createBodyHandler() {
+        return HttpResponseBodyHandlerDispatching.with(CONDITION, MATCHED, OTHERWISE);
+    }
+
+    @Override
+    public Class<HttpResponseBodyHandlerDispatching<String>> type() {
+        return Cast.to(HttpResponseBodyHandlerDispatching.class);
+    }
+}
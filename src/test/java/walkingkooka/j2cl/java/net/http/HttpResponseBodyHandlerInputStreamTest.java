@@ -0,0 +1,51 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.collect.map.Maps;
+
+import java.io.InputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public final class HttpResponseBodyHandlerInputStreamTest extends HttpResponseBodyHandlerTestCase2<HttpResponseBodyHandlerInputStream, InputStream> {
+
+    @Test
+    public void testApplyResponseInfo() {
+        assertEquals(HttpResponseBodySubscriberInputStream.class,
+                this.createBodyHandler()
+                        .apply(TestHttpClientTransport.responseInfo(200, Maps.empty()))
+                        .getClass());
+    }
+
+    @Test
+    public void testToString() {
+        this.toStringAndCheck(HttpResponseBodyHandlerInputStream.INSTANCE, "HttpResponse.ofInputStream");
+    }
+
+    @Override
+    HttpResponseBodyHandlerInputStream createBodyHandler() {
+        return HttpResponseBodyHandlerInputStream.INSTANCE;
+    }
+
+    @Override
+    public Class<HttpResponseBodyHandlerInputStream> type() {
+        return HttpResponseBodyHandlerInputStream.class;
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.Cast;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.map.Maps;
+import walkingkooka.j2cl.java.net.http.HttpResponse.BodySubscriber;
+import walkingkooka.j2cl.java.net.http.HttpResponseBodySubscriberLineSubscriberTest.LineSubscriber;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class HttpResponseBodyHandlerLineSubscriberTest extends HttpResponseBodyHandlerTestCase2<HttpResponseBodyHandlerLineSubscriber<LineSubscriber, String>, String> {
+
+    @Test
+    public void testWithNullSubscriberFails() {
+        assertThrows(NullPointerException.class, () -> HttpResponseBodyHandlerLineSubscriber.with(null, Function.identity(), null));
+    }
+
+    @Test
+    public void testWithNullFinisherFails() {
+        assertThrows(NullPointerException.class, () -> HttpResponseBodyHandlerLineSubscriber.with(new LineSubscriber(), null, null));
+    }
+
+    @Test
+    public void testWithEmptyLineSeparatorFails() {
+        assertThrows(IllegalArgumentException.class, () -> HttpResponseBodyHandlerLineSubscriber.with(new LineSubscriber(), Function.identity(), ""));
+    }
+
+    @Test
+    public void testApplyResponseInfo() {
+        assertEquals(HttpResponseBodySubscriberLineSubscriber.class,
+                this.createBodyHandler()
+                        .apply(TestHttpClientTransport.responseInfo(200, Maps.empty()))
+                        .getClass());
+    }
+
+    @Test
+    public void testApplyNoContentTypeUtf8() throws Exception {
+        this.applyAndCheck(Maps.empty(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testApplyContentTypeWithoutCharsetUtf8() throws Exception {
+        this.applyAndCheck(contentType("text/plain"), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testApplyContentTypeCharset() throws Exception {
+        this.applyAndCheck(contentType("text/plain; charset=ISO-8859-1"), StandardCharsets.ISO_8859_1);
+    }
+
+    @Test
+    public void testApplyContentTypeCharsetQuoted() throws Exception {
+        this.applyAndCheck(contentType("text/plain;CHARSET=\"UTF-16\""), StandardCharsets.UTF_16);
+    }
+
+    @Test
+    public void testApplyContentTypeUnsupportedCharsetUtf8() throws Exception {
+        this.applyAndCheck(contentType("text/plain; charset=unknown-charset-123"), StandardCharsets.UTF_8);
+    }
+
+    private static Map<String, List<String>> contentType(final String value) {
+        return Maps.of("Content-Type", Lists.of(value));
+    }
+
+    private void applyAndCheck(final Map<String, List<String>> headers,
+                               final Charset charset) throws Exception {
+        final LineSubscriber lines = new LineSubscriber();
+        final BodySubscriber<String> subscriber = HttpResponseBodyHandlerLineSubscriber.with(lines, LineSubscriber::joined, null)
+                .apply(TestHttpClientTransport.responseInfo(200, headers));
+        TestBodySubscription.subscribeAsync(subscriber);
+
+        lines.subscription.request(Long.MAX_VALUE);
+        subscriber.onNext(Lists.of(ByteBuffer.wrap("abc\n\u00e9".getBytes(charset))));
+        subscriber.onComplete();
+
+        assertEquals("abc,\u00e9", subscriber.getBody().toCompletableFuture().get());
+    }
+
+    @Test
+    public void testToString() {
+        final LineSubscriber subscriber = new LineSubscriber();
+        this.toStringAndCheck(HttpResponseBodyHandlerLineSubscriber.with(subscriber, LineSubscriber::joined, null), "HttpResponse.fromLineSubscriber " + subscriber);
+    }
+
+    @Override
+    HttpResponseBodyHandlerLineSubscriber<LineSubscriber, String> createBodyHandler() {
+        return HttpResponseBodyHandlerLineSubscriber.with(new LineSubscriber(), LineSubscriber::joined, null);
+    }
+
+    @Override
+    public Class<HttpResponseBodyHandlerLineSubscriber<LineSubscriber, String>> type() {
+        return Cast.to(HttpResponseBodyHandlerLineSubscriber.class);
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.Cast;
+import walkingkooka.collect.map.Maps;
+import walkingkooka.j2cl.java.net.http.HttpResponse.BodySubscriber;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public final class HttpResponseBodyHandlerReplacingTest extends HttpResponseBodyHandlerTestCase2<HttpResponseBodyHandlerReplacing<String>, String> {
+
+    private final static String VALUE = "replaced123";
+
+    @Test
+    public void testApplyResponseInfo() throws Exception {
+        final BodySubscriber<String> subscriber = this.createBodyHandler()
+                .apply(TestHttpClientTransport.responseInfo(500, Maps.empty()));
+        assertEquals(HttpResponseBodySubscriberReplacing.class, subscriber.getClass());
+
+        TestBodySubscription.subscribe(subscriber, "abc");
+        assertSame(VALUE, subscriber.getBody().toCompletableFuture().get());
+    }
+
+    @Test
+    public void testToString() {
+        this.toStringAndCheck(HttpResponseBodyHandlerReplacing.with(VALUE), "HttpResponse.replacing " + VALUE);
+    }
+
+    @Override
+    HttpResponseBodyHandlerReplacing<String> createBodyHandler() {
+        return HttpResponseBodyHandlerReplacing.with(VALUE);
+    }
+
+    @Override
+    public Class<HttpResponseBodyHandlerReplacing<String>> type() {
+        return Cast.to(HttpResponseBodyHandlerReplacing.class);
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.Cast;
+import walkingkooka.collect.map.Maps;
+
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class HttpResponseBodyHandlerSubscriberTest extends HttpResponseBodyHandlerTestCase2<HttpResponseBodyHandlerSubscriber<TestBodyChunkSubscriber, String>, String> {
+
+    @Test
+    public void testWithNullSubscriberFails() {
+        assertThrows(NullPointerException.class, () -> HttpResponseBodyHandlerSubscriber.with(null, Function.identity()));
+    }
+
+    @Test
+    public void testWithNullFinisherFails() {
+        assertThrows(NullPointerException.class, () -> HttpResponseBodyHandlerSubscriber.with(new TestBodyChunkSubscriber(), null));
+    }
+
+    @Test
+    public void testApplyResponseInfo() {
+        assertEquals(HttpResponseBodySubscriberSubscriber.class,
+                this.createBodyHandler()
+                        .apply(TestHttpClientTransport.responseInfo(200, Maps.empty()))
+                        .getClass());
+    }
+
+    @Test
+    public void testToString() {
+        final TestBodyChunkSubscriber subscriber = new TestBodyChunkSubscriber();
+        this.toStringAndCheck(HttpResponseBodyHandlerSubscriber.with(subscriber, TestBodyChunkSubscriber::toString), "HttpResponse.fromSubscriber " + subscriber);
+    }
+
+    @Override
+    HttpResponseBodyHandlerSubscriber<TestBodyChunkSubscriber, String> createBodyHandler() {
+        return HttpResponseBodyHandlerSubscriber.with(new TestBodyChunkSubscriber(), TestBodyChunkSubscriber::toString);
+    }
+
+    @Override
+    public Class<HttpResponseBodyHandlerSubscriber<TestBodyChunkSubscriber, String>> type() {
+        return Cast.to(HttpResponseBodyHandlerSubscriber.class);
+    }
+}
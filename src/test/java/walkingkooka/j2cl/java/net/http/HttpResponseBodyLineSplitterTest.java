@@ -0,0 +1,238 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.reflect.ClassTesting2;
+import walkingkooka.reflect.JavaVisibility;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class HttpResponseBodyLineSplitterTest implements ClassTesting2<HttpResponseBodyLineSplitter> {
+
+    private final static Charset UTF8 = StandardCharsets.UTF_8;
+
+    @Test
+    public void testWithNullCharsetFails() {
+        assertThrows(NullPointerException.class, () -> HttpResponseBodyLineSplitter.with(null, (l) -> {
+        }));
+    }
+
+    @Test
+    public void testWithNullLinesFails() {
+        assertThrows(NullPointerException.class, () -> HttpResponseBodyLineSplitter.with(UTF8, null));
+    }
+
+    @Test
+    public void testEmpty() {
+        this.splitAndCheck("");
+    }
+
+    @Test
+    public void testWithoutTerminator() {
+        this.splitAndCheck("abc");
+    }
+
+    @Test
+    public void testLf() {
+        this.splitAndCheck("abc\ndef\n");
+    }
+
+    @Test
+    public void testCr() {
+        this.splitAndCheck("abc\rdef\r");
+    }
+
+    @Test
+    public void testCrLf() {
+        this.splitAndCheck("abc\r\ndef\r\nghi");
+    }
+
+    @Test
+    public void testEmptyLines() {
+        this.splitAndCheck("\n\r\n\r\rabc\n\n");
+    }
+
+    @Test
+    public void testLfCr() {
+        this.splitAndCheck("abc\n\rdef");
+    }
+
+    @Test
+    public void testLongLine() {
+        final StringBuilder b = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            b.append((char) ('a' + i % 26));
+        }
+        this.splitAndCheck(b + "\n" + b);
+    }
+
+    @Test
+    public void testMultiByteCharacters() {
+        this.splitAndCheck("\u00e9t\u00e9\r\n\u20ac100\n\ud83d\ude00");
+    }
+
+    @Test
+    public void testIso88591() {
+        final String text = "caf\u00e9\r\nna\u00efve";
+        assertEquals(this.expected(text),
+                this.split(StandardCharsets.ISO_8859_1, text.getBytes(StandardCharsets.ISO_8859_1), 1));
+    }
+
+    @Test
+    public void testWithEmptyLineSeparatorFails() {
+        assertThrows(IllegalArgumentException.class, () -> HttpResponseBodyLineSplitter.with(UTF8, "", (l) -> {
+        }));
+    }
+
+    @Test
+    public void testUtf16() {
+        final String text = "abc\r\n\u00e9t\u00e9\r\u20ac\n\nlast";
+        final byte[] bytes = text.getBytes(StandardCharsets.UTF_16);
+
+        for (int i = 1; i <= bytes.length; i++) {
+            final int chunkSize = i;
+            assertEquals(this.expected(text),
+                    this.split(StandardCharsets.UTF_16, bytes, chunkSize),
+                    () -> "chunk size " + chunkSize);
+        }
+    }
+
+    @Test
+    public void testUtf16LinesOnlyWhenEnded() {
+        final List<String> lines = Lists.array();
+        final HttpResponseBodyLineSplitter splitter = HttpResponseBodyLineSplitter.with(StandardCharsets.UTF_16LE, lines::add);
+        splitter.split(ByteBuffer.wrap("a\nb\n".getBytes(StandardCharsets.UTF_16LE)));
+        assertEquals(Lists.empty(), lines, "before end");
+
+        splitter.end();
+        assertEquals(Lists.of("a", "b"), lines, "after end");
+    }
+
+    @Test
+    public void testUtf16LineSeparator() {
+        final List<String> lines = Lists.array();
+        final HttpResponseBodyLineSplitter splitter = HttpResponseBodyLineSplitter.with(StandardCharsets.UTF_16BE, "\u20ac", lines::add);
+        final byte[] bytes = "\u00e9\u20acb\r\nc\u20ac".getBytes(StandardCharsets.UTF_16BE);
+        for (final byte b : bytes) {
+            splitter.split(ByteBuffer.wrap(new byte[]{b}));
+        }
+        splitter.end();
+
+        assertEquals(Lists.of("\u00e9", "b\r\nc"), lines);
+    }
+
+    @Test
+    public void testLineSeparator() {
+        this.splitSeparatorAndCheck("abc||def||", "||", "abc", "def");
+    }
+
+    @Test
+    public void testLineSeparatorIgnoresCrLf() {
+        this.splitSeparatorAndCheck("a\r\nb;c\nd", ";", "a\r\nb", "c\nd");
+    }
+
+    @Test
+    public void testLineSeparatorPartialMatch() {
+        this.splitSeparatorAndCheck("a-b--c---d", "--", "a-b", "c", "-d");
+    }
+
+    @Test
+    public void testLineSeparatorEmptyLines() {
+        this.splitSeparatorAndCheck("::::a::", "::", "", "", "a");
+    }
+
+    @Test
+    public void testLineSeparatorMultiByte() {
+        this.splitSeparatorAndCheck("\u00e9\u20ac\u00e9\u20ac", "\u20ac", "\u00e9", "\u00e9");
+    }
+
+    private void splitSeparatorAndCheck(final String text,
+                                        final String lineSeparator,
+                                        final String... lines) {
+        final byte[] bytes = text.getBytes(UTF8);
+
+        for (int i = 1; i <= bytes.length; i++) {
+            final int chunkSize = i;
+            final List<String> split = Lists.array();
+            final HttpResponseBodyLineSplitter splitter = HttpResponseBodyLineSplitter.with(UTF8, lineSeparator, split::add);
+            for (int j = 0; j < bytes.length; j += chunkSize) {
+                splitter.split(ByteBuffer.wrap(bytes, j, Math.min(chunkSize, bytes.length - j)));
+            }
+            splitter.end();
+
+            assertEquals(Lists.of(lines), split, () -> "chunk size " + chunkSize);
+        }
+    }
+
+    /**
+     * Splits the text using every chunk size, verifying terminators and characters split across chunks.
+     */
+    private void splitAndCheck(final String text) {
+        final List<String> expected = this.expected(text);
+        final byte[] bytes = text.getBytes(UTF8);
+
+        for (int i = 1; i <= Math.max(1, bytes.length); i++) {
+            final int chunkSize = i;
+            assertEquals(expected,
+                    this.split(UTF8, bytes, chunkSize),
+                    () -> "chunk size " + chunkSize);
+        }
+    }
+
+    private List<String> expected(final String text) {
+        return new BufferedReader(new StringReader(text)).lines()
+                .collect(Collectors.toList());
+    }
+
+    private List<String> split(final Charset charset,
+                               final byte[] bytes,
+                               final int chunkSize) {
+        final List<String> lines = Lists.array();
+        final HttpResponseBodyLineSplitter splitter = HttpResponseBodyLineSplitter.with(charset, lines::add);
+
+        for (int i = 0; i < bytes.length; i += chunkSize) {
+            splitter.split(ByteBuffer.wrap(bytes, i, Math.min(chunkSize, bytes.length - i)));
+        }
+        splitter.end();
+
+        return lines;
+    }
+
+    // ClassTesting2....................................................................................................
+
+    @Override
+    public Class<HttpResponseBodyLineSplitter> type() {
+        return HttpResponseBodyLineSplitter.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.reflect.ClassTesting2;
+import walkingkooka.reflect.JavaVisibility;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class HttpResponseBodySubscriberByteArrayConsumerTest implements ClassTesting2<HttpResponseBodySubscriberByteArrayConsumer> {
+
+    @Test
+    public void testWithNullConsumerFails() {
+        assertThrows(NullPointerException.class, () -> HttpResponseBodySubscriberByteArrayConsumer.with(null));
+    }
+
+    @Test
+    public void testSubscribeRequestsOne() {
+        final TestBodySubscription subscription = TestBodySubscription.subscribeAsync(HttpResponseBodySubscriberByteArrayConsumer.with(this.consumer()), "a");
+        assertEquals(1, subscription.requested);
+    }
+
+    @Test
+    public void testChunksConsumedAsTheyArrive() throws Exception {
+        final HttpResponseBodySubscriberByteArrayConsumer subscriber = HttpResponseBodySubscriberByteArrayConsumer.with(this.consumer());
+        final TestBodySubscription subscription = TestBodySubscription.subscribeAsync(subscriber);
+
+        subscriber.onNext(Lists.of(this.buffer("abc")));
+        this.checkEvents("abc");
+        assertEquals(2, subscription.requested, "requested");
+        assertEquals(false, subscriber.getBody().toCompletableFuture().isDone());
+
+        subscriber.onNext(Lists.of(this.buffer("def")));
+        this.checkEvents("abc", "def");
+
+        subscriber.onComplete();
+        this.checkEvents("abc", "def", "empty");
+        assertEquals(null, subscriber.getBody().toCompletableFuture().get());
+    }
+
+    @Test
+    public void testSync() throws Exception {
+        final HttpResponseBodySubscriberByteArrayConsumer subscriber = HttpResponseBodySubscriberByteArrayConsumer.with(this.consumer());
+        final TestBodySubscription subscription = TestBodySubscription.subscribe(subscriber, "a", "b", "c", "d");
+
+        this.checkEvents("a", "b", "c", "d", "empty");
+        assertEquals(4, subscription.delivered, "delivered");
+        assertEquals(null, subscriber.getBody().toCompletableFuture().get());
+    }
+
+    @Test
+    public void testSyncManyChunks() throws Exception {
+        final String[] chunks = new String[10000];
+        for (int i = 0; i < chunks.length; i++) {
+            chunks[i] = "" + (char) ('a' + i % 26);
+        }
+
+        final HttpResponseBodySubscriberByteArrayConsumer subscriber = HttpResponseBodySubscriberByteArrayConsumer.with(this.consumer());
+        TestBodySubscription.subscribe(subscriber, chunks);
+
+        assertEquals(chunks.length + 1, this.events.size());
+        assertEquals(null, subscriber.getBody().toCompletableFuture().get());
+    }
+
+    @Test
+    public void testSeveralBuffersSkipsEmpty() {
+        final HttpResponseBodySubscriberByteArrayConsumer subscriber = HttpResponseBodySubscriberByteArrayConsumer.with(this.consumer());
+        TestBodySubscription.subscribeAsync(subscriber);
+
+        subscriber.onNext(Lists.of(this.buffer("abc"), this.buffer(""), this.buffer("de")));
+        subscriber.onComplete();
+
+        this.checkEvents("abc", "de", "empty");
+    }
+
+    @Test
+    public void testEmptyBody() throws Exception {
+        final HttpResponseBodySubscriberByteArrayConsumer subscriber = HttpResponseBodySubscriberByteArrayConsumer.with(this.consumer());
+        TestBodySubscription.subscribe(subscriber);
+
+        this.checkEvents("empty");
+        assertEquals(null, subscriber.getBody().toCompletableFuture().get());
+    }
+
+    @Test
+    public void testError() {
+        final HttpResponseBodySubscriberByteArrayConsumer subscriber = HttpResponseBodySubscriberByteArrayConsumer.with(this.consumer());
+        TestBodySubscription.subscribeAsync(subscriber);
+        subscriber.onNext(Lists.of(this.buffer("abc")));
+
+        final IOException cause = new IOException("fail");
+        subscriber.onError(cause);
+
+        this.checkEvents("abc");
+        assertSame(cause, assertThrows(ExecutionException.class, () -> subscriber.getBody().toCompletableFuture().get()).getCause());
+    }
+
+    @Test
+    public void testConsumerFailsCancels() {
+        final IllegalStateException cause = new IllegalStateException("disk full");
+        final HttpResponseBodySubscriberByteArrayConsumer subscriber = HttpResponseBodySubscriberByteArrayConsumer.with((b) -> {
+            throw cause;
+        });
+        final TestBodySubscription subscription = TestBodySubscription.subscribe(subscriber, "abc", "def");
+
+        assertEquals(true, subscription.cancelled, "cancelled");
+        assertEquals(1, subscription.delivered, "delivered");
+        assertSame(cause, assertThrows(ExecutionException.class, () -> subscriber.getBody().toCompletableFuture().get()).getCause());
+    }
+
+    @Test
+    public void testCancelStageCancelsSubscription() {
+        final HttpResponseBodySubscriberByteArrayConsumer subscriber = HttpResponseBodySubscriberByteArrayConsumer.with(this.consumer());
+        final TestBodySubscription subscription = TestBodySubscription.subscribeAsync(subscriber, "abc");
+
+        subscriber.getBody().toCompletableFuture().cancel(false);
+        assertEquals(true, subscription.cancelled, "cancelled");
+
+        subscriber.onNext(Lists.of(this.buffer("abc")));
+        subscriber.onComplete();
+        this.checkEvents();
+    }
+
+    @Test
+    public void testSecondSubscriptionCancelled() {
+        final HttpResponseBodySubscriberByteArrayConsumer subscriber = HttpResponseBodySubscriberByteArrayConsumer.with(this.consumer());
+        TestBodySubscription.subscribeAsync(subscriber, "abc");
+
+        final TestBodySubscription second = TestBodySubscription.subscribeAsync(subscriber, "def");
+        assertEquals(true, second.cancelled, "cancelled");
+        assertEquals(0, second.requested, "requested");
+    }
+
+    private Consumer<Optional<byte[]>> consumer() {
+        return (b) -> this.events.add(b.map((bytes) -> new String(bytes, StandardCharsets.UTF_8)).orElse("empty"));
+    }
+
+    private ByteBuffer buffer(final String text) {
+        return ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void checkEvents(final String... events) {
+        assertEquals(Lists.of(events), this.events);
+    }
+
+    private final List<String> events = Lists.array();
+
+    // ClassTesting2....................................................................................................
+
+    @Override
+    public Class<HttpResponseBodySubscriberByteArrayConsumer> type() {
+        return HttpResponseBodySubscriberByteArrayConsumer.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.map.Maps;
+import walkingkooka.reflect.ClassTesting2;
+import walkingkooka.reflect.JavaVisibility;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class HttpResponseBodySubscriberByteArrayTest implements ClassTesting2<HttpResponseBodySubscriberByteArray> {
+
+    @Test
+    public void testSubscribeRequestsAll() {
+        final TestBodySubscription subscription = TestBodySubscription.subscribeAsync(HttpResponseBodySubscriberByteArray.unknownLength(), "a");
+        assertEquals(Long.MAX_VALUE, subscription.requested);
+    }
+
+    @Test
+    public void testUnknownLength() throws Exception {
+        this.bodyAndCheck(HttpResponseBodySubscriberByteArray.unknownLength(), "abc", "", "def");
+    }
+
+    @Test
+    public void testUnknownLengthEmpty() throws Exception {
+        this.bodyAndCheck(HttpResponseBodySubscriberByteArray.unknownLength());
+    }
+
+    @Test
+    public void testUnknownLengthGrows() throws Exception {
+        final StringBuilder chunk = new StringBuilder();
+        for (int i = 0; i < 3000; i++) {
+            chunk.append((char) ('a' + i % 26));
+        }
+        final String c = chunk.toString();
+        this.bodyAndCheck(HttpResponseBodySubscriberByteArray.unknownLength(), c, c, c, c, c, c, c);
+    }
+
+    @Test
+    public void testContentLength() throws Exception {
+        this.bodyAndCheck(HttpResponseBodySubscriberByteArray.with(6), "abc", "def");
+    }
+
+    @Test
+    public void testContentLengthZero() throws Exception {
+        this.bodyAndCheck(HttpResponseBodySubscriberByteArray.with(0));
+    }
+
+    @Test
+    public void testContentLengthTooSmall() throws Exception {
+        this.bodyAndCheck(HttpResponseBodySubscriberByteArray.with(2), "abc", "def");
+    }
+
+    @Test
+    public void testContentLengthTooLarge() throws Exception {
+        this.bodyAndCheck(HttpResponseBodySubscriberByteArray.with(100), "abc", "def");
+    }
+
+    @Test
+    public void testContentLengthNegative() throws Exception {
+        this.bodyAndCheck(HttpResponseBodySubscriberByteArray.with(-1), "abc");
+    }
+
+    @Test
+    public void testContentLengthHuge() throws Exception {
+        this.bodyAndCheck(HttpResponseBodySubscriberByteArray.with(Long.MAX_VALUE), "abc");
+    }
+
+    @Test
+    public void testContentLengthGreaterThanMaxPresize() throws Exception {
+        final String body = "a".repeat(HttpResponseBodySubscriberByteArray.MAX_PRESIZE + 2);
+        this.bodyAndCheck(HttpResponseBodySubscriberByteArray.with(body.length()), body.substring(0, 1), body.substring(1));
+    }
+
+    @Test
+    public void testContentLengthToString() {
+        final HttpResponseBodySubscriberByteArray subscriber = HttpResponseBodySubscriberByteArray.with(6);
+        TestBodySubscription.subscribeAsync(subscriber);
+
+        subscriber.onNext(Lists.of(ByteBuffer.wrap("abc".getBytes(StandardCharsets.UTF_8))));
+        assertEquals(true, subscriber.toString().startsWith("3 bytes "), subscriber::toString);
+    }
+
+    @Test
+    public void testByteBufferPosition() throws Exception {
+        final HttpResponseBodySubscriberByteArray subscriber = HttpResponseBodySubscriberByteArray.unknownLength();
+        TestBodySubscription.subscribeAsync(subscriber);
+
+        subscriber.onNext(Lists.of(ByteBuffer.wrap("xabcx".getBytes(StandardCharsets.UTF_8), 1, 3)));
+        subscriber.onComplete();
+
+        assertArrayEquals("abc".getBytes(StandardCharsets.UTF_8), subscriber.getBody().toCompletableFuture().get());
+    }
+
+    @Test
+    public void testError() {
+        final HttpResponseBodySubscriberByteArray subscriber = HttpResponseBodySubscriberByteArray.unknownLength();
+        TestBodySubscription.subscribeAsync(subscriber);
+
+        final IOException cause = new IOException("fail");
+        subscriber.onError(cause);
+
+        assertSame(cause, assertThrows(ExecutionException.class, () -> subscriber.getBody().toCompletableFuture().get()).getCause());
+    }
+
+    @Test
+    public void testCancelStageCancelsSubscription() {
+        final HttpResponseBodySubscriberByteArray subscriber = HttpResponseBodySubscriberByteArray.unknownLength();
+        final TestBodySubscription subscription = TestBodySubscription.subscribeAsync(subscriber, "abc");
+
+        subscriber.getBody().toCompletableFuture().cancel(false);
+        assertEquals(true, subscription.cancelled, "cancelled");
+    }
+
+    @Test
+    public void testSameAsJre() throws Exception {
+        final java.net.http.HttpResponse.BodySubscriber<byte[]> jre = java.net.http.HttpResponse.BodySubscribers.ofByteArray();
+        TestBodySubscription.subscribe(jre, "abc", "def");
+
+        final HttpResponseBodySubscriberByteArray subscriber = HttpResponseBodySubscriberByteArray.unknownLength();
+        TestBodySubscription.subscribe(subscriber, "abc", "def");
+
+        assertArrayEquals(jre.getBody().toCompletableFuture().get(), subscriber.getBody().toCompletableFuture().get());
+    }
+
+    @Test
+    public void testSendAsyncContentLength() throws Exception {
+        final TestHttpClientTransport transport = new TestHttpClientTransport();
+        final CompletableFuture<HttpResponse<byte[]>> future = HttpClientAjax.with(null, null, HttpClient.Redirect.NEVER, HttpClient.Version.HTTP_1_1, transport, Optional.empty(), Optional.empty(), Optional.empty(), OptionalLong.empty(), Optional.empty(), Duration.ZERO, Optional.empty(), () -> 0)
+                .sendAsync(HttpRequest.newBuilder(URI.create("http://example.com")).build(), HttpResponse.BodyHandlers.ofByteArray());
+
+        transport.exchange(0)
+                .respond(200, Maps.of("Content-Length", Lists.of("6")))
+                .body("abc")
+                .body("def")
+                .complete();
+        assertArrayEquals("abcdef".getBytes(StandardCharsets.UTF_8), future.get().body());
+    }
+
+    private void bodyAndCheck(final HttpResponseBodySubscriberByteArray subscriber,
+                              final String... chunks) throws Exception {
+        TestBodySubscription.subscribe(subscriber, chunks);
+
+        assertArrayEquals(String.join("", chunks).getBytes(StandardCharsets.UTF_8),
+                subscriber.getBody().toCompletableFuture().get());
+    }
+
+    // ClassTesting2....................................................................................................
+
+    @Override
+    public Class<HttpResponseBodySubscriberByteArray> type() {
+        return HttpResponseBodySubscriberByteArray.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
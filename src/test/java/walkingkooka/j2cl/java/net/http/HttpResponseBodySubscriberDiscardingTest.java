@@ -23,6 +23,8 @@ import walkingkooka.collect.list.Lists;
 import java.nio.ByteBuffer;
 import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
 public final class HttpResponseBodySubscriberDiscardingTest extends HttpResponseBodySubscriberTestCase2<HttpResponseBodySubscriberDiscarding, Void> {
 
     @Test
@@ -89,6 +91,36 @@ public final class HttpResponseBodySubscriberDiscardingTest extends HttpResponse
         this.check(jre, bodySubscriber);
     }
 
+    @Test
+    public void testOnNextNotDecoded() throws Exception {
+        final HttpResponseBodySubscriberDiscarding bodySubscriber = HttpResponseBodySubscriberDiscarding.with();
+        bodySubscriber.onSubscribe(subscription(bodySubscriber));
+
+        bodySubscriber.onNext(Lists.of(ByteBuffer.allocateDirect(4), ByteBuffer.wrap(new byte[]{(byte) 0xff})));
+        bodySubscriber.onComplete();
+
+        assertEquals(null, bodySubscriber.getBody().toCompletableFuture().get());
+    }
+
+    @Test
+    public void testOnSubscribeRequestsAll() {
+        final HttpResponseBodySubscriberDiscarding bodySubscriber = HttpResponseBodySubscriberDiscarding.with();
+        final TestBodySubscription subscription = TestBodySubscription.subscribeAsync(bodySubscriber, "abc");
+
+        assertEquals(Long.MAX_VALUE, subscription.requested);
+    }
+
+    @Test
+    public void testManyChunks() throws Exception {
+        final HttpResponseBodySubscriberDiscarding bodySubscriber = HttpResponseBodySubscriberDiscarding.with();
+        final TestBodySubscription subscription = TestBodySubscription.subscribeAsync(bodySubscriber, "abc", "def", "ghi");
+        subscription.deliver();
+
+        assertEquals(3, subscription.delivered, "delivered");
+        assertEquals(true, subscription.completed, "completed");
+        assertEquals(null, bodySubscriber.getBody().toCompletableFuture().get());
+    }
+
     @Override
     public Class<HttpResponseBodySubscriberDiscarding> type() {
         return HttpResponseBodySubscriberDiscarding.class;
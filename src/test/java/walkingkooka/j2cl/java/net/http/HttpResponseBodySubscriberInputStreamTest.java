@@ -0,0 +1,250 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.reflect.ClassTesting2;
+import walkingkooka.reflect.JavaVisibility;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class HttpResponseBodySubscriberInputStreamTest implements ClassTesting2<HttpResponseBodySubscriberInputStream> {
+
+    @Test
+    public void testWithZeroMaxChunksFails() {
+        assertThrows(IllegalArgumentException.class, () -> HttpResponseBodySubscriberInputStream.with(0));
+    }
+
+    @Test
+    public void testBodyCompletesOnSubscribe() throws Exception {
+        final HttpResponseBodySubscriberInputStream subscriber = this.createSubscriber(2);
+        assertEquals(false, subscriber.getBody().toCompletableFuture().isDone(), "done before subscribe");
+
+        TestBodySubscription.subscribeAsync(subscriber, "abc");
+        assertSame(subscriber, subscriber.getBody().toCompletableFuture().get());
+    }
+
+    @Test
+    public void testSubscribeRequestsMaxChunks() {
+        final TestBodySubscription subscription = TestBodySubscription.subscribeAsync(this.createSubscriber(3), "a");
+        assertEquals(3L, subscription.requested, "requested");
+    }
+
+    @Test
+    public void testReadAll() throws Exception {
+        this.readAllAndCheck(1, "abc", "", "def", "ghi");
+    }
+
+    @Test
+    public void testReadAllMoreMaxChunks() throws Exception {
+        this.readAllAndCheck(4, "abc", "def", "ghi");
+    }
+
+    @Test
+    public void testReadAllEmpty() throws Exception {
+        this.readAllAndCheck(2);
+    }
+
+    private void readAllAndCheck(final int maxChunks,
+                                 final String... chunks) throws Exception {
+        final HttpResponseBodySubscriberInputStream subscriber = this.createSubscriber(maxChunks);
+        TestBodySubscription.subscribe(subscriber, chunks);
+
+        assertEquals(String.join("", chunks), new String(subscriber.readAllBytes(), StandardCharsets.UTF_8));
+        assertEquals(-1, subscriber.read(), "eof");
+    }
+
+    @Test
+    public void testReadByteByByte() throws Exception {
+        final HttpResponseBodySubscriberInputStream subscriber = this.createSubscriber(1);
+        TestBodySubscription.subscribe(subscriber, "ab", "c");
+
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        int b;
+        while (-1 != (b = subscriber.read())) {
+            bytes.write(b);
+        }
+        assertEquals("abc", bytes.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testReadHighBytes() throws Exception {
+        final HttpResponseBodySubscriberInputStream subscriber = this.createSubscriber(1);
+        TestBodySubscription.subscribe(subscriber, "\u00ff");
+
+        assertEquals(0xc3, subscriber.read());
+        assertEquals(0xbf, subscriber.read());
+        assertEquals(-1, subscriber.read());
+    }
+
+    @Test
+    public void testChunksReleasedAsRead() throws Exception {
+        final HttpResponseBodySubscriberInputStream subscriber = this.createSubscriber(2);
+        final TestBodySubscription subscription = TestBodySubscription.subscribe(subscriber, "ab", "cd", "ef", "gh");
+        assertEquals(2, subscription.delivered, "delivered");
+        assertEquals(4, subscriber.available(), "available");
+
+        final byte[] bytes = new byte[3];
+        assertEquals(3, subscriber.read(bytes));
+        assertArrayEquals("abc".getBytes(StandardCharsets.UTF_8), bytes);
+        assertEquals(3, subscription.delivered, "delivered");
+        assertEquals(3, subscriber.available(), "available");
+    }
+
+    @Test
+    public void testReadAsyncBeforeReceivedFails() throws Exception {
+        final HttpResponseBodySubscriberInputStream subscriber = this.createSubscriber(2);
+        final TestBodySubscription subscription = TestBodySubscription.subscribeAsync(subscriber, "ab", "cd");
+
+        assertEquals(0, subscriber.available(), "available");
+        assertEquals("Bytes read before they were received", assertThrows(IOException.class, subscriber::read).getMessage());
+
+        subscription.deliver();
+        assertEquals('a', subscriber.read());
+    }
+
+    @Test
+    public void testReadArrayStopsAtReceived() throws Exception {
+        final HttpResponseBodySubscriberInputStream subscriber = this.createSubscriber(1);
+        final TestBodySubscription subscription = TestBodySubscription.subscribeAsync(subscriber, "ab", "cd");
+        subscription.deliver();
+
+        final byte[] bytes = new byte[4];
+        assertEquals(2, subscriber.read(bytes, 0, 4));
+    }
+
+    @Test
+    public void testReadInvalidOffsetFails() {
+        assertThrows(IndexOutOfBoundsException.class, () -> this.createSubscriber(1).read(new byte[2], 1, 2));
+    }
+
+    @Test
+    public void testReadZeroLength() throws Exception {
+        assertEquals(0, this.createSubscriber(1).read(new byte[2], 0, 0));
+    }
+
+    @Test
+    public void testErrorAfterQueuedChunks() throws Exception {
+        final HttpResponseBodySubscriberInputStream subscriber = this.createSubscriber(2);
+        final TestBodySubscription subscription = TestBodySubscription.subscribeAsync(subscriber, "ab", "cd");
+        subscription.requested = 1;
+        subscription.deliver();
+
+        final IOException cause = new IOException("fail");
+        subscriber.onError(cause);
+
+        assertEquals('a', subscriber.read());
+        assertEquals('b', subscriber.read());
+        assertSame(cause, assertThrows(IOException.class, subscriber::read));
+    }
+
+    @Test
+    public void testErrorWrapped() {
+        final HttpResponseBodySubscriberInputStream subscriber = this.createSubscriber(2);
+        TestBodySubscription.subscribeAsync(subscriber, "ab");
+
+        final IllegalStateException cause = new IllegalStateException("fail");
+        subscriber.onError(cause);
+
+        assertSame(cause, assertThrows(IOException.class, subscriber::read).getCause());
+    }
+
+    @Test
+    public void testCloseCancelsSubscription() throws Exception {
+        final HttpResponseBodySubscriberInputStream subscriber = this.createSubscriber(1);
+        final TestBodySubscription subscription = TestBodySubscription.subscribe(subscriber, "ab", "cd");
+
+        try (final InputStream input = subscriber.getBody().toCompletableFuture().get()) {
+            assertEquals('a', input.read());
+        }
+
+        assertEquals(true, subscription.cancelled, "cancelled");
+        assertThrows(IOException.class, subscriber::read);
+    }
+
+    @Test
+    public void testCloseAfterCompleteDoesntCancel() throws Exception {
+        final HttpResponseBodySubscriberInputStream subscriber = this.createSubscriber(1);
+        final TestBodySubscription subscription = TestBodySubscription.subscribe(subscriber, "ab");
+
+        subscriber.readAllBytes();
+        subscriber.close();
+
+        assertEquals(false, subscription.cancelled, "cancelled");
+    }
+
+    @Test
+    public void testCancelStageBeforeSubscribeCancelsSubscription() {
+        final HttpResponseBodySubscriberInputStream subscriber = this.createSubscriber(1);
+        subscriber.getBody().toCompletableFuture().cancel(false);
+
+        assertEquals(true, TestBodySubscription.subscribeAsync(subscriber, "ab").cancelled, "cancelled");
+    }
+
+    @Test
+    public void testSubscribeTwiceCancelsSecond() {
+        final HttpResponseBodySubscriberInputStream subscriber = this.createSubscriber(1);
+        TestBodySubscription.subscribeAsync(subscriber);
+
+        assertEquals(true, TestBodySubscription.subscribeAsync(subscriber).cancelled);
+    }
+
+    @Test
+    public void testSendAsync() throws Exception {
+        final TestHttpClientTransport transport = new TestHttpClientTransport();
+        final CompletableFuture<HttpResponse<InputStream>> future = HttpClientAjax.with(null, null, HttpClient.Redirect.NEVER, HttpClient.Version.HTTP_1_1, transport, Optional.empty(), Optional.empty(), Optional.empty(), OptionalLong.empty(), Optional.empty(), Duration.ZERO, Optional.empty(), () -> 0)
+                .sendAsync(HttpRequest.newBuilder(URI.create("http://example.com")).build(), HttpResponse.BodyHandlers.ofInputStream());
+
+        final TestHttpClientTransport.Exchange exchange = transport.exchange(0);
+        exchange.respond(200);
+        assertEquals(HttpResponseBodySubscriberInputStream.MAX_CHUNKS, exchange.requested, "requested");
+
+        exchange.body("abc")
+                .complete();
+        assertEquals("abc", new String(future.get().body().readAllBytes(), StandardCharsets.UTF_8));
+    }
+
+    private HttpResponseBodySubscriberInputStream createSubscriber(final int maxChunks) {
+        return HttpResponseBodySubscriberInputStream.with(maxChunks);
+    }
+
+    // ClassTesting2....................................................................................................
+
+    @Override
+    public Class<HttpResponseBodySubscriberInputStream> type() {
+        return HttpResponseBodySubscriberInputStream.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
@@ -0,0 +1,308 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.Cast;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.reflect.ClassTesting2;
+import walkingkooka.reflect.JavaVisibility;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow.Subscriber;
+import java.util.concurrent.Flow.Subscription;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class HttpResponseBodySubscriberLineSubscriberTest implements ClassTesting2<HttpResponseBodySubscriberLineSubscriber<?, ?>> {
+
+    @Test
+    public void testWithNullSubscriberFails() {
+        assertThrows(NullPointerException.class, () -> HttpResponseBodySubscriberLineSubscriber.with(null, Function.identity(), StandardCharsets.UTF_8, null));
+    }
+
+    @Test
+    public void testWithNullFinisherFails() {
+        assertThrows(NullPointerException.class, () -> HttpResponseBodySubscriberLineSubscriber.with(new LineSubscriber(), null, StandardCharsets.UTF_8, null));
+    }
+
+    @Test
+    public void testWithNullCharsetFails() {
+        assertThrows(NullPointerException.class, () -> HttpResponseBodySubscriberLineSubscriber.with(new LineSubscriber(), Function.identity(), null, null));
+    }
+
+    @Test
+    public void testWithEmptyLineSeparatorFails() {
+        assertThrows(IllegalArgumentException.class, () -> HttpResponseBodySubscriberLineSubscriber.with(new LineSubscriber(), Function.identity(), StandardCharsets.UTF_8, ""));
+    }
+
+    @Test
+    public void testSubscribe() {
+        final LineSubscriber lines = new LineSubscriber();
+        final TestBodySubscription subscription = TestBodySubscription.subscribe(this.createSubscriber(lines), "a\n");
+
+        assertEquals(Lists.of("onSubscribe"), lines.events);
+        assertEquals(0, subscription.delivered, "delivered");
+    }
+
+    @Test
+    public void testLinesDeliveredOnlyAsRequested() {
+        final LineSubscriber lines = new LineSubscriber();
+        final TestBodySubscription subscription = TestBodySubscription.subscribe(this.createSubscriber(lines), "a\nb\n", "c\n");
+
+        lines.subscription.request(1);
+        assertEquals(Lists.of("onSubscribe", "a"), lines.events);
+        assertEquals(1, subscription.delivered, "delivered");
+
+        lines.subscription.request(1);
+        assertEquals(Lists.of("onSubscribe", "a", "b"), lines.events);
+        assertEquals(1, subscription.delivered, "second chunk not requested until needed");
+
+        lines.subscription.request(1);
+        assertEquals(Lists.of("onSubscribe", "a", "b", "c", "onComplete"), lines.events);
+        assertEquals(2, subscription.delivered, "delivered");
+    }
+
+    @Test
+    public void testChunkWithoutLineRequestsAnother() {
+        final LineSubscriber lines = new LineSubscriber();
+        TestBodySubscription.subscribe(this.createSubscriber(lines), "ab", "c", "\nd");
+
+        lines.subscription.request(1);
+        assertEquals(Lists.of("onSubscribe", "abc"), lines.events);
+    }
+
+    @Test
+    public void testCompleteAfterAllLinesDelivered() throws Exception {
+        final LineSubscriber lines = new LineSubscriber();
+        final HttpResponseBodySubscriberLineSubscriber<LineSubscriber, String> subscriber = this.createSubscriber(lines);
+        TestBodySubscription.subscribe(subscriber, "a\nb", "c");
+
+        lines.subscription.request(1);
+        assertEquals(false, subscriber.getBody().toCompletableFuture().isDone(), "done");
+
+        lines.subscription.request(Long.MAX_VALUE);
+        assertEquals(Lists.of("onSubscribe", "a", "bc", "onComplete"), lines.events);
+        assertEquals("a,bc", subscriber.getBody().toCompletableFuture().get());
+    }
+
+    @Test
+    public void testCompleteEmptyBody() throws Exception {
+        final LineSubscriber lines = new LineSubscriber();
+        final HttpResponseBodySubscriberLineSubscriber<LineSubscriber, String> subscriber = this.createSubscriber(lines);
+        TestBodySubscription.subscribe(subscriber);
+        lines.subscription.request(1);
+
+        assertEquals(Lists.of("onSubscribe", "onComplete"), lines.events);
+        assertEquals("", subscriber.getBody().toCompletableFuture().get());
+    }
+
+    @Test
+    public void testAsyncTransport() {
+        final LineSubscriber lines = new LineSubscriber();
+        final TestBodySubscription subscription = TestBodySubscription.subscribeAsync(this.createSubscriber(lines), "a\nb\n");
+
+        lines.subscription.request(2);
+        assertEquals(1, subscription.requested, "requested");
+        assertEquals(Lists.of("onSubscribe"), lines.events);
+
+        subscription.deliver();
+        assertEquals(Lists.of("onSubscribe", "a", "b", "onComplete"), lines.events);
+    }
+
+    @Test
+    public void testLineSeparator() throws Exception {
+        final LineSubscriber lines = new LineSubscriber();
+        final HttpResponseBodySubscriberLineSubscriber<LineSubscriber, String> subscriber = HttpResponseBodySubscriberLineSubscriber.with(lines,
+                LineSubscriber::joined,
+                StandardCharsets.UTF_8,
+                ";");
+        TestBodySubscription.subscribe(subscriber, "a\nb;c");
+        lines.subscription.request(Long.MAX_VALUE);
+
+        assertEquals("a\nb,c", subscriber.getBody().toCompletableFuture().get());
+    }
+
+    @Test
+    public void testError() {
+        final LineSubscriber lines = new LineSubscriber();
+        final HttpResponseBodySubscriberLineSubscriber<LineSubscriber, String> subscriber = this.createSubscriber(lines);
+        TestBodySubscription.subscribeAsync(subscriber, "a\n");
+
+        final IOException cause = new IOException("fail");
+        subscriber.onError(cause);
+
+        assertEquals(Lists.of("onSubscribe", "onError fail"), lines.events);
+        assertSame(cause, assertThrows(ExecutionException.class, () -> subscriber.getBody().toCompletableFuture().get()).getCause());
+    }
+
+    @Test
+    public void testFinisherFails() {
+        final LineSubscriber lines = new LineSubscriber();
+        final IllegalStateException cause = new IllegalStateException("finisher");
+        final HttpResponseBodySubscriberLineSubscriber<LineSubscriber, String> subscriber = HttpResponseBodySubscriberLineSubscriber.with(lines,
+                (s) -> {
+                    throw cause;
+                },
+                StandardCharsets.UTF_8,
+                null);
+        TestBodySubscription.subscribe(subscriber);
+        lines.subscription.request(1);
+
+        assertSame(cause, assertThrows(ExecutionException.class, () -> subscriber.getBody().toCompletableFuture().get()).getCause());
+    }
+
+    @Test
+    public void testCancelCancelsTransport() {
+        final LineSubscriber lines = new LineSubscriber();
+        final HttpResponseBodySubscriberLineSubscriber<LineSubscriber, String> subscriber = this.createSubscriber(lines);
+        final TestBodySubscription subscription = TestBodySubscription.subscribe(subscriber, "a\nb\n", "c\n");
+
+        lines.subscription.request(1);
+        lines.subscription.cancel();
+        lines.subscription.request(1);
+
+        assertEquals(true, subscription.cancelled, "cancelled");
+        assertEquals(Lists.of("onSubscribe", "a"), lines.events);
+        assertEquals(true, subscriber.getBody().toCompletableFuture().isCancelled(), "body cancelled");
+    }
+
+    @Test
+    public void testCancelStageCancelsTransport() {
+        final HttpResponseBodySubscriberLineSubscriber<LineSubscriber, String> subscriber = this.createSubscriber(new LineSubscriber());
+        final TestBodySubscription subscription = TestBodySubscription.subscribe(subscriber, "a\n");
+
+        subscriber.getBody().toCompletableFuture().cancel(false);
+        assertEquals(true, subscription.cancelled, "cancelled");
+    }
+
+    @Test
+    public void testRequestZeroFails() {
+        final LineSubscriber lines = new LineSubscriber();
+        TestBodySubscription.subscribe(this.createSubscriber(lines), "a\n");
+
+        lines.subscription.request(0);
+        assertEquals(Lists.of("onSubscribe", "onError Invalid count 0 must be greater than 0"), lines.events);
+    }
+
+    @Test
+    public void testRequestZeroCancelsTransport() {
+        final LineSubscriber lines = new LineSubscriber();
+        final HttpResponseBodySubscriberLineSubscriber<LineSubscriber, String> subscriber = this.createSubscriber(lines);
+        final TestBodySubscription subscription = TestBodySubscription.subscribeAsync(subscriber);
+
+        lines.subscription.request(1);
+        lines.subscription.request(-1);
+
+        assertEquals(true, subscription.cancelled, "cancelled");
+        assertEquals(true, subscriber.getBody().toCompletableFuture().isCompletedExceptionally(), "body failed");
+    }
+
+    @Test
+    public void testSubscribeTwiceCancelsSecond() {
+        final HttpResponseBodySubscriberLineSubscriber<LineSubscriber, String> subscriber = this.createSubscriber(new LineSubscriber());
+        TestBodySubscription.subscribeAsync(subscriber);
+
+        assertEquals(true, TestBodySubscription.subscribeAsync(subscriber).cancelled);
+    }
+
+    @Test
+    public void testSendAsync() throws Exception {
+        final TestHttpClientTransport transport = new TestHttpClientTransport();
+        final LineSubscriber lines = new LineSubscriber();
+        final CompletableFuture<HttpResponse<String>> future = HttpClientAjax.with(null, null, HttpClient.Redirect.NEVER, HttpClient.Version.HTTP_1_1, transport, Optional.empty(), Optional.empty(), Optional.empty(), OptionalLong.empty(), Optional.empty(), Duration.ZERO, Optional.empty(), () -> 0)
+                .sendAsync(HttpRequest.newBuilder(URI.create("http://example.com")).build(),
+                        HttpResponse.BodyHandlers.fromLineSubscriber(lines, LineSubscriber::joined, null));
+
+        final TestHttpClientTransport.Exchange exchange = transport.exchange(0);
+        exchange.respond(200);
+        assertEquals(0L, exchange.requested, "requested");
+
+        lines.subscription.request(Long.MAX_VALUE);
+        assertEquals(1L, exchange.requested, "requested");
+
+        exchange.body("a\nb")
+                .complete();
+        assertEquals("a,b", future.get().body());
+    }
+
+    private HttpResponseBodySubscriberLineSubscriber<LineSubscriber, String> createSubscriber(final LineSubscriber lines) {
+        return HttpResponseBodySubscriberLineSubscriber.with(lines, LineSubscriber::joined, StandardCharsets.UTF_8, null);
+    }
+
+    /**
+     * A {@link Subscriber} that records events, tests request lines using its {@link #subscription}.
+     */
+    static final class LineSubscriber implements Subscriber<String> {
+
+        @Override
+        public void onSubscribe(final Subscription subscription) {
+            this.subscription = subscription;
+            this.events.add("onSubscribe");
+        }
+
+        Subscription subscription;
+
+        @Override
+        public void onNext(final String line) {
+            this.events.add(line);
+            this.lines.add(line);
+        }
+
+        @Override
+        public void onError(final Throwable cause) {
+            this.events.add("onError " + cause.getMessage());
+        }
+
+        @Override
+        public void onComplete() {
+            this.events.add("onComplete");
+        }
+
+        String joined() {
+            return String.join(",", this.lines);
+        }
+
+        final List<String> events = Lists.array();
+
+        private final List<String> lines = Lists.array();
+    }
+
+    // ClassTesting2....................................................................................................
+
+    @Override
+    public Class<HttpResponseBodySubscriberLineSubscriber<?, ?>> type() {
+        return Cast.to(HttpResponseBodySubscriberLineSubscriber.class);
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
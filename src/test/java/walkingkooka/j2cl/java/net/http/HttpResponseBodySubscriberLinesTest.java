@@ -0,0 +1,226 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.reflect.ClassTesting2;
+import walkingkooka.reflect.JavaVisibility;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class HttpResponseBodySubscriberLinesTest implements ClassTesting2<HttpResponseBodySubscriberLines> {
+
+    @Test
+    public void testWithNullCharsetFails() {
+        assertThrows(NullPointerException.class, () -> HttpResponseBodySubscriberLines.with(null));
+    }
+
+    @Test
+    public void testUtf16() throws Exception {
+        final HttpResponseBodySubscriberLines subscriber = HttpResponseBodySubscriberLines.with(StandardCharsets.UTF_16);
+        TestBodySubscription.subscribeAsync(subscriber);
+        subscriber.onNext(Lists.of(ByteBuffer.wrap("abc\r\n\u00e9\ndef".getBytes(StandardCharsets.UTF_16))));
+        subscriber.onComplete();
+
+        assertEquals(Lists.of("abc", "\u00e9", "def"),
+                subscriber.getBody().toCompletableFuture().get().collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testBodyBeforeSubscribe() {
+        assertEquals(false, this.createSubscriber().getBody().toCompletableFuture().isDone());
+    }
+
+    @Test
+    public void testSubscribeRequestsAll() {
+        final HttpResponseBodySubscriberLines subscriber = this.createSubscriber();
+        final TestBodySubscription subscription = TestBodySubscription.subscribeAsync(subscriber, "abc\n");
+
+        assertEquals(Long.MAX_VALUE, subscription.requested, "requested");
+        assertEquals(false, subscriber.getBody().toCompletableFuture().isDone(), "done");
+    }
+
+    @Test
+    public void testLines() throws Exception {
+        this.linesAndCheck(Lists.of("abc\ndef\r", "\nghi"), "abc", "def", "ghi");
+    }
+
+    @Test
+    public void testLinesSplitAcrossChunks() throws Exception {
+        this.linesAndCheck(Lists.of("a", "bc\r", "\n", "d", "ef"), "abc", "def");
+    }
+
+    @Test
+    public void testLinesEmptyBody() throws Exception {
+        this.linesAndCheck(Lists.empty());
+    }
+
+    @Test
+    public void testLinesSameAsJre() throws Exception {
+        final String text = "line1\r\nline2\rline3\n\nline5";
+
+        final java.net.http.HttpResponse.BodySubscriber<Stream<String>> jre = java.net.http.HttpResponse.BodySubscribers.ofLines(StandardCharsets.UTF_8);
+        TestBodySubscription.subscribe(jre, text);
+
+        this.linesAndCheck(Lists.of(text),
+                jre.getBody().toCompletableFuture().get().toArray(String[]::new));
+    }
+
+    private void linesAndCheck(final List<String> chunks,
+                               final String... lines) throws Exception {
+        final HttpResponseBodySubscriberLines subscriber = this.createSubscriber();
+        TestBodySubscription.subscribe(subscriber, chunks.toArray(new String[0]));
+
+        assertEquals(Lists.of(lines),
+                subscriber.getBody().toCompletableFuture().get().collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testLinesAsync() throws Exception {
+        final HttpResponseBodySubscriberLines subscriber = this.createSubscriber();
+        final TestBodySubscription subscription = TestBodySubscription.subscribeAsync(subscriber, "a\nb\n", "c");
+        assertEquals(false, subscriber.getBody().toCompletableFuture().isDone(), "done before body received");
+
+        subscription.deliver();
+
+        assertEquals(Lists.of("a", "b", "c"),
+                subscriber.getBody().toCompletableFuture().get().collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testError() throws Exception {
+        final HttpResponseBodySubscriberLines subscriber = this.createSubscriber();
+        TestBodySubscription.subscribeAsync(subscriber, "a\n");
+
+        final IOException cause = new IOException("fail");
+        subscriber.onError(cause);
+
+        final UncheckedIOException thrown = assertThrows(UncheckedIOException.class, () -> subscriber.getBody().toCompletableFuture().get().count());
+        assertSame(cause, thrown.getCause());
+    }
+
+    @Test
+    public void testErrorAfterLines() throws Exception {
+        final HttpResponseBodySubscriberLines subscriber = this.createSubscriber();
+        TestBodySubscription.subscribeAsync(subscriber);
+        subscriber.onNext(Lists.of(ByteBuffer.wrap("a\nb\nc".getBytes(StandardCharsets.UTF_8))));
+
+        final IOException cause = new IOException("fail");
+        subscriber.onError(cause);
+
+        final Iterator<String> lines = subscriber.getBody().toCompletableFuture().get().iterator();
+        assertEquals("a", lines.next());
+        assertEquals("b", lines.next());
+        assertSame(cause, assertThrows(UncheckedIOException.class, lines::hasNext).getCause());
+    }
+
+    @Test
+    public void testErrorAfterCompleteIgnored() throws Exception {
+        final HttpResponseBodySubscriberLines subscriber = this.createSubscriber();
+        TestBodySubscription.subscribe(subscriber, "a\n");
+
+        subscriber.onError(new IOException("fail"));
+
+        assertEquals(Lists.of("a"),
+                subscriber.getBody().toCompletableFuture().get().collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testErrorTwiceKeepsFirst() throws Exception {
+        final HttpResponseBodySubscriberLines subscriber = this.createSubscriber();
+        TestBodySubscription.subscribeAsync(subscriber);
+
+        final IOException cause = new IOException("fail");
+        subscriber.onError(cause);
+        subscriber.onError(new IOException("fail2"));
+
+        assertSame(cause, assertThrows(UncheckedIOException.class, () -> subscriber.getBody().toCompletableFuture().get().count()).getCause());
+    }
+
+    @Test
+    public void testRuntimeError() throws Exception {
+        final HttpResponseBodySubscriberLines subscriber = this.createSubscriber();
+        TestBodySubscription.subscribeAsync(subscriber, "a\n");
+
+        final IllegalStateException cause = new IllegalStateException("fail");
+        subscriber.onError(cause);
+
+        assertSame(cause, assertThrows(IllegalStateException.class, () -> subscriber.getBody().toCompletableFuture().get().count()));
+    }
+
+    @Test
+    public void testCancelBodyCancelsSubscription() {
+        final HttpResponseBodySubscriberLines subscriber = this.createSubscriber();
+        final TestBodySubscription subscription = TestBodySubscription.subscribeAsync(subscriber, "a\n", "b\n");
+
+        subscriber.getBody().toCompletableFuture().cancel(false);
+
+        assertEquals(true, subscription.cancelled, "cancelled");
+    }
+
+    @Test
+    public void testCancelBodyAfterCompleteDoesntCancel() {
+        final HttpResponseBodySubscriberLines subscriber = this.createSubscriber();
+        final TestBodySubscription subscription = TestBodySubscription.subscribe(subscriber, "a\n");
+
+        subscriber.getBody().toCompletableFuture().cancel(false);
+
+        assertEquals(false, subscription.cancelled, "cancelled");
+    }
+
+    @Test
+    public void testSubscribeTwiceCancelsSecond() {
+        final HttpResponseBodySubscriberLines subscriber = this.createSubscriber();
+        TestBodySubscription.subscribeAsync(subscriber);
+
+        assertEquals(true, TestBodySubscription.subscribeAsync(subscriber).cancelled);
+    }
+
+    @Test
+    public void testSubscribeNullFails() {
+        assertThrows(NullPointerException.class, () -> this.createSubscriber().onSubscribe(null));
+    }
+
+    private HttpResponseBodySubscriberLines createSubscriber() {
+        return HttpResponseBodySubscriberLines.with(StandardCharsets.UTF_8);
+    }
+
+    // ClassTesting2....................................................................................................
+
+    @Override
+    public Class<HttpResponseBodySubscriberLines> type() {
+        return HttpResponseBodySubscriberLines.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
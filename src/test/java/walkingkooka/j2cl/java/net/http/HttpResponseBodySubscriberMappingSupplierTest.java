@@ -0,0 +1,91 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.Cast;
+import walkingkooka.reflect.ClassTesting2;
+import walkingkooka.reflect.JavaVisibility;
+
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class HttpResponseBodySubscriberMappingSupplierTest implements ClassTesting2<HttpResponseBodySubscriberMappingSupplier<?, ?>> {
+
+    @Test
+    public void testGetMapsOnce() {
+        final Supplier<Integer> supplier = HttpResponseBodySubscriberMappingSupplier.with(() -> "abc", (s) -> {
+            this.count++;
+            return s.length();
+        });
+        assertEquals(0, this.count, "count");
+
+        assertEquals(Integer.valueOf(3), supplier.get());
+        assertEquals(Integer.valueOf(3), supplier.get());
+        assertEquals(1, this.count, "count");
+    }
+
+    @Test
+    public void testGetNull() {
+        final Supplier<Integer> supplier = HttpResponseBodySubscriberMappingSupplier.with(() -> "abc", (s) -> {
+            this.count++;
+            return null;
+        });
+
+        assertEquals(null, supplier.get());
+        assertEquals(null, supplier.get());
+        assertEquals(1, this.count, "count");
+    }
+
+    @Test
+    public void testGetFailsRetried() {
+        final IllegalStateException cause = new IllegalStateException("fail");
+        final Supplier<Integer> supplier = HttpResponseBodySubscriberMappingSupplier.with(() -> "abc", (s) -> {
+            this.count++;
+            throw cause;
+        });
+
+        assertSame(cause, assertThrows(IllegalStateException.class, supplier::get));
+        assertSame(cause, assertThrows(IllegalStateException.class, supplier::get));
+        assertEquals(2, this.count, "count");
+    }
+
+    @Test
+    public void testToStringMapped() {
+        final Supplier<Integer> supplier = HttpResponseBodySubscriberMappingSupplier.with(() -> "abc", String::length);
+        supplier.get();
+        assertEquals("3", supplier.toString());
+    }
+
+    private int count;
+
+    // ClassTesting2....................................................................................................
+
+    @Override
+    public Class<HttpResponseBodySubscriberMappingSupplier<?, ?>> type() {
+        return Cast.to(HttpResponseBodySubscriberMappingSupplier.class);
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
@@ -0,0 +1,260 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.Cast;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.map.Maps;
+import walkingkooka.j2cl.java.net.http.HttpResponse.BodySubscriber;
+import walkingkooka.j2cl.java.net.http.HttpResponse.BodySubscribers;
+import walkingkooka.reflect.ClassTesting2;
+import walkingkooka.reflect.JavaVisibility;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class HttpResponseBodySubscriberMappingTest implements ClassTesting2<HttpResponseBodySubscriberMapping<?, ?>> {
+
+    @Test
+    public void testWithNullUpstreamFails() {
+        assertThrows(NullPointerException.class, () -> HttpResponseBodySubscriberMapping.with(null, String::length));
+    }
+
+    @Test
+    public void testWithNullMapperFails() {
+        assertThrows(NullPointerException.class, () -> HttpResponseBodySubscriberMapping.with(BodySubscribers.ofString(StandardCharsets.UTF_8), null));
+    }
+
+    @Test
+    public void testGetBody() throws Exception {
+        final BodySubscriber<Integer> subscriber = HttpResponseBodySubscriberMapping.with(BodySubscribers.ofString(StandardCharsets.UTF_8), this.mapper());
+        TestBodySubscription.subscribe(subscriber, "abcde");
+
+        assertEquals(Integer.valueOf(5), subscriber.getBody().toCompletableFuture().get());
+        this.checkMapped("abcde");
+    }
+
+    @Test
+    public void testGetBodyMapsOnComplete() throws Exception {
+        final BodySubscriber<Integer> subscriber = HttpResponseBodySubscriberMapping.with(BodySubscribers.ofString(StandardCharsets.UTF_8), this.mapper());
+        final CompletableFuture<Integer> body = subscriber.getBody().toCompletableFuture();
+
+        final TestBodySubscription subscription = TestBodySubscription.subscribeAsync(subscriber, "abc");
+        this.checkMapped();
+
+        subscription.deliver();
+        this.checkMapped("abc");
+        assertEquals(Integer.valueOf(3), body.get());
+    }
+
+    @Test
+    public void testGetBodySame() {
+        final BodySubscriber<Integer> subscriber = HttpResponseBodySubscriberMapping.with(BodySubscribers.ofString(StandardCharsets.UTF_8), this.mapper());
+        assertSame(subscriber.getBody(), subscriber.getBody());
+    }
+
+    @Test
+    public void testGetBodyCancelCancelsSubscription() {
+        final BodySubscriber<Integer> subscriber = HttpResponseBodySubscriberMapping.with(BodySubscribers.ofByteArray(), (b) -> b.length);
+        final TestBodySubscription subscription = TestBodySubscription.subscribeAsync(subscriber, "abc");
+
+        subscriber.getBody().toCompletableFuture().cancel(false);
+        assertEquals(true, subscription.cancelled, "cancelled");
+    }
+
+    @Test
+    public void testError() {
+        final BodySubscriber<Integer> subscriber = HttpResponseBodySubscriberMapping.with(BodySubscribers.ofString(StandardCharsets.UTF_8), this.mapper());
+        TestBodySubscription.subscribeAsync(subscriber, "abc");
+
+        final IOException cause = new IOException("fail");
+        subscriber.onError(cause);
+
+        assertSame(cause, assertThrows(ExecutionException.class, () -> subscriber.getBody().toCompletableFuture().get()).getCause());
+        this.checkMapped();
+    }
+
+    @Test
+    public void testMapperFails() {
+        final IllegalStateException cause = new IllegalStateException("bad json");
+        final BodySubscriber<Integer> subscriber = HttpResponseBodySubscriberMapping.with(BodySubscribers.ofString(StandardCharsets.UTF_8), (s) -> {
+            throw cause;
+        });
+        TestBodySubscription.subscribe(subscriber, "abc");
+
+        assertSame(cause, assertThrows(ExecutionException.class, () -> subscriber.getBody().toCompletableFuture().get()).getCause());
+    }
+
+    @Test
+    public void testSameAsJre() throws Exception {
+        final java.net.http.HttpResponse.BodySubscriber<Integer> jre = java.net.http.HttpResponse.BodySubscribers.mapping(
+                java.net.http.HttpResponse.BodySubscribers.ofString(StandardCharsets.UTF_8),
+                String::length
+        );
+        TestBodySubscription.subscribe(jre, "abcde");
+
+        final BodySubscriber<Integer> subscriber = HttpResponseBodySubscriberMapping.with(BodySubscribers.ofString(StandardCharsets.UTF_8), String::length);
+        TestBodySubscription.subscribe(subscriber, "abcde");
+
+        assertEquals(jre.getBody().toCompletableFuture().get(), subscriber.getBody().toCompletableFuture().get());
+    }
+
+    // sendAsync........................................................................................................
+
+    @Test
+    public void testSendAsyncBodyMappedLazily() throws Exception {
+        final TestHttpClientTransport transport = new TestHttpClientTransport();
+        final CompletableFuture<HttpResponse<Integer>> future = this.sendAsync(transport, this.mapper());
+
+        transport.exchange(0)
+                .respond(404, Maps.empty())
+                .body("abc")
+                .complete();
+
+        final HttpResponse<Integer> response = future.get();
+        assertEquals(404, response.statusCode());
+        this.checkMapped();
+
+        assertEquals(Integer.valueOf(3), response.body());
+        assertEquals(Integer.valueOf(3), response.body());
+        this.checkMapped("abc");
+    }
+
+    @Test
+    public void testSendAsyncBodyAndGetBodyMapOnce() throws Exception {
+        final TestHttpClientTransport transport = new TestHttpClientTransport();
+        final List<BodySubscriber<Integer>> subscribers = Lists.array();
+        final CompletableFuture<HttpResponse<Integer>> future = HttpClientAjax.with(null, null, HttpClient.Redirect.NEVER, HttpClient.Version.HTTP_1_1, transport, Optional.empty(), Optional.empty(), Optional.empty(), OptionalLong.empty(), Optional.empty(), Duration.ZERO, Optional.empty(), () -> 0)
+                .sendAsync(HttpRequest.newBuilder(URI.create("http://example.com")).build(),
+                        (info) -> {
+                            final BodySubscriber<Integer> subscriber = BodySubscribers.mapping(BodySubscribers.ofString(StandardCharsets.UTF_8), this.mapper());
+                            subscribers.add(subscriber);
+                            return subscriber;
+                        });
+
+        transport.exchange(0)
+                .respond(200, Maps.empty())
+                .body("abc")
+                .complete();
+
+        assertEquals(Integer.valueOf(3), future.get().body());
+        assertEquals(Integer.valueOf(3), subscribers.get(0).getBody().toCompletableFuture().get());
+        this.checkMapped("abc");
+    }
+
+    @Test
+    public void testSendAsyncNestedMappingLazily() throws Exception {
+        final TestHttpClientTransport transport = new TestHttpClientTransport();
+        final CompletableFuture<HttpResponse<String>> future = HttpClientAjax.with(null, null, HttpClient.Redirect.NEVER, HttpClient.Version.HTTP_1_1, transport, Optional.empty(), Optional.empty(), Optional.empty(), OptionalLong.empty(), Optional.empty(), Duration.ZERO, Optional.empty(), () -> 0)
+                .sendAsync(HttpRequest.newBuilder(URI.create("http://example.com")).build(),
+                        (info) -> BodySubscribers.mapping(
+                                BodySubscribers.mapping(BodySubscribers.ofString(StandardCharsets.UTF_8), this.mapper()),
+                                (length) -> {
+                                    this.mapped.add("length " + length);
+                                    return "" + length;
+                                }
+                        ));
+
+        transport.exchange(0)
+                .respond(200, Maps.empty())
+                .body("abc")
+                .complete();
+
+        final HttpResponse<String> response = future.get();
+        this.checkMapped();
+
+        assertEquals("3", response.body());
+        this.checkMapped("abc", "length 3");
+    }
+
+    @Test
+    public void testSendAsyncMapperFailsOnBody() throws Exception {
+        final IllegalStateException cause = new IllegalStateException("bad json");
+        final TestHttpClientTransport transport = new TestHttpClientTransport();
+        final CompletableFuture<HttpResponse<Integer>> future = this.sendAsync(transport, (s) -> {
+            throw cause;
+        });
+
+        transport.exchange(0)
+                .respond(200, Maps.empty())
+                .body("abc")
+                .complete();
+
+        final HttpResponse<Integer> response = future.get();
+        assertSame(cause, assertThrows(IllegalStateException.class, response::body));
+    }
+
+    @Test
+    public void testSendAsyncError() {
+        final TestHttpClientTransport transport = new TestHttpClientTransport();
+        final CompletableFuture<HttpResponse<Integer>> future = this.sendAsync(transport, this.mapper());
+
+        final IOException cause = new IOException("fail");
+        transport.exchange(0)
+                .respond(200, Maps.empty())
+                .fail(cause);
+
+        assertSame(cause, assertThrows(ExecutionException.class, future::get).getCause());
+        this.checkMapped();
+    }
+
+    private CompletableFuture<HttpResponse<Integer>> sendAsync(final TestHttpClientTransport transport,
+                                                               final Function<String, Integer> mapper) {
+        return HttpClientAjax.with(null, null, HttpClient.Redirect.NEVER, HttpClient.Version.HTTP_1_1, transport, Optional.empty(), Optional.empty(), Optional.empty(), OptionalLong.empty(), Optional.empty(), Duration.ZERO, Optional.empty(), () -> 0)
+                .sendAsync(HttpRequest.newBuilder(URI.create("http://example.com")).build(),
+                        (info) -> BodySubscribers.mapping(BodySubscribers.ofString(StandardCharsets.UTF_8), mapper));
+    }
+
+    private Function<String, Integer> mapper() {
+        return (s) -> {
+            this.mapped.add(s);
+            return s.length();
+        };
+    }
+
+    private void checkMapped(final String... mapped) {
+        assertEquals(Lists.of(mapped), this.mapped, "mapped");
+    }
+
+    private final List<String> mapped = Lists.array();
+
+    // ClassTesting2....................................................................................................
+
+    @Override
+    public Class<HttpResponseBodySubscriberMapping<?, ?>> type() {
+        return Cast.to(HttpResponseBodySubscriberMapping.class);
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
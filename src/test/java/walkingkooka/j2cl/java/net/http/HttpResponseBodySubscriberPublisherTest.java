@@ -0,0 +1,216 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.reflect.ClassTesting2;
+import walkingkooka.reflect.JavaVisibility;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow.Publisher;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class HttpResponseBodySubscriberPublisherTest implements ClassTesting2<HttpResponseBodySubscriberPublisher> {
+
+    @Test
+    public void testWithZeroMaxChunksFails() {
+        assertThrows(IllegalArgumentException.class, () -> HttpResponseBodySubscriberPublisher.with(0));
+    }
+
+    @Test
+    public void testBodyCompletesOnSubscribe() throws Exception {
+        final HttpResponseBodySubscriberPublisher publisher = HttpResponseBodySubscriberPublisher.with(2);
+        assertEquals(false, publisher.getBody().toCompletableFuture().isDone(), "done before subscribe");
+
+        final TestBodySubscription subscription = TestBodySubscription.subscribe(publisher, "a");
+        assertSame(publisher, publisher.getBody().toCompletableFuture().get());
+        assertEquals(0, subscription.requested, "nothing requested without a subscriber");
+    }
+
+    @Test
+    public void testSubscribeNullFails() {
+        assertThrows(NullPointerException.class, () -> HttpResponseBodySubscriberPublisher.with(2).subscribe(null));
+    }
+
+    @Test
+    public void testRequestForwardedUpstream() {
+        final HttpResponseBodySubscriberPublisher publisher = HttpResponseBodySubscriberPublisher.with(2);
+        final TestBodySubscription subscription = TestBodySubscription.subscribe(publisher, "a", "b", "c");
+        final TestBodyChunkSubscriber subscriber = this.subscribe(publisher);
+
+        subscriber.subscription.request(1);
+        assertEquals(Lists.of("onSubscribe", "a"), subscriber.events);
+        assertEquals(1, subscription.delivered, "delivered");
+
+        subscriber.subscription.request(2);
+        assertEquals(Lists.of("onSubscribe", "a", "b", "c", "onComplete"), subscriber.events);
+    }
+
+    @Test
+    public void testRequestCappedAtMaxChunks() {
+        final HttpResponseBodySubscriberPublisher publisher = HttpResponseBodySubscriberPublisher.with(2);
+        final TestBodySubscription subscription = TestBodySubscription.subscribeAsync(publisher, "a", "b", "c", "d");
+        final TestBodyChunkSubscriber subscriber = this.subscribe(publisher);
+
+        subscriber.subscription.request(Long.MAX_VALUE);
+        assertEquals(2, subscription.requested, "requested");
+
+        subscription.deliver();
+        assertEquals(Lists.of("onSubscribe", "a", "b", "c", "d", "onComplete"), subscriber.events);
+    }
+
+    @Test
+    public void testChunksBufferedUntilRequested() {
+        final HttpResponseBodySubscriberPublisher publisher = HttpResponseBodySubscriberPublisher.with(2);
+        final TestBodySubscription subscription = TestBodySubscription.subscribeAsync(publisher, "a", "b", "c");
+        final TestBodyChunkSubscriber subscriber = this.subscribe(publisher);
+
+        subscriber.subscription.request(1);
+        assertEquals(1, subscription.requested, "requested");
+
+        // a transport may send more than requested
+        publisher.onNext(Lists.of(ByteBuffer.wrap(new byte[]{'x'})));
+        publisher.onNext(Lists.of(ByteBuffer.wrap(new byte[]{'y'})));
+        assertEquals(Lists.of("onSubscribe", "x"), subscriber.events);
+
+        subscriber.subscription.request(1);
+        assertEquals(Lists.of("onSubscribe", "x", "y"), subscriber.events);
+    }
+
+    @Test
+    public void testCompleteAfterBufferedChunks() {
+        final HttpResponseBodySubscriberPublisher publisher = HttpResponseBodySubscriberPublisher.with(2);
+        TestBodySubscription.subscribeAsync(publisher);
+        final TestBodyChunkSubscriber subscriber = this.subscribe(publisher);
+
+        subscriber.subscription.request(1);
+        publisher.onNext(Lists.of(ByteBuffer.wrap(new byte[]{'a'})));
+        publisher.onComplete();
+        assertEquals(Lists.of("onSubscribe", "a", "onComplete"), subscriber.events);
+    }
+
+    @Test
+    public void testCompleteBeforeSubscribe() {
+        final HttpResponseBodySubscriberPublisher publisher = HttpResponseBodySubscriberPublisher.with(2);
+        TestBodySubscription.subscribeAsync(publisher);
+        publisher.onComplete();
+
+        assertEquals(Lists.of("onSubscribe", "onComplete"), this.subscribe(publisher).events);
+    }
+
+    @Test
+    public void testError() {
+        final HttpResponseBodySubscriberPublisher publisher = HttpResponseBodySubscriberPublisher.with(2);
+        TestBodySubscription.subscribeAsync(publisher);
+        final TestBodyChunkSubscriber subscriber = this.subscribe(publisher);
+
+        publisher.onError(new IOException("fail"));
+        assertEquals(Lists.of("onSubscribe", "onError fail"), subscriber.events);
+    }
+
+    @Test
+    public void testCancel() {
+        final HttpResponseBodySubscriberPublisher publisher = HttpResponseBodySubscriberPublisher.with(2);
+        final TestBodySubscription subscription = TestBodySubscription.subscribe(publisher, "a", "b");
+        final TestBodyChunkSubscriber subscriber = this.subscribe(publisher);
+
+        subscriber.subscription.request(1);
+        subscriber.subscription.cancel();
+        subscriber.subscription.request(1);
+
+        assertEquals(true, subscription.cancelled, "cancelled");
+        assertEquals(Lists.of("onSubscribe", "a"), subscriber.events);
+    }
+
+    @Test
+    public void testRequestZeroFails() {
+        final HttpResponseBodySubscriberPublisher publisher = HttpResponseBodySubscriberPublisher.with(2);
+        final TestBodySubscription subscription = TestBodySubscription.subscribe(publisher, "a");
+        final TestBodyChunkSubscriber subscriber = this.subscribe(publisher);
+
+        subscriber.subscription.request(0);
+
+        assertEquals(true, subscription.cancelled, "cancelled");
+        assertEquals(Lists.of("onSubscribe", "onError Invalid count 0 must be greater than 0"), subscriber.events);
+    }
+
+    @Test
+    public void testSubscribeTwiceFails() {
+        final HttpResponseBodySubscriberPublisher publisher = HttpResponseBodySubscriberPublisher.with(2);
+        TestBodySubscription.subscribe(publisher, "a");
+        this.subscribe(publisher);
+
+        assertEquals(Lists.of("onSubscribe", "onError Publisher already subscribed"), this.subscribe(publisher).events);
+    }
+
+    @Test
+    public void testCancelStageBeforeSubscribeCancelsSubscription() {
+        final HttpResponseBodySubscriberPublisher publisher = HttpResponseBodySubscriberPublisher.with(2);
+        publisher.getBody().toCompletableFuture().cancel(false);
+
+        assertEquals(true, TestBodySubscription.subscribeAsync(publisher, "a").cancelled, "cancelled");
+    }
+
+    @Test
+    public void testSendAsync() throws Exception {
+        final TestHttpClientTransport transport = new TestHttpClientTransport();
+        final CompletableFuture<HttpResponse<Publisher<List<ByteBuffer>>>> future = HttpClientAjax.with(null, null, HttpClient.Redirect.NEVER, HttpClient.Version.HTTP_1_1, transport, Optional.empty(), Optional.empty(), Optional.empty(), OptionalLong.empty(), Optional.empty(), Duration.ZERO, Optional.empty(), () -> 0)
+                .sendAsync(HttpRequest.newBuilder(URI.create("http://example.com")).build(), HttpResponse.BodyHandlers.ofPublisher(3));
+
+        final TestHttpClientTransport.Exchange exchange = transport.exchange(0);
+        exchange.respond(200);
+
+        final TestBodyChunkSubscriber subscriber = new TestBodyChunkSubscriber();
+        future.get().body().subscribe(subscriber);
+        subscriber.subscription.request(10);
+        assertEquals(3L, exchange.requested, "requested");
+
+        exchange.body("abc")
+                .complete();
+        assertEquals(Lists.of("onSubscribe", "abc", "onComplete"), subscriber.events);
+    }
+
+    private TestBodyChunkSubscriber subscribe(final HttpResponseBodySubscriberPublisher publisher) {
+        final TestBodyChunkSubscriber subscriber = new TestBodyChunkSubscriber();
+        publisher.subscribe(subscriber);
+        return subscriber;
+    }
+
+    // ClassTesting2....................................................................................................
+
+    @Override
+    public Class<HttpResponseBodySubscriberPublisher> type() {
+        return HttpResponseBodySubscriberPublisher.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.Cast;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.reflect.ClassTesting2;
+import walkingkooka.reflect.JavaVisibility;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class HttpResponseBodySubscriberReplacingTest implements ClassTesting2<HttpResponseBodySubscriberReplacing<?>> {
+
+    private final static String VALUE = "replaced123";
+
+    @Test
+    public void testSubscribeRequestsAll() {
+        final TestBodySubscription subscription = TestBodySubscription.subscribeAsync(HttpResponseBodySubscriberReplacing.with(VALUE), "a");
+        assertEquals(Long.MAX_VALUE, subscription.requested);
+    }
+
+    @Test
+    public void testDrains() throws Exception {
+        final HttpResponseBodySubscriberReplacing<String> subscriber = HttpResponseBodySubscriberReplacing.with(VALUE);
+        final TestBodySubscription subscription = TestBodySubscription.subscribe(subscriber, "abc", "def", "ghi");
+
+        assertEquals(3, subscription.delivered, "delivered");
+        assertSame(VALUE, subscriber.getBody().toCompletableFuture().get());
+    }
+
+    @Test
+    public void testNullValue() throws Exception {
+        final HttpResponseBodySubscriberReplacing<String> subscriber = HttpResponseBodySubscriberReplacing.with(null);
+        TestBodySubscription.subscribe(subscriber, "abc");
+
+        assertEquals(null, subscriber.getBody().toCompletableFuture().get());
+    }
+
+    @Test
+    public void testOnNextNullFails() {
+        assertThrows(NullPointerException.class, () -> HttpResponseBodySubscriberReplacing.with(VALUE).onNext(null));
+    }
+
+    @Test
+    public void testOnNextNotDecoded() throws Exception {
+        final HttpResponseBodySubscriberReplacing<String> subscriber = HttpResponseBodySubscriberReplacing.with(VALUE);
+        TestBodySubscription.subscribeAsync(subscriber);
+
+        final ByteBuffer buffer = ByteBuffer.wrap("abc".getBytes(StandardCharsets.UTF_8));
+        subscriber.onNext(Lists.of(buffer));
+        subscriber.onComplete();
+
+        assertEquals(0, buffer.position(), "position");
+        assertSame(VALUE, subscriber.getBody().toCompletableFuture().get());
+    }
+
+    @Test
+    public void testError() {
+        final HttpResponseBodySubscriberReplacing<String> subscriber = HttpResponseBodySubscriberReplacing.with(VALUE);
+        TestBodySubscription.subscribeAsync(subscriber);
+
+        final IOException cause = new IOException("fail");
+        subscriber.onError(cause);
+
+        assertSame(cause, assertThrows(ExecutionException.class, () -> subscriber.getBody().toCompletableFuture().get()).getCause());
+    }
+
+    @Test
+    public void testCancelStageCancelsSubscription() {
+        final HttpResponseBodySubscriberReplacing<String> subscriber = HttpResponseBodySubscriberReplacing.with(VALUE);
+        final TestBodySubscription subscription = TestBodySubscription.subscribeAsync(subscriber, "abc");
+
+        subscriber.getBody().toCompletableFuture().cancel(false);
+        assertEquals(true, subscription.cancelled, "cancelled");
+    }
+
+    @Test
+    public void testSecondSubscriptionCancelled() {
+        final HttpResponseBodySubscriberReplacing<String> subscriber = HttpResponseBodySubscriberReplacing.with(VALUE);
+        TestBodySubscription.subscribeAsync(subscriber, "abc");
+
+        final TestBodySubscription second = TestBodySubscription.subscribeAsync(subscriber, "def");
+        assertEquals(true, second.cancelled, "cancelled");
+    }
+
+    @Test
+    public void testSameAsJre() throws Exception {
+        final java.net.http.HttpResponse.BodySubscriber<String> jre = java.net.http.HttpResponse.BodySubscribers.replacing(VALUE);
+        TestBodySubscription.subscribe(jre, "abc", "def");
+
+        final HttpResponseBodySubscriberReplacing<String> subscriber = HttpResponseBodySubscriberReplacing.with(VALUE);
+        TestBodySubscription.subscribe(subscriber, "abc", "def");
+
+        assertEquals(jre.getBody().toCompletableFuture().get(), subscriber.getBody().toCompletableFuture().get());
+    }
+
+    // ClassTesting2....................................................................................................
+
+    @Override
+    public Class<HttpResponseBodySubscriberReplacing<?>> type() {
+        return Cast.to(HttpResponseBodySubscriberReplacing.class);
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
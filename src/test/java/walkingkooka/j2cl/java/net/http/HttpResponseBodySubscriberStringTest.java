@@ -22,7 +22,9 @@ import walkingkooka.collect.list.Lists;
 
 import java.nio.ByteBuffer;
 import java.util.List;
+import java.util.concurrent.Flow.Subscription;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 public final class HttpResponseBodySubscriberStringTest extends HttpResponseBodySubscriberTestCase2<HttpResponseBodySubscriberString, String> {
@@ -49,6 +51,7 @@ public final class HttpResponseBodySubscriberStringTest extends HttpResponseBody
         jre.onSubscribe(subscription(jre));
         bodySubscriber.onSubscribe(subscription(bodySubscriber));
 
+        // each gets its own buffer, as both consume the bytes they decode
         final List<ByteBuffer> buffers = Lists.of(ByteBuffer.wrap(string.getBytes(UTF8)));
 
         boolean pass = false;
@@ -56,11 +59,11 @@ public final class HttpResponseBodySubscriberStringTest extends HttpResponseBody
             jre.onNext(buffers);
             pass = true;
         } catch (final AssertionError error) {
-            assertThrows(error.getClass(), () -> bodySubscriber.onNext(buffers));
+            assertThrows(error.getClass(), () -> bodySubscriber.onNext(Lists.of(ByteBuffer.wrap(string.getBytes(UTF8)))));
         }
 
         if (pass) {
-            bodySubscriber.onNext(buffers);
+            bodySubscriber.onNext(Lists.of(ByteBuffer.wrap(string.getBytes(UTF8))));
         }
 
         jre.onComplete();
@@ -69,6 +72,21 @@ public final class HttpResponseBodySubscriberStringTest extends HttpResponseBody
         this.check(jre, bodySubscriber);
     }
 
+    @Test
+    public void testOnNextByteBufferLargerThanBody() throws Exception {
+        final HttpResponseBodySubscriberString bodySubscriber = HttpResponseBodySubscriberString.with(UTF8);
+        bodySubscriber.onSubscribe(subscription(bodySubscriber));
+
+        final ByteBuffer buffer = ByteBuffer.wrap("!!abc123!!".getBytes(UTF8));
+        buffer.position(2);
+        buffer.limit(8);
+        bodySubscriber.onNext(Lists.of(buffer));
+        bodySubscriber.onComplete();
+
+        assertEquals("abc123", bodySubscriber.getBody().toCompletableFuture().get());
+        assertEquals(false, buffer.hasRemaining(), "consumed");
+    }
+
     @Test
     public void testOnNextStringNotEmpty() throws Exception {
         this.onNextStringAndCheck("1");
@@ -96,6 +114,46 @@ public final class HttpResponseBodySubscriberStringTest extends HttpResponseBody
         this.check(jre, bodySubscriber);
     }
 
+    @Test
+    public void testCancelStageCancelsSubscription() {
+        final HttpResponseBodySubscriberString bodySubscriber = HttpResponseBodySubscriberString.with(UTF8);
+        final boolean[] cancelled = new boolean[1];
+
+        bodySubscriber.onSubscribe(new Subscription() {
+            @Override
+            public void request(final long n) {
+            }
+
+            @Override
+            public void cancel() {
+                cancelled[0] = true;
+            }
+        });
+
+        bodySubscriber.getBody().toCompletableFuture().cancel(true);
+        assertEquals(true, cancelled[0], "subscription cancelled");
+    }
+
+    @Test
+    public void testCancelStageBeforeSubscribeCancelsSubscription() {
+        final HttpResponseBodySubscriberString bodySubscriber = HttpResponseBodySubscriberString.with(UTF8);
+        bodySubscriber.getBody().toCompletableFuture().cancel(true);
+
+        final boolean[] cancelled = new boolean[1];
+        bodySubscriber.onSubscribe(new Subscription() {
+            @Override
+            public void request(final long n) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public void cancel() {
+                cancelled[0] = true;
+            }
+        });
+        assertEquals(true, cancelled[0], "subscription cancelled");
+    }
+
     @Override
     public Class<HttpResponseBodySubscriberString> type() {
         return HttpResponseBodySubscriberString.class;
@@ -0,0 +1,232 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.Cast;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.map.Maps;
+import walkingkooka.j2cl.java.net.http.HttpResponse.BodyHandlers;
+import walkingkooka.j2cl.java.net.http.HttpResponse.BodySubscriber;
+import walkingkooka.j2cl.java.net.http.HttpResponse.BodySubscribers;
+import walkingkooka.reflect.ClassTesting2;
+import walkingkooka.reflect.JavaVisibility;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow.Subscriber;
+import java.util.concurrent.Flow.Subscription;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class HttpResponseBodySubscriberSubscriberTest implements ClassTesting2<HttpResponseBodySubscriberSubscriber<?, ?>> {
+
+    @Test
+    public void testWithNullSubscriberFails() {
+        assertThrows(NullPointerException.class, () -> HttpResponseBodySubscriberSubscriber.with(null, Function.identity()));
+    }
+
+    @Test
+    public void testWithNullFinisherFails() {
+        assertThrows(NullPointerException.class, () -> HttpResponseBodySubscriberSubscriber.with(new TestBodyChunkSubscriber(), null));
+    }
+
+    @Test
+    public void testSubscriberControlsDemand() throws Exception {
+        final TestBodyChunkSubscriber chunks = new TestBodyChunkSubscriber();
+        final HttpResponseBodySubscriberSubscriber<TestBodyChunkSubscriber, String> subscriber = HttpResponseBodySubscriberSubscriber.with(chunks, TestBodyChunkSubscriber::toString);
+        final TestBodySubscription subscription = TestBodySubscription.subscribe(subscriber, "abc", "def");
+
+        this.checkEvents(chunks, "onSubscribe");
+        assertEquals(0, subscription.requested, "requested");
+
+        chunks.subscription.request(1);
+        this.checkEvents(chunks, "onSubscribe", "abc");
+
+        chunks.subscription.request(1);
+        this.checkEvents(chunks, "onSubscribe", "abc", "def", "onComplete");
+        assertEquals("[onSubscribe, abc, def, onComplete]", subscriber.getBody().toCompletableFuture().get());
+    }
+
+    @Test
+    public void testChunkPassedThrough() {
+        final List<List<ByteBuffer>> received = Lists.array();
+        final BodySubscriber<Void> subscriber = BodySubscribers.fromSubscriber(new Subscriber<List<ByteBuffer>>() {
+            @Override
+            public void onSubscribe(final Subscription subscription) {
+            }
+
+            @Override
+            public void onNext(final List<ByteBuffer> chunk) {
+                received.add(chunk);
+            }
+
+            @Override
+            public void onError(final Throwable cause) {
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+        TestBodySubscription.subscribeAsync(subscriber);
+
+        final List<ByteBuffer> chunk = Lists.of(ByteBuffer.wrap("abc".getBytes(StandardCharsets.UTF_8)));
+        subscriber.onNext(chunk);
+
+        assertEquals(1, received.size());
+        assertSame(chunk, received.get(0));
+    }
+
+    @Test
+    public void testFinisherFails() {
+        final IllegalStateException cause = new IllegalStateException("bad format");
+        final TestBodyChunkSubscriber chunks = new TestBodyChunkSubscriber();
+        final HttpResponseBodySubscriberSubscriber<TestBodyChunkSubscriber, Void> subscriber = HttpResponseBodySubscriberSubscriber.with(chunks, (s) -> {
+            throw cause;
+        });
+        TestBodySubscription.subscribe(subscriber);
+        chunks.subscription.request(1);
+
+        assertSame(cause, assertThrows(ExecutionException.class, () -> subscriber.getBody().toCompletableFuture().get()).getCause());
+    }
+
+    @Test
+    public void testError() {
+        final TestBodyChunkSubscriber chunks = new TestBodyChunkSubscriber();
+        final HttpResponseBodySubscriberSubscriber<TestBodyChunkSubscriber, Void> subscriber = HttpResponseBodySubscriberSubscriber.with(chunks, (s) -> null);
+        TestBodySubscription.subscribeAsync(subscriber, "abc");
+
+        final IOException cause = new IOException("fail");
+        subscriber.onError(cause);
+        subscriber.onError(cause);
+
+        this.checkEvents(chunks, "onSubscribe", "onError fail");
+        assertSame(cause, assertThrows(ExecutionException.class, () -> subscriber.getBody().toCompletableFuture().get()).getCause());
+    }
+
+    @Test
+    public void testSubscriberCancel() {
+        final TestBodyChunkSubscriber chunks = new TestBodyChunkSubscriber();
+        final HttpResponseBodySubscriberSubscriber<TestBodyChunkSubscriber, Void> subscriber = HttpResponseBodySubscriberSubscriber.with(chunks, (s) -> null);
+        final TestBodySubscription subscription = TestBodySubscription.subscribeAsync(subscriber, "abc");
+
+        chunks.subscription.cancel();
+        assertEquals(true, subscription.cancelled, "cancelled");
+        assertThrows(CancellationException.class, () -> subscriber.getBody().toCompletableFuture().get());
+
+        chunks.subscription.request(1);
+        assertEquals(0, subscription.requested, "requested");
+    }
+
+    @Test
+    public void testCancelStageCancelsSubscription() {
+        final TestBodyChunkSubscriber chunks = new TestBodyChunkSubscriber();
+        final HttpResponseBodySubscriberSubscriber<TestBodyChunkSubscriber, Void> subscriber = HttpResponseBodySubscriberSubscriber.with(chunks, (s) -> null);
+        final TestBodySubscription subscription = TestBodySubscription.subscribeAsync(subscriber, "abc");
+
+        subscriber.getBody().toCompletableFuture().cancel(false);
+        assertEquals(true, subscription.cancelled, "cancelled");
+    }
+
+    @Test
+    public void testSecondSubscriptionCancelled() {
+        final TestBodyChunkSubscriber chunks = new TestBodyChunkSubscriber();
+        final HttpResponseBodySubscriberSubscriber<TestBodyChunkSubscriber, Void> subscriber = HttpResponseBodySubscriberSubscriber.with(chunks, (s) -> null);
+        TestBodySubscription.subscribeAsync(subscriber, "abc");
+
+        final TestBodySubscription second = TestBodySubscription.subscribeAsync(subscriber, "def");
+        assertEquals(true, second.cancelled, "cancelled");
+        this.checkEvents(chunks, "onSubscribe");
+    }
+
+    @Test
+    public void testFromSubscriberWithoutFinisher() throws Exception {
+        final TestBodyChunkSubscriber chunks = new TestBodyChunkSubscriber();
+        final BodySubscriber<Void> subscriber = BodySubscribers.fromSubscriber(chunks);
+        TestBodySubscription.subscribe(subscriber, "abc");
+
+        chunks.subscription.request(Long.MAX_VALUE);
+        this.checkEvents(chunks, "onSubscribe", "abc", "onComplete");
+        assertEquals(null, subscriber.getBody().toCompletableFuture().get());
+    }
+
+    @Test
+    public void testSameAsJre() throws Exception {
+        final TestBodyChunkSubscriber jreChunks = new TestBodyChunkSubscriber();
+        final java.net.http.HttpResponse.BodySubscriber<String> jre = java.net.http.HttpResponse.BodySubscribers.fromSubscriber(jreChunks, TestBodyChunkSubscriber::toString);
+        TestBodySubscription.subscribe(jre, "abc", "def");
+        jreChunks.subscription.request(Long.MAX_VALUE);
+
+        final TestBodyChunkSubscriber chunks = new TestBodyChunkSubscriber();
+        final BodySubscriber<String> subscriber = BodySubscribers.fromSubscriber(chunks, TestBodyChunkSubscriber::toString);
+        TestBodySubscription.subscribe(subscriber, "abc", "def");
+        chunks.subscription.request(Long.MAX_VALUE);
+
+        assertEquals(jre.getBody().toCompletableFuture().get(), subscriber.getBody().toCompletableFuture().get());
+    }
+
+    @Test
+    public void testSendAsync() throws Exception {
+        final TestBodyChunkSubscriber chunks = new TestBodyChunkSubscriber();
+        final TestHttpClientTransport transport = new TestHttpClientTransport();
+        final CompletableFuture<HttpResponse<String>> future = HttpClientAjax.with(null, null, HttpClient.Redirect.NEVER, HttpClient.Version.HTTP_1_1, transport, Optional.empty(), Optional.empty(), Optional.empty(), OptionalLong.empty(), Optional.empty(), Duration.ZERO, Optional.empty(), () -> 0)
+                .sendAsync(HttpRequest.newBuilder(URI.create("http://example.com")).build(),
+                        BodyHandlers.fromSubscriber(chunks, TestBodyChunkSubscriber::toString));
+
+        transport.exchange(0)
+                .respond(200, Maps.empty());
+        chunks.subscription.request(2);
+        assertEquals(2, transport.exchange(0).requested, "requested");
+
+        transport.exchange(0)
+                .body("abc")
+                .body("def")
+                .complete();
+        assertEquals("[onSubscribe, abc, def, onComplete]", future.get().body());
+    }
+
+    private void checkEvents(final TestBodyChunkSubscriber subscriber,
+                             final String... events) {
+        assertEquals(Lists.of(events), subscriber.events);
+    }
+
+    // ClassTesting2....................................................................................................
+
+    @Override
+    public Class<HttpResponseBodySubscriberSubscriber<?, ?>> type() {
+        return Cast.to(HttpResponseBodySubscriberSubscriber.class);
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
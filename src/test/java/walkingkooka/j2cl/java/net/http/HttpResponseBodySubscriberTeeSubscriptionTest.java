@@ -0,0 +1,73 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.j2cl.java.net.http.HttpResponse.BodySubscribers;
+import walkingkooka.reflect.ClassTesting2;
+import walkingkooka.reflect.JavaVisibility;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public final class HttpResponseBodySubscriberTeeSubscriptionTest implements ClassTesting2<HttpResponseBodySubscriberTeeSubscription> {
+
+    @Test
+    public void testRequestOverflowCapped() {
+        final HttpResponseBodySubscriberTeeSubscription subscription = HttpResponseBodySubscriberTeeSubscription.with(
+                HttpResponseBodySubscriberTee.with(BodySubscribers.ofByteArray(), Lists.empty())
+        );
+        subscription.request(Long.MAX_VALUE);
+        subscription.request(Long.MAX_VALUE);
+
+        assertEquals(Long.MAX_VALUE, subscription.demand);
+    }
+
+    @Test
+    public void testRequestAfterCancelIgnored() {
+        final HttpResponseBodySubscriberTeeSubscription subscription = HttpResponseBodySubscriberTeeSubscription.with(
+                HttpResponseBodySubscriberTee.with(BodySubscribers.ofByteArray(), Lists.empty())
+        );
+        subscription.cancel();
+        subscription.request(1);
+
+        assertEquals(0, subscription.demand);
+    }
+
+    @Test
+    public void testToString() {
+        final HttpResponseBodySubscriberTeeSubscription subscription = HttpResponseBodySubscriberTeeSubscription.with(
+                HttpResponseBodySubscriberTee.with(BodySubscribers.ofByteArray(), Lists.empty())
+        );
+        subscription.request(2);
+
+        assertEquals("demand: 2", subscription.toString());
+    }
+
+    // ClassTesting2....................................................................................................
+
+    @Override
+    public Class<HttpResponseBodySubscriberTeeSubscription> type() {
+        return HttpResponseBodySubscriberTeeSubscription.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
@@ -0,0 +1,316 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.Cast;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.map.Maps;
+import walkingkooka.j2cl.java.net.http.HttpResponse.BodySubscriber;
+import walkingkooka.j2cl.java.net.http.HttpResponse.BodySubscribers;
+import walkingkooka.reflect.ClassTesting2;
+import walkingkooka.reflect.JavaVisibility;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow.Subscriber;
+import java.util.concurrent.Flow.Subscription;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class HttpResponseBodySubscriberTeeTest implements ClassTesting2<HttpResponseBodySubscriberTee<?>> {
+
+    @Test
+    public void testWithNullPrimaryFails() {
+        assertThrows(NullPointerException.class, () -> HttpResponseBodySubscriberTee.with(null, Lists.empty()));
+    }
+
+    @Test
+    public void testWithNullOthersFails() {
+        assertThrows(NullPointerException.class, () -> HttpResponseBodySubscriberTee.with(BodySubscribers.ofByteArray(), null));
+    }
+
+    @Test
+    public void testWithNullOtherFails() {
+        assertThrows(NullPointerException.class, () -> BodySubscribers.tee(BodySubscribers.ofByteArray(), BodySubscribers.ofByteArray(), null));
+    }
+
+    @Test
+    public void testAllReceiveBody() throws Exception {
+        final BodySubscriber<byte[]> cache = BodySubscribers.ofByteArray();
+        final BodySubscriber<byte[]> audit = BodySubscribers.ofByteArray();
+        final BodySubscriber<String> tee = BodySubscribers.tee(
+                BodySubscribers.mapping(BodySubscribers.ofByteArray(), (b) -> new String(b, StandardCharsets.UTF_8)),
+                cache,
+                audit
+        );
+        TestBodySubscription.subscribe(tee, "abc", "def", "ghi");
+
+        assertEquals("abcdefghi", tee.getBody().toCompletableFuture().get());
+        assertArrayEquals(this.bytes("abcdefghi"), cache.getBody().toCompletableFuture().get(), "cache");
+        assertArrayEquals(this.bytes("abcdefghi"), audit.getBody().toCompletableFuture().get(), "audit");
+    }
+
+    @Test
+    public void testNoOthers() throws Exception {
+        final BodySubscriber<byte[]> tee = BodySubscribers.tee(BodySubscribers.ofByteArray());
+        TestBodySubscription.subscribe(tee, "abc", "def");
+
+        assertArrayEquals(this.bytes("abcdef"), tee.getBody().toCompletableFuture().get());
+    }
+
+    @Test
+    public void testSlowestGovernsDemand() {
+        final TestBodyChunkSubscriber fast = new TestBodyChunkSubscriber();
+        final TestBodyChunkSubscriber slow = new TestBodyChunkSubscriber();
+        final BodySubscriber<TestBodyChunkSubscriber> tee = BodySubscribers.tee(
+                BodySubscribers.fromSubscriber(fast, (s) -> s),
+                BodySubscribers.fromSubscriber(slow, (s) -> s)
+        );
+        final TestBodySubscription subscription = TestBodySubscription.subscribeAsync(tee, "abc", "def", "ghi");
+
+        fast.subscription.request(3);
+        assertEquals(0, subscription.requested, "requested");
+
+        slow.subscription.request(1);
+        assertEquals(1, subscription.requested, "requested");
+
+        subscription.deliver();
+        assertEquals(Lists.of("onSubscribe", "abc"), fast.events, "fast");
+        assertEquals(Lists.of("onSubscribe", "abc"), slow.events, "slow");
+
+        slow.subscription.request(5);
+        assertEquals(2, subscription.requested, "requested");
+
+        subscription.deliver();
+        assertEquals(Lists.of("onSubscribe", "abc", "def", "ghi", "onComplete"), fast.events, "fast");
+        assertEquals(Lists.of("onSubscribe", "abc", "def", "ghi", "onComplete"), slow.events, "slow");
+    }
+
+    @Test
+    public void testSyncTransportChunksInOrder() {
+        final TestBodyChunkSubscriber first = new TestBodyChunkSubscriber();
+        final TestBodyChunkSubscriber second = new TestBodyChunkSubscriber();
+        final BodySubscriber<TestBodyChunkSubscriber> tee = BodySubscribers.tee(
+                BodySubscribers.fromSubscriber(first, (s) -> s),
+                BodySubscribers.fromSubscriber(second, (s) -> s)
+        );
+        TestBodySubscription.subscribe(tee, "abc", "def", "ghi");
+
+        second.subscription.request(Long.MAX_VALUE);
+        first.subscription.request(Long.MAX_VALUE);
+
+        assertEquals(Lists.of("onSubscribe", "abc", "def", "ghi", "onComplete"), first.events, "first");
+        assertEquals(Lists.of("onSubscribe", "abc", "def", "ghi", "onComplete"), second.events, "second");
+    }
+
+    @Test
+    public void testBuffersShareBytesWithOwnPosition() {
+        final List<ByteBuffer> received = Lists.array();
+        final BodySubscriber<Void> tee = BodySubscribers.tee(
+                BodySubscribers.ofByteArrayConsumer((b) -> {
+                }),
+                BodySubscribers.fromSubscriber(new Subscriber<List<ByteBuffer>>() {
+                    @Override
+                    public void onSubscribe(final Subscription subscription) {
+                        subscription.request(1);
+                    }
+
+                    @Override
+                    public void onNext(final List<ByteBuffer> chunk) {
+                        received.addAll(chunk);
+                    }
+
+                    @Override
+                    public void onError(final Throwable cause) {
+                    }
+
+                    @Override
+                    public void onComplete() {
+                    }
+                })
+        );
+        TestBodySubscription.subscribeAsync(tee);
+
+        final ByteBuffer buffer = ByteBuffer.wrap(this.bytes("abc"));
+        tee.onNext(Lists.of(buffer));
+
+        assertEquals(0, buffer.position(), "original position");
+        assertEquals(1, received.size());
+        assertSame(buffer.array(), received.get(0).array(), "shared bytes");
+        assertEquals(0, received.get(0).position(), "own position");
+    }
+
+    @Test
+    public void testCancelledSubscriberNoLongerGovernsDemand() {
+        final TestBodyChunkSubscriber active = new TestBodyChunkSubscriber();
+        final TestBodyChunkSubscriber cancelled = new TestBodyChunkSubscriber();
+        final BodySubscriber<TestBodyChunkSubscriber> tee = BodySubscribers.tee(
+                BodySubscribers.fromSubscriber(active, (s) -> s),
+                BodySubscribers.fromSubscriber(cancelled, (s) -> s)
+        );
+        final TestBodySubscription subscription = TestBodySubscription.subscribeAsync(tee, "abc");
+
+        active.subscription.request(2);
+        assertEquals(0, subscription.requested, "requested");
+
+        cancelled.subscription.cancel();
+        assertEquals(2, subscription.requested, "requested");
+        assertEquals(false, subscription.cancelled, "cancelled");
+
+        subscription.deliver();
+        assertEquals(Lists.of("onSubscribe", "abc", "onComplete"), active.events, "active");
+        assertEquals(Lists.of("onSubscribe"), cancelled.events, "cancelled");
+    }
+
+    @Test
+    public void testAllCancelledCancelsTransport() {
+        final TestBodyChunkSubscriber first = new TestBodyChunkSubscriber();
+        final TestBodyChunkSubscriber second = new TestBodyChunkSubscriber();
+        final BodySubscriber<TestBodyChunkSubscriber> tee = BodySubscribers.tee(
+                BodySubscribers.fromSubscriber(first, (s) -> s),
+                BodySubscribers.fromSubscriber(second, (s) -> s)
+        );
+        final TestBodySubscription subscription = TestBodySubscription.subscribeAsync(tee, "abc");
+
+        first.subscription.cancel();
+        assertEquals(false, subscription.cancelled, "cancelled");
+
+        second.subscription.cancel();
+        assertEquals(true, subscription.cancelled, "cancelled");
+    }
+
+    @Test
+    public void testRequestZeroFails() {
+        final TestBodyChunkSubscriber first = new TestBodyChunkSubscriber();
+        final BodySubscriber<TestBodyChunkSubscriber> tee = BodySubscribers.tee(BodySubscribers.fromSubscriber(first, (s) -> s));
+        TestBodySubscription.subscribeAsync(tee, "abc");
+
+        assertThrows(IllegalArgumentException.class, () -> first.subscription.request(0));
+    }
+
+    @Test
+    public void testError() {
+        final BodySubscriber<byte[]> cache = BodySubscribers.ofByteArray();
+        final BodySubscriber<byte[]> tee = BodySubscribers.tee(BodySubscribers.ofByteArray(), cache);
+        TestBodySubscription.subscribeAsync(tee, "abc");
+
+        final IOException cause = new IOException("fail");
+        tee.onError(cause);
+
+        assertSame(cause, assertThrows(ExecutionException.class, () -> tee.getBody().toCompletableFuture().get()).getCause());
+        assertSame(cause, assertThrows(ExecutionException.class, () -> cache.getBody().toCompletableFuture().get()).getCause());
+    }
+
+    @Test
+    public void testCancelStageCancelsSubscription() {
+        final BodySubscriber<byte[]> tee = BodySubscribers.tee(BodySubscribers.ofByteArray(), BodySubscribers.ofByteArray());
+        final TestBodySubscription subscription = TestBodySubscription.subscribeAsync(tee, "abc");
+
+        tee.getBody().toCompletableFuture().cancel(false);
+        assertEquals(true, subscription.cancelled, "cancelled");
+    }
+
+    @Test
+    public void testCancelStageFailsOthers() {
+        final TestBodyChunkSubscriber first = new TestBodyChunkSubscriber();
+        final TestBodyChunkSubscriber second = new TestBodyChunkSubscriber();
+        final TestBodyChunkSubscriber cancelled = new TestBodyChunkSubscriber();
+        final BodySubscriber<TestBodyChunkSubscriber> tee = BodySubscribers.tee(
+                BodySubscribers.fromSubscriber(first, (s) -> s),
+                BodySubscribers.fromSubscriber(second, (s) -> s),
+                BodySubscribers.fromSubscriber(cancelled, (s) -> s)
+        );
+        final TestBodySubscription subscription = TestBodySubscription.subscribeAsync(tee, "abc");
+        cancelled.subscription.cancel();
+
+        tee.getBody().toCompletableFuture().cancel(false);
+
+        assertEquals(true, subscription.cancelled, "cancelled");
+        assertEquals(Lists.of("onSubscribe", "onError Body cancelled"), second.events, "second");
+        assertEquals(Lists.of("onSubscribe"), cancelled.events, "cancelled");
+
+        subscription.deliver();
+        assertEquals(Lists.of("onSubscribe", "onError Body cancelled"), second.events, "second after deliver");
+    }
+
+    @Test
+    public void testCancelStageFailsOthersBodies() {
+        final BodySubscriber<byte[]> cache = BodySubscribers.ofByteArray();
+        final BodySubscriber<byte[]> tee = BodySubscribers.tee(BodySubscribers.ofByteArray(), cache);
+        TestBodySubscription.subscribeAsync(tee, "abc");
+
+        tee.getBody().toCompletableFuture().cancel(false);
+
+        assertEquals("Body cancelled", assertThrows(CancellationException.class, () -> cache.getBody().toCompletableFuture().get()).getMessage());
+    }
+
+    @Test
+    public void testSecondSubscriptionCancelled() {
+        final BodySubscriber<byte[]> tee = BodySubscribers.tee(BodySubscribers.ofByteArray());
+        TestBodySubscription.subscribeAsync(tee, "abc");
+
+        final TestBodySubscription second = TestBodySubscription.subscribeAsync(tee, "def");
+        assertEquals(true, second.cancelled, "cancelled");
+    }
+
+    @Test
+    public void testSendAsync() throws Exception {
+        final BodySubscriber<byte[]> cache = BodySubscribers.ofByteArray();
+        final TestHttpClientTransport transport = new TestHttpClientTransport();
+        final CompletableFuture<HttpResponse<String>> future = HttpClientAjax.with(null, null, HttpClient.Redirect.NEVER, HttpClient.Version.HTTP_1_1, transport, Optional.empty(), Optional.empty(), Optional.empty(), OptionalLong.empty(), Optional.empty(), Duration.ZERO, Optional.empty(), () -> 0)
+                .sendAsync(HttpRequest.newBuilder(URI.create("http://example.com")).build(),
+                        (info) -> BodySubscribers.tee(BodySubscribers.ofString(StandardCharsets.UTF_8), cache));
+
+        transport.exchange(0)
+                .respond(200, Maps.empty())
+                .body("abc")
+                .complete();
+
+        assertEquals("abc", future.get().body());
+        assertArrayEquals(this.bytes("abc"), cache.getBody().toCompletableFuture().get());
+    }
+
+    private byte[] bytes(final String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    // ClassTesting2....................................................................................................
+
+    @Override
+    public Class<HttpResponseBodySubscriberTee<?>> type() {
+        return Cast.to(HttpResponseBodySubscriberTee.class);
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.reflect.ClassTesting2;
+import walkingkooka.reflect.JavaVisibility;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public final class HttpTimeoutExceptionTest implements ClassTesting2<HttpTimeoutException> {
+
+    @Test
+    public void testMessage() {
+        final HttpTimeoutException exception = new HttpTimeoutException("Message123");
+        assertEquals("Message123", exception.getMessage(), "message");
+        assertEquals(true, exception instanceof IOException, "IOException");
+    }
+
+    // ClassTesting2....................................................................................................
+
+    @Override
+    public Class<HttpTimeoutException> type() {
+        return HttpTimeoutException.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PUBLIC;
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import walkingkooka.collect.list.Lists;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.Flow.Subscriber;
+import java.util.concurrent.Flow.Subscription;
+
+/**
+ * A {@link Subscriber} of body chunks that records each event, with tests requesting chunks using its
+ * {@link #subscription}. Each chunk is recorded as its UTF-8 text.
+ */
+final class TestBodyChunkSubscriber implements Subscriber<List<ByteBuffer>> {
+
+    TestBodyChunkSubscriber() {
+        super();
+    }
+
+    @Override
+    public void onSubscribe(final Subscription subscription) {
+        this.subscription = subscription;
+        this.events.add("onSubscribe");
+    }
+
+    Subscription subscription;
+
+    @Override
+    public void onNext(final List<ByteBuffer> chunk) {
+        final StringBuilder text = new StringBuilder();
+        for (final ByteBuffer buffer : chunk) {
+            final byte[] bytes = new byte[buffer.remaining()];
+            buffer.get(bytes);
+            text.append(new String(bytes, StandardCharsets.UTF_8));
+        }
+        this.events.add(text.toString());
+    }
+
+    @Override
+    public void onError(final Throwable cause) {
+        this.events.add("onError " + cause.getMessage());
+    }
+
+    @Override
+    public void onComplete() {
+        this.events.add("onComplete");
+    }
+
+    final List<String> events = Lists.array();
+
+    @Override
+    public String toString() {
+        return this.events.toString();
+    }
+}
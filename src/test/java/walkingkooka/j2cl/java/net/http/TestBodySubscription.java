@@ -0,0 +1,112 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import walkingkooka.collect.list.Lists;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.Flow.Subscriber;
+import java.util.concurrent.Flow.Subscription;
+
+/**
+ * A {@link Subscription} that synchronously delivers one body chunk for each unit of demand, completing after the last
+ * chunk, like a loopback transport.
+ */
+final class TestBodySubscription implements Subscription {
+
+    static TestBodySubscription subscribe(final Subscriber<? super List<ByteBuffer>> subscriber,
+                                          final String... chunks) {
+        return subscribe(false, subscriber, chunks);
+    }
+
+    /**
+     * Chunks are only delivered by {@link #deliver()}, after the subscriber requests them.
+     */
+    static TestBodySubscription subscribeAsync(final Subscriber<? super List<ByteBuffer>> subscriber,
+                                               final String... chunks) {
+        return subscribe(true, subscriber, chunks);
+    }
+
+    private static TestBodySubscription subscribe(final boolean async,
+                                                  final Subscriber<? super List<ByteBuffer>> subscriber,
+                                                  final String... chunks) {
+        final TestBodySubscription subscription = new TestBodySubscription(async, subscriber, chunks);
+        subscriber.onSubscribe(subscription);
+        return subscription;
+    }
+
+    private TestBodySubscription(final boolean async,
+                                 final Subscriber<? super List<ByteBuffer>> subscriber,
+                                 final String... chunks) {
+        this.async = async;
+        this.subscriber = subscriber;
+        this.chunks = Lists.array();
+        this.chunks.addAll(Lists.of(chunks));
+    }
+
+    @Override
+    public void request(final long count) {
+        this.requested += count;
+
+        if (false == this.async) {
+            this.deliver();
+        }
+    }
+
+    /**
+     * Delivers chunks for any outstanding demand, completing after the last, for an async subscription this is the
+     * transport receiving data.
+     */
+    void deliver() {
+        while (this.requested > 0 && false == this.chunks.isEmpty() && false == this.cancelled) {
+            this.requested--;
+            this.delivered++;
+            this.subscriber.onNext(Lists.of(ByteBuffer.wrap(this.chunks.remove(0).getBytes(StandardCharsets.UTF_8))));
+        }
+        if (this.chunks.isEmpty() && false == this.cancelled && false == this.completed) {
+            this.completed = true;
+            this.subscriber.onComplete();
+        }
+    }
+
+    private final boolean async;
+
+    long requested;
+
+    int delivered;
+
+    boolean completed;
+
+    @Override
+    public void cancel() {
+        this.cancelled = true;
+    }
+
+    boolean cancelled;
+
+    private final Subscriber<? super List<ByteBuffer>> subscriber;
+
+    private final List<String> chunks;
+
+    @Override
+    public String toString() {
+        return this.chunks + " requested: " + this.requested + " cancelled: " + this.cancelled;
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import walkingkooka.collect.list.Lists;
+import walkingkooka.j2cl.java.net.http.HttpResponse.ResponseInfo;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * A {@link HttpClientLifecycleListener} that records the events it receives along with their path and time.
+ */
+final class TestHttpClientLifecycleListener implements HttpClientLifecycleListener {
+
+    TestHttpClientLifecycleListener() {
+        super();
+    }
+
+    @Override
+    public void onQueued(final HttpRequest request,
+                         final long time) {
+        this.add("onQueued", request, time);
+    }
+
+    @Override
+    public void onDispatched(final HttpRequest request,
+                             final long time) {
+        this.add("onDispatched", request, time);
+    }
+
+    @Override
+    public void onRequestBodySent(final HttpRequest request,
+                                  final long time) {
+        this.add("onRequestBodySent", request, time);
+    }
+
+    @Override
+    public void onHeadersReceived(final HttpRequest request,
+                                  final ResponseInfo info,
+                                  final long time) {
+        this.add("onHeadersReceived " + info.statusCode(), request, time);
+    }
+
+    @Override
+    public void onFirstBodyByte(final HttpRequest request,
+                                final ResponseInfo info,
+                                final long time) {
+        this.add("onFirstBodyByte " + info.statusCode(), request, time);
+    }
+
+    @Override
+    public void onComplete(final HttpRequest request,
+                           final ResponseInfo info,
+                           final long time) {
+        this.add("onComplete " + info.statusCode(), request, time);
+    }
+
+    @Override
+    public void onFailed(final HttpRequest request,
+                         final Optional<ResponseInfo> info,
+                         final Throwable cause,
+                         final long time) {
+        this.add("onFailed " + info.map(ResponseInfo::statusCode).map(String::valueOf).orElse("-") + " " + cause.getMessage(), request, time);
+    }
+
+    private void add(final String event,
+                     final HttpRequest request,
+                     final long time) {
+        this.events.add(event + " " + request.uri().getPath() + " " + time);
+    }
+
+    final List<String> events = Lists.array();
+
+    @Override
+    public String toString() {
+        return this.events.toString();
+    }
+}
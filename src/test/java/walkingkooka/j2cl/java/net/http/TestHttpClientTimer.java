@@ -0,0 +1,63 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import walkingkooka.collect.list.Lists;
+
+import java.util.List;
+
+/**
+ * A {@link HttpClientTimer} that records tasks, with tests running them. Cancelling removes the task.
+ */
+final class TestHttpClientTimer extends HttpClientTimer {
+
+    TestHttpClientTimer() {
+        super();
+    }
+
+    @Override
+    Runnable schedule(final Runnable task,
+                      final long delay) {
+        this.tasks.add(task);
+        this.delays.add(delay);
+
+        return () -> {
+            final int index = this.tasks.indexOf(task);
+            if (-1 != index) {
+                this.tasks.remove(index);
+                this.delays.remove(index);
+            }
+        };
+    }
+
+    /**
+     * Runs and removes the oldest task.
+     */
+    void run() {
+        this.delays.remove(0);
+        this.tasks.remove(0).run();
+    }
+
+    final List<Runnable> tasks = Lists.array();
+    final List<Long> delays = Lists.array();
+
+    @Override
+    public String toString() {
+        return this.delays.toString();
+    }
+}
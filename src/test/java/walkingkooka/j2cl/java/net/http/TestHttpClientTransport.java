@@ -0,0 +1,156 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.map.Maps;
+import walkingkooka.j2cl.java.net.http.HttpClient.Version;
+import walkingkooka.j2cl.java.net.http.HttpResponse.ResponseInfo;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Flow.Subscription;
+
+/**
+ * A {@link HttpClientTransport} that records each exchange, with tests driving the response.
+ */
+final class TestHttpClientTransport extends HttpClientTransport {
+
+    TestHttpClientTransport() {
+        super();
+    }
+
+    @Override
+    void send(final HttpRequest request,
+              final HttpClientTransportListener listener) {
+        final Exchange exchange = new Exchange(request, listener);
+        this.exchanges.add(exchange);
+
+        listener.onSubscribe(exchange);
+    }
+
+    Exchange exchange(final int index) {
+        return this.exchanges.get(index);
+    }
+
+    final List<Exchange> exchanges = Lists.array();
+
+    static ResponseInfo responseInfo(final int statusCode,
+                                     final Map<String, List<String>> headers) {
+        final HttpHeaders httpHeaders = HttpHeaders.of(headers, (n, v) -> true);
+
+        return new ResponseInfo() {
+            @Override
+            public HttpHeaders headers() {
+                return httpHeaders;
+            }
+
+            @Override
+            public int statusCode() {
+                return statusCode;
+            }
+
+            @Override
+            public Version version() {
+                return Version.HTTP_1_1;
+            }
+
+            @Override
+            public String toString() {
+                return statusCode + " " + httpHeaders;
+            }
+        };
+    }
+
+    static final class Exchange implements Subscription {
+
+        Exchange(final HttpRequest request,
+                 final HttpClientTransportListener listener) {
+            this.request = request;
+            this.listener = listener;
+        }
+
+        Exchange respond(final int statusCode) {
+            return this.respond(statusCode, Maps.empty());
+        }
+
+        Exchange respond(final int statusCode,
+                         final Map<String, List<String>> headers) {
+            this.listener.onResponse(responseInfo(statusCode, headers));
+            return this;
+        }
+
+        /**
+         * The body is copied into a buffer taken from the {@link HttpClientBufferPool} of the listener, if it has one.
+         */
+        Exchange body(final String body) {
+            final byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            final ByteBuffer buffer = HttpClientTransport.allocate(this.listener, bytes.length);
+            buffer.put(bytes);
+            buffer.flip();
+            return this.body(buffer);
+        }
+
+        Exchange body(final ByteBuffer... body) {
+            this.listener.onNext(Lists.of(body));
+            return this;
+        }
+
+        Exchange sendProgress(final long sent) {
+            this.listener.onSendProgress(sent);
+            return this;
+        }
+
+        Exchange receiveProgress(final long received) {
+            this.listener.onReceiveProgress(received);
+            return this;
+        }
+
+        void complete() {
+            this.listener.onComplete();
+        }
+
+        void fail(final Throwable cause) {
+            this.listener.onError(cause);
+        }
+
+        @Override
+        public void request(final long count) {
+            this.requested += count;
+        }
+
+        long requested;
+
+        @Override
+        public void cancel() {
+            this.cancelled = true;
+        }
+
+        boolean cancelled;
+
+        final HttpRequest request;
+        final HttpClientTransportListener listener;
+
+        @Override
+        public String toString() {
+            return this.request + " requested: " + this.requested + " cancelled: " + this.cancelled;
+        }
+    }
+}
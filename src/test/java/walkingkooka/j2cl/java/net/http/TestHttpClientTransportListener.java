@@ -0,0 +1,101 @@
+/*
+ * Copyright 2020 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.j2cl.java.net.http;
+
+import walkingkooka.collect.list.Lists;
+import walkingkooka.j2cl.java.net.http.HttpResponse.ResponseInfo;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Flow.Subscription;
+
+/**
+ * A {@link HttpClientTransportListener} that records the events it receives.
+ */
+final class TestHttpClientTransportListener implements HttpClientTransportListener {
+
+    TestHttpClientTransportListener() {
+        super();
+    }
+
+    @Override
+    public void onSubscribe(final Subscription subscription) {
+        this.subscription = subscription;
+        this.events.add("onSubscribe");
+    }
+
+    Subscription subscription;
+
+    @Override
+    public void onQueued() {
+        this.events.add("onQueued");
+    }
+
+    @Override
+    public void onDispatched() {
+        this.events.add("onDispatched");
+    }
+
+    @Override
+    public void onResponse(final ResponseInfo info) {
+        this.events.add("onResponse " + info.statusCode());
+    }
+
+    @Override
+    public void onSendProgress(final long sent) {
+        this.events.add("onSendProgress " + sent);
+    }
+
+    @Override
+    public void onReceiveProgress(final long received) {
+        this.events.add("onReceiveProgress " + received);
+    }
+
+    @Override
+    public Optional<HttpClientBufferPool> bufferPool() {
+        return this.bufferPool;
+    }
+
+    Optional<HttpClientBufferPool> bufferPool = Optional.empty();
+
+    @Override
+    public void onNext(final List<ByteBuffer> body) {
+        this.events.add("onNext");
+    }
+
+    @Override
+    public void onError(final Throwable cause) {
+        this.cause = cause;
+        this.events.add("onError " + cause.getMessage());
+    }
+
+    Throwable cause;
+
+    @Override
+    public void onComplete() {
+        this.events.add("onComplete");
+    }
+
+    final List<String> events = Lists.array();
+
+    @Override
+    public String toString() {
+        return this.events.toString();
+    }
+}